@@ -22,11 +22,17 @@ import android.content.Context;
 import androidx.annotation.Nullable;
 import de.dviererbe.healthtrack.application.DeleteAllUserDataOperation;
 import de.dviererbe.healthtrack.application.ExportUserDataAsJsonOperation;
+import de.dviererbe.healthtrack.application.ImportUserDataFromJsonOperation;
 import de.dviererbe.healthtrack.application.Widget;
 import de.dviererbe.healthtrack.infrastructure.*;
+import de.dviererbe.healthtrack.infrastructure.json.BloodPressureWidgetRepositoryJsonTextDeserializer;
 import de.dviererbe.healthtrack.infrastructure.json.BloodPressureWidgetRepositoryJsonTextSerializer;
+import de.dviererbe.healthtrack.infrastructure.json.IRepositoryJsonTextDeserializer;
 import de.dviererbe.healthtrack.infrastructure.json.IRepositoryJsonTextSerializer;
+import de.dviererbe.healthtrack.infrastructure.json.SpillableJsonTextFragment;
+import de.dviererbe.healthtrack.infrastructure.json.StepWidgetRepositoryJsonTextDeserializer;
 import de.dviererbe.healthtrack.infrastructure.json.StepWidgetRepositoryJsonTextSerializer;
+import de.dviererbe.healthtrack.infrastructure.json.WeightWidgetRepositoryJsonTextDeserializer;
 import de.dviererbe.healthtrack.infrastructure.json.WeightWidgetRepositoryJsonTextSerializer;
 import de.dviererbe.healthtrack.persistence.*;
 import de.dviererbe.healthtrack.persistence.repositories.*;
@@ -35,12 +41,17 @@ import de.dviererbe.healthtrack.presentation.IUIThemeSetter;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Resolves the dependencies using the application context.
  */
 public class ApplicationContextDependencyResolver implements IDependencyResolver
 {
+    private static final String TAG = "ApplicationContextDependencyResolver";
+
     private final AndroidUtilsLogger _logger;
     private final SystemDateTimeProvider _dateTimeProvider;
     private final ApplicationContextLocaleAwareValueConverter _valueConverter;
@@ -48,6 +59,11 @@ public class ApplicationContextDependencyResolver implements IDependencyResolver
     private final ViewModelFactory _viewModelFactory;
     private final AndroidUIThemeSetter _androidUIThemeSetter;
     private final SharedPreferenceRepository _sharedPreferenceRepository;
+    private final ExecutorService _backgroundExecutor;
+    private final Executor _mainThreadExecutor;
+    private final ExecutorService _exportWorkerExecutor;
+    private final ExecutorService _recordPrefetchExecutor;
+    private final SpillableJsonTextFragment.Factory _jsonTextFragmentFactory;
 
     // User Data Repositories
     public final WeightWidgetSQLiteRepository _weightWidgetRepository;
@@ -68,10 +84,44 @@ public class ApplicationContextDependencyResolver implements IDependencyResolver
         _viewModelFactory = new ViewModelFactory(this);
         _androidUIThemeSetter = new AndroidUIThemeSetter();
         _sharedPreferenceRepository = SharedPreferenceRepository.FromContext(applicationContext);
+        _backgroundExecutor = Executors.newSingleThreadExecutor();
+        _mainThreadExecutor = applicationContext.getMainExecutor();
+        _exportWorkerExecutor = Executors.newFixedThreadPool(Math.min(Runtime.getRuntime().availableProcessors(), Widget.values().length));
+        // record lists are read on their own thread so scrolling does not wait for migrations, imports or exports
+        _recordPrefetchExecutor = Executors.newSingleThreadExecutor();
+        _jsonTextFragmentFactory = new SpillableJsonTextFragment.Factory(applicationContext.getCacheDir(), SpillableJsonTextFragment.DefaultMemoryThreshold);
 
         _weightWidgetRepository = new WeightWidgetSQLiteRepository(applicationContext);
         _stepsWidgetRepository = new StepWidgetSQLiteRepository(applicationContext);
         _bloodPressureWidgetRepository = new BloodPressureWidgetSQLiteRepository(applicationContext);
+
+        // rewriting existing rows after a database upgrade must not block the app start; until it is completed
+        // the rows that were not moved yet are not visible (see IDataMigrationObservable)
+        _backgroundExecutor.execute(this::RunPendingDataMigrations);
+    }
+
+    private void RunPendingDataMigrations()
+    {
+        final SQLiteRepositoryBase<?>[] repositories =
+            {
+                _weightWidgetRepository,
+                _stepsWidgetRepository,
+                _bloodPressureWidgetRepository,
+            };
+
+        for (SQLiteRepositoryBase<?> repository : repositories)
+        {
+            try
+            {
+                repository.RunPendingDataMigrations(
+                    (databaseName, targetVersion, migratedRows, totalRows) ->
+                        _logger.LogDebug(TAG, "Migrated " + migratedRows + " of " + totalRows + " rows of " + databaseName + " to version " + targetVersion + "."));
+            }
+            catch (Exception exception)
+            {
+                _logger.LogError(TAG, "Failed to migrate data.", exception);
+            }
+        }
     }
 
     /**
@@ -118,6 +168,26 @@ public class ApplicationContextDependencyResolver implements IDependencyResolver
         return _valueConverter;
     }
 
+    /**
+     * Resolves the {@link Executor} that reads the pages of the record lists in the background.
+     *
+     * @return {@link Executor} for reading record pages
+     */
+    public Executor GetRecordPrefetchExecutor()
+    {
+        return _recordPrefetchExecutor;
+    }
+
+    /**
+     * Resolves the {@link Executor} that runs tasks on the main (UI) thread.
+     *
+     * @return {@link Executor} of the main thread
+     */
+    public Executor GetMainThreadExecutor()
+    {
+        return _mainThreadExecutor;
+    }
+
     /**
      * Initializes an {@link ExportUserDataAsJsonOperation} instance.
      *
@@ -135,14 +205,41 @@ public class ApplicationContextDependencyResolver implements IDependencyResolver
             userDataJsonFileOutputStreamProvider,
             new HashMap<Widget, IRepositoryJsonTextSerializer>()
             {{
-                put(Widget.bloodPressure, new BloodPressureWidgetRepositoryJsonTextSerializer(_bloodPressureWidgetRepository, _bloodPressureWidgetRepository));
-                put(Widget.steps, new StepWidgetRepositoryJsonTextSerializer(_stepsWidgetRepository, _stepsWidgetRepository, _stepsWidgetRepository));
-                put(Widget.weight, new WeightWidgetRepositoryJsonTextSerializer(_weightWidgetRepository, _weightWidgetRepository));
+                put(Widget.bloodPressure, new BloodPressureWidgetRepositoryJsonTextSerializer(_bloodPressureWidgetRepository, _bloodPressureWidgetRepository, _bloodPressureWidgetRepository));
+                put(Widget.steps, new StepWidgetRepositoryJsonTextSerializer(_stepsWidgetRepository, _stepsWidgetRepository, _stepsWidgetRepository, _stepsWidgetRepository));
+                put(Widget.weight, new WeightWidgetRepositoryJsonTextSerializer(_weightWidgetRepository, _weightWidgetRepository, _weightWidgetRepository));
             }},
+            _backgroundExecutor,
+            _mainThreadExecutor,
+            _exportWorkerExecutor,
+            _jsonTextFragmentFactory,
             GetDateTimeProvider(),
             GetLogger());
     }
 
+    /**
+     * Initializes an {@link ImportUserDataFromJsonOperation} instance.
+     *
+     * @param userDataJsonTextReaderProvider Mechanism for opening a json file stream.
+     * @return Initialized {@link ImportUserDataFromJsonOperation} instance.
+     */
+    @Override
+    public ImportUserDataFromJsonOperation CreateImportUserDataFromJsonOperation(
+            IUserDataJsonTextReaderProvider userDataJsonTextReaderProvider)
+    {
+        return new ImportUserDataFromJsonOperation(
+            userDataJsonTextReaderProvider,
+            new HashMap<Widget, IRepositoryJsonTextDeserializer>()
+            {{
+                put(Widget.bloodPressure, new BloodPressureWidgetRepositoryJsonTextDeserializer(_bloodPressureWidgetRepository));
+                put(Widget.steps, new StepWidgetRepositoryJsonTextDeserializer(_stepsWidgetRepository, _stepsWidgetRepository));
+                put(Widget.weight, new WeightWidgetRepositoryJsonTextDeserializer(_weightWidgetRepository));
+            }},
+            _backgroundExecutor,
+            _mainThreadExecutor,
+            GetLogger());
+    }
+
 
     /**
      * Initializes an {@link DeleteAllUserDataOperation} implementation.
@@ -232,6 +329,11 @@ public class ApplicationContextDependencyResolver implements IDependencyResolver
     @Override
     public void Dispose()
     {
+        // the background tasks use the repositories, so they are stopped first
+        _backgroundExecutor.shutdownNow();
+        _exportWorkerExecutor.shutdownNow();
+        _recordPrefetchExecutor.shutdownNow();
+
         _stepsWidgetRepository.Dispose();
         _weightWidgetRepository.Dispose();
         _bloodPressureWidgetRepository.Dispose();
@@ -20,6 +20,7 @@ package de.dviererbe.healthtrack;
 
 import de.dviererbe.healthtrack.application.DeleteAllUserDataOperation;
 import de.dviererbe.healthtrack.application.ExportUserDataAsJsonOperation;
+import de.dviererbe.healthtrack.application.ImportUserDataFromJsonOperation;
 import de.dviererbe.healthtrack.infrastructure.*;
 import de.dviererbe.healthtrack.persistence.repositories.*;
 import de.dviererbe.healthtrack.presentation.IUIThemeSetter;
@@ -68,6 +69,15 @@ public interface IDependencyResolver extends IDisposable
             final ExportUserDataAsJsonOperation.Options options,
             final IUserDataJsonTextWriterProvider userDataJsonFileOutputStreamProvider);
 
+    /**
+     * Initializes an {@link ImportUserDataFromJsonOperation} instance.
+     *
+     * @param userDataJsonTextReaderProvider Mechanism for opening a json file stream.
+     * @return Initialized {@link ImportUserDataFromJsonOperation} instance.
+     */
+    ImportUserDataFromJsonOperation CreateImportUserDataFromJsonOperation(
+            final IUserDataJsonTextReaderProvider userDataJsonTextReaderProvider);
+
     /**
      * Initializes an {@link DeleteAllUserDataOperation} instance.
      *
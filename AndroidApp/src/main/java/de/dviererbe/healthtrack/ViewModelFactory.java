@@ -23,6 +23,7 @@ import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleEventObserver;
 import androidx.lifecycle.LifecycleOwner;
 import de.dviererbe.healthtrack.infrastructure.INavigationRouter;
+import de.dviererbe.healthtrack.infrastructure.IUserDataJsonTextReaderProvider;
 import de.dviererbe.healthtrack.infrastructure.IUserDataJsonTextWriterProvider;
 import de.dviererbe.healthtrack.presentation.main.MainViewViewModel;
 import de.dviererbe.healthtrack.presentation.main.bloodpressure.BloodPressureDetailsViewModel;
@@ -33,6 +34,7 @@ import de.dviererbe.healthtrack.presentation.main.bloodpressure.BloodPressureMer
 import de.dviererbe.healthtrack.presentation.main.bloodsugar.BloodSugarListViewModel;
 import de.dviererbe.healthtrack.presentation.main.food.FoodListViewModel;
 import de.dviererbe.healthtrack.presentation.main.home.HomeViewModel;
+import de.dviererbe.healthtrack.presentation.main.home.HomeViewModel.IHomeView;
 import de.dviererbe.healthtrack.presentation.main.stepcount.StepCountDetailsViewModel;
 import de.dviererbe.healthtrack.presentation.main.stepcount.StepCountGoalDefaultEditorViewModel;
 import de.dviererbe.healthtrack.presentation.main.stepcount.StepCountListViewModel;
@@ -66,9 +68,12 @@ public class ViewModelFactory
             navigationRouter,
             DependencyResolver._bloodPressureWidgetRepository,
             DependencyResolver._bloodPressureWidgetRepository,
+            DependencyResolver._bloodPressureWidgetRepository,
             DependencyResolver.GetDateTimeConverter(),
             DependencyResolver.GetNumericValueConverter(),
             DependencyResolver.GetPreferredUnitRepository(),
+            DependencyResolver.GetRecordPrefetchExecutor(),
+            DependencyResolver.GetMainThreadExecutor(),
             DependencyResolver.GetLogger());
 
         DisposeViewModelWhenLifecycleEnds(viewModel, viewModelLifecycle);
@@ -130,19 +135,25 @@ public class ViewModelFactory
 
     public HomeViewModel CreateHomeViewModel(
             final Lifecycle viewModelLifecycle,
+            final IHomeView view,
             final INavigationRouter navigationRouter)
     {
         final HomeViewModel viewModel = new HomeViewModel(
+            view,
             navigationRouter,
             DependencyResolver.GetDateTimeProvider(),
             DependencyResolver._bloodPressureWidgetRepository,
             DependencyResolver._weightWidgetRepository,
             DependencyResolver._stepsWidgetRepository,
+            DependencyResolver._bloodPressureWidgetRepository,
+            DependencyResolver._weightWidgetRepository,
+            DependencyResolver._stepsWidgetRepository,
             DependencyResolver._stepsWidgetRepository,
             DependencyResolver.GetPreferredUnitRepository(),
             DependencyResolver.GetDateTimeConverter(),
             DependencyResolver.GetNumericValueConverter(),
             DependencyResolver.GetWidgetConfigurationRepository(),
+            DependencyResolver.GetMainThreadExecutor(),
             DependencyResolver.GetLogger());
 
         DisposeViewModelWhenLifecycleEnds(viewModel, viewModelLifecycle);
@@ -151,10 +162,12 @@ public class ViewModelFactory
     }
 
     public SettingsViewModel CreatSettingsViewModel(
-        final IUserDataJsonTextWriterProvider userDataJsonTextWriterProvider)
+        final IUserDataJsonTextWriterProvider userDataJsonTextWriterProvider,
+        final IUserDataJsonTextReaderProvider userDataJsonTextReaderProvider)
     {
         return new SettingsViewModel(
             (options) -> DependencyResolver.CreateExportUserDataAsJsonOperation(options, userDataJsonTextWriterProvider),
+            (params) -> DependencyResolver.CreateImportUserDataFromJsonOperation(userDataJsonTextReaderProvider),
             (params) -> DependencyResolver.CreateDeleteAllUserDataOperation(),
             DependencyResolver.GetLogger());
     }
@@ -171,10 +184,13 @@ public class ViewModelFactory
     public StepCountListViewModel CreateStepCountListViewModel()
     {
         return new StepCountListViewModel(
+            DependencyResolver._stepsWidgetRepository,
             DependencyResolver._stepsWidgetRepository,
             DependencyResolver._stepsWidgetRepository,
             DependencyResolver.GetDateTimeConverter(),
             DependencyResolver.GetNumericValueConverter(),
+            DependencyResolver.GetRecordPrefetchExecutor(),
+            DependencyResolver.GetMainThreadExecutor(),
             DependencyResolver.GetLogger());
     }
 
@@ -212,9 +228,12 @@ public class ViewModelFactory
                 navigationRouter,
                 DependencyResolver._weightWidgetRepository,
                 DependencyResolver._weightWidgetRepository,
+                DependencyResolver._weightWidgetRepository,
                 DependencyResolver.GetDateTimeConverter(),
                 DependencyResolver.GetNumericValueConverter(),
                 DependencyResolver.GetPreferredUnitRepository(),
+                DependencyResolver.GetRecordPrefetchExecutor(),
+                DependencyResolver.GetMainThreadExecutor(),
                 DependencyResolver.GetLogger());
 
         DisposeViewModelWhenLifecycleEnds(viewModel, viewModelLifecycle);
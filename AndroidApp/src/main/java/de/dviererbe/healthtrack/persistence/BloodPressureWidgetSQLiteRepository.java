@@ -18,20 +18,27 @@
 
 package de.dviererbe.healthtrack.persistence;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import androidx.annotation.Nullable;
 import de.dviererbe.healthtrack.domain.BloodPressureRecord;
 import de.dviererbe.healthtrack.domain.BloodPressureUnit;
 import de.dviererbe.healthtrack.domain.MedicationState;
-import de.dviererbe.healthtrack.persistence.exceptions.OneOrMorePropertiesAreInvalid;
+import de.dviererbe.healthtrack.infrastructure.json.BloodPressureWidgetRepositoryJsonTextSerializer;
+import de.dviererbe.healthtrack.persistence.exceptions.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
-public class BloodPressureWidgetSQLiteRepository extends SQLiteRepositoryBase<BloodPressureRecord>
+public class BloodPressureWidgetSQLiteRepository
+    extends
+        SQLiteRepositoryBase<BloodPressureRecord>
+    implements
+        IAggregatable<BloodPressureMeasure>
 {
     private static final String TableBloodPressure_Name = "BloodPressure";
     private static final String TableBloodPressure_Key_Id = "Id";
@@ -40,10 +47,14 @@ public class BloodPressureWidgetSQLiteRepository extends SQLiteRepositoryBase<Bl
     private static final String TableBloodPressure_Key_Unit = "Unit";
     private static final String TableBloodPressure_Key_Pulse = "Pulse";
     private static final String TableBloodPressure_Key_MedicationState = "MedicationState";
-    private static final String TableBloodPressure_Key_TimeOfMeasurementDate = "TimeOfMeasurementDate";
-    private static final String TableBloodPressure_Key_TimeOfMeasurementTime = "TimeOfMeasurementTime";
+    private static final String TableBloodPressure_Key_TimeOfMeasurement = "TimeOfMeasurement";
     private static final String TableBloodPressure_Key_Note = "Note";
 
+    /**
+     * Index on the sort key of the records (newest first), so that pages and days are read by index seeks.
+     */
+    private static final String TableBloodPressure_Index_TimeOfMeasurement = "BloodPressureTimeOfMeasurementIndex";
+
     private static final String[] TableBloodPressure_Columns =
         {
             TableBloodPressure_Key_Id,
@@ -52,19 +63,165 @@ public class BloodPressureWidgetSQLiteRepository extends SQLiteRepositoryBase<Bl
             TableBloodPressure_Key_Unit,
             TableBloodPressure_Key_Pulse,
             TableBloodPressure_Key_MedicationState,
-            TableBloodPressure_Key_TimeOfMeasurementDate,
-            TableBloodPressure_Key_TimeOfMeasurementTime,
+            TableBloodPressure_Key_TimeOfMeasurement,
+            TableBloodPressure_Key_Note,
+        };
+
+    /**
+     * The columns of the BloodPressure table before version 3 (the time of measurement was stored as ISO date and time strings).
+     */
+    private static final String[] TableBloodPressureV2_Columns =
+        {
+            TableBloodPressure_Key_Id,
+            TableBloodPressure_Key_Systolic,
+            TableBloodPressure_Key_Diastolic,
+            TableBloodPressure_Key_Unit,
+            TableBloodPressure_Key_Pulse,
+            TableBloodPressure_Key_MedicationState,
+            "TimeOfMeasurementDate",
+            "TimeOfMeasurementTime",
+            TableBloodPressure_Key_Note,
+        };
+
+    /**
+     * The columns of the BloodPressure table in version 3 (the identifier was stored as UUID string).
+     */
+    private static final String[] TableBloodPressureV3_Columns =
+        {
+            TableBloodPressure_Key_Id,
+            TableBloodPressure_Key_Systolic,
+            TableBloodPressure_Key_Diastolic,
+            TableBloodPressure_Key_Unit,
+            TableBloodPressure_Key_Pulse,
+            TableBloodPressure_Key_MedicationState,
+            TableBloodPressure_Key_TimeOfMeasurement,
             TableBloodPressure_Key_Note,
         };
 
+    /**
+     * Maps the columns of the BloodPressure table to the properties written by {@link BloodPressureWidgetRepositoryJsonTextSerializer}.
+     */
+    private static final JsonColumnMapping[] TableBloodPressure_JsonColumnMappings =
+        {
+            JsonColumnMapping.ForUuid(BloodPressureWidgetRepositoryJsonTextSerializer.IdentifierPropertyName, TableBloodPressure_Key_Id),
+            JsonColumnMapping.ForInteger(BloodPressureWidgetRepositoryJsonTextSerializer.SystolicPropertyName, TableBloodPressure_Key_Systolic),
+            JsonColumnMapping.ForInteger(BloodPressureWidgetRepositoryJsonTextSerializer.DiastolicPropertyName, TableBloodPressure_Key_Diastolic),
+            JsonColumnMapping.ForText(BloodPressureWidgetRepositoryJsonTextSerializer.UnitPropertyName, TableBloodPressure_Key_Unit),
+            JsonColumnMapping.ForInteger(BloodPressureWidgetRepositoryJsonTextSerializer.PulsePropertyName, TableBloodPressure_Key_Pulse),
+            JsonColumnMapping.ForText(BloodPressureWidgetRepositoryJsonTextSerializer.MedicationPropertyName, TableBloodPressure_Key_MedicationState),
+            JsonColumnMapping.ForDateTime(
+                BloodPressureWidgetRepositoryJsonTextSerializer.TimeOfMeasurementPropertyName,
+                TableBloodPressure_Key_TimeOfMeasurement),
+            JsonColumnMapping.ForText(BloodPressureWidgetRepositoryJsonTextSerializer.NotePropertyName, TableBloodPressure_Key_Note),
+        };
+
+    /**
+     * The per day and per month summaries of the BloodPressure table.
+     */
+    private static final SQLiteSummaryTable<BloodPressureMeasure> TableBloodPressure_Summaries =
+        new SQLiteSummaryTable<>(
+            TableBloodPressure_Name,
+            TableBloodPressure_Key_TimeOfMeasurement,
+            BloodPressureMeasure.class,
+            BloodPressureWidgetSQLiteRepository::GetMeasureExpression);
+
+    /**
+     * The ordered migrations of the database; see {@link SQLiteMigration}.
+     */
+    private static final SQLiteMigration[] Migrations =
+        {
+            // version 2: index for the ordered and per day queries
+            new SQLiteMigration(2)
+            {
+                @Override
+                public void MigrateSchema(final SQLiteDatabase database)
+                {
+                    database.execSQL(
+                        "CREATE INDEX IF NOT EXISTS " + TableBloodPressure_Index_TimeOfMeasurement +
+                        " ON " + TableBloodPressure_Name + " (TimeOfMeasurementDate,TimeOfMeasurementTime," + TableBloodPressure_Key_Id + ")");
+                }
+            },
+            // version 3: the time of measurement is stored as packed integer instead of ISO date and time strings
+            new SQLiteTableRebuildMigration(3, TableBloodPressure_Name, TableBloodPressureV2_Columns, TableBloodPressureV3_Columns)
+            {
+                @Override
+                protected void CreateTable(final SQLiteDatabase database)
+                {
+                    database.execSQL("DROP INDEX IF EXISTS " + TableBloodPressure_Index_TimeOfMeasurement);
+                    database.execSQL(
+                        "CREATE TABLE " + TableBloodPressure_Name +
+                        " (Id TEXT PRIMARY KEY NOT NULL,Systolic INTEGER NOT NULL,Diastolic INTEGER NOT NULL,Unit TEXT NOT NULL," +
+                        "Pulse INTEGER NOT NULL,MedicationState TEXT NOT NULL,TimeOfMeasurement INTEGER NOT NULL,Note TEXT NOT NULL)");
+                    database.execSQL(
+                        "CREATE INDEX " + TableBloodPressure_Index_TimeOfMeasurement + " ON " + TableBloodPressure_Name + " (TimeOfMeasurement,Id)");
+                }
+
+                @Override
+                protected void BindRow(final Cursor legacyRow, final SQLiteStatement insertStatement)
+                {
+                    final LocalDateTime timeOfMeasurement =
+                        TimeStringConversion.ConvertDateStringAndTimeStringToDateTime(legacyRow.getString(6), legacyRow.getString(7));
+
+                    insertStatement.bindString(1, legacyRow.getString(0));
+                    insertStatement.bindLong(2, legacyRow.getLong(1));
+                    insertStatement.bindLong(3, legacyRow.getLong(2));
+                    insertStatement.bindString(4, legacyRow.getString(3));
+                    insertStatement.bindLong(5, legacyRow.getLong(4));
+                    insertStatement.bindString(6, legacyRow.getString(5));
+                    insertStatement.bindLong(7, PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(timeOfMeasurement));
+                    insertStatement.bindString(8, legacyRow.getString(8));
+                }
+            },
+            // version 4: the identifier is stored as 16 byte BLOB instead of UUID string
+            new SQLiteTableRebuildMigration(4, TableBloodPressure_Name, TableBloodPressureV3_Columns, TableBloodPressure_Columns)
+            {
+                @Override
+                protected void CreateTable(final SQLiteDatabase database)
+                {
+                    database.execSQL("DROP INDEX IF EXISTS " + TableBloodPressure_Index_TimeOfMeasurement);
+                    CreateBloodPressureTable(database);
+                }
+
+                @Override
+                protected void BindRow(final Cursor legacyRow, final SQLiteStatement insertStatement)
+                {
+                    final UUID identifier = UUID.fromString(legacyRow.getString(0));
+
+                    insertStatement.bindBlob(1, UuidBlobConversion.ConvertUuidToBlob(identifier));
+                    insertStatement.bindLong(2, legacyRow.getLong(1));
+                    insertStatement.bindLong(3, legacyRow.getLong(2));
+                    insertStatement.bindString(4, legacyRow.getString(3));
+                    insertStatement.bindLong(5, legacyRow.getLong(4));
+                    insertStatement.bindString(6, legacyRow.getString(5));
+                    insertStatement.bindLong(7, legacyRow.getLong(6));
+                    insertStatement.bindString(8, legacyRow.getString(7));
+                }
+            },
+            // version 5: per day and per month summaries that are maintained by triggers
+            new SQLiteMigration(5)
+            {
+                @Override
+                public void MigrateSchema(final SQLiteDatabase database)
+                {
+                    // a single grouped pass; rows that are still moved by a pending data migration are
+                    // added to the summaries by the triggers
+                    TableBloodPressure_Summaries.Create(database);
+                    TableBloodPressure_Summaries.Rebuild(database);
+                }
+            },
+        };
+
     public BloodPressureWidgetSQLiteRepository(@Nullable Context context)
     {
         super(  context,
                 "BloodPressureWidget.db",
-                1,
+                5,
                 TableBloodPressure_Name,
                 TableBloodPressure_Key_Id,
-                TableBloodPressure_Columns);
+                TableBloodPressure_Key_TimeOfMeasurement,
+                TableBloodPressure_Columns,
+                TableBloodPressure_Summaries,
+                Migrations);
     }
 
     /**
@@ -72,59 +229,155 @@ public class BloodPressureWidgetSQLiteRepository extends SQLiteRepositoryBase<Bl
      */
     @Override
     public void onCreate(SQLiteDatabase database)
+    {
+        CreateBloodPressureTable(database);
+        TableBloodPressure_Summaries.Create(database);
+    }
+
+    private static void CreateBloodPressureTable(final SQLiteDatabase database)
     {
         final String createBloodPressureTableStatement =
             "CREATE TABLE " + TableBloodPressure_Name +
             " (" +
-                TableBloodPressure_Key_Id + " TEXT PRIMARY KEY NOT NULL," +
+                TableBloodPressure_Key_Id + " BLOB PRIMARY KEY NOT NULL," +
                 TableBloodPressure_Key_Systolic + " INTEGER NOT NULL," +
                 TableBloodPressure_Key_Diastolic + " INTEGER NOT NULL," +
                 TableBloodPressure_Key_Unit + " TEXT NOT NULL," +
                 TableBloodPressure_Key_Pulse + " INTEGER NOT NULL," +
                 TableBloodPressure_Key_MedicationState + " TEXT NOT NULL," +
-                TableBloodPressure_Key_TimeOfMeasurementDate + " TEXT NOT NULL," +
-                TableBloodPressure_Key_TimeOfMeasurementTime + " TEXT NOT NULL," +
+                TableBloodPressure_Key_TimeOfMeasurement + " INTEGER NOT NULL," +
                 TableBloodPressure_Key_Note + " TEXT NOT NULL" +
             ")";
 
         database.execSQL(createBloodPressureTableStatement);
+        CreateTimeOfMeasurementIndex(database);
+    }
+
+    private static void CreateTimeOfMeasurementIndex(final SQLiteDatabase database)
+    {
+        final String createTimeOfMeasurementIndexStatement =
+            "CREATE INDEX IF NOT EXISTS " + TableBloodPressure_Index_TimeOfMeasurement +
+            " ON " + TableBloodPressure_Name +
+            " (" +
+                TableBloodPressure_Key_TimeOfMeasurement + "," +
+                TableBloodPressure_Key_Id +
+            ")";
+
+        database.execSQL(createTimeOfMeasurementIndexStatement);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AggregateBucket> GetAggregates(
+        final BloodPressureMeasure measure,
+        final AggregationPeriod period,
+        final LocalDateTime from,
+        final LocalDateTime to)
+        throws
+            MeasureIsNull,
+            AggregationPeriodIsNull,
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        if (measure == null) throw new MeasureIsNull();
+
+        return AggregateRecords(GetMeasureExpression(measure, ""), period, from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AggregateBucket> GetSummaries(
+        final BloodPressureMeasure measure,
+        final AggregationPeriod period,
+        final LocalDate from,
+        final LocalDate to)
+        throws
+            MeasureIsNull,
+            AggregationPeriodIsNull,
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        if (measure == null) throw new MeasureIsNull();
+
+        return ReadSummaries(measure, period, from, to);
+    }
+
+    /**
+     * Gets the SQL expression that computes the specified value of a record.
+     *
+     * @param row The qualifier of the columns of the record (like {@code "NEW."}) or an empty string.
+     */
+    private static String GetMeasureExpression(final BloodPressureMeasure measure, final String row)
+    {
+        switch (measure)
+        {
+            case Systolic:
+                return row + TableBloodPressure_Key_Systolic + " * " + GetMillimetreOfMercuryFactorExpression(row);
+            case Diastolic:
+                return row + TableBloodPressure_Key_Diastolic + " * " + GetMillimetreOfMercuryFactorExpression(row);
+            case Pulse:
+                return row + TableBloodPressure_Key_Pulse;
+            default:
+                throw new IllegalArgumentException("Unknown blood pressure measure.");
+        }
+    }
+
+    /**
+     * Gets the SQL expression of the factor that converts the blood pressure of a record into millimetres of mercury.
+     */
+    private static String GetMillimetreOfMercuryFactorExpression(final String row)
+    {
+        return
+            "(CASE " + row + TableBloodPressure_Key_Unit +
+            " WHEN '" + BloodPressureUnit.Kilopascal.name() + "' THEN " + BloodPressureUnit.ToMillimetreOfMercury(1.0, BloodPressureUnit.Kilopascal) +
+            " ELSE 1.0 END)";
     }
 
     @Override
     protected BloodPressureRecord ParseRecordFromCursor(final Cursor cursor)
     {
-        final String identifier = cursor.getString(0);
+        final byte[] identifier = cursor.getBlob(0);
         final int systolic = cursor.getInt(1);
         final int diastolic = cursor.getInt(2);
         final String unit = cursor.getString(3);
         final int pulse = cursor.getInt(4);
         final String medicationState = cursor.getString(5);
-        final String dateOfMeasurement = cursor.getString(6);
-        final String timeOfMeasurement = cursor.getString(7);
-        final String note = cursor.getString(8);
+        final long timeOfMeasurement = cursor.getLong(6);
+        final String note = cursor.getString(7);
 
         return new BloodPressureRecord(
-            UUID.fromString(identifier),
+            UuidBlobConversion.ConvertBlobToUuid(identifier),
             systolic,
             diastolic,
             BloodPressureUnit.valueOf(unit),
             pulse,
             MedicationState.valueOf(medicationState),
-            TimeStringConversion.ConvertDateStringAndTimeStringToDateTime(dateOfMeasurement, timeOfMeasurement),
+            PackedDateTimeConversion.ConvertPackedDateTimeToDateTime(timeOfMeasurement),
             note);
     }
 
     @Override
-    protected Cursor QueryRecordByIdentifier(SQLiteDatabase database, String identifier)
+    protected Cursor QueryRecordByIdentifier(SQLiteDatabase database, byte[] identifier)
     {
-        return  database.query(
+        return  database.queryWithFactory(
+            /* CURSOR FACTORY (binds the WHERE parameter) */ new TypedArgumentsCursorFactory((Object)identifier),
+            /* DISTINCT */ false,
             /* FROM  */   TableBloodPressure_Name,
             /* SELECT */  TableBloodPressure_Columns,
             /* WHERE */   TableBloodPressure_Key_Id + " = ?",
-            /* WHERE parameter */ new String[] { identifier },
+            /* WHERE parameter */ null,
             /* GROUP BY */ null,
             /* HAVING */ null,
-            /* ORDER BY */ null);
+            /* ORDER BY */ null,
+            /* LIMIT */ null);
     }
 
     @Override
@@ -138,14 +391,13 @@ public class BloodPressureWidgetSQLiteRepository extends SQLiteRepositoryBase<Bl
                 TableBloodPressure_Key_Unit + "," +
                 TableBloodPressure_Key_Pulse + "," +
                 TableBloodPressure_Key_MedicationState + "," +
-                TableBloodPressure_Key_TimeOfMeasurementDate + "," +
-                TableBloodPressure_Key_TimeOfMeasurementTime + "," +
+                TableBloodPressure_Key_TimeOfMeasurement + "," +
                 TableBloodPressure_Key_Note +
             " FROM " +
                 TableBloodPressure_Name +
             " ORDER BY " +
-                TableBloodPressure_Key_TimeOfMeasurementDate + " DESC," +
-                TableBloodPressure_Key_TimeOfMeasurementTime + " DESC" +
+                TableBloodPressure_Key_TimeOfMeasurement + " DESC," +
+                TableBloodPressure_Key_Id + " DESC" +
             " LIMIT ? OFFSET ?";
 
         final String[] parameter =
@@ -158,17 +410,79 @@ public class BloodPressureWidgetSQLiteRepository extends SQLiteRepositoryBase<Bl
     }
 
     @Override
-    protected Cursor QueryRecordsForDayDescending(SQLiteDatabase database, LocalDate day)
+    protected Cursor QueryRecordsDescendingAfter(
+        final SQLiteDatabase database,
+        final long packedTimeOfMeasurement,
+        final byte[] identifier,
+        final int count)
+    {
+        final String query =
+            "SELECT " +
+                TableBloodPressure_Key_Id + "," +
+                TableBloodPressure_Key_Systolic + "," +
+                TableBloodPressure_Key_Diastolic + "," +
+                TableBloodPressure_Key_Unit + "," +
+                TableBloodPressure_Key_Pulse + "," +
+                TableBloodPressure_Key_MedicationState + "," +
+                TableBloodPressure_Key_TimeOfMeasurement + "," +
+                TableBloodPressure_Key_Note +
+            " FROM " +
+                TableBloodPressure_Name +
+            " WHERE (" +
+                TableBloodPressure_Key_TimeOfMeasurement + "," +
+                TableBloodPressure_Key_Id +
+            ") < (?, ?)" +
+            " ORDER BY " +
+                TableBloodPressure_Key_TimeOfMeasurement + " DESC," +
+                TableBloodPressure_Key_Id + " DESC" +
+            " LIMIT ?";
+
+        return TypedArgumentsCursorFactory.RawQuery(database, query, packedTimeOfMeasurement, identifier, count);
+    }
+
+    @Override
+    protected Cursor QueryRecordsForDayDescending(SQLiteDatabase database, LocalDate day, String limit)
     {
         return database.query(
                 /* FROM */ TableBloodPressure_Name,
                 /* SELECT */ TableBloodPressure_Columns,
-                /* WHERE */ TableBloodPressure_Key_TimeOfMeasurementDate + " = ?",
-                /* WHERE parameter */ new String[] { TimeStringConversion.ConvertDateToDateString(day) },
+                /* WHERE */ TableBloodPressure_Key_TimeOfMeasurement + " BETWEEN ? AND ?",
+                /* WHERE parameter */ new String[]
+                    {
+                        String.valueOf(PackedDateTimeConversion.GetFirstPackedDateTimeOfDay(day)),
+                        String.valueOf(PackedDateTimeConversion.GetLastPackedDateTimeOfDay(day))
+                    },
                 /* GROUP BY */ null,
                 /* HAVING */ null,
-                /* ORDER BY */ TableBloodPressure_Key_TimeOfMeasurementDate + " DESC," +
-                               TableBloodPressure_Key_TimeOfMeasurementTime + " DESC");
+                /* ORDER BY */ TableBloodPressure_Key_TimeOfMeasurement + " DESC," +
+                               TableBloodPressure_Key_Id + " DESC",
+                /* LIMIT */ limit);
+    }
+
+    @Override
+    protected Cursor QueryRecordsInRange(
+        final SQLiteDatabase database,
+        final long from,
+        final long to,
+        final boolean descending)
+    {
+        final String direction = descending ? " DESC" : " ASC";
+
+        return database.query(
+            /* FROM */ TableBloodPressure_Name,
+            /* SELECT */ TableBloodPressure_Columns,
+            /* WHERE */ TableBloodPressure_Key_TimeOfMeasurement + " BETWEEN ? AND ?",
+            /* WHERE parameter */ new String[] { String.valueOf(from), String.valueOf(to) },
+            /* GROUP BY */ null,
+            /* HAVING */ null,
+            /* ORDER BY */ TableBloodPressure_Key_TimeOfMeasurement + direction + "," +
+                           TableBloodPressure_Key_Id + direction);
+    }
+
+    @Override
+    protected JsonColumnMapping[] GetJsonColumnMappings()
+    {
+        return TableBloodPressure_JsonColumnMappings;
     }
 
     @Override
@@ -190,6 +504,14 @@ public class BloodPressureWidgetSQLiteRepository extends SQLiteRepositoryBase<Bl
                     "TimeOfMeasurement is null.");
         }
 
+        if (!PackedDateTimeConversion.CanBePacked(bloodPressureRecord.TimeOfMeasurement))
+        {
+            throw new OneOrMorePropertiesAreInvalid(
+                    "bloodPressureRecord",
+                    "TimeOfMeasurement",
+                    "TimeOfMeasurement is out of the supported range.");
+        }
+
         if (bloodPressureRecord.Systolic < 0)
         {
             throw new OneOrMorePropertiesAreInvalid(
@@ -240,21 +562,29 @@ public class BloodPressureWidgetSQLiteRepository extends SQLiteRepositoryBase<Bl
     }
 
     @Override
-    protected ContentValues PackageValues(BloodPressureRecord bloodPressureRecord)
+    protected UUID GetRecordIdentifier(final BloodPressureRecord bloodPressureRecord)
     {
-        final ContentValues values = new ContentValues();
-        values.put(TableBloodPressure_Key_Id, bloodPressureRecord.Identifier.toString());
-        values.put(TableBloodPressure_Key_Systolic, bloodPressureRecord.Systolic);
-        values.put(TableBloodPressure_Key_Diastolic, bloodPressureRecord.Diastolic);
-        values.put(TableBloodPressure_Key_Unit, bloodPressureRecord.Unit.name());
-        values.put(TableBloodPressure_Key_Pulse, bloodPressureRecord.Pulse);
-        values.put(TableBloodPressure_Key_MedicationState, bloodPressureRecord.Medication.name());
-        values.put(TableBloodPressure_Key_TimeOfMeasurementDate,
-                   TimeStringConversion.ConvertDateTimeToDateString(bloodPressureRecord.TimeOfMeasurement));
-        values.put(TableBloodPressure_Key_TimeOfMeasurementTime,
-                   TimeStringConversion.ConvertDateTimeToTimeString(bloodPressureRecord.TimeOfMeasurement));
-        values.put(TableBloodPressure_Key_Note, bloodPressureRecord.Note);
-
-        return values;
+        return bloodPressureRecord.Identifier;
+    }
+
+    @Override
+    protected void BindValues(final SQLiteStatement statement, final BloodPressureRecord bloodPressureRecord)
+    {
+        statement.bindBlob(1, UuidBlobConversion.ConvertUuidToBlob(bloodPressureRecord.Identifier));
+        statement.bindLong(2, bloodPressureRecord.Systolic);
+        statement.bindLong(3, bloodPressureRecord.Diastolic);
+        statement.bindString(4, bloodPressureRecord.Unit.name());
+        statement.bindLong(5, bloodPressureRecord.Pulse);
+        statement.bindString(6, bloodPressureRecord.Medication.name());
+        statement.bindLong(7, PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(bloodPressureRecord.TimeOfMeasurement));
+
+        if (bloodPressureRecord.Note == null)
+        {
+            statement.bindNull(8);
+        }
+        else
+        {
+            statement.bindString(8, bloodPressureRecord.Note);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import de.dviererbe.healthtrack.infrastructure.json.JsonPropertyName;
+
+/**
+ * Maps the column of a record table to a property of the Json object that represents a record.
+ * Used by {@link SQLiteRepositoryBase#WriteRecordsAsJson} to copy the stored values directly into the Json Text.
+ */
+public final class JsonColumnMapping
+{
+    /**
+     * The kind of the stored value and how it is written as Json value.
+     */
+    public enum ValueKind
+    {
+        /**
+         * A TEXT column that is written as Json string (or {@code null}).
+         */
+        Text,
+
+        /**
+         * An INTEGER column that is written as Json number.
+         */
+        Integer,
+
+        /**
+         * A REAL column that is written as Json number.
+         */
+        Real,
+
+        /**
+         * An INTEGER column with a packed date-time (see {@link PackedDateTimeConversion})
+         * that is written as ISO local date-time Json string.
+         */
+        DateTime,
+
+        /**
+         * A BLOB column with a 16 byte identifier (see {@link UuidBlobConversion})
+         * that is written as Json string in the canonical UUID format.
+         */
+        Uuid
+    }
+
+    public final JsonPropertyName PropertyName;
+    public final ValueKind Kind;
+    public final String ColumnName;
+
+    private JsonColumnMapping(
+        final JsonPropertyName propertyName,
+        final ValueKind kind,
+        final String columnName)
+    {
+        PropertyName = propertyName;
+        Kind = kind;
+        ColumnName = columnName;
+    }
+
+    public static JsonColumnMapping ForText(final JsonPropertyName propertyName, final String columnName)
+    {
+        return new JsonColumnMapping(propertyName, ValueKind.Text, columnName);
+    }
+
+    public static JsonColumnMapping ForInteger(final JsonPropertyName propertyName, final String columnName)
+    {
+        return new JsonColumnMapping(propertyName, ValueKind.Integer, columnName);
+    }
+
+    public static JsonColumnMapping ForReal(final JsonPropertyName propertyName, final String columnName)
+    {
+        return new JsonColumnMapping(propertyName, ValueKind.Real, columnName);
+    }
+
+    public static JsonColumnMapping ForUuid(final JsonPropertyName propertyName, final String columnName)
+    {
+        return new JsonColumnMapping(propertyName, ValueKind.Uuid, columnName);
+    }
+
+    public static JsonColumnMapping ForDateTime(final JsonPropertyName propertyName, final String columnName)
+    {
+        return new JsonColumnMapping(propertyName, ValueKind.DateTime, columnName);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Converts between {@link LocalDateTime}, {@link LocalDate} and their packed decimal {@code long} representations.
+ *
+ * A date-time is packed as {@code yyyyMMddHHmmss} (for example {@code 20220701133700}) and a day as {@code yyyyMMdd}
+ * (for example {@code 20220701}). Both keep the chronological order when compared as integers and the day of
+ * a packed date-time is derived by dividing it by {@link #DateTimesPerDay}. Fractions of a second are not stored.
+ *
+ * Used for the internal SQLite Repositories implementations.
+ */
+final class PackedDateTimeConversion
+{
+    /**
+     * The factor between a packed day and the first packed date-time of that day.
+     */
+    public static final long DateTimesPerDay = 1_000_000L;
+
+    /**
+     * The earliest year that can be packed (years with less than four digits would break the order).
+     */
+    public static final int MinimumYear = 1000;
+
+    /**
+     * The latest year that can be packed.
+     */
+    public static final int MaximumYear = 9999;
+
+    /**
+     * The number of characters that are written by {@link #FormatPackedDateTime(long, char[])}.
+     */
+    public static final int FormattedLength = 19;
+
+    private PackedDateTimeConversion()
+    {
+    }
+
+    /**
+     * Determines whether a {@link LocalDateTime} can be packed.
+     *
+     * @param dateTime the {@link LocalDateTime} instance that should be checked
+     * @return {@code true} if the year of {@code dateTime} is between {@link #MinimumYear} and {@link #MaximumYear}
+     */
+    public static boolean CanBePacked(final LocalDateTime dateTime)
+    {
+        return dateTime.getYear() >= MinimumYear && dateTime.getYear() <= MaximumYear;
+    }
+
+    /**
+     * Converts a {@link LocalDateTime} instance to its packed {@code yyyyMMddHHmmss} representation.
+     *
+     * @param dateTime the {@link LocalDateTime} instance that should be converted
+     * @return packed representation of {@code dateTime} (without the fraction of the second)
+     */
+    public static long ConvertDateTimeToPackedDateTime(final LocalDateTime dateTime)
+    {
+        return ConvertDateToPackedDay(dateTime.toLocalDate()) * DateTimesPerDay
+            + dateTime.getHour() * 10_000L
+            + dateTime.getMinute() * 100L
+            + dateTime.getSecond();
+    }
+
+    /**
+     * Converts a {@link LocalDateTime} instance that is used as bound of a query to its packed representation.
+     * Date-times before {@link #MinimumYear} and after {@link #MaximumYear} are clamped to values that are
+     * smaller and larger than all packed date-times.
+     *
+     * @param dateTime the {@link LocalDateTime} instance that should be converted
+     * @return packed representation of {@code dateTime} (without the fraction of the second)
+     */
+    public static long ConvertDateTimeToPackedBound(final LocalDateTime dateTime)
+    {
+        if (dateTime.getYear() < MinimumYear) return 0L;
+        if (dateTime.getYear() > MaximumYear) return Long.MAX_VALUE;
+
+        return ConvertDateTimeToPackedDateTime(dateTime);
+    }
+
+    /**
+     * Converts a {@link LocalDate} instance to its packed {@code yyyyMMdd} representation.
+     *
+     * @param date the {@link LocalDate} instance that should be converted
+     * @return packed representation of {@code date}
+     */
+    public static long ConvertDateToPackedDay(final LocalDate date)
+    {
+        return date.getYear() * 10_000L + date.getMonthValue() * 100L + date.getDayOfMonth();
+    }
+
+    /**
+     * Converts a {@link LocalDateTime} instance to the packed {@code yyyyMMdd} representation of its day.
+     *
+     * @param dateTime the {@link LocalDateTime} instance that should be converted
+     * @return packed representation of the day of {@code dateTime}
+     */
+    public static long ConvertDateTimeToPackedDay(final LocalDateTime dateTime)
+    {
+        return ConvertDateToPackedDay(dateTime.toLocalDate());
+    }
+
+    /**
+     * Gets the first packed date-time of a day.
+     *
+     * @param date the day
+     * @return packed representation of the start of {@code date}
+     */
+    public static long GetFirstPackedDateTimeOfDay(final LocalDate date)
+    {
+        return ConvertDateToPackedDay(date) * DateTimesPerDay;
+    }
+
+    /**
+     * Gets the last packed date-time of a day.
+     *
+     * @param date the day
+     * @return packed representation of the last second of {@code date}
+     */
+    public static long GetLastPackedDateTimeOfDay(final LocalDate date)
+    {
+        return GetFirstPackedDateTimeOfDay(date) + 235959L;
+    }
+
+    /**
+     * Converts a packed {@code yyyyMMdd} representation to a {@link LocalDate} instance.
+     *
+     * @param packedDay the packed representation
+     * @return the {@link LocalDate} instance represented by {@code packedDay}
+     */
+    public static LocalDate ConvertPackedDayToDate(final long packedDay)
+    {
+        final int day = (int)packedDay;
+
+        return LocalDate.of(day / 10_000, day / 100 % 100, day % 100);
+    }
+
+    /**
+     * Converts a packed {@code yyyyMMddHHmmss} representation to a {@link LocalDateTime} instance.
+     *
+     * @param packedDateTime the packed representation
+     * @return the {@link LocalDateTime} instance represented by {@code packedDateTime}
+     */
+    public static LocalDateTime ConvertPackedDateTimeToDateTime(final long packedDateTime)
+    {
+        final int day = (int)(packedDateTime / DateTimesPerDay);
+        final int time = (int)(packedDateTime % DateTimesPerDay);
+
+        return LocalDateTime.of(
+            day / 10_000,
+            day / 100 % 100,
+            day % 100,
+            time / 10_000,
+            time / 100 % 100,
+            time % 100);
+    }
+
+    /**
+     * Writes a packed date-time in the ISO local date-time format ({@code yyyy-MM-ddTHH:mm:ss}) into a character array.
+     *
+     * @param packedDateTime the packed representation
+     * @param buffer the character array to write to; at least {@link #FormattedLength} characters have to be available
+     * @return the count of written characters ({@link #FormattedLength})
+     */
+    public static int FormatPackedDateTime(long packedDateTime, final char[] buffer)
+    {
+        // the digits are written from the last to the first; the separators are skipped
+        for (int position = FormattedLength - 1; position >= 0; --position)
+        {
+            switch (position)
+            {
+                case 4:
+                case 7:
+                    buffer[position] = '-';
+                    break;
+                case 10:
+                    buffer[position] = 'T';
+                    break;
+                case 13:
+                case 16:
+                    buffer[position] = ':';
+                    break;
+                default:
+                    buffer[position] = (char)('0' + packedDateTime % 10);
+                    packedDateTime /= 10;
+                    break;
+            }
+        }
+
+        return FormattedLength;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * A step that migrates the database of a {@link SQLiteRepositoryBase} from the previous version to
+ * {@link #TargetVersion}.
+ *
+ * The schema is migrated synchronously while the database is opened, so {@link #MigrateSchema(SQLiteDatabase)}
+ * should only do cheap changes (like adding tables, columns or indices). Rewriting the existing rows is done by the
+ * (optional) data migration afterwards: {@link #MigrateDataChunk(SQLiteDatabase, int)} is called repeatedly in
+ * separate transactions until it reports that no rows are left. A chunk has to select the rows that still need to
+ * be migrated from the data itself (for example {@code WHERE NewColumn IS NULL}), so an interrupted data migration
+ * simply continues with the next chunk when it is started again.
+ */
+public abstract class SQLiteMigration
+{
+    /**
+     * The version of the database after the migration.
+     */
+    public final int TargetVersion;
+
+    /**
+     * Initializes a new {@link SQLiteMigration} instance.
+     *
+     * @param targetVersion The version of the database after the migration.
+     */
+    protected SQLiteMigration(final int targetVersion)
+    {
+        TargetVersion = targetVersion;
+    }
+
+    /**
+     * Migrates the schema of the database. Called inside of the transaction that upgrades the database.
+     *
+     * @param database The database that should be migrated.
+     */
+    public abstract void MigrateSchema(final SQLiteDatabase database);
+
+    /**
+     * Determines whether the existing rows have to be migrated after the schema was migrated.
+     *
+     * @return {@code true} if {@link #MigrateDataChunk(SQLiteDatabase, int)} has to be called; otherwise {@code false}.
+     */
+    public boolean HasDataMigration()
+    {
+        return false;
+    }
+
+    /**
+     * Counts the rows that still have to be migrated.
+     *
+     * @param database The database that is migrated.
+     * @return the count of rows that still have to be migrated.
+     */
+    public long CountPendingRows(final SQLiteDatabase database)
+    {
+        return 0L;
+    }
+
+    /**
+     * Migrates the next chunk of rows. Called inside of a transaction.
+     *
+     * @param database The database that is migrated.
+     * @param chunkSize The maximum count of rows that should be migrated.
+     * @return the count of migrated rows; {@code 0} when no rows are left.
+     */
+    public int MigrateDataChunk(final SQLiteDatabase database, final int chunkSize)
+    {
+        return 0;
+    }
+
+    /**
+     * Discards the rows that were not migrated yet, because all records are deleted. Called inside of a
+     * transaction; the data migration is not continued afterwards.
+     *
+     * @param database The database that is migrated.
+     */
+    public void DiscardPendingData(final SQLiteDatabase database)
+    {
+    }
+}
@@ -2,16 +2,24 @@ package de.dviererbe.healthtrack.persistence;
 
 import android.content.ContentValues;
 import android.content.Context;
+import android.database.CharArrayBuffer;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import androidx.annotation.Nullable;
 import de.dviererbe.healthtrack.IDisposable;
+import de.dviererbe.healthtrack.infrastructure.json.IJsonTextWriter;
+import de.dviererbe.healthtrack.infrastructure.json.ISerializationProgressMonitor;
+import de.dviererbe.healthtrack.infrastructure.json.JsonError;
 import de.dviererbe.healthtrack.persistence.exceptions.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class SQLiteRepositoryBase<TRecord>
     extends
@@ -20,24 +28,71 @@ public abstract class SQLiteRepositoryBase<TRecord>
         IRepositoryImplementationDetailsProvider,
         IQueryableById<TRecord>,
         IBulkQueryable<TRecord>,
+        IRecordCursorQueryable<TRecord>,
+        IRecordJsonTextWritable,
         IPerDayBulkQueryable<TRecord>,
+        ILatestRecordQueryable<TRecord>,
+        IRangeQueryable<TRecord>,
         IMergable<TRecord>,
+        IBulkMergable<TRecord>,
         IDeletableById,
         IBulkDeletable,
+        IRecordChangeObservable<TRecord>,
+        IDataMigrationObservable,
         IDisposable
 {
     private static final SQLiteDatabase.CursorFactory CursorFactory = null;
+    private static final String ReadSnapshotSavepointName = "ReadSnapshot";
+
+    private static final String TablePendingDataMigrations_Name = "PendingDataMigrations";
+    private static final String TablePendingDataMigrations_Key_Version = "Version";
+
+    /**
+     * The maximum count of rows that are migrated in a single transaction.
+     */
+    private static final int DataMigrationChunkSize = 1000;
+
+    private static final long UnknownRecordCount = -1L;
+
     protected final String DatabaseName;
     protected final int DatabaseVersion;
 
     protected final String RecordTableName;
     protected final String RecordTableIdColumnName;
+    protected final String RecordTableTimeOfMeasurementColumnName;
     protected final String[] RecordTableNameColumns;
 
+    private final SQLiteMigration[] _migrations;
+    private final SQLiteSummaryTable<?> _summaryTable;
+    private final String _mergeUpdateStatement;
+    private final String _mergeInsertStatement;
+    private final String _preMergeStatement;
+
     private boolean _disposed = false;
     private boolean _downgradeRequested = false;
     private boolean _upgradeRequested = false;
 
+    // The rows of a pending data migration are not in the record table yet and are not visible until they were
+    // moved; the operations do not wait for the data migration (it runs in the background after the app start),
+    // the user interface shows placeholders instead (see IDataMigrationObservable).
+    private final Object _dataMigrationLock = new Object();
+    private final AtomicBoolean _dataMigrationsCompleted = new AtomicBoolean(false);
+    private final List<IDataMigrationCompletedListener> _dataMigrationCompletedListeners = new CopyOnWriteArrayList<>();
+
+    // The count of records is read once and then kept up to date by the write operations of the repository,
+    // so that lists can ask for it on every layout pass without scanning the table.
+    private final Object _recordCountLock = new Object();
+    private long _recordCount = UnknownRecordCount;
+    // incremented when a write starts and when it ends and counts the writes that are in progress, so that a count
+    // that was read concurrently to a write (that may or may not include its changes) is not cached
+    private long _recordCountVersion = 0L;
+    private int _activeRecordCountChanges = 0;
+
+    private final List<IRecordChangeListener<TRecord>> _recordChangeListeners = new CopyOnWriteArrayList<>();
+    // held from the start of a write until its change was published, so that the changes are published in the
+    // order in which they were committed (the positions of a change are only valid after the previous changes)
+    private final Object _recordWriteLock = new Object();
+
     public SQLiteRepositoryBase(
         @Nullable
         final Context context,
@@ -45,15 +100,88 @@ public abstract class SQLiteRepositoryBase<TRecord>
         final int databaseVersion,
         final String recordTableName,
         final String recordTableIdColumnName,
-        final String[] recordTableNameColumns)
+        final String recordTableTimeOfMeasurementColumnName,
+        final String[] recordTableNameColumns,
+        final SQLiteSummaryTable<?> summaryTable,
+        final SQLiteMigration[] migrations)
     {
         super(context, databaseName, CursorFactory, databaseVersion);
 
+        // The migration at index i migrates from version i + 1 to version i + 2.
+        for (int index = 0; index < migrations.length; ++index)
+        {
+            if (migrations[index].TargetVersion != index + 2)
+            {
+                throw new IllegalArgumentException("The migrations are not ordered by their consecutive target versions.");
+            }
+        }
+
+        if (databaseVersion != migrations.length + 1)
+        {
+            throw new IllegalArgumentException("There is no migration for every database version.");
+        }
+
+        // Readers see a snapshot of the last commit instead of waiting for the writer (and vice versa),
+        // so a long running read (see ReadSnapshot) does not block the writes of the UI.
+        setWriteAheadLoggingEnabled(true);
+
         DatabaseName = databaseName;
         DatabaseVersion = databaseVersion;
         RecordTableName = recordTableName;
         RecordTableIdColumnName = recordTableIdColumnName;
+        RecordTableTimeOfMeasurementColumnName = recordTableTimeOfMeasurementColumnName;
         RecordTableNameColumns = recordTableNameColumns;
+        _summaryTable = summaryTable;
+        _migrations = migrations;
+
+        _mergeUpdateStatement = BuildMergeUpdateStatement();
+        _mergeInsertStatement = BuildMergeInsertStatement();
+        _preMergeStatement = GetPreMergeStatement();
+    }
+
+    private String BuildMergeUpdateStatement()
+    {
+        final StringBuilder statement = new StringBuilder("UPDATE ").append(RecordTableName).append(" SET ");
+        int identifierParameter = 0;
+        boolean firstAssignment = true;
+
+        for (int index = 0; index < RecordTableNameColumns.length; ++index)
+        {
+            if (RecordTableNameColumns[index].equals(RecordTableIdColumnName))
+            {
+                identifierParameter = index + 1;
+                continue;
+            }
+
+            if (!firstAssignment) statement.append(", ");
+            firstAssignment = false;
+
+            statement.append(RecordTableNameColumns[index]).append(" = ?").append(index + 1);
+        }
+
+        return statement
+            .append(" WHERE ").append(RecordTableIdColumnName).append(" = ?").append(identifierParameter)
+            .toString();
+    }
+
+    private String BuildMergeInsertStatement()
+    {
+        final StringBuilder columns = new StringBuilder();
+        final StringBuilder parameters = new StringBuilder();
+
+        for (int index = 0; index < RecordTableNameColumns.length; ++index)
+        {
+            if (index > 0)
+            {
+                columns.append(", ");
+                parameters.append(", ");
+            }
+
+            columns.append(RecordTableNameColumns[index]);
+            parameters.append('?').append(index + 1);
+        }
+
+        return "INSERT INTO " + RecordTableName + " (" + columns + ") VALUES (" + parameters + ")";
     }
 
     /**
@@ -67,8 +195,29 @@ public abstract class SQLiteRepositoryBase<TRecord>
     {
         if (oldVersion == newVersion) return;
 
-        _upgradeRequested = true;
-        throw new IllegalStateException("Database upgrade strategy is not implemented.");
+        try
+        {
+            CreatePendingDataMigrationsTable(database);
+
+            for (SQLiteMigration migration : _migrations)
+            {
+                if (migration.TargetVersion <= oldVersion || migration.TargetVersion > newVersion) continue;
+
+                migration.MigrateSchema(database);
+
+                if (migration.HasDataMigration())
+                {
+                    final ContentValues values = new ContentValues();
+                    values.put(TablePendingDataMigrations_Key_Version, migration.TargetVersion);
+                    database.insertOrThrow(TablePendingDataMigrations_Name, null, values);
+                }
+            }
+        }
+        catch (RuntimeException exception)
+        {
+            _upgradeRequested = true;
+            throw exception;
+        }
     }
 
     /**
@@ -86,6 +235,218 @@ public abstract class SQLiteRepositoryBase<TRecord>
         throw new IllegalStateException("Database downgrade strategy is not implemented.");
     }
 
+    /**
+     * Migrates the rows of all data migrations that were not completed yet (see {@link SQLiteMigration}).
+     * Every chunk of rows is migrated in its own transaction and published as a reset of the records, so lists
+     * show the moved records while the migration is in progress; when the thread is interrupted the migration
+     * stops after the current chunk and continues with the next call.
+     *
+     * @param progressListener Receives the progress of the data migrations; may be {@code null}.
+     * @throws RepositoryDisposed  when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    public void RunPendingDataMigrations(final DataMigrationProgressListener progressListener)
+        throws
+            RepositoryDisposed,
+            RepositoryException
+    {
+        ThrowWhenDatabaseStateIsBad();
+
+        // only one run at a time; a second run waits and finds nothing left to migrate
+        synchronized (_dataMigrationLock)
+        {
+            if (_dataMigrationsCompleted.get()) return;
+
+            try
+            {
+                final SQLiteDatabase database = getWritableDatabase();
+                CreatePendingDataMigrationsTable(database);
+
+                for (SQLiteMigration migration : _migrations)
+                {
+                    if (!migration.HasDataMigration() || !IsDataMigrationPending(database, migration)) continue;
+                    if (!RunDataMigration(database, migration, progressListener)) return;
+                }
+            }
+            catch (Exception exception)
+            {
+                throw new RepositoryException("Failed to migrate data.", exception);
+            }
+
+            CompleteDataMigrations();
+        }
+    }
+
+    /**
+     * @return {@code true} when the data migration is completed; {@code false} when the thread was interrupted.
+     */
+    private boolean RunDataMigration(
+        final SQLiteDatabase database,
+        final SQLiteMigration migration,
+        final DataMigrationProgressListener progressListener)
+        throws RepositoryException
+    {
+        final long totalRows = migration.CountPendingRows(database);
+        long migratedRows = 0L;
+
+        while (!Thread.currentThread().isInterrupted())
+        {
+            final int chunkRows;
+
+            synchronized (_recordWriteLock)
+            {
+                // the rows that were not migrated yet are discarded when all records are deleted
+                if (!IsDataMigrationPending(database, migration)) return true;
+
+                BeginRecordCountChange();
+
+                try
+                {
+                    database.beginTransaction();
+
+                    try
+                    {
+                        chunkRows = migration.MigrateDataChunk(database, DataMigrationChunkSize);
+
+                        if (chunkRows == 0)
+                        {
+                            final String whereClause = TablePendingDataMigrations_Key_Version + " = ?";
+                            final String[] whereArgs = { String.valueOf(migration.TargetVersion) };
+
+                            database.delete(TablePendingDataMigrations_Name, whereClause, whereArgs);
+                        }
+
+                        database.setTransactionSuccessful();
+                    }
+                    finally
+                    {
+                        database.endTransaction();
+                    }
+                }
+                finally
+                {
+                    // a data migration may move rows into the record table
+                    InvalidateRecordCount();
+                }
+
+                if (chunkRows == 0) return true;
+
+                NotifyRecordChangeListeners(RecordChange.CreateReset());
+            }
+
+            migratedRows += chunkRows;
+
+            if (progressListener != null)
+            {
+                progressListener.DataMigrationProgressed(DatabaseName, migration.TargetVersion, migratedRows, totalRows);
+            }
+        }
+
+        return false;
+    }
+
+    private boolean IsDataMigrationPending(final SQLiteDatabase database, final SQLiteMigration migration)
+        throws RepositoryException
+    {
+        final String selectPendingQuery =
+            "SELECT COUNT(*) FROM " + TablePendingDataMigrations_Name +
+            " WHERE " + TablePendingDataMigrations_Key_Version + " = ?";
+        final String[] selectionArgs = { String.valueOf(migration.TargetVersion) };
+
+        try (Cursor cursor = database.rawQuery(selectPendingQuery, selectionArgs))
+        {
+            return ReadScalar(cursor) > 0L;
+        }
+    }
+
+    /**
+     * Determines whether a data migration is pending; some of the existing records are not visible until the
+     * data migration moved them (see {@link #RunPendingDataMigrations(DataMigrationProgressListener)}).
+     * Does not wait for the data migration.
+     *
+     * @return {@code true} if some of the existing records may not be visible yet; otherwise {@code false}.
+     * @throws RepositoryDisposed  when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    @Override
+    public boolean IsDataMigrationPending()
+        throws
+            RepositoryDisposed,
+            RepositoryException
+    {
+        ThrowWhenDatabaseStateIsBad();
+
+        if (_dataMigrationsCompleted.get()) return false;
+
+        final String selectPendingTableQuery =
+            "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?";
+        final String selectPendingQuery =
+            "SELECT COUNT(*) FROM " + TablePendingDataMigrations_Name;
+
+        try
+        {
+            // the database is upgraded when it is opened, so no data migration is added afterwards
+            final SQLiteDatabase database = getReadableDatabase();
+
+            try (Cursor cursor = database.rawQuery(selectPendingTableQuery, new String[] { TablePendingDataMigrations_Name }))
+            {
+                if (ReadScalar(cursor) > 0L)
+                {
+                    try (Cursor pendingCursor = database.rawQuery(selectPendingQuery, null))
+                    {
+                        if (ReadScalar(pendingCursor) > 0L) return true;
+                    }
+                }
+            }
+        }
+        catch (Exception exception)
+        {
+            throw new RepositoryException("Failed to read the pending data migrations.", exception);
+        }
+
+        CompleteDataMigrations();
+        return false;
+    }
+
+    /**
+     * Registers a listener that is notified when the pending data migration is completed.
+     *
+     * @param listener The listener that should be notified.
+     * @return a {@link IDisposable} that unregisters the listener when it is disposed.
+     */
+    @Override
+    public IDisposable RegisterDataMigrationCompletedListener(final IDataMigrationCompletedListener listener)
+    {
+        if (listener == null) throw new IllegalArgumentException("listener is null");
+
+        _dataMigrationCompletedListeners.add(listener);
+        return () -> _dataMigrationCompletedListeners.remove(listener);
+    }
+
+    /**
+     * Marks the data migrations as completed and notifies the listeners, unless that was already done.
+     */
+    private void CompleteDataMigrations()
+    {
+        if (!_dataMigrationsCompleted.compareAndSet(false, true)) return;
+
+        for (IDataMigrationCompletedListener listener : _dataMigrationCompletedListeners)
+        {
+            listener.OnDataMigrationCompleted();
+        }
+    }
+
+    private static void CreatePendingDataMigrationsTable(final SQLiteDatabase database)
+    {
+        final String createPendingDataMigrationsTableStatement =
+            "CREATE TABLE IF NOT EXISTS " + TablePendingDataMigrations_Name +
+            " (" +
+                TablePendingDataMigrations_Key_Version + " INTEGER PRIMARY KEY NOT NULL" +
+            ")";
+
+        database.execSQL(createPendingDataMigrationsTableStatement);
+    }
+
     @Override
     public List<Map<String, String>> GetImplementationDetails()
     {
@@ -100,7 +461,8 @@ public abstract class SQLiteRepositoryBase<TRecord>
     }
 
     /**
-     * Gets the count of all stored records.
+     * Gets the count of all stored records. The count is only read from the database the first time (and after
+     * it was invalidated); afterwards it is kept up to date by the write operations of this repository.
      *
      * @return scalar count of all stored records.
      * @throws RepositoryDisposed  when the repository was already disposed.
@@ -111,6 +473,17 @@ public abstract class SQLiteRepositoryBase<TRecord>
     {
         ThrowWhenDatabaseStateIsBad();
 
+        final long recordCountVersion;
+
+        synchronized (_recordCountLock)
+        {
+            if (_recordCount != UnknownRecordCount) return _recordCount;
+
+            recordCountVersion = _recordCountVersion;
+        }
+
+        final long recordCount;
+
         try
         {
             final String selectCountQuery = "SELECT COUNT(*) FROM " + RecordTableName;
@@ -119,13 +492,135 @@ public abstract class SQLiteRepositoryBase<TRecord>
 
             try (Cursor cursor = database.rawQuery(selectCountQuery, null))
             {
-                return ReadScalar(cursor);
+                recordCount = ReadScalar(cursor);
             }
         }
         catch (Exception exception)
         {
             throw new RepositoryException("Failed to read record count.", exception);
         }
+
+        synchronized (_recordCountLock)
+        {
+            // the read count may include a write that overlapped the read, which is added to the count again
+            // when it ends
+            if (recordCountVersion == _recordCountVersion && _activeRecordCountChanges == 0)
+            {
+                _recordCount = recordCount;
+            }
+        }
+
+        return recordCount;
+    }
+
+    /**
+     * Marks the start of a write that may change the count of records. Has to be called before the transaction
+     * is started and has to be followed by {@link #ChangeRecordCount(long)}, {@link #ResetRecordCount()} or
+     * {@link #InvalidateRecordCount()} when the write ended.
+     */
+    private void BeginRecordCountChange()
+    {
+        synchronized (_recordCountLock)
+        {
+            ++_recordCountVersion;
+            ++_activeRecordCountChanges;
+        }
+    }
+
+    /**
+     * Ends a write (see {@link #BeginRecordCountChange()}) and adds its difference to the cached count of records
+     * (if it is known).
+     *
+     * @param difference The count of created records minus the count of deleted records.
+     */
+    private void ChangeRecordCount(final long difference)
+    {
+        synchronized (_recordCountLock)
+        {
+            ++_recordCountVersion;
+            --_activeRecordCountChanges;
+
+            if (_recordCount != UnknownRecordCount)
+            {
+                _recordCount += difference;
+            }
+        }
+    }
+
+    /**
+     * Ends a write (see {@link #BeginRecordCountChange()}) that deleted all records.
+     */
+    private void ResetRecordCount()
+    {
+        synchronized (_recordCountLock)
+        {
+            ++_recordCountVersion;
+            --_activeRecordCountChanges;
+            _recordCount = 0L;
+        }
+    }
+
+    /**
+     * Ends a write (see {@link #BeginRecordCountChange()}) and discards the cached count of records; it is read
+     * from the database the next time it is requested. Has to be called after writes whose effect on the count
+     * of records is not known.
+     */
+    private void InvalidateRecordCount()
+    {
+        synchronized (_recordCountLock)
+        {
+            ++_recordCountVersion;
+            --_activeRecordCountChanges;
+            _recordCount = UnknownRecordCount;
+        }
+    }
+
+    /**
+     * Registers a listener that is notified about every change of the stored records.
+     *
+     * @param listener The listener that should be notified.
+     * @return a {@link IDisposable} that unregisters the listener when it is disposed.
+     */
+    @Override
+    public IDisposable RegisterRecordChangeListener(final IRecordChangeListener<TRecord> listener)
+    {
+        if (listener == null) throw new IllegalArgumentException("listener is null");
+
+        _recordChangeListeners.add(listener);
+        return () -> _recordChangeListeners.remove(listener);
+    }
+
+    private void NotifyRecordChangeListeners(final RecordChange<TRecord> change)
+    {
+        for (IRecordChangeListener<TRecord> listener : _recordChangeListeners)
+        {
+            listener.OnRecordChanged(change);
+        }
+    }
+
+    /**
+     * Gets the position of a record in descending order (the count of records that precede it).
+     * The positions are only needed for the change notifications, so nothing is read if no listener is registered.
+     *
+     * @param database The database the record is stored in.
+     * @param identifier The identifier of the record.
+     * @return the position of the record or {@code -1} if no listener is registered.
+     */
+    private long ReadRecordPosition(final SQLiteDatabase database, final byte[] identifier)
+        throws RepositoryException
+    {
+        if (_recordChangeListeners.isEmpty()) return -1L;
+
+        final String selectPositionQuery =
+            "SELECT COUNT(*) FROM " + RecordTableName +
+            " WHERE (" + RecordTableTimeOfMeasurementColumnName + "," + RecordTableIdColumnName + ") > " +
+            "(SELECT " + RecordTableTimeOfMeasurementColumnName + "," + RecordTableIdColumnName +
+            " FROM " + RecordTableName + " WHERE " + RecordTableIdColumnName + " = ?)";
+
+        try (Cursor cursor = TypedArgumentsCursorFactory.RawQuery(database, selectPositionQuery, (Object)identifier))
+        {
+            return ReadScalar(cursor);
+        }
     }
 
     /**
@@ -148,9 +643,9 @@ public abstract class SQLiteRepositoryBase<TRecord>
         ThrowWhenDatabaseStateIsBad();
         if (identifier == null) throw new RecordIdentifierIsNull();
 
-        final String identifierAsString = identifier.toString();
+        final byte[] identifierAsBlob = UuidBlobConversion.ConvertUuidToBlob(identifier);
 
-        return GetRecord(identifierAsString, database -> QueryRecordByIdentifier(database, identifierAsString));
+        return GetRecord(identifier.toString(), database -> QueryRecordByIdentifier(database, identifierAsBlob));
     }
 
     protected TRecord GetRecord(final String identifier, final CursorProvider cursorProvider) throws
@@ -224,32 +719,446 @@ public abstract class SQLiteRepositoryBase<TRecord>
     }
 
     /**
-     * Gets all records for a specified day in descending order sorted by the time of measurement.
+     * Gets a sequence of records with the maximum length of {@code count} in descending order sorted by
+     * the time of measurement (and the identifier) that directly follow the record with the specified
+     * {@code timeOfMeasurement} and {@code identifier} in that order.
      *
-     * @param day The specific day to get the records for.
-     * @return All records for the specified day in descending order sorted by the time of measurement.
-     * @throws DayIsNull           when {@code day} is {@code null}.
-     * @throws RepositoryDisposed  when the repository was already disposed.
-     * @throws RepositoryException when an unexpected I/O error occurs.
+     * @param timeOfMeasurement time of measurement of the last record of the previous sequence
+     * @param identifier        identifier of the last record of the previous sequence
+     * @param count             maximum number of record to be read from the repository
+     * @return read sequence of records
+     * @throws TimeOfMeasurementIsNull when {@code timeOfMeasurement} is {@code null}.
+     * @throws RecordIdentifierIsNull  when {@code identifier} is {@code null}.
+     * @throws CountIsNotPositive      when {@code count} is not positive.
+     * @throws RepositoryDisposed      when the repository was already disposed.
+     * @throws RepositoryException     when an unexpected I/O error occurs.
      */
     @Override
-    public List<TRecord> GetRecordsForDayDescending(final LocalDate day)
+    public List<TRecord> GetRecordsDescendingAfter(
+        final LocalDateTime timeOfMeasurement,
+        final UUID identifier,
+        final int count)
         throws
-            DayIsNull,
+            TimeOfMeasurementIsNull,
+            RecordIdentifierIsNull,
+            CountIsNotPositive,
             RepositoryDisposed,
             RepositoryException
     {
         ThrowWhenDatabaseStateIsBad();
-        if (day == null) throw new DayIsNull();
+        if (timeOfMeasurement == null) throw new TimeOfMeasurementIsNull();
+        if (identifier == null) throw new RecordIdentifierIsNull();
+        if (count <= 0) throw new CountIsNotPositive();
+
+        final long packedTimeOfMeasurement = PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(timeOfMeasurement);
+        final byte[] identifierAsBlob = UuidBlobConversion.ConvertUuidToBlob(identifier);
 
-        return GetRecords(database -> QueryRecordsForDayDescending(database, day));
+        return GetRecords(database -> QueryRecordsDescendingAfter(database, packedTimeOfMeasurement, identifierAsBlob, count));
     }
 
-    protected List<TRecord> GetRecords(CursorProvider cursorProvider) throws RepositoryException
+    /**
+     * Opens a cursor over all stored records in descending order sorted by the time of measurement.
+     * Records with the same time of measurement are sorted by their identifier in descending order.
+     * All pages are read from the same {@link ReadSnapshot}, so records that are written while the
+     * cursor is open are neither returned twice nor skipped.
+     *
+     * @return a forward-only cursor over all records that has to be closed by the caller.
+     * @throws RepositoryDisposed  when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    @Override
+    public IRecordCursor<TRecord> OpenRecordsDescending()
+        throws
+            RepositoryDisposed,
+            RepositoryException
     {
-        try
-        {
-            final SQLiteDatabase database = getReadableDatabase();
+        ThrowWhenDatabaseStateIsBad();
+
+        return new KeysetRecordCursor(OpenReadSnapshot());
+    }
+
+    /**
+     * Writes all stored records as a Json array of objects in descending order sorted by the time of measurement.
+     * The column values are copied directly into the {@code jsonTextWriter} as described by
+     * {@link #GetJsonColumnMappings()}; no records, {@link UUID}s, {@link LocalDateTime}s or {@link String}s are created.
+     * All records are read from the same {@link ReadSnapshot}.
+     *
+     * @param jsonTextWriter  The {@link IJsonTextWriter} to write the records to.
+     * @param progressMonitor The {@link ISerializationProgressMonitor} that is informed about every written record.
+     * @throws RepositoryDisposed  when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs while reading the records.
+     * @throws JsonError           when the Json array can not be written at the current position of the {@code jsonTextWriter}.
+     * @throws IOException         when an I/O error occurs while writing the Json Text.
+     */
+    @Override
+    public void WriteRecordsAsJson(
+        final IJsonTextWriter jsonTextWriter,
+        final ISerializationProgressMonitor progressMonitor)
+        throws
+            RepositoryDisposed,
+            RepositoryException,
+            JsonError,
+            IOException
+    {
+        ThrowWhenDatabaseStateIsBad();
+
+        final JsonRowWriter rowWriter = new JsonRowWriter(GetJsonColumnMappings());
+
+        jsonTextWriter.WriteStartArray();
+
+        try (final KeysetPageReader reader = new KeysetPageReader(OpenReadSnapshot()))
+        {
+            Cursor row;
+
+            while ((row = reader.MoveNext()) != null)
+            {
+                try
+                {
+                    rowWriter.WriteRow(jsonTextWriter, row);
+                }
+                catch (JsonError | IOException exception)
+                {
+                    throw exception;
+                }
+                catch (Exception exception)
+                {
+                    throw new RepositoryException("Failed to read records.", exception);
+                }
+
+                progressMonitor.RecordWritten();
+            }
+        }
+
+        jsonTextWriter.WriteEndArray();
+    }
+
+    /**
+     * Gets all records for a specified day in descending order sorted by the time of measurement.
+     *
+     * @param day The specific day to get the records for.
+     * @return All records for the specified day in descending order sorted by the time of measurement.
+     * @throws DayIsNull           when {@code day} is {@code null}.
+     * @throws RepositoryDisposed  when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    @Override
+    public List<TRecord> GetRecordsForDayDescending(final LocalDate day)
+        throws
+            DayIsNull,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        ThrowWhenDatabaseStateIsBad();
+        if (day == null) throw new DayIsNull();
+
+        return GetRecords(database -> QueryRecordsForDayDescending(database, day, null));
+    }
+
+    /**
+     * Gets the record of a specified day with the latest time of measurement. Only the first row of the
+     * records of the day in descending order is read, which SQLite finds with a single seek in the index
+     * of the time of measurement.
+     *
+     * @param day The specific day to get the latest record for.
+     * @return the latest record of the specified day or {@code null} if there is no record for the day.
+     * @throws DayIsNull           when {@code day} is {@code null}.
+     * @throws RepositoryDisposed  when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    @Override
+    public TRecord GetLatestRecordOfDay(final LocalDate day)
+        throws
+            DayIsNull,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        ThrowWhenDatabaseStateIsBad();
+        if (day == null) throw new DayIsNull();
+
+        final List<TRecord> records = GetRecords(database -> QueryRecordsForDayDescending(database, day, "1"));
+
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    /**
+     * Gets all records with a time of measurement between {@code from} and {@code to} (both inclusive)
+     * in ascending order sorted by the time of measurement.
+     *
+     * @param from The earliest time of measurement of the records.
+     * @param to The latest time of measurement of the records.
+     * @return All records of the time range in ascending order sorted by the time of measurement.
+     * @throws TimeRangeBoundIsNull      when {@code from} or {@code to} is {@code null}.
+     * @throws TimeRangeStartIsAfterEnd  when {@code from} is after {@code to}.
+     * @throws RepositoryDisposed        when the repository was already disposed.
+     * @throws RepositoryException       when an unexpected I/O error occurs.
+     */
+    @Override
+    public List<TRecord> GetRecordsInRangeAscending(final LocalDateTime from, final LocalDateTime to)
+        throws
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        return GetRecordsInRange(from, to, false);
+    }
+
+    /**
+     * Gets all records with a time of measurement between {@code from} and {@code to} (both inclusive)
+     * in descending order sorted by the time of measurement.
+     *
+     * @param from The earliest time of measurement of the records.
+     * @param to The latest time of measurement of the records.
+     * @return All records of the time range in descending order sorted by the time of measurement.
+     * @throws TimeRangeBoundIsNull      when {@code from} or {@code to} is {@code null}.
+     * @throws TimeRangeStartIsAfterEnd  when {@code from} is after {@code to}.
+     * @throws RepositoryDisposed        when the repository was already disposed.
+     * @throws RepositoryException       when an unexpected I/O error occurs.
+     */
+    @Override
+    public List<TRecord> GetRecordsInRangeDescending(final LocalDateTime from, final LocalDateTime to)
+        throws
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        return GetRecordsInRange(from, to, true);
+    }
+
+    private List<TRecord> GetRecordsInRange(final LocalDateTime from, final LocalDateTime to, final boolean descending)
+        throws
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        ThrowWhenDatabaseStateIsBad();
+        ThrowWhenTimeRangeIsInvalid(from, to);
+
+        final long packedFrom = PackedDateTimeConversion.ConvertDateTimeToPackedBound(from);
+        final long packedTo = PackedDateTimeConversion.ConvertDateTimeToPackedBound(to);
+
+        return GetRecords(database -> QueryRecordsInRange(database, packedFrom, packedTo, descending));
+    }
+
+    private static void ThrowWhenTimeRangeIsInvalid(final LocalDateTime from, final LocalDateTime to)
+        throws
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd
+    {
+        if (from == null) throw new TimeRangeBoundIsNull("from");
+        if (to == null) throw new TimeRangeBoundIsNull("to");
+        if (from.isAfter(to)) throw new TimeRangeStartIsAfterEnd();
+    }
+
+    /**
+     * Gets the statistics of a value of the records with a time of measurement between {@code from} and {@code to}
+     * (both inclusive) for every non-empty bucket of the specified period. The records are grouped by SQLite,
+     * so only one row per bucket is read.
+     *
+     * @param valueExpression The SQL expression of the value that should be aggregated; it may refer to the columns
+     *                        of the record table (for example to convert the values into the same unit).
+     * @param period The length of the buckets.
+     * @param from The earliest time of measurement of the records.
+     * @param to The latest time of measurement of the records.
+     * @return The statistics of the non-empty buckets in ascending order sorted by their start.
+     * @throws AggregationPeriodIsNull   when {@code period} is {@code null}.
+     * @throws TimeRangeBoundIsNull      when {@code from} or {@code to} is {@code null}.
+     * @throws TimeRangeStartIsAfterEnd  when {@code from} is after {@code to}.
+     * @throws RepositoryDisposed        when the repository was already disposed.
+     * @throws RepositoryException       when an unexpected I/O error occurs.
+     */
+    protected List<AggregateBucket> AggregateRecords(
+        final String valueExpression,
+        final AggregationPeriod period,
+        final LocalDateTime from,
+        final LocalDateTime to)
+        throws
+            AggregationPeriodIsNull,
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        ThrowWhenDatabaseStateIsBad();
+        if (period == null) throw new AggregationPeriodIsNull();
+        ThrowWhenTimeRangeIsInvalid(from, to);
+
+        final long packedFrom = PackedDateTimeConversion.ConvertDateTimeToPackedBound(from);
+        final long packedTo = PackedDateTimeConversion.ConvertDateTimeToPackedBound(to);
+
+        final String aggregateQuery =
+            "SELECT " +
+                GetBucketStartExpression(RecordTableTimeOfMeasurementColumnName, period) + " AS BucketStart," +
+                "COUNT(*)," +
+                "TOTAL(" + valueExpression + ")," +
+                "MIN(" + valueExpression + ")," +
+                "MAX(" + valueExpression + ")" +
+            " FROM " +
+                RecordTableName +
+            " WHERE " +
+                RecordTableTimeOfMeasurementColumnName + " BETWEEN ? AND ?" +
+            " GROUP BY BucketStart" +
+            " ORDER BY BucketStart";
+
+        try
+        {
+            final SQLiteDatabase database = getReadableDatabase();
+
+            try (final Cursor cursor = TypedArgumentsCursorFactory.RawQuery(database, aggregateQuery, packedFrom, packedTo))
+            {
+                return ReadAggregateBuckets(cursor);
+            }
+        }
+        catch (Exception exception)
+        {
+            throw new RepositoryException("Failed to aggregate records.", exception);
+        }
+    }
+
+    /**
+     * Gets the statistics of a value of the records for every non-empty bucket of the specified period that
+     * overlaps the days from {@code from} to {@code to} (both inclusive). The statistics are read from the
+     * summary table (see {@link SQLiteSummaryTable}), so only a handful of precomputed rows are read
+     * regardless of the count of records; they always cover the whole bucket.
+     *
+     * @param measure The value of the records whose statistics should be read.
+     * @param period The length of the buckets.
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @return The statistics of the non-empty buckets in ascending order sorted by their start.
+     * @throws AggregationPeriodIsNull   when {@code period} is {@code null}.
+     * @throws TimeRangeBoundIsNull      when {@code from} or {@code to} is {@code null}.
+     * @throws TimeRangeStartIsAfterEnd  when {@code from} is after {@code to}.
+     * @throws RepositoryDisposed        when the repository was already disposed.
+     * @throws RepositoryException       when an unexpected I/O error occurs.
+     */
+    protected List<AggregateBucket> ReadSummaries(
+        final Enum<?> measure,
+        final AggregationPeriod period,
+        final LocalDate from,
+        final LocalDate to)
+        throws
+            AggregationPeriodIsNull,
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        ThrowWhenDatabaseStateIsBad();
+        if (period == null) throw new AggregationPeriodIsNull();
+        if (from == null) throw new TimeRangeBoundIsNull("from");
+        if (to == null) throw new TimeRangeBoundIsNull("to");
+        if (from.isAfter(to)) throw new TimeRangeStartIsAfterEnd();
+
+        try
+        {
+            final SQLiteDatabase database = getReadableDatabase();
+
+            try (final Cursor cursor = _summaryTable.Query(database, measure, period, from, to))
+            {
+                return ReadAggregateBuckets(cursor);
+            }
+        }
+        catch (Exception exception)
+        {
+            throw new RepositoryException("Failed to read summaries.", exception);
+        }
+    }
+
+    /**
+     * Recomputes the summaries of all records (see {@link SQLiteSummaryTable}). The summaries are maintained with
+     * every change of the records, so this is only needed to repair them.
+     *
+     * @throws RepositoryDisposed  when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    public void RebuildSummaries()
+        throws
+            RepositoryDisposed,
+            RepositoryException
+    {
+        ThrowWhenDatabaseStateIsBad();
+
+        try
+        {
+            final SQLiteDatabase database = getWritableDatabase();
+            database.beginTransaction();
+
+            try
+            {
+                _summaryTable.Rebuild(database);
+                database.setTransactionSuccessful();
+            }
+            finally
+            {
+                database.endTransaction();
+            }
+        }
+        catch (Exception exception)
+        {
+            throw new RepositoryException("Failed to rebuild summaries.", exception);
+        }
+    }
+
+    /**
+     * Reads the rows (packed first day of the bucket, count, sum, minimum, maximum) of an aggregation query.
+     */
+    private static List<AggregateBucket> ReadAggregateBuckets(final Cursor cursor)
+    {
+        final List<AggregateBucket> buckets = new ArrayList<>(cursor.getCount());
+
+        while (cursor.moveToNext())
+        {
+            buckets.add(new AggregateBucket(
+                PackedDateTimeConversion.ConvertPackedDayToDate(cursor.getLong(0)),
+                cursor.getLong(1),
+                cursor.getDouble(2),
+                cursor.getDouble(3),
+                cursor.getDouble(4)));
+        }
+
+        return buckets;
+    }
+
+    /**
+     * Gets the SQL expression that computes the packed first day ({@code yyyyMMdd}) of the bucket of a packed
+     * time of measurement.
+     */
+    static String GetBucketStartExpression(final String column, final AggregationPeriod period)
+    {
+        return GetPackedDayBucketStartExpression("(" + column + " / 1000000)", period);
+    }
+
+    /**
+     * Gets the SQL expression that computes the packed first day ({@code yyyyMMdd}) of the bucket of a packed day.
+     */
+    static String GetPackedDayBucketStartExpression(final String day, final AggregationPeriod period)
+    {
+        switch (period)
+        {
+            case Day:
+                return day;
+            case Week:
+                // SQLite has no ISO week; the Monday is the day after the previous Sunday
+                return "CAST(strftime('%Y%m%d'," +
+                    " printf('%04d-%02d-%02d', " + day + " / 10000, " + day + " / 100 % 100, " + day + " % 100)," +
+                    " 'weekday 0', '-6 days') AS INTEGER)";
+            case Month:
+                return "(" + day + " / 100 * 100 + 1)";
+            case Year:
+                return "(" + day + " / 10000 * 10000 + 101)";
+            default:
+                throw new IllegalArgumentException("Unknown aggregation period.");
+        }
+    }
+
+    protected List<TRecord> GetRecords(CursorProvider cursorProvider) throws RepositoryException
+    {
+        try
+        {
+            final SQLiteDatabase database = getReadableDatabase();
 
             try (final Cursor cursor = cursorProvider.Query(database))
             {
@@ -278,12 +1187,127 @@ public abstract class SQLiteRepositoryBase<TRecord>
             RepositoryDisposed,
             RepositoryException
     {
-        CreateOrUpdateRecordCore(record, null);
+        CreateOrUpdateRecordCore(record);
+    }
+
+    /**
+     * Creates or updates the existing records for the identifiers of the specified records in a single transaction.
+     * Either all records are stored or (if an error occurs) none of them.
+     *
+     * The UPDATE and INSERT statements (and the pre-merge statement, see {@link #GetPreMergeStatement()}) are
+     * compiled once per call and only rebound for every record.
+     * (SQLite supports {@code INSERT ... ON CONFLICT DO UPDATE} only since version 3.24, which is newer
+     * than the version that ships with the minimum supported Android version.)
+     *
+     * @param records The records that should be created or updated.
+     * @return the count of records that were created and updated.
+     * @throws RecordIsNull                  when {@code records} is or contains {@code null}.
+     * @throws OneOrMorePropertiesAreInvalid when one of the {@code records} contains invalid properties.
+     * @throws RepositoryDisposed            when the repository was already disposed.
+     * @throws RepositoryException           when an unexpected I/O error occurs.
+     */
+    @Override
+    public BulkMergeResult CreateOrUpdateRecords(final Iterable<TRecord> records) throws
+            RecordIsNull,
+            OneOrMorePropertiesAreInvalid,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        ThrowWhenDatabaseStateIsBad();
+        if (records == null) throw new RecordIsNull();
+
+        // all records are validated before the transaction is started
+        for (TRecord record : records)
+        {
+            if (record == null) throw new RecordIsNull();
+
+            ValidateRecord(record);
+        }
+
+        int createdRecords = 0;
+        int updatedRecords = 0;
+        int deletedRecords = 0;
+
+        synchronized (_recordWriteLock)
+        {
+            BeginRecordCountChange();
+
+            try
+            {
+                final SQLiteDatabase database = getWritableDatabase();
+                database.beginTransaction();
+
+                try (final SQLiteStatement updateStatement = database.compileStatement(_mergeUpdateStatement);
+                     final SQLiteStatement insertStatement = database.compileStatement(_mergeInsertStatement);
+                     final SQLiteStatement preMergeStatement = CompilePreMergeStatement(database))
+                {
+                    for (TRecord record : records)
+                    {
+                        if (preMergeStatement != null)
+                        {
+                            deletedRecords += ExecutePreMergeStatement(preMergeStatement, record);
+                        }
+
+                        if (MergeRecord(updateStatement, insertStatement, record))
+                        {
+                            ++createdRecords;
+                        }
+                        else
+                        {
+                            ++updatedRecords;
+                        }
+                    }
+
+                    database.setTransactionSuccessful();
+                }
+                finally
+                {
+                    database.endTransaction();
+                }
+            }
+            catch (Exception exception)
+            {
+                InvalidateRecordCount();
+                throw new RepositoryException("Failed to create or update records.", exception);
+            }
+
+            ChangeRecordCount(createdRecords - deletedRecords);
+            NotifyRecordChangeListeners(RecordChange.CreateReset());
+        }
+
+        return new BulkMergeResult(createdRecords, updatedRecords);
+    }
+
+    /**
+     * Gets the SQL statement that is executed (inside of the transaction) before a record is created or updated,
+     * for example to delete the records that the record replaces. Called once by the constructor, so it must not
+     * depend on the state of the instance.
+     *
+     * @return the SQL statement or {@code null} if nothing has to be done.
+     */
+    protected String GetPreMergeStatement()
+    {
+        return null;
+    }
+
+    /**
+     * Binds the compiled pre-merge statement (see {@link #GetPreMergeStatement()}) to a record and executes it.
+     *
+     * @param preMergeStatement The compiled pre-merge statement; it is reused for all records of a write.
+     * @param record The record that will be created or updated.
+     * @return the count of records the statement deleted, so that the count of records stays up to date.
+     */
+    protected int ExecutePreMergeStatement(final SQLiteStatement preMergeStatement, final TRecord record)
+    {
+        return 0;
+    }
+
+    private SQLiteStatement CompilePreMergeStatement(final SQLiteDatabase database)
+    {
+        return _preMergeStatement == null ? null : database.compileStatement(_preMergeStatement);
     }
 
-    protected void CreateOrUpdateRecordCore(
-        final TRecord record,
-        final Consumer<SQLiteDatabase> preCreateOrUpdateRoutine) throws
+    protected void CreateOrUpdateRecordCore(final TRecord record) throws
             RecordIsNull,
             OneOrMorePropertiesAreInvalid,
             RepositoryDisposed,
@@ -293,52 +1317,103 @@ public abstract class SQLiteRepositoryBase<TRecord>
         if (record == null) throw new RecordIsNull();
 
         ValidateRecord(record);
-        final ContentValues values = PackageValues(record);
 
-        try
+        final UUID identifier = GetRecordIdentifier(record);
+        final byte[] identifierBlob = UuidBlobConversion.ConvertUuidToBlob(identifier);
+
+        int recordCountDifference = 0;
+        int deletedRecords = 0;
+        boolean created = false;
+        long previousPosition = -1L;
+        long position = -1L;
+
+        synchronized (_recordWriteLock)
         {
-            final SQLiteDatabase database = getWritableDatabase();
-            database.beginTransaction();
+            BeginRecordCountChange();
 
             try
             {
-                if (preCreateOrUpdateRoutine != null)
+                final SQLiteDatabase database = getWritableDatabase();
+                database.beginTransaction();
+
+                try (final SQLiteStatement updateStatement = database.compileStatement(_mergeUpdateStatement);
+                     final SQLiteStatement insertStatement = database.compileStatement(_mergeInsertStatement);
+                     final SQLiteStatement preMergeStatement = CompilePreMergeStatement(database))
                 {
-                    preCreateOrUpdateRoutine.accept(database);
+                    if (preMergeStatement != null)
+                    {
+                        deletedRecords = ExecutePreMergeStatement(preMergeStatement, record);
+                        recordCountDifference -= deletedRecords;
+                    }
+
+                    previousPosition = ReadRecordPosition(database, identifierBlob);
+                    created = MergeRecord(updateStatement, insertStatement, record);
+                    position = ReadRecordPosition(database, identifierBlob);
+
+                    if (created)
+                    {
+                        ++recordCountDifference;
+                    }
+
+                    database.setTransactionSuccessful();
                 }
-
-                if (!TryInsertRecord(database, values) && !TryUpdateRecord(database, values))
+                finally
                 {
-                    throw new Exception("Insert and update operation was not successful.");
+                    database.endTransaction();
                 }
+            }
+            catch (Exception exception)
+            {
+                InvalidateRecordCount();
+                throw new RepositoryException("Failed to create or update record.", exception);
+            }
 
-                database.setTransactionSuccessful();
+            ChangeRecordCount(recordCountDifference);
+
+            if (deletedRecords > 0)
+            {
+                // the positions of the records that were deleted by the routine are not known
+                NotifyRecordChangeListeners(RecordChange.CreateReset());
             }
-            finally
+            else if (created)
             {
-                database.endTransaction();
+                NotifyRecordChangeListeners(RecordChange.CreateInserted(identifier, record, position));
+            }
+            else
+            {
+                NotifyRecordChangeListeners(RecordChange.CreateUpdated(identifier, record, previousPosition, position));
             }
-        }
-        catch (Exception exception)
-        {
-            throw new RepositoryException("Failed to create or update record.", exception);
         }
     }
 
 
-    protected boolean TryInsertRecord(final SQLiteDatabase database, final ContentValues values)
+    /**
+     * Updates the stored record with the identifier of the specified record or inserts the record, if there is none.
+     *
+     * @param updateStatement The compiled {@link #_mergeUpdateStatement}.
+     * @param insertStatement The compiled {@link #_mergeInsertStatement}.
+     * @param record The record that should be created or updated.
+     * @return {@code true} if the record was created; {@code false} if it was updated.
+     */
+    private boolean MergeRecord(
+        final SQLiteStatement updateStatement,
+        final SQLiteStatement insertStatement,
+        final TRecord record)
+        throws Exception
     {
-        final long rowId = database.insert(RecordTableName, null, values);
-        return rowId != -1L;
-    }
+        // both statements use the same numbered parameters
+        BindValues(updateStatement, record);
 
-    protected boolean TryUpdateRecord(final SQLiteDatabase database, final ContentValues values)
-    {
-        final String selection = RecordTableIdColumnName + " = ?";
-        final String[] selectionArgs = { (String)values.get(RecordTableIdColumnName) };
+        if (updateStatement.executeUpdateDelete() == 1) return false;
+
+        BindValues(insertStatement, record);
+
+        if (insertStatement.executeInsert() == -1L)
+        {
+            throw new Exception("Insert and update operation was not successful.");
+        }
 
-        final int affectedRows = database.update(RecordTableName, values, selection, selectionArgs);
-        return affectedRows == 1;
+        return true;
     }
 
     /**
@@ -361,49 +1436,103 @@ public abstract class SQLiteRepositoryBase<TRecord>
         if (identifier == null) throw new RecordIdentifierIsNull();
 
         final String whereClause = RecordTableIdColumnName + " = ?";
-        final String whereArg = identifier.toString();
+        final byte[] whereArg = UuidBlobConversion.ConvertUuidToBlob(identifier);
 
-        DeleteRecord(whereClause, whereArg);
+        DeleteRecord(identifier.toString(), whereClause, whereArg);
     }
 
+    /**
+     * Deletes the record that matches a where clause with a single parameter.
+     *
+     * @param identifier The identifying value of the record (used for the error message).
+     * @param whereClause The where clause that matches the record.
+     * @param whereArg The argument of the where clause; see {@link TypedArgumentsCursorFactory#BindArguments}.
+     */
     protected void DeleteRecord(
+        final String identifier,
         final String whereClause,
-        final String whereArg)
+        final Object whereArg)
         throws
             RecordNotFound,
             RepositoryException
     {
-        try
+        UUID deletedIdentifier = null;
+        long deletedPosition = -1L;
+
+        synchronized (_recordWriteLock)
         {
-            final SQLiteDatabase database = getWritableDatabase();
-            database.beginTransaction();
+            BeginRecordCountChange();
 
             try
             {
-                final int affectedRows = database.delete(RecordTableName, whereClause, new String[] { whereArg });
+                final SQLiteDatabase database = getWritableDatabase();
+                database.beginTransaction();
+
+                try (final SQLiteStatement deleteStatement = database.compileStatement("DELETE FROM " + RecordTableName + " WHERE " + whereClause))
+                {
+                    if (!_recordChangeListeners.isEmpty())
+                    {
+                        final byte[] identifierBlob = ReadRecordIdentifier(database, whereClause, whereArg);
 
-                if (affectedRows == 0) throw new RecordNotFound(whereArg);
-                if (affectedRows > 1) throw new RepositoryException("More than one record was affected. Rollback will be initiated.");
+                        if (identifierBlob != null)
+                        {
+                            deletedIdentifier = UuidBlobConversion.ConvertBlobToUuid(identifierBlob);
+                            deletedPosition = ReadRecordPosition(database, identifierBlob);
+                        }
+                    }
 
-                database.setTransactionSuccessful();
+                    TypedArgumentsCursorFactory.BindArguments(deleteStatement, whereArg);
+
+                    final int affectedRows = deleteStatement.executeUpdateDelete();
+
+                    if (affectedRows == 0) throw new RecordNotFound(identifier);
+                    if (affectedRows > 1) throw new RepositoryException("More than one record was affected. Rollback will be initiated.");
+
+                    database.setTransactionSuccessful();
+                }
+                finally
+                {
+                    database.endTransaction();
+                }
             }
-            finally
+            catch (RecordNotFound exception)
             {
-                database.endTransaction();
+                ChangeRecordCount(0L);
+                throw exception;
             }
+            catch (Exception exception)
+            {
+                InvalidateRecordCount();
+                throw new RepositoryException("Failed to delete record (" + whereArg +").", exception);
+            }
+
+            ChangeRecordCount(-1L);
+            NotifyRecordChangeListeners(RecordChange.CreateDeleted(deletedIdentifier, deletedPosition));
         }
-        catch (RecordNotFound exception)
-        {
-            throw exception;
-        }
-        catch (Exception exception)
+    }
+
+    /**
+     * Reads the identifier of the record that matches a where clause with a single parameter.
+     *
+     * @return the identifier or {@code null} if no record matches.
+     */
+    private byte[] ReadRecordIdentifier(
+        final SQLiteDatabase database,
+        final String whereClause,
+        final Object whereArg)
+    {
+        final String selectIdentifierQuery =
+            "SELECT " + RecordTableIdColumnName + " FROM " + RecordTableName + " WHERE " + whereClause;
+
+        try (Cursor cursor = TypedArgumentsCursorFactory.RawQuery(database, selectIdentifierQuery, whereArg))
         {
-            throw new RepositoryException("Failed to delete record (" + whereArg +").", exception);
+            return cursor.moveToFirst() ? cursor.getBlob(0) : null;
         }
     }
 
     /**
-     * Deletes all records.
+     * Deletes all records. The rows of a pending data migration are discarded as well, so they do not appear
+     * afterwards; this completes the data migration.
      *
      * @throws RepositoryDisposed  when the repository was already disposed.
      * @throws RepositoryException when an unexpected I/O error occurs.
@@ -416,15 +1545,62 @@ public abstract class SQLiteRepositoryBase<TRecord>
     {
         ThrowWhenDatabaseStateIsBad();
 
-        try
+        final boolean discardPendingData = !_dataMigrationsCompleted.get();
+
+        synchronized (_recordWriteLock)
         {
-            final SQLiteDatabase database = getWritableDatabase();
-            database.delete(RecordTableName, null, null);
+            BeginRecordCountChange();
+
+            try
+            {
+                final SQLiteDatabase database = getWritableDatabase();
+
+                if (discardPendingData)
+                {
+                    database.beginTransaction();
+
+                    try
+                    {
+                        database.delete(RecordTableName, null, null);
+                        DiscardPendingData(database);
+                        database.setTransactionSuccessful();
+                    }
+                    finally
+                    {
+                        database.endTransaction();
+                    }
+                }
+                else
+                {
+                    database.delete(RecordTableName, null, null);
+                }
+            }
+            catch (Exception exception)
+            {
+                InvalidateRecordCount();
+                throw new RepositoryException("Failed to deletes all records.", exception);
+            }
+
+            ResetRecordCount();
+            NotifyRecordChangeListeners(RecordChange.CreateReset());
         }
-        catch (Exception exception)
+
+        if (discardPendingData) CompleteDataMigrations();
+    }
+
+    /**
+     * Discards the rows of all pending data migrations. Called inside of a transaction.
+     */
+    private void DiscardPendingData(final SQLiteDatabase database)
+    {
+        CreatePendingDataMigrationsTable(database);
+
+        for (SQLiteMigration migration : _migrations)
         {
-            throw new RepositoryException("Failed to deletes all records.", exception);
+            if (migration.HasDataMigration()) migration.DiscardPendingData(database);
         }
+
+        database.delete(TablePendingDataMigrations_Name, null, null);
     }
 
     /**
@@ -467,23 +1643,83 @@ public abstract class SQLiteRepositoryBase<TRecord>
     protected abstract TRecord ParseRecordFromCursor(
         final Cursor cursor);
 
+    /**
+     * Queries the record with the specified identifier. The identifier is stored as BLOB, so it has to be
+     * bound with a {@link TypedArgumentsCursorFactory}.
+     */
     protected abstract Cursor QueryRecordByIdentifier(
         final SQLiteDatabase database,
-        final String identifier);
+        final byte[] identifier);
 
     protected abstract Cursor QueryRecordsDescending(
         final SQLiteDatabase database,
         final long offset,
         final int count);
 
+    /**
+     * Queries the records that follow the specified position in descending order sorted by the time of
+     * measurement and the identifier. Implementations should use a row value comparison on the sort key
+     * (for example {@code (TimeOfMeasurement, Id) < (?, ?)}), so SQLite can seek to the position instead of
+     * skipping the preceding rows. The identifier is stored as BLOB, so it has to be bound with a
+     * {@link TypedArgumentsCursorFactory}.
+     */
+    protected abstract Cursor QueryRecordsDescendingAfter(
+        final SQLiteDatabase database,
+        final long packedTimeOfMeasurement,
+        final byte[] identifier,
+        final int count);
+
+    /**
+     * Queries the records of a day in descending order sorted by the time of measurement and the identifier.
+     *
+     * @param database The database to query.
+     * @param day The day of the records.
+     * @param limit The LIMIT clause (see {@link SQLiteDatabase#query}); {@code null} for all records of the day.
+     * @return the cursor over the records.
+     */
     protected abstract Cursor QueryRecordsForDayDescending(
         final SQLiteDatabase database,
-        final LocalDate day);
+        final LocalDate day,
+        final String limit);
+
+    /**
+     * Queries the records with a packed time of measurement between {@code from} and {@code to} (both inclusive)
+     * sorted by the time of measurement and the identifier. Implementations should use a range condition on the
+     * indexed sort key (for example {@code TimeOfMeasurement BETWEEN ? AND ?}), so SQLite only reads the rows of
+     * the range.
+     */
+    protected abstract Cursor QueryRecordsInRange(
+        final SQLiteDatabase database,
+        final long from,
+        final long to,
+        final boolean descending);
+
+    /**
+     * Gets the mapping of the columns that are selected by {@link #QueryRecordsDescending} and
+     * {@link #QueryRecordsDescendingAfter} to the properties of the Json object that represents a record.
+     * The Json Text that is written with the mapping has to match the serialized domain record.
+     */
+    protected abstract JsonColumnMapping[] GetJsonColumnMappings();
 
     protected abstract void ValidateRecord(final TRecord record)
         throws OneOrMorePropertiesAreInvalid;
 
-    protected abstract ContentValues PackageValues(final TRecord record);
+    /**
+     * Binds the values of a record to the numbered parameters of a statement; the parameter
+     * {@code ?n} is the n-th column (1-based) of {@link #RecordTableNameColumns}.
+     *
+     * @param statement The statement whose parameters should be bound.
+     * @param record The record whose values should be bound.
+     */
+    protected abstract void BindValues(final SQLiteStatement statement, final TRecord record);
+
+    /**
+     * Gets the identifier of a record (that was already validated).
+     *
+     * @param record The record whose identifier should be returned.
+     * @return the identifier of the record.
+     */
+    protected abstract UUID GetRecordIdentifier(final TRecord record);
 
     protected void ThrowWhenDatabaseStateIsBad()
         throws
@@ -495,6 +1731,23 @@ public abstract class SQLiteRepositoryBase<TRecord>
         if (_downgradeRequested) throw new RepositoryException("Database downgrade failed.");
     }
 
+    /**
+     * Opens a {@link ReadSnapshot} of the database.
+     *
+     * @throws RepositoryException when the snapshot could not be opened.
+     */
+    protected ReadSnapshot OpenReadSnapshot() throws RepositoryException
+    {
+        try
+        {
+            return new ReadSnapshot();
+        }
+        catch (Exception exception)
+        {
+            throw new RepositoryException("Failed to open read snapshot.", exception);
+        }
+    }
+
     /**
      * Performs application-defined tasks associated with freeing, releasing, or resetting resources.
      */
@@ -508,6 +1761,318 @@ public abstract class SQLiteRepositoryBase<TRecord>
         }
     }
 
+    /**
+     * {@link IRecordCursor} that parses the rows of a {@link KeysetPageReader} into records.
+     */
+    private final class KeysetRecordCursor implements IRecordCursor<TRecord>
+    {
+        private final KeysetPageReader _reader;
+        private TRecord _current = null;
+
+        public KeysetRecordCursor(final ReadSnapshot snapshot)
+        {
+            _reader = new KeysetPageReader(snapshot);
+        }
+
+        @Override
+        public boolean MoveNext()
+            throws
+                RepositoryDisposed,
+                RepositoryException
+        {
+            final Cursor row = _reader.MoveNext();
+
+            if (row == null)
+            {
+                _current = null;
+                return false;
+            }
+
+            try
+            {
+                _current = ParseRecordFromCursor(row);
+                return true;
+            }
+            catch (Exception exception)
+            {
+                close();
+                throw new RepositoryException("Failed to read records.", exception);
+            }
+        }
+
+        @Override
+        public TRecord GetCurrent()
+        {
+            return _current;
+        }
+
+        @Override
+        public void close()
+        {
+            _current = null;
+            _reader.close();
+        }
+    }
+
+    /**
+     * Writes rows as Json objects as described by a set of {@link JsonColumnMapping}s. Text values are copied
+     * into reusable character buffers, so writing a row does not allocate.
+     */
+    private static final class JsonRowWriter
+    {
+        private final JsonColumnMapping[] _mappings;
+        private int[] _columnIndices = null;
+
+        private final CharArrayBuffer _textBuffer = new CharArrayBuffer(64);
+        private final char[] _dateTimeBuffer = new char[PackedDateTimeConversion.FormattedLength];
+        private final char[] _uuidBuffer = new char[UuidBlobConversion.FormattedLength];
+
+        public JsonRowWriter(final JsonColumnMapping[] mappings)
+        {
+            _mappings = mappings;
+        }
+
+        public void WriteRow(final IJsonTextWriter jsonTextWriter, final Cursor row)
+            throws
+                JsonError,
+                IOException
+        {
+            if (_columnIndices == null) ResolveColumnIndices(row);
+
+            jsonTextWriter.WriteStartObject();
+
+            for (int index = 0; index < _mappings.length; ++index)
+            {
+                final JsonColumnMapping mapping = _mappings[index];
+                final int columnIndex = _columnIndices[index];
+
+                jsonTextWriter.WritePropertyName(mapping.PropertyName);
+
+                if (row.isNull(columnIndex))
+                {
+                    jsonTextWriter.WriteNull();
+                    continue;
+                }
+
+                switch (mapping.Kind)
+                {
+                    case Text:
+                        row.copyStringToBuffer(columnIndex, _textBuffer);
+                        jsonTextWriter.WriteValue(_textBuffer.data, 0, _textBuffer.sizeCopied);
+                        break;
+                    case Integer:
+                        jsonTextWriter.WriteValue(row.getInt(columnIndex));
+                        break;
+                    case Real:
+                        jsonTextWriter.WriteValue(row.getDouble(columnIndex));
+                        break;
+                    case DateTime:
+                        final int dateTimeLength = PackedDateTimeConversion.FormatPackedDateTime(row.getLong(columnIndex), _dateTimeBuffer);
+                        jsonTextWriter.WriteValue(_dateTimeBuffer, 0, dateTimeLength);
+                        break;
+                    case Uuid:
+                        final int uuidLength = UuidBlobConversion.FormatBlob(row.getBlob(columnIndex), _uuidBuffer);
+                        jsonTextWriter.WriteValue(_uuidBuffer, 0, uuidLength);
+                        break;
+                }
+            }
+
+            jsonTextWriter.WriteEndObject();
+        }
+
+        private void ResolveColumnIndices(final Cursor row)
+        {
+            _columnIndices = new int[_mappings.length];
+
+            for (int index = 0; index < _mappings.length; ++index)
+            {
+                _columnIndices[index] = row.getColumnIndexOrThrow(_mappings[index].ColumnName);
+            }
+        }
+    }
+
+    /**
+     * A read transaction on a dedicated read-only connection. All queries that are executed on
+     * {@link #GetDatabase()} see the database as it was when the first of them was executed, even if
+     * records are written in the meantime. Because the database uses write-ahead logging, the snapshot
+     * neither blocks nor is blocked by writers. The snapshot must only be used by one thread at a time.
+     */
+    protected final class ReadSnapshot implements AutoCloseable
+    {
+        private final SQLiteDatabase _database;
+
+        private ReadSnapshot()
+        {
+            // Opening the shared connection creates or upgrades the database (if necessary) and enables
+            // write-ahead logging, before the dedicated connection is opened.
+            final String path = getReadableDatabase().getPath();
+
+            // The dedicated connection has no connection pool, so every query runs on the connection
+            // that holds the transaction.
+            _database = SQLiteDatabase.openDatabase(path, CursorFactory, SQLiteDatabase.OPEN_READONLY);
+
+            try
+            {
+                // A savepoint outside of a transaction starts a deferred transaction. (A BEGIN statement would
+                // be executed as an exclusive transaction, which is not possible on a read-only connection.)
+                _database.execSQL("SAVEPOINT " + ReadSnapshotSavepointName);
+            }
+            catch (RuntimeException exception)
+            {
+                _database.close();
+                throw exception;
+            }
+        }
+
+        /**
+         * Gets the connection that reads from the snapshot. It is owned by the snapshot and must not be closed.
+         */
+        public SQLiteDatabase GetDatabase()
+        {
+            return _database;
+        }
+
+        @Override
+        public void close()
+        {
+            try
+            {
+                _database.execSQL("RELEASE " + ReadSnapshotSavepointName);
+            }
+            finally
+            {
+                _database.close();
+            }
+        }
+    }
+
+    /**
+     * Reads all records row by row in pages of {@link #PageSize} rows. The first page is queried by offset,
+     * every following page relative to the last row of the previous page (keyset pagination).
+     * Only the {@link Cursor} of the current page is open, so memory usage does not grow with the number of
+     * records and no query is kept open while the consumer processes the rows. All pages are read from a
+     * {@link ReadSnapshot} that is owned (and closed) by the reader.
+     */
+    private final class KeysetPageReader implements AutoCloseable
+    {
+        private static final int PageSize = 256;
+
+        private final ReadSnapshot _snapshot;
+        private Cursor _page = null;
+        private boolean _lastPage = false;
+        private boolean _closed = false;
+
+        private long _lastTimeOfMeasurement = 0L;
+        private byte[] _lastIdentifier = null;
+
+        public KeysetPageReader(final ReadSnapshot snapshot)
+        {
+            _snapshot = snapshot;
+        }
+
+        /**
+         * Advances to the next row.
+         *
+         * @return the {@link Cursor} of the current page positioned at the next row or {@code null}
+         *         if all rows were read. The {@link Cursor} is owned by the reader and must not be closed.
+         */
+        public Cursor MoveNext()
+            throws
+                RepositoryDisposed,
+                RepositoryException
+        {
+            ThrowWhenDatabaseStateIsBad();
+            if (_closed) throw new RepositoryException("The record cursor was already closed.");
+
+            try
+            {
+                while (true)
+                {
+                    if (_page == null)
+                    {
+                        if (_lastPage) return null;
+
+                        _page = QueryNextPage();
+                        _lastPage = _page.getCount() < PageSize;
+                    }
+
+                    if (_page.moveToNext()) return _page;
+
+                    if (!_lastPage) RememberLastRowOfPage();
+
+                    _page.close();
+                    _page = null;
+                }
+            }
+            catch (Exception exception)
+            {
+                close();
+                throw new RepositoryException("Failed to read records.", exception);
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            if (_closed) return;
+
+            _closed = true;
+
+            try
+            {
+                if (_page != null)
+                {
+                    _page.close();
+                    _page = null;
+                }
+            }
+            finally
+            {
+                _snapshot.close();
+            }
+        }
+
+        private Cursor QueryNextPage()
+        {
+            final SQLiteDatabase database = _snapshot.GetDatabase();
+
+            if (_lastIdentifier == null)
+            {
+                return QueryRecordsDescending(database, 0, PageSize);
+            }
+
+            return QueryRecordsDescendingAfter(
+                database,
+                _lastTimeOfMeasurement,
+                _lastIdentifier,
+                PageSize);
+        }
+
+        private void RememberLastRowOfPage()
+        {
+            if (!_page.moveToLast()) return;
+
+            _lastTimeOfMeasurement = _page.getLong(_page.getColumnIndexOrThrow(RecordTableTimeOfMeasurementColumnName));
+            _lastIdentifier = _page.getBlob(_page.getColumnIndexOrThrow(RecordTableIdColumnName));
+        }
+    }
+
+    /**
+     * Receives the progress of a data migration.
+     */
+    public interface DataMigrationProgressListener
+    {
+        /**
+         * Called after a chunk of rows was migrated.
+         *
+         * @param databaseName The name of the database that is migrated.
+         * @param targetVersion The target version of the migration.
+         * @param migratedRows The count of rows that were migrated so far.
+         * @param totalRows The count of rows that had to be migrated when the migration was started.
+         */
+        void DataMigrationProgressed(String databaseName, int targetVersion, long migratedRows, long totalRows);
+    }
+
     protected interface CursorProvider
     {
         Cursor Query(final SQLiteDatabase database);
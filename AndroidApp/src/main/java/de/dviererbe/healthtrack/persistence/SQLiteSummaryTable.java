@@ -0,0 +1,365 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.function.BiFunction;
+
+/**
+ * Maintains a table with the count, sum, minimum and maximum of every measure of the records per day and per month,
+ * so that the statistics of long time ranges are read from a handful of precomputed rows.
+ *
+ * The rows are maintained by triggers on the record table. Every insert, update and delete of a record (including
+ * the bulk operations and the data migrations) therefore changes the summaries in the same transaction. Count and
+ * sum are adjusted by the value of the record; the minimum and maximum of a bucket are only read again from the
+ * records of the bucket (an index range) when the removed value was one of them.
+ *
+ * @param <TMeasure> The enumeration of the values of a record that are summarized.
+ */
+final class SQLiteSummaryTable<TMeasure extends Enum<TMeasure>>
+{
+    private static final String TableSummary_Key_Measure = "Measure";
+    private static final String TableSummary_Key_Period = "Period";
+    private static final String TableSummary_Key_BucketStart = "BucketStart";
+    private static final String TableSummary_Key_Count = "Count";
+    private static final String TableSummary_Key_Sum = "Sum";
+    private static final String TableSummary_Key_Minimum = "Minimum";
+    private static final String TableSummary_Key_Maximum = "Maximum";
+
+    /**
+     * The periods that are stored; weeks are summarized from the days and years from the months.
+     */
+    private static final AggregationPeriod[] StoredPeriods = { AggregationPeriod.Day, AggregationPeriod.Month };
+
+    private final String _recordTableName;
+    private final String _timeOfMeasurementColumnName;
+    private final String _summaryTableName;
+    private final TMeasure[] _measures;
+    private final BiFunction<TMeasure, String, String> _measureExpressionProvider;
+
+    /**
+     * Initializes a new {@link SQLiteSummaryTable} instance.
+     *
+     * @param recordTableName The name of the table that contains the records.
+     * @param timeOfMeasurementColumnName The name of the column with the packed time of measurement of the records.
+     * @param measureClass The class of the enumeration of the summarized values.
+     * @param measureExpressionProvider Gets the SQL expression of a value of a record; the second argument is the
+     *                                  qualifier of the columns (like {@code "NEW."}) that has to precede every column.
+     */
+    SQLiteSummaryTable(
+        final String recordTableName,
+        final String timeOfMeasurementColumnName,
+        final Class<TMeasure> measureClass,
+        final BiFunction<TMeasure, String, String> measureExpressionProvider)
+    {
+        _recordTableName = recordTableName;
+        _timeOfMeasurementColumnName = timeOfMeasurementColumnName;
+        _summaryTableName = recordTableName + "Summary";
+        _measures = measureClass.getEnumConstants();
+        _measureExpressionProvider = measureExpressionProvider;
+    }
+
+    /**
+     * Creates the summary table and the triggers that maintain it. The summary table is not filled;
+     * see {@link #Rebuild(SQLiteDatabase)}.
+     *
+     * @param database The database that contains the record table.
+     */
+    public void Create(final SQLiteDatabase database)
+    {
+        final String createTableSummaryStatement =
+            "CREATE TABLE IF NOT EXISTS " + _summaryTableName +
+            " (" +
+                TableSummary_Key_Measure + " TEXT NOT NULL," +
+                TableSummary_Key_Period + " TEXT NOT NULL," +
+                TableSummary_Key_BucketStart + " INTEGER NOT NULL," +
+                TableSummary_Key_Count + " INTEGER NOT NULL," +
+                TableSummary_Key_Sum + " REAL NOT NULL," +
+                TableSummary_Key_Minimum + " REAL NOT NULL," +
+                TableSummary_Key_Maximum + " REAL NOT NULL," +
+                "PRIMARY KEY (" +
+                    TableSummary_Key_Measure + "," +
+                    TableSummary_Key_Period + "," +
+                    TableSummary_Key_BucketStart +
+                ")" +
+            ") WITHOUT ROWID";
+
+        database.execSQL(createTableSummaryStatement);
+
+        final StringBuilder addNewRecord = new StringBuilder();
+        final StringBuilder removeOldRecord = new StringBuilder();
+
+        for (final TMeasure measure : _measures)
+        {
+            for (final AggregationPeriod period : StoredPeriods)
+            {
+                AppendAddStatements(addNewRecord, measure, period, "NEW.");
+                AppendRemoveStatements(removeOldRecord, measure, period, "OLD.");
+            }
+        }
+
+        CreateTrigger(database, "Insert", "AFTER INSERT", addNewRecord.toString());
+        CreateTrigger(database, "Update", "AFTER UPDATE", removeOldRecord.toString() + addNewRecord);
+        CreateTrigger(database, "Delete", "AFTER DELETE", removeOldRecord.toString());
+    }
+
+    private void CreateTrigger(
+        final SQLiteDatabase database,
+        final String operation,
+        final String event,
+        final String statements)
+    {
+        final String triggerName = _summaryTableName + operation + "Trigger";
+
+        database.execSQL("DROP TRIGGER IF EXISTS " + triggerName);
+        database.execSQL(
+            "CREATE TRIGGER " + triggerName + " " + event + " ON " + _recordTableName +
+            " FOR EACH ROW BEGIN " + statements + "END");
+    }
+
+    /**
+     * Appends the statements that add the value of a record to its bucket.
+     */
+    private void AppendAddStatements(
+        final StringBuilder statements,
+        final TMeasure measure,
+        final AggregationPeriod period,
+        final String row)
+    {
+        final String value = "(" + _measureExpressionProvider.apply(measure, row) + ")";
+        final String bucketStart = SQLiteRepositoryBase.GetBucketStartExpression(row + _timeOfMeasurementColumnName, period);
+
+        statements
+            .append("INSERT OR IGNORE INTO ").append(_summaryTableName)
+            .append(" (")
+                .append(TableSummary_Key_Measure).append(',')
+                .append(TableSummary_Key_Period).append(',')
+                .append(TableSummary_Key_BucketStart).append(',')
+                .append(TableSummary_Key_Count).append(',')
+                .append(TableSummary_Key_Sum).append(',')
+                .append(TableSummary_Key_Minimum).append(',')
+                .append(TableSummary_Key_Maximum)
+            .append(") VALUES ('")
+                .append(measure.name()).append("','")
+                .append(period.name()).append("',")
+                .append(bucketStart).append(",0,0.0,")
+                .append(value).append(',')
+                .append(value)
+            .append(");");
+
+        statements
+            .append("UPDATE ").append(_summaryTableName).append(" SET ")
+                .append(TableSummary_Key_Count).append(" = ").append(TableSummary_Key_Count).append(" + 1,")
+                .append(TableSummary_Key_Sum).append(" = ").append(TableSummary_Key_Sum).append(" + ").append(value).append(',')
+                .append(TableSummary_Key_Minimum).append(" = MIN(").append(TableSummary_Key_Minimum).append(',').append(value).append("),")
+                .append(TableSummary_Key_Maximum).append(" = MAX(").append(TableSummary_Key_Maximum).append(',').append(value).append(')')
+            .append(" WHERE ").append(GetBucketCondition(measure, period, bucketStart))
+            .append(';');
+    }
+
+    /**
+     * Appends the statements that remove the value of a record from its bucket. The record is already removed
+     * from (or changed in) the record table when the statements are executed.
+     */
+    private void AppendRemoveStatements(
+        final StringBuilder statements,
+        final TMeasure measure,
+        final AggregationPeriod period,
+        final String row)
+    {
+        final String value = "(" + _measureExpressionProvider.apply(measure, row) + ")";
+        final String bucketStart = SQLiteRepositoryBase.GetBucketStartExpression(row + _timeOfMeasurementColumnName, period);
+        final String bucketCondition = GetBucketCondition(measure, period, bucketStart);
+        final String recordValue = _measureExpressionProvider.apply(measure, _recordTableName + ".");
+        final String bucketRecords = " FROM " + _recordTableName + " WHERE " + GetBucketRecordsCondition(period, bucketStart);
+
+        statements
+            .append("UPDATE ").append(_summaryTableName).append(" SET ")
+                .append(TableSummary_Key_Count).append(" = ").append(TableSummary_Key_Count).append(" - 1,")
+                .append(TableSummary_Key_Sum).append(" = ").append(TableSummary_Key_Sum).append(" - ").append(value)
+            .append(" WHERE ").append(bucketCondition)
+            .append(';');
+
+        statements
+            .append("DELETE FROM ").append(_summaryTableName)
+            .append(" WHERE ").append(bucketCondition).append(" AND ").append(TableSummary_Key_Count).append(" <= 0")
+            .append(';');
+
+        statements
+            .append("UPDATE ").append(_summaryTableName).append(" SET ")
+                .append(TableSummary_Key_Minimum).append(" = (SELECT MIN(").append(recordValue).append(')').append(bucketRecords).append("),")
+                .append(TableSummary_Key_Maximum).append(" = (SELECT MAX(").append(recordValue).append(')').append(bucketRecords).append(')')
+            .append(" WHERE ").append(bucketCondition)
+            .append(" AND (")
+                .append(TableSummary_Key_Minimum).append(" = ").append(value).append(" OR ")
+                .append(TableSummary_Key_Maximum).append(" = ").append(value)
+            .append(");");
+    }
+
+    private static String GetBucketCondition(
+        final Enum<?> measure,
+        final AggregationPeriod period,
+        final String bucketStart)
+    {
+        return
+            TableSummary_Key_Measure + " = '" + measure.name() + "' AND " +
+            TableSummary_Key_Period + " = '" + period.name() + "' AND " +
+            TableSummary_Key_BucketStart + " = " + bucketStart;
+    }
+
+    /**
+     * Gets the condition that selects the records of a bucket with an index range on the packed time of measurement.
+     */
+    private String GetBucketRecordsCondition(final AggregationPeriod period, final String bucketStart)
+    {
+        // the last day of a month bucket (yyyyMM01) is at most yyyyMM31
+        final int lastDayOffset = period == AggregationPeriod.Month ? 30 : 0;
+        final String column = _recordTableName + "." + _timeOfMeasurementColumnName;
+
+        return column + " BETWEEN " + bucketStart + " * 1000000 AND (" + bucketStart + " + " + lastDayOffset + ") * 1000000 + 235959";
+    }
+
+    /**
+     * Replaces the content of the summary table with the summaries of all records.
+     *
+     * @param database The database that contains the record table.
+     */
+    public void Rebuild(final SQLiteDatabase database)
+    {
+        database.execSQL("DELETE FROM " + _summaryTableName);
+
+        for (final TMeasure measure : _measures)
+        {
+            final String value = _measureExpressionProvider.apply(measure, "");
+
+            for (final AggregationPeriod period : StoredPeriods)
+            {
+                final String rebuildStatement =
+                    "INSERT INTO " + _summaryTableName +
+                    " (" +
+                        TableSummary_Key_Measure + "," +
+                        TableSummary_Key_Period + "," +
+                        TableSummary_Key_BucketStart + "," +
+                        TableSummary_Key_Count + "," +
+                        TableSummary_Key_Sum + "," +
+                        TableSummary_Key_Minimum + "," +
+                        TableSummary_Key_Maximum +
+                    ")" +
+                    " SELECT " +
+                        "'" + measure.name() + "'," +
+                        "'" + period.name() + "'," +
+                        SQLiteRepositoryBase.GetBucketStartExpression(_timeOfMeasurementColumnName, period) + " AS " + TableSummary_Key_BucketStart + "," +
+                        "COUNT(*)," +
+                        "TOTAL(" + value + ")," +
+                        "MIN(" + value + ")," +
+                        "MAX(" + value + ")" +
+                    " FROM " + _recordTableName +
+                    " GROUP BY " + TableSummary_Key_BucketStart;
+
+                database.execSQL(rebuildStatement);
+            }
+        }
+    }
+
+    /**
+     * Queries the statistics of a measure for every non-empty bucket of the specified period that overlaps the days
+     * from {@code from} to {@code to} (both inclusive). The statistics always cover the whole bucket.
+     * The columns of the cursor are the packed first day of the bucket, the count, the sum, the minimum and the maximum.
+     *
+     * @param database The database that contains the summary table.
+     * @param measure The summarized value.
+     * @param period The length of the buckets.
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @return A {@link Cursor} with one row per bucket in ascending order sorted by the start of the bucket.
+     */
+    public Cursor Query(
+        final SQLiteDatabase database,
+        final Enum<?> measure,
+        final AggregationPeriod period,
+        final LocalDate from,
+        final LocalDate to)
+    {
+        // there are no records outside of the packable years; clamping keeps the bucket bounds computable
+        final LocalDate clampedFrom = from.getYear() < PackedDateTimeConversion.MinimumYear
+            ? LocalDate.of(PackedDateTimeConversion.MinimumYear, 1, 1)
+            : from;
+        final LocalDate clampedTo = to.getYear() > PackedDateTimeConversion.MaximumYear
+            ? LocalDate.of(PackedDateTimeConversion.MaximumYear, 12, 31)
+            : to;
+
+        final AggregationPeriod storedPeriod;
+        final LocalDate firstDay;
+        final LocalDate lastDay;
+
+        switch (period)
+        {
+            case Day:
+                storedPeriod = AggregationPeriod.Day;
+                firstDay = clampedFrom;
+                lastDay = clampedTo;
+                break;
+            case Week:
+                storedPeriod = AggregationPeriod.Day;
+                firstDay = clampedFrom.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                lastDay = clampedTo.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+                break;
+            case Month:
+                storedPeriod = AggregationPeriod.Month;
+                firstDay = clampedFrom.withDayOfMonth(1);
+                lastDay = clampedTo;
+                break;
+            case Year:
+                storedPeriod = AggregationPeriod.Month;
+                firstDay = clampedFrom.withDayOfYear(1);
+                lastDay = clampedTo;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown aggregation period.");
+        }
+
+        final String summaryQuery =
+            "SELECT " +
+                SQLiteRepositoryBase.GetPackedDayBucketStartExpression(TableSummary_Key_BucketStart, period) + " AS Start," +
+                "SUM(" + TableSummary_Key_Count + ")," +
+                "TOTAL(" + TableSummary_Key_Sum + ")," +
+                "MIN(" + TableSummary_Key_Minimum + ")," +
+                "MAX(" + TableSummary_Key_Maximum + ")" +
+            " FROM " +
+                _summaryTableName +
+            " WHERE " +
+                TableSummary_Key_Measure + " = ? AND " +
+                TableSummary_Key_Period + " = '" + storedPeriod.name() + "' AND " +
+                TableSummary_Key_BucketStart + " BETWEEN ? AND ?" +
+            " GROUP BY Start" +
+            " ORDER BY Start";
+
+        return TypedArgumentsCursorFactory.RawQuery(
+            database,
+            summaryQuery,
+            measure.name(),
+            PackedDateTimeConversion.ConvertDateToPackedDay(firstDay),
+            PackedDateTimeConversion.ConvertDateToPackedDay(lastDay));
+    }
+}
@@ -0,0 +1,238 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link SQLiteMigration} that changes the layout of a table by rebuilding it.
+ *
+ * The schema migration renames the existing table (to {@code <table>V<previous version>}) and creates the table
+ * in the new layout, so new records are written in the new layout right away. The data migration then moves the
+ * existing rows chunk by chunk from the renamed table into the new table, converting every row with
+ * {@link #BindRow(Cursor, SQLiteStatement)}, and drops the renamed table when it is empty. Rows that are already
+ * in the new table (with the same primary key or unique values) take precedence over the moved rows.
+ * Only the record table is read and written, so the rows that were not moved yet are not visible until the data
+ * migration is completed (see {@link IDataMigrationObservable}).
+ * The triggers of the table are dropped before it is renamed (they would move with it), so
+ * {@link #CreateTable(SQLiteDatabase)} has to create them again.
+ */
+public abstract class SQLiteTableRebuildMigration extends SQLiteMigration
+{
+    private final String _tableName;
+    private final String _legacyTableName;
+    private final String _selectLegacyRowsQuery;
+    private final String _insertRowStatement;
+
+    /**
+     * Initializes a new {@link SQLiteTableRebuildMigration} instance.
+     *
+     * @param targetVersion The version of the database after the migration.
+     * @param tableName The name of the table that is rebuilt.
+     * @param legacyColumns The columns of the existing table that are read for every row.
+     * @param columns The columns of the new table that are written for every row.
+     */
+    protected SQLiteTableRebuildMigration(
+        final int targetVersion,
+        final String tableName,
+        final String[] legacyColumns,
+        final String[] columns)
+    {
+        super(targetVersion);
+
+        _tableName = tableName;
+        _legacyTableName = GetLegacyTableName(tableName, targetVersion);
+
+        _selectLegacyRowsQuery =
+            "SELECT " + String.join(",", legacyColumns) + ",rowid" +
+            " FROM " + _legacyTableName +
+            " ORDER BY rowid" +
+            " LIMIT ?";
+
+        final StringBuilder parameters = new StringBuilder();
+
+        for (int index = 0; index < columns.length; ++index)
+        {
+            if (index > 0) parameters.append(',');
+            parameters.append('?');
+        }
+
+        _insertRowStatement =
+            "INSERT OR IGNORE INTO %s" +
+            " (" + String.join(",", columns) + ")" +
+            " VALUES (" + parameters + ")";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void MigrateSchema(final SQLiteDatabase database)
+    {
+        final String selectTriggersQuery = "SELECT name FROM sqlite_master WHERE type = 'trigger' AND tbl_name = ?";
+        final List<String> triggerNames = new ArrayList<>();
+
+        try (final Cursor cursor = database.rawQuery(selectTriggersQuery, new String[] { _tableName }))
+        {
+            while (cursor.moveToNext())
+            {
+                triggerNames.add(cursor.getString(0));
+            }
+        }
+
+        for (final String triggerName : triggerNames)
+        {
+            database.execSQL("DROP TRIGGER " + triggerName);
+        }
+
+        database.execSQL("ALTER TABLE " + _tableName + " RENAME TO " + _legacyTableName);
+        CreateTable(database);
+    }
+
+    /**
+     * Creates the table (and its indices and triggers) in the new layout. The indices of the renamed table keep
+     * their names, so they have to be dropped before an index with the same name is created.
+     *
+     * @param database The database that is migrated.
+     */
+    protected abstract void CreateTable(final SQLiteDatabase database);
+
+    /**
+     * Binds the converted values of a row of the renamed table to the parameters of the insert statement.
+     *
+     * @param legacyRow The row of the renamed table; the columns have the order of the {@code legacyColumns}.
+     * @param insertStatement The statement that inserts the row; the parameters have the order of the {@code columns}.
+     */
+    protected abstract void BindRow(final Cursor legacyRow, final SQLiteStatement insertStatement);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean HasDataMigration()
+    {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long CountPendingRows(final SQLiteDatabase database)
+    {
+        try (final Cursor cursor = database.rawQuery("SELECT COUNT(*) FROM " + _legacyTableName, null))
+        {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0L;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int MigrateDataChunk(final SQLiteDatabase database, final int chunkSize)
+    {
+        final String targetTableName = GetTargetTableName(database);
+        int movedRows = 0;
+        long lastRowId = 0L;
+
+        try (final Cursor legacyRows = database.rawQuery(_selectLegacyRowsQuery, new String[] { String.valueOf(chunkSize) });
+             final SQLiteStatement insertStatement = database.compileStatement(String.format(_insertRowStatement, targetTableName)))
+        {
+            final int rowIdColumnIndex = legacyRows.getColumnCount() - 1;
+
+            while (legacyRows.moveToNext())
+            {
+                insertStatement.clearBindings();
+                BindRow(legacyRows, insertStatement);
+                insertStatement.executeInsert();
+
+                lastRowId = legacyRows.getLong(rowIdColumnIndex);
+                ++movedRows;
+            }
+        }
+
+        if (movedRows == 0)
+        {
+            database.execSQL("DROP TABLE " + _legacyTableName);
+            return 0;
+        }
+
+        database.delete(_legacyTableName, "rowid <= ?", new String[] { String.valueOf(lastRowId) });
+
+        return movedRows;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void DiscardPendingData(final SQLiteDatabase database)
+    {
+        database.execSQL("DROP TABLE IF EXISTS " + _legacyTableName);
+    }
+
+    private static String GetLegacyTableName(final String tableName, final int targetVersion)
+    {
+        return tableName + "V" + (targetVersion - 1);
+    }
+
+    /**
+     * Gets the name of the table the rows are moved into. When a later migration rebuilt the table as well,
+     * the rows are moved into the table it renamed (the earliest one), from where the later migration moves them on.
+     */
+    private String GetTargetTableName(final SQLiteDatabase database)
+    {
+        final String selectTablesQuery = "SELECT name FROM sqlite_master WHERE type = 'table' AND name LIKE ?";
+
+        String targetTableName = _tableName;
+        int targetTableVersion = Integer.MAX_VALUE;
+
+        try (final Cursor cursor = database.rawQuery(selectTablesQuery, new String[] { _tableName + "V%" }))
+        {
+            while (cursor.moveToNext())
+            {
+                final String tableName = cursor.getString(0);
+                final int version;
+
+                try
+                {
+                    version = Integer.parseInt(tableName.substring(_tableName.length() + 1));
+                }
+                catch (NumberFormatException exception)
+                {
+                    continue;
+                }
+
+                if (version >= TargetVersion && version < targetTableVersion)
+                {
+                    targetTableName = tableName;
+                    targetTableVersion = version;
+                }
+            }
+        }
+
+        return targetTableName;
+    }
+}
@@ -18,16 +18,18 @@
 
 package de.dviererbe.healthtrack.persistence;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import androidx.annotation.Nullable;
 import de.dviererbe.healthtrack.domain.StepCountRecord;
+import de.dviererbe.healthtrack.infrastructure.json.StepWidgetRepositoryJsonTextSerializer;
 import de.dviererbe.healthtrack.persistence.exceptions.*;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public class StepWidgetSQLiteRepository
@@ -37,7 +39,8 @@ public class StepWidgetSQLiteRepository
         IDefaultStepCountGoalGetter,
         IDefaultStepCountGoalSetter,
         IQueryableByDay<StepCountRecord>,
-        IDeletableByDay
+        IDeletableByDay,
+        IAggregatable<StepCountMeasure>
 {
     /**
      * The default step count goal for a day.
@@ -55,21 +58,161 @@ public class StepWidgetSQLiteRepository
     private static final String TableSteps_Key_Id = "Id";
     private static final String TableSteps_Key_Count = "Count";
     private static final String TableSteps_Key_Goal = "Goal";
-    private static final String TableSteps_Key_TimeOfMeasurementDate = "TimeOfMeasurementDate";
-    private static final String TableSteps_Key_TimeOfMeasurementTime = "TimeOfMeasurementTime";
+    private static final String TableSteps_Key_TimeOfMeasurement = "TimeOfMeasurement";
+    private static final String TableSteps_Key_DayOfMeasurement = "DayOfMeasurement";
+
+    /**
+     * Index on the sort key of the records (newest first), so that pages are read by index seeks.
+     */
+    private static final String TableSteps_Index_TimeOfMeasurement = "StepsTimeOfMeasurementIndex";
 
     private static final String[] TableSteps_Columns =
         {
             TableSteps_Key_Id,
             TableSteps_Key_Count,
             TableSteps_Key_Goal,
-            TableSteps_Key_TimeOfMeasurementDate,
-            TableSteps_Key_TimeOfMeasurementTime,
+            TableSteps_Key_TimeOfMeasurement,
+        };
+
+    /**
+     * The columns of the Steps table that are written; the day of measurement is derived from the time of measurement.
+     */
+    private static final String[] TableSteps_WrittenColumns =
+        {
+            TableSteps_Key_Id,
+            TableSteps_Key_Count,
+            TableSteps_Key_Goal,
+            TableSteps_Key_TimeOfMeasurement,
+            TableSteps_Key_DayOfMeasurement,
+        };
+
+    /**
+     * The columns of the Steps table before version 2 (the time of measurement was stored as ISO date and time strings).
+     */
+    private static final String[] TableStepsV1_Columns =
+        {
+            TableSteps_Key_Id,
+            TableSteps_Key_Count,
+            TableSteps_Key_Goal,
+            "TimeOfMeasurementDate",
+            "TimeOfMeasurementTime",
+        };
+
+    /**
+     * The columns of the Steps table in version 2 (the identifier was stored as UUID string).
+     */
+    private static final String[] TableStepsV2_Columns =
+        {
+            TableSteps_Key_Id,
+            TableSteps_Key_Count,
+            TableSteps_Key_Goal,
+            TableSteps_Key_TimeOfMeasurement,
+            TableSteps_Key_DayOfMeasurement,
+        };
+
+    /**
+     * Maps the columns of the Steps table to the properties written by {@link StepWidgetRepositoryJsonTextSerializer}.
+     */
+    private static final JsonColumnMapping[] TableSteps_JsonColumnMappings =
+        {
+            JsonColumnMapping.ForUuid(StepWidgetRepositoryJsonTextSerializer.IdentifierPropertyName, TableSteps_Key_Id),
+            JsonColumnMapping.ForInteger(StepWidgetRepositoryJsonTextSerializer.StepCountPropertyName, TableSteps_Key_Count),
+            JsonColumnMapping.ForInteger(StepWidgetRepositoryJsonTextSerializer.GoalPropertyName, TableSteps_Key_Goal),
+            JsonColumnMapping.ForDateTime(
+                StepWidgetRepositoryJsonTextSerializer.TimeOfMeasurementPropertyName,
+                TableSteps_Key_TimeOfMeasurement),
+        };
+
+    /**
+     * The per day and per month summaries of the Steps table.
+     */
+    private static final SQLiteSummaryTable<StepCountMeasure> TableSteps_Summaries =
+        new SQLiteSummaryTable<>(
+            TableSteps_Name,
+            TableSteps_Key_TimeOfMeasurement,
+            StepCountMeasure.class,
+            StepWidgetSQLiteRepository::GetMeasureExpression);
+
+    /**
+     * The ordered migrations of the database; see {@link SQLiteMigration}.
+     */
+    private static final SQLiteMigration[] Migrations =
+        {
+            // version 2: the time of measurement is stored as packed integer instead of ISO date and time strings
+            new SQLiteTableRebuildMigration(2, TableSteps_Name, TableStepsV1_Columns, TableStepsV2_Columns)
+            {
+                @Override
+                protected void CreateTable(final SQLiteDatabase database)
+                {
+                    database.execSQL(
+                        "CREATE TABLE " + TableSteps_Name +
+                        " (Id TEXT PRIMARY KEY NOT NULL,Count INTEGER NOT NULL,Goal INTEGER NOT NULL," +
+                        "TimeOfMeasurement INTEGER NOT NULL,DayOfMeasurement INTEGER UNIQUE NOT NULL)");
+                    database.execSQL(
+                        "CREATE INDEX " + TableSteps_Index_TimeOfMeasurement + " ON " + TableSteps_Name + " (TimeOfMeasurement,Id)");
+                }
+
+                @Override
+                protected void BindRow(final Cursor legacyRow, final SQLiteStatement insertStatement)
+                {
+                    final LocalDateTime timeOfMeasurement =
+                        TimeStringConversion.ConvertDateStringAndTimeStringToDateTime(legacyRow.getString(3), legacyRow.getString(4));
+
+                    insertStatement.bindString(1, legacyRow.getString(0));
+                    insertStatement.bindLong(2, legacyRow.getLong(1));
+                    insertStatement.bindLong(3, legacyRow.getLong(2));
+                    insertStatement.bindLong(4, PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(timeOfMeasurement));
+                    insertStatement.bindLong(5, PackedDateTimeConversion.ConvertDateTimeToPackedDay(timeOfMeasurement));
+                }
+            },
+            // version 3: the identifier is stored as 16 byte BLOB instead of UUID string
+            new SQLiteTableRebuildMigration(3, TableSteps_Name, TableStepsV2_Columns, TableSteps_WrittenColumns)
+            {
+                @Override
+                protected void CreateTable(final SQLiteDatabase database)
+                {
+                    database.execSQL("DROP INDEX IF EXISTS " + TableSteps_Index_TimeOfMeasurement);
+                    CreateStepsTable(database);
+                }
+
+                @Override
+                protected void BindRow(final Cursor legacyRow, final SQLiteStatement insertStatement)
+                {
+                    final UUID identifier = UUID.fromString(legacyRow.getString(0));
+
+                    insertStatement.bindBlob(1, UuidBlobConversion.ConvertUuidToBlob(identifier));
+                    insertStatement.bindLong(2, legacyRow.getLong(1));
+                    insertStatement.bindLong(3, legacyRow.getLong(2));
+                    insertStatement.bindLong(4, legacyRow.getLong(3));
+                    insertStatement.bindLong(5, legacyRow.getLong(4));
+                }
+            },
+            // version 4: per day and per month summaries that are maintained by triggers
+            new SQLiteMigration(4)
+            {
+                @Override
+                public void MigrateSchema(final SQLiteDatabase database)
+                {
+                    // a single grouped pass; rows that are still moved by a pending data migration are
+                    // added to the summaries by the triggers
+                    TableSteps_Summaries.Create(database);
+                    TableSteps_Summaries.Rebuild(database);
+                }
+            },
         };
 
     public StepWidgetSQLiteRepository(final @Nullable Context context)
     {
-        super(context, "StepsWidget.db", 1, TableSteps_Name, TableSteps_Key_Id, TableSteps_Columns);
+        super(
+            context,
+            "StepsWidget.db",
+            4,
+            TableSteps_Name,
+            TableSteps_Key_Id,
+            TableSteps_Key_TimeOfMeasurement,
+            TableSteps_WrittenColumns,
+            TableSteps_Summaries,
+            Migrations);
     }
 
     /**
@@ -83,6 +226,7 @@ public class StepWidgetSQLiteRepository
         try
         {
             CreateStepsTable(database);
+            TableSteps_Summaries.Create(database);
             CreatePreferencesTable(database);
 
             database.setTransactionSuccessful();
@@ -93,19 +237,28 @@ public class StepWidgetSQLiteRepository
         }
     }
 
-    private void CreateStepsTable(final SQLiteDatabase database)
+    private static void CreateStepsTable(final SQLiteDatabase database)
     {
         final String createStepsTableStatement =
             "CREATE TABLE " + TableSteps_Name +
             " (" +
-                TableSteps_Key_Id + " TEXT PRIMARY KEY NOT NULL, " +
+                TableSteps_Key_Id + " BLOB PRIMARY KEY NOT NULL, " +
                 TableSteps_Key_Count + " INTEGER NOT NULL," +
                 TableSteps_Key_Goal + " INTEGER NOT NULL," +
-                TableSteps_Key_TimeOfMeasurementDate + " TEXT UNIQUE NOT NULL," +
-                TableSteps_Key_TimeOfMeasurementTime + " TEXT NOT NULL" +
+                TableSteps_Key_TimeOfMeasurement + " INTEGER NOT NULL," +
+                TableSteps_Key_DayOfMeasurement + " INTEGER UNIQUE NOT NULL" +
+            ")";
+
+        final String createTimeOfMeasurementIndexStatement =
+            "CREATE INDEX " + TableSteps_Index_TimeOfMeasurement +
+            " ON " + TableSteps_Name +
+            " (" +
+                TableSteps_Key_TimeOfMeasurement + "," +
+                TableSteps_Key_Id +
             ")";
 
         database.execSQL(createStepsTableStatement);
+        database.execSQL(createTimeOfMeasurementIndexStatement);
     }
 
     private void CreatePreferencesTable(final SQLiteDatabase database)
@@ -223,38 +376,45 @@ public class StepWidgetSQLiteRepository
         if (identifier == null) throw new RecordIdentifierIsNull();
 
         final String identifierAsString = TimeStringConversion.ConvertDateToDateString(identifier);
+        final long packedDay = PackedDateTimeConversion.ConvertDateToPackedDay(identifier);
 
-        return GetRecord(identifierAsString, database -> QueryRecordByDay(database, identifierAsString));
+        return GetRecord(identifierAsString, database -> QueryRecordByDay(database, packedDay));
     }
 
     /**
-     * Created or updates an existing record for the specified identifier with the specified measurements.
+     * Gets the statement that deletes the other record of the day of a record, because
+     * there can only be one {@link StepCountRecord} per day.
      *
-     * @param stepCountRecord The record that should be created or updated.
-     * @throws RecordIsNull                  when {@code record} is {@code null}.
-     * @throws OneOrMorePropertiesAreInvalid when {@code record} contains invalid properties.
-     * @throws RepositoryDisposed            when the repository was already disposed.
-     * @throws RepositoryException           when an unexpected I/O error occurs.
+     * @return the DELETE statement; see {@link #ExecutePreMergeStatement(SQLiteStatement, StepCountRecord)}.
      */
     @Override
-    public void CreateOrUpdateRecord(final StepCountRecord stepCountRecord) throws
-            RecordIsNull,
-            OneOrMorePropertiesAreInvalid,
-            RepositoryDisposed,
-            RepositoryException
+    protected String GetPreMergeStatement()
     {
-        CreateOrUpdateRecordCore(
-            stepCountRecord,
-            database ->
-            {
-                final String whereClause = TableSteps_Key_TimeOfMeasurementDate + " = ?";
-                final String[] whereArgs =
-                    {
-                        TimeStringConversion.ConvertDateTimeToDateString(stepCountRecord.TimeOfMeasurement)
-                    };
-
-                database.delete(TableSteps_Name, whereClause, whereArgs);
-            });
+        return
+            "DELETE FROM " + TableSteps_Name +
+            " WHERE " +
+                TableSteps_Key_DayOfMeasurement + " = ? AND " +
+                TableSteps_Key_Id + " <> ?";
+    }
+
+    /**
+     * Deletes the other record of the day of the specified record.
+     *
+     * @param preMergeStatement The compiled statement of {@link #GetPreMergeStatement()}.
+     * @param stepCountRecord The record that will be created or updated.
+     * @return the count of deleted records.
+     */
+    @Override
+    protected int ExecutePreMergeStatement(
+        final SQLiteStatement preMergeStatement,
+        final StepCountRecord stepCountRecord)
+    {
+        TypedArgumentsCursorFactory.BindArguments(
+            preMergeStatement,
+            PackedDateTimeConversion.ConvertDateTimeToPackedDay(stepCountRecord.TimeOfMeasurement),
+            UuidBlobConversion.ConvertUuidToBlob(stepCountRecord.Identifier));
+
+        return preMergeStatement.executeUpdateDelete();
     }
 
     /**
@@ -276,26 +436,86 @@ public class StepWidgetSQLiteRepository
         ThrowWhenDatabaseStateIsBad();
         if (identifier == null) throw new RecordIdentifierIsNull();
 
-        final String whereClause = TableSteps_Key_TimeOfMeasurementDate + " = ?";
-        final String whereArg = TimeStringConversion.ConvertDateToDateString(identifier);
+        final String whereClause = TableSteps_Key_DayOfMeasurement + " = ?";
+        final long whereArg = PackedDateTimeConversion.ConvertDateToPackedDay(identifier);
 
-        DeleteRecord(whereClause, whereArg);
+        DeleteRecord(TimeStringConversion.ConvertDateToDateString(identifier), whereClause, whereArg);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AggregateBucket> GetAggregates(
+        final StepCountMeasure measure,
+        final AggregationPeriod period,
+        final LocalDateTime from,
+        final LocalDateTime to)
+        throws
+            MeasureIsNull,
+            AggregationPeriodIsNull,
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        if (measure == null) throw new MeasureIsNull();
+
+        return AggregateRecords(GetMeasureExpression(measure, ""), period, from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AggregateBucket> GetSummaries(
+        final StepCountMeasure measure,
+        final AggregationPeriod period,
+        final LocalDate from,
+        final LocalDate to)
+        throws
+            MeasureIsNull,
+            AggregationPeriodIsNull,
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        if (measure == null) throw new MeasureIsNull();
+
+        return ReadSummaries(measure, period, from, to);
+    }
+
+    /**
+     * Gets the SQL expression that computes the specified value of a record.
+     *
+     * @param row The qualifier of the columns of the record (like {@code "NEW."}) or an empty string.
+     */
+    private static String GetMeasureExpression(final StepCountMeasure measure, final String row)
+    {
+        switch (measure)
+        {
+            case StepCount:
+                return row + TableSteps_Key_Count;
+            case Goal:
+                return row + TableSteps_Key_Goal;
+            default:
+                throw new IllegalArgumentException("Unknown step count measure.");
+        }
     }
 
     @Override
     protected StepCountRecord ParseRecordFromCursor(final Cursor cursor)
     {
-        final String identifierText = cursor.getString(0);
+        final byte[] identifierBlob = cursor.getBlob(0);
         final int stepCount = cursor.getInt(1);
         final int stepGoal = cursor.getInt(2);
-        final String dateOfMeasurement = cursor.getString(3);
-        final String timeOfMeasurement = cursor.getString(4);
+        final long timeOfMeasurement = cursor.getLong(3);
 
-        final UUID identifier = UUID.fromString(identifierText);
+        final UUID identifier = UuidBlobConversion.ConvertBlobToUuid(identifierBlob);
 
         final LocalDateTime dateTimeOfMeasurement =
-                TimeStringConversion
-                        .ConvertDateStringAndTimeStringToDateTime(dateOfMeasurement, timeOfMeasurement);
+                PackedDateTimeConversion.ConvertPackedDateTimeToDateTime(timeOfMeasurement);
 
         return new StepCountRecord(identifier, stepCount, stepGoal,dateTimeOfMeasurement);
     }
@@ -303,27 +523,30 @@ public class StepWidgetSQLiteRepository
     @Override
     protected Cursor QueryRecordByIdentifier(
         final SQLiteDatabase database,
-        final String identifier)
+        final byte[] identifier)
     {
-        return database.query(
+        return database.queryWithFactory(
+            /* CURSOR FACTORY (binds the WHERE parameter) */ new TypedArgumentsCursorFactory((Object)identifier),
+            /* DISTINCT */ false,
             /* FROM  */   TableSteps_Name,
             /* SELECT */  TableSteps_Columns,
             /* WHERE */   TableSteps_Key_Id + " = ?",
-            /* WHERE parameter */ new String[] { identifier },
+            /* WHERE parameter */ null,
             /* GROUP BY */ null,
             /* HAVING */ null,
-            /* ORDER BY */ null);
+            /* ORDER BY */ null,
+            /* LIMIT */ null);
     }
 
     private Cursor QueryRecordByDay(
             final SQLiteDatabase database,
-            final String day)
+            final long day)
     {
         return database.query(
             /* FROM  */   TableSteps_Name,
             /* SELECT */  TableSteps_Columns,
-            /* WHERE */   TableSteps_Key_TimeOfMeasurementDate + " = ?",
-            /* WHERE parameter */ new String[] { day },
+            /* WHERE */   TableSteps_Key_DayOfMeasurement + " = ?",
+            /* WHERE parameter */ new String[] { String.valueOf(day) },
             /* GROUP BY */ null,
             /* HAVING */ null,
             /* ORDER BY */ null);
@@ -340,13 +563,12 @@ public class StepWidgetSQLiteRepository
                 TableSteps_Key_Id + "," +
                 TableSteps_Key_Count + "," +
                 TableSteps_Key_Goal + "," +
-                TableSteps_Key_TimeOfMeasurementDate + "," +
-                TableSteps_Key_TimeOfMeasurementTime +
+                TableSteps_Key_TimeOfMeasurement +
             " FROM " +
                 TableSteps_Name +
             " ORDER BY " +
-                TableSteps_Key_TimeOfMeasurementDate + " DESC," +
-                TableSteps_Key_TimeOfMeasurementTime + " DESC" +
+                TableSteps_Key_TimeOfMeasurement + " DESC," +
+                TableSteps_Key_Id + " DESC" +
             " LIMIT ? OFFSET ?";
 
         final String[] parameter =
@@ -359,17 +581,71 @@ public class StepWidgetSQLiteRepository
     }
 
     @Override
-    protected Cursor QueryRecordsForDayDescending(SQLiteDatabase database, LocalDate day)
+    protected Cursor QueryRecordsDescendingAfter(
+        final SQLiteDatabase database,
+        final long packedTimeOfMeasurement,
+        final byte[] identifier,
+        final int count)
+    {
+        final String query =
+            "SELECT " +
+                TableSteps_Key_Id + "," +
+                TableSteps_Key_Count + "," +
+                TableSteps_Key_Goal + "," +
+                TableSteps_Key_TimeOfMeasurement +
+            " FROM " +
+                TableSteps_Name +
+            " WHERE (" +
+                TableSteps_Key_TimeOfMeasurement + "," +
+                TableSteps_Key_Id +
+            ") < (?, ?)" +
+            " ORDER BY " +
+                TableSteps_Key_TimeOfMeasurement + " DESC," +
+                TableSteps_Key_Id + " DESC" +
+            " LIMIT ?";
+
+        return TypedArgumentsCursorFactory.RawQuery(database, query, packedTimeOfMeasurement, identifier, count);
+    }
+
+    @Override
+    protected Cursor QueryRecordsForDayDescending(SQLiteDatabase database, LocalDate day, String limit)
     {
         return database.query(
                 /* FROM */ TableSteps_Name,
                 /* SELECT */ TableSteps_Columns,
-                /* WHERE */ TableSteps_Key_TimeOfMeasurementDate + " = ?",
-                /* WHERE parameter */ new String[] { TimeStringConversion.ConvertDateToDateString(day) },
+                /* WHERE */ TableSteps_Key_DayOfMeasurement + " = ?",
+                /* WHERE parameter */ new String[] { String.valueOf(PackedDateTimeConversion.ConvertDateToPackedDay(day)) },
                 /* GROUP BY */ null,
                 /* HAVING */ null,
-                /* ORDER BY */ TableSteps_Key_TimeOfMeasurementDate + " DESC," +
-                               TableSteps_Key_TimeOfMeasurementTime + " DESC");
+                /* ORDER BY */ TableSteps_Key_TimeOfMeasurement + " DESC," +
+                               TableSteps_Key_Id + " DESC",
+                /* LIMIT */ limit);
+    }
+
+    @Override
+    protected Cursor QueryRecordsInRange(
+        final SQLiteDatabase database,
+        final long from,
+        final long to,
+        final boolean descending)
+    {
+        final String direction = descending ? " DESC" : " ASC";
+
+        return database.query(
+            /* FROM */ TableSteps_Name,
+            /* SELECT */ TableSteps_Columns,
+            /* WHERE */ TableSteps_Key_TimeOfMeasurement + " BETWEEN ? AND ?",
+            /* WHERE parameter */ new String[] { String.valueOf(from), String.valueOf(to) },
+            /* GROUP BY */ null,
+            /* HAVING */ null,
+            /* ORDER BY */ TableSteps_Key_TimeOfMeasurement + direction + "," +
+                           TableSteps_Key_Id + direction);
+    }
+
+    @Override
+    protected JsonColumnMapping[] GetJsonColumnMappings()
+    {
+        return TableSteps_JsonColumnMappings;
     }
 
     @Override
@@ -391,6 +667,14 @@ public class StepWidgetSQLiteRepository
                 "TimeOfMeasurement is null.");
         }
 
+        if (!PackedDateTimeConversion.CanBePacked(stepCountRecord.TimeOfMeasurement))
+        {
+            throw new OneOrMorePropertiesAreInvalid(
+                "stepCountRecord",
+                "TimeOfMeasurement",
+                "TimeOfMeasurement is out of the supported range.");
+        }
+
         if (stepCountRecord.StepCount < 0)
         {
             throw new OneOrMorePropertiesAreInvalid(
@@ -409,19 +693,19 @@ public class StepWidgetSQLiteRepository
     }
 
     @Override
-    protected ContentValues PackageValues(StepCountRecord stepCountRecord)
+    protected UUID GetRecordIdentifier(final StepCountRecord stepCountRecord)
     {
-        final String dateOfMeasurementString = TimeStringConversion.ConvertDateTimeToDateString(stepCountRecord.TimeOfMeasurement);
-        final String timeOfMeasurementString = TimeStringConversion.ConvertDateTimeToTimeString(stepCountRecord.TimeOfMeasurement);
-
-        final ContentValues values = new ContentValues();
-        values.put(TableSteps_Key_Id, stepCountRecord.Identifier.toString());
-        values.put(TableSteps_Key_Count, stepCountRecord.StepCount);
-        values.put(TableSteps_Key_Goal, stepCountRecord.Goal);
-        values.put(TableSteps_Key_TimeOfMeasurementDate, dateOfMeasurementString);
-        values.put(TableSteps_Key_TimeOfMeasurementTime, timeOfMeasurementString);
+        return stepCountRecord.Identifier;
+    }
 
-        return values;
+    @Override
+    protected void BindValues(final SQLiteStatement statement, final StepCountRecord stepCountRecord)
+    {
+        statement.bindBlob(1, UuidBlobConversion.ConvertUuidToBlob(stepCountRecord.Identifier));
+        statement.bindLong(2, stepCountRecord.StepCount);
+        statement.bindLong(3, stepCountRecord.Goal);
+        statement.bindLong(4, PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(stepCountRecord.TimeOfMeasurement));
+        statement.bindLong(5, PackedDateTimeConversion.ConvertDateTimeToPackedDay(stepCountRecord.TimeOfMeasurement));
     }
 }
 
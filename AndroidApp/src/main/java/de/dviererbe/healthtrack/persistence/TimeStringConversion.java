@@ -1,5 +1,6 @@
 package de.dviererbe.healthtrack.persistence;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -7,10 +8,19 @@ import java.time.format.DateTimeFormatter;
 /**
  * Converts between {@link LocalDateTime}, {@link LocalDate} and {@link String} representations.
  *
+ * The stored values have the fixed layouts {@code yyyy-MM-dd} and {@code HH:mm[:ss[.fraction]]}, so they are
+ * formatted and parsed character by character. Values outside of these layouts (for example years with more
+ * than four digits) are passed to the general {@link DateTimeFormatter}s, which also produce the errors.
+ *
  * Used for the internal SQLite Repositories implementations.
  */
 class TimeStringConversion
 {
+    private static final int DateLength = 10;
+    private static final int TimeWithoutSecondsLength = 5;
+    private static final int TimeLength = 8;
+    private static final int MaximumFractionDigits = 9;
+
     /**
      * Converts a {@link LocalDate} instance to a ISO local date {@link String} representation.
      *
@@ -19,7 +29,19 @@ class TimeStringConversion
      */
     public static String ConvertDateToDateString(final LocalDate date)
     {
-        return DateTimeFormatter.ISO_LOCAL_DATE.format(date);
+        final int year = date.getYear();
+
+        if (year < 0 || year > 9999) return DateTimeFormatter.ISO_LOCAL_DATE.format(date);
+
+        final char[] characters = new char[DateLength];
+
+        WriteDigits(year, characters, 0, 4);
+        characters[4] = '-';
+        WriteDigits(date.getMonthValue(), characters, 5, 2);
+        characters[7] = '-';
+        WriteDigits(date.getDayOfMonth(), characters, 8, 2);
+
+        return new String(characters);
     }
 
     /**
@@ -30,18 +52,47 @@ class TimeStringConversion
      */
     public static String ConvertDateTimeToDateString(final LocalDateTime dateTime)
     {
-        return DateTimeFormatter.ISO_LOCAL_DATE.format(dateTime);
+        return ConvertDateToDateString(dateTime.toLocalDate());
     }
 
     /**
      * Converts a {@link LocalDateTime} instance to a ISO local time {@link String} representation.
+     * The seconds are always written; the fraction of the second only if it is not zero (without trailing zeros).
      *
      * @param dateTime the {@link LocalDateTime} instance that should be converted
      * @return ISO local time {@link String} representation
      */
     public static String ConvertDateTimeToTimeString(final LocalDateTime dateTime)
     {
-        return DateTimeFormatter.ISO_LOCAL_TIME.format(dateTime);
+        final int nano = dateTime.getNano();
+
+        int fractionDigits = 0;
+
+        if (nano != 0)
+        {
+            fractionDigits = MaximumFractionDigits;
+
+            for (int remainder = nano; remainder % 10 == 0; remainder /= 10)
+            {
+                --fractionDigits;
+            }
+        }
+
+        final char[] characters = new char[fractionDigits == 0 ? TimeLength : TimeLength + 1 + fractionDigits];
+
+        WriteDigits(dateTime.getHour(), characters, 0, 2);
+        characters[2] = ':';
+        WriteDigits(dateTime.getMinute(), characters, 3, 2);
+        characters[5] = ':';
+        WriteDigits(dateTime.getSecond(), characters, 6, 2);
+
+        if (fractionDigits != 0)
+        {
+            characters[TimeLength] = '.';
+            WriteDigits(nano / Pow10(MaximumFractionDigits - fractionDigits), characters, TimeLength + 1, fractionDigits);
+        }
+
+        return new String(characters);
     }
 
     /**
@@ -55,7 +106,114 @@ class TimeStringConversion
             final String isoLocalDateString,
             final String isoLocalTimeString)
     {
+        final LocalDateTime dateTime = TryParseFixedWidth(isoLocalDateString, isoLocalTimeString);
+
+        if (dateTime != null) return dateTime;
+
         final String isoLocalDateTimeString = isoLocalDateString + "T" + isoLocalTimeString;
         return LocalDateTime.parse(isoLocalDateTimeString, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
     }
+
+    /**
+     * Parses the fixed layouts {@code yyyy-MM-dd} and {@code HH:mm[:ss[.fraction]]} without creating
+     * intermediate objects.
+     *
+     * @return the parsed {@link LocalDateTime} or {@code null} if the strings do not have the fixed layouts
+     *         or contain invalid values.
+     */
+    private static LocalDateTime TryParseFixedWidth(final String date, final String time)
+    {
+        if (date == null || time == null) return null;
+        if (date.length() != DateLength || date.charAt(4) != '-' || date.charAt(7) != '-') return null;
+
+        final int timeLength = time.length();
+
+        if (timeLength < TimeWithoutSecondsLength || time.charAt(2) != ':') return null;
+
+        final int year = ReadDigits(date, 0, 4);
+        final int month = ReadDigits(date, 5, 2);
+        final int day = ReadDigits(date, 8, 2);
+        final int hour = ReadDigits(time, 0, 2);
+        final int minute = ReadDigits(time, 3, 2);
+
+        int second = 0;
+        int nano = 0;
+
+        if (timeLength != TimeWithoutSecondsLength)
+        {
+            if (timeLength < TimeLength || time.charAt(5) != ':') return null;
+
+            second = ReadDigits(time, 6, 2);
+
+            if (timeLength != TimeLength)
+            {
+                final int fractionDigits = timeLength - TimeLength - 1;
+
+                if (time.charAt(TimeLength) != '.' || fractionDigits < 1 || fractionDigits > MaximumFractionDigits) return null;
+
+                final int fraction = ReadDigits(time, TimeLength + 1, fractionDigits);
+
+                if (fraction < 0) return null;
+
+                nano = fraction * Pow10(MaximumFractionDigits - fractionDigits);
+            }
+        }
+
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) return null;
+
+        try
+        {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        }
+        catch (DateTimeException exception)
+        {
+            // the general parser reports the invalid value
+            return null;
+        }
+    }
+
+    /**
+     * Reads a fixed count of decimal digits.
+     *
+     * @return the value of the digits or {@code -1} if one of the characters is not a digit.
+     */
+    private static int ReadDigits(final String text, final int offset, final int count)
+    {
+        int value = 0;
+
+        for (int index = offset; index < offset + count; ++index)
+        {
+            final int digit = text.charAt(index) - '0';
+
+            if (digit < 0 || digit > 9) return -1;
+
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    /**
+     * Writes a non-negative value as a fixed count of decimal digits (with leading zeros).
+     */
+    private static void WriteDigits(int value, final char[] characters, final int offset, final int count)
+    {
+        for (int index = offset + count - 1; index >= offset; --index)
+        {
+            characters[index] = (char)('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static int Pow10(final int exponent)
+    {
+        int value = 1;
+
+        for (int index = 0; index < exponent; ++index)
+        {
+            value *= 10;
+        }
+
+        return value;
+    }
 }
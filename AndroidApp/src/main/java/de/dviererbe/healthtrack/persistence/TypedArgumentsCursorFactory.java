@@ -0,0 +1,117 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteProgram;
+import android.database.sqlite.SQLiteQuery;
+
+/**
+ * A {@link SQLiteDatabase.CursorFactory} that binds typed arguments to the query of the cursor.
+ *
+ * The selection arguments of {@link SQLiteDatabase#rawQuery(String, String[])} and {@link SQLiteDatabase#query}
+ * are always bound as TEXT. A TEXT value never equals a BLOB value, so queries that compare BLOB columns
+ * (like the record identifiers, see {@link UuidBlobConversion}) have to bind their arguments with this factory.
+ *
+ * Used for the internal SQLite Repositories implementations.
+ */
+final class TypedArgumentsCursorFactory implements SQLiteDatabase.CursorFactory
+{
+    private final Object[] _arguments;
+
+    /**
+     * Initializes a new {@link TypedArgumentsCursorFactory} instance.
+     *
+     * @param arguments The arguments of the query; see {@link #BindArguments(SQLiteProgram, Object...)}.
+     */
+    public TypedArgumentsCursorFactory(final Object... arguments)
+    {
+        _arguments = arguments;
+    }
+
+    /**
+     * Runs a query with typed arguments.
+     *
+     * @param database The database to query.
+     * @param query The SQL query.
+     * @param arguments The arguments of the query; see {@link #BindArguments(SQLiteProgram, Object...)}.
+     * @return the {@link Cursor} of the result set.
+     */
+    public static Cursor RawQuery(final SQLiteDatabase database, final String query, final Object... arguments)
+    {
+        return database.rawQueryWithFactory(new TypedArgumentsCursorFactory(arguments), query, null, null);
+    }
+
+    /**
+     * Binds typed arguments to the parameters of a statement or query, in order. {@code byte[]} values are bound
+     * as BLOB, {@link Long} and {@link Integer} values as INTEGER, {@link Double} values as REAL, {@code null} as
+     * NULL and all other values as TEXT.
+     *
+     * @param program The statement or query to bind the arguments to.
+     * @param arguments The arguments.
+     */
+    public static void BindArguments(final SQLiteProgram program, final Object... arguments)
+    {
+        for (int index = 0; index < arguments.length; ++index)
+        {
+            final Object argument = arguments[index];
+            final int parameter = index + 1;
+
+            if (argument == null)
+            {
+                program.bindNull(parameter);
+            }
+            else if (argument instanceof byte[])
+            {
+                program.bindBlob(parameter, (byte[])argument);
+            }
+            else if (argument instanceof Long || argument instanceof Integer)
+            {
+                program.bindLong(parameter, ((Number)argument).longValue());
+            }
+            else if (argument instanceof Double)
+            {
+                program.bindDouble(parameter, (Double)argument);
+            }
+            else
+            {
+                program.bindString(parameter, argument.toString());
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cursor newCursor(
+        final SQLiteDatabase database,
+        final SQLiteCursorDriver driver,
+        final String editTable,
+        final SQLiteQuery query)
+    {
+        // the query is executed when the cursor is filled for the first time, so the arguments can still be bound
+        BindArguments(query, _arguments);
+
+        return new SQLiteCursor(driver, editTable, query);
+    }
+}
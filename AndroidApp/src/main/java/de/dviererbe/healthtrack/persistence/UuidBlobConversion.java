@@ -0,0 +1,140 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import java.util.UUID;
+
+/**
+ * Converts between {@link UUID} instances and their 16 byte BLOB representation.
+ *
+ * The most significant bits are stored first and both halves are stored in big-endian byte order, so
+ * comparing two BLOBs byte by byte (as SQLite does) yields the same order as comparing the canonical
+ * (lowercase) string representations of the {@link UUID}s.
+ *
+ * Used for the internal SQLite Repositories implementations.
+ */
+final class UuidBlobConversion
+{
+    /**
+     * The count of bytes of a BLOB representation.
+     */
+    public static final int BlobLength = 16;
+
+    /**
+     * The number of characters that are written by {@link #FormatBlob(byte[], char[])}.
+     */
+    public static final int FormattedLength = 36;
+
+    private static final char[] HexDigits = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    private UuidBlobConversion()
+    {
+    }
+
+    /**
+     * Converts a {@link UUID} instance to its BLOB representation.
+     *
+     * @param uuid the {@link UUID} instance that should be converted
+     * @return a new array with the 16 bytes of {@code uuid}
+     */
+    public static byte[] ConvertUuidToBlob(final UUID uuid)
+    {
+        final byte[] blob = new byte[BlobLength];
+
+        WriteLong(uuid.getMostSignificantBits(), blob, 0);
+        WriteLong(uuid.getLeastSignificantBits(), blob, 8);
+
+        return blob;
+    }
+
+    /**
+     * Converts a BLOB representation to a {@link UUID} instance.
+     *
+     * @param blob the 16 bytes of the {@link UUID}
+     * @return the {@link UUID} instance represented by {@code blob}
+     * @throws IllegalArgumentException when {@code blob} is {@code null} or does not contain 16 bytes.
+     */
+    public static UUID ConvertBlobToUuid(final byte[] blob)
+    {
+        ThrowWhenBlobIsInvalid(blob);
+
+        return new UUID(ReadLong(blob, 0), ReadLong(blob, 8));
+    }
+
+    /**
+     * Writes a BLOB representation in the canonical {@link UUID} string format
+     * ({@code xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx}) into a character array.
+     *
+     * @param blob the 16 bytes of the {@link UUID}
+     * @param buffer the character array to write to; at least {@link #FormattedLength} characters have to be available
+     * @return the count of written characters ({@link #FormattedLength})
+     * @throws IllegalArgumentException when {@code blob} is {@code null} or does not contain 16 bytes.
+     */
+    public static int FormatBlob(final byte[] blob, final char[] buffer)
+    {
+        ThrowWhenBlobIsInvalid(blob);
+
+        int position = 0;
+
+        for (int index = 0; index < BlobLength; ++index)
+        {
+            // the groups have 8, 4, 4, 4 and 12 digits
+            if (index == 4 || index == 6 || index == 8 || index == 10)
+            {
+                buffer[position++] = '-';
+            }
+
+            buffer[position++] = HexDigits[(blob[index] >> 4) & 0xF];
+            buffer[position++] = HexDigits[blob[index] & 0xF];
+        }
+
+        return position;
+    }
+
+    private static void ThrowWhenBlobIsInvalid(final byte[] blob)
+    {
+        if (blob == null) throw new IllegalArgumentException("blob is null");
+
+        if (blob.length != BlobLength)
+        {
+            throw new IllegalArgumentException("blob has " + blob.length + " instead of " + BlobLength + " bytes");
+        }
+    }
+
+    private static void WriteLong(long value, final byte[] blob, final int offset)
+    {
+        for (int index = offset + 7; index >= offset; --index)
+        {
+            blob[index] = (byte)value;
+            value >>>= 8;
+        }
+    }
+
+    private static long ReadLong(final byte[] blob, final int offset)
+    {
+        long value = 0L;
+
+        for (int index = offset; index < offset + 8; ++index)
+        {
+            value = (value << 8) | (blob[index] & 0xFFL);
+        }
+
+        return value;
+    }
+}
@@ -18,39 +18,181 @@
 
 package de.dviererbe.healthtrack.persistence;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import androidx.annotation.Nullable;
 import de.dviererbe.healthtrack.domain.WeightRecord;
 import de.dviererbe.healthtrack.domain.WeightUnit;
-import de.dviererbe.healthtrack.persistence.exceptions.OneOrMorePropertiesAreInvalid;
+import de.dviererbe.healthtrack.infrastructure.json.WeightWidgetRepositoryJsonTextSerializer;
+import de.dviererbe.healthtrack.persistence.exceptions.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
-public class WeightWidgetSQLiteRepository extends SQLiteRepositoryBase<WeightRecord>
+public class WeightWidgetSQLiteRepository
+    extends
+        SQLiteRepositoryBase<WeightRecord>
+    implements
+        IAggregatable<WeightMeasure>
 {
     private static final String TableWeight_Name = "Weight";
     private static final String TableWeight_Key_Id = "Id";
     private static final String TableWeight_Key_Value = "Value";
     private static final String TableWeight_Key_Unit = "Unit";
-    private static final String TableWeight_Key_TimeOfMeasurementDate = "TimeOfMeasurementDate";
-    private static final String TableWeight_Key_TimeOfMeasurementTime = "TimeOfMeasurementTime";
+    private static final String TableWeight_Key_TimeOfMeasurement = "TimeOfMeasurement";
+
+    /**
+     * Index on the sort key of the records (newest first), so that pages and days are read by index seeks.
+     */
+    private static final String TableWeight_Index_TimeOfMeasurement = "WeightTimeOfMeasurementIndex";
 
     private static final String[] TableWeight_Columns =
     {
         TableWeight_Key_Id,
         TableWeight_Key_Value,
         TableWeight_Key_Unit,
-        TableWeight_Key_TimeOfMeasurementDate,
-        TableWeight_Key_TimeOfMeasurementTime
+        TableWeight_Key_TimeOfMeasurement
     };
 
+    /**
+     * The columns of the Weight table before version 3 (the time of measurement was stored as ISO date and time strings).
+     */
+    private static final String[] TableWeightV2_Columns =
+    {
+        TableWeight_Key_Id,
+        TableWeight_Key_Value,
+        TableWeight_Key_Unit,
+        "TimeOfMeasurementDate",
+        "TimeOfMeasurementTime"
+    };
+
+    /**
+     * The columns of the Weight table in version 3 (the identifier was stored as UUID string).
+     */
+    private static final String[] TableWeightV3_Columns =
+    {
+        TableWeight_Key_Id,
+        TableWeight_Key_Value,
+        TableWeight_Key_Unit,
+        TableWeight_Key_TimeOfMeasurement
+    };
+
+    /**
+     * Maps the columns of the Weight table to the properties written by {@link WeightWidgetRepositoryJsonTextSerializer}.
+     */
+    private static final JsonColumnMapping[] TableWeight_JsonColumnMappings =
+        {
+            JsonColumnMapping.ForUuid(WeightWidgetRepositoryJsonTextSerializer.IdentifierPropertyName, TableWeight_Key_Id),
+            JsonColumnMapping.ForReal(WeightWidgetRepositoryJsonTextSerializer.ValuePropertyName, TableWeight_Key_Value),
+            JsonColumnMapping.ForText(WeightWidgetRepositoryJsonTextSerializer.UnitPropertyName, TableWeight_Key_Unit),
+            JsonColumnMapping.ForDateTime(
+                WeightWidgetRepositoryJsonTextSerializer.TimeOfMeasurementPropertyName,
+                TableWeight_Key_TimeOfMeasurement),
+        };
+
+    /**
+     * The per day and per month summaries of the Weight table.
+     */
+    private static final SQLiteSummaryTable<WeightMeasure> TableWeight_Summaries =
+        new SQLiteSummaryTable<>(
+            TableWeight_Name,
+            TableWeight_Key_TimeOfMeasurement,
+            WeightMeasure.class,
+            WeightWidgetSQLiteRepository::GetMeasureExpression);
+
+    /**
+     * The ordered migrations of the database; see {@link SQLiteMigration}.
+     */
+    private static final SQLiteMigration[] Migrations =
+        {
+            // version 2: index for the ordered and per day queries
+            new SQLiteMigration(2)
+            {
+                @Override
+                public void MigrateSchema(final SQLiteDatabase database)
+                {
+                    database.execSQL(
+                        "CREATE INDEX IF NOT EXISTS " + TableWeight_Index_TimeOfMeasurement +
+                        " ON " + TableWeight_Name + " (TimeOfMeasurementDate,TimeOfMeasurementTime," + TableWeight_Key_Id + ")");
+                }
+            },
+            // version 3: the time of measurement is stored as packed integer instead of ISO date and time strings
+            new SQLiteTableRebuildMigration(3, TableWeight_Name, TableWeightV2_Columns, TableWeightV3_Columns)
+            {
+                @Override
+                protected void CreateTable(final SQLiteDatabase database)
+                {
+                    database.execSQL("DROP INDEX IF EXISTS " + TableWeight_Index_TimeOfMeasurement);
+                    database.execSQL(
+                        "CREATE TABLE " + TableWeight_Name +
+                        " (Id TEXT PRIMARY KEY NOT NULL,Value REAL NOT NULL,Unit TEXT NOT NULL,TimeOfMeasurement INTEGER NOT NULL)");
+                    database.execSQL(
+                        "CREATE INDEX " + TableWeight_Index_TimeOfMeasurement + " ON " + TableWeight_Name + " (TimeOfMeasurement,Id)");
+                }
+
+                @Override
+                protected void BindRow(final Cursor legacyRow, final SQLiteStatement insertStatement)
+                {
+                    final LocalDateTime timeOfMeasurement =
+                        TimeStringConversion.ConvertDateStringAndTimeStringToDateTime(legacyRow.getString(3), legacyRow.getString(4));
+
+                    insertStatement.bindString(1, legacyRow.getString(0));
+                    insertStatement.bindDouble(2, legacyRow.getDouble(1));
+                    insertStatement.bindString(3, legacyRow.getString(2));
+                    insertStatement.bindLong(4, PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(timeOfMeasurement));
+                }
+            },
+            // version 4: the identifier is stored as 16 byte BLOB instead of UUID string
+            new SQLiteTableRebuildMigration(4, TableWeight_Name, TableWeightV3_Columns, TableWeight_Columns)
+            {
+                @Override
+                protected void CreateTable(final SQLiteDatabase database)
+                {
+                    database.execSQL("DROP INDEX IF EXISTS " + TableWeight_Index_TimeOfMeasurement);
+                    CreateWeightTable(database);
+                }
+
+                @Override
+                protected void BindRow(final Cursor legacyRow, final SQLiteStatement insertStatement)
+                {
+                    final UUID identifier = UUID.fromString(legacyRow.getString(0));
+
+                    insertStatement.bindBlob(1, UuidBlobConversion.ConvertUuidToBlob(identifier));
+                    insertStatement.bindDouble(2, legacyRow.getDouble(1));
+                    insertStatement.bindString(3, legacyRow.getString(2));
+                    insertStatement.bindLong(4, legacyRow.getLong(3));
+                }
+            },
+            // version 5: per day and per month summaries that are maintained by triggers
+            new SQLiteMigration(5)
+            {
+                @Override
+                public void MigrateSchema(final SQLiteDatabase database)
+                {
+                    // a single grouped pass; rows that are still moved by a pending data migration are
+                    // added to the summaries by the triggers
+                    TableWeight_Summaries.Create(database);
+                    TableWeight_Summaries.Rebuild(database);
+                }
+            },
+        };
+
     public WeightWidgetSQLiteRepository(@Nullable Context context)
     {
-        super(context, "WeightWidget.db", 1, TableWeight_Name, TableWeight_Key_Id, TableWeight_Columns);
+        super(
+            context,
+            "WeightWidget.db",
+            5,
+            TableWeight_Name,
+            TableWeight_Key_Id,
+            TableWeight_Key_TimeOfMeasurement,
+            TableWeight_Columns,
+            TableWeight_Summaries,
+            Migrations);
     }
 
     /**
@@ -58,47 +200,139 @@ public class WeightWidgetSQLiteRepository extends SQLiteRepositoryBase<WeightRec
      */
     @Override
     public void onCreate(SQLiteDatabase database)
+    {
+        CreateWeightTable(database);
+        TableWeight_Summaries.Create(database);
+    }
+
+    private static void CreateWeightTable(final SQLiteDatabase database)
     {
         final String createTableWeightStatement =
             "CREATE TABLE " + TableWeight_Name +
             " (" +
-                TableWeight_Key_Id + " TEXT PRIMARY KEY NOT NULL," +
+                TableWeight_Key_Id + " BLOB PRIMARY KEY NOT NULL," +
                 TableWeight_Key_Value + " REAL NOT NULL," +
                 TableWeight_Key_Unit + " TEXT NOT NULL," +
-                TableWeight_Key_TimeOfMeasurementDate + " TEXT NOT NULL," +
-                TableWeight_Key_TimeOfMeasurementTime + " TEXT NOT NULL" +
+                TableWeight_Key_TimeOfMeasurement + " INTEGER NOT NULL" +
             ")";
 
         database.execSQL(createTableWeightStatement);
+        CreateTimeOfMeasurementIndex(database);
+    }
+
+    private static void CreateTimeOfMeasurementIndex(final SQLiteDatabase database)
+    {
+        final String createTimeOfMeasurementIndexStatement =
+            "CREATE INDEX IF NOT EXISTS " + TableWeight_Index_TimeOfMeasurement +
+            " ON " + TableWeight_Name +
+            " (" +
+                TableWeight_Key_TimeOfMeasurement + "," +
+                TableWeight_Key_Id +
+            ")";
+
+        database.execSQL(createTimeOfMeasurementIndexStatement);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AggregateBucket> GetAggregates(
+        final WeightMeasure measure,
+        final AggregationPeriod period,
+        final LocalDateTime from,
+        final LocalDateTime to)
+        throws
+            MeasureIsNull,
+            AggregationPeriodIsNull,
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        if (measure == null) throw new MeasureIsNull();
+
+        return AggregateRecords(GetMeasureExpression(measure, ""), period, from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AggregateBucket> GetSummaries(
+        final WeightMeasure measure,
+        final AggregationPeriod period,
+        final LocalDate from,
+        final LocalDate to)
+        throws
+            MeasureIsNull,
+            AggregationPeriodIsNull,
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        if (measure == null) throw new MeasureIsNull();
+
+        return ReadSummaries(measure, period, from, to);
+    }
+
+    /**
+     * Gets the SQL expression that computes the specified value of a record.
+     *
+     * @param row The qualifier of the columns of the record (like {@code "NEW."}) or an empty string.
+     */
+    private static String GetMeasureExpression(final WeightMeasure measure, final String row)
+    {
+        switch (measure)
+        {
+            case Weight:
+                return row + TableWeight_Key_Value + " * " + GetKilogramFactorExpression(row);
+            default:
+                throw new IllegalArgumentException("Unknown weight measure.");
+        }
+    }
+
+    /**
+     * Gets the SQL expression of the factor that converts the value of a record into kilograms.
+     */
+    private static String GetKilogramFactorExpression(final String row)
+    {
+        return
+            "(CASE " + row + TableWeight_Key_Unit +
+            " WHEN '" + WeightUnit.Pound.name() + "' THEN " + WeightUnit.ToKilogram(1.0, WeightUnit.Pound) +
+            " ELSE 1.0 END)";
     }
 
     @Override
     protected WeightRecord ParseRecordFromCursor(Cursor cursor)
     {
-        final String identifier = cursor.getString(0);
+        final byte[] identifier = cursor.getBlob(0);
         final double value = cursor.getDouble(1);
         final String unit = cursor.getString(2);
-        final String dateOfMeasurement = cursor.getString(3);
-        final String timeOfMeasurement = cursor.getString(4);
+        final long timeOfMeasurement = cursor.getLong(3);
 
         return new WeightRecord(
-            UUID.fromString(identifier),
+            UuidBlobConversion.ConvertBlobToUuid(identifier),
             value,
             WeightUnit.valueOf(unit),
-            TimeStringConversion.ConvertDateStringAndTimeStringToDateTime(dateOfMeasurement, timeOfMeasurement));
+            PackedDateTimeConversion.ConvertPackedDateTimeToDateTime(timeOfMeasurement));
     }
 
     @Override
-    protected Cursor QueryRecordByIdentifier(SQLiteDatabase database, String identifier)
+    protected Cursor QueryRecordByIdentifier(SQLiteDatabase database, byte[] identifier)
     {
-        return database.query(
+        return database.queryWithFactory(
+            /* CURSOR FACTORY (binds the WHERE parameter) */ new TypedArgumentsCursorFactory((Object)identifier),
+            /* DISTINCT */ false,
             /* FROM  */   TableWeight_Name,
             /* SELECT */  TableWeight_Columns,
             /* WHERE */   TableWeight_Key_Id + " = ?",
-            /* WHERE parameter */ new String[] { identifier },
+            /* WHERE parameter */ null,
             /* GROUP BY */ null,
             /* HAVING */ null,
-            /* ORDER BY */ null);
+            /* ORDER BY */ null,
+            /* LIMIT */ null);
     }
 
     @Override
@@ -109,13 +343,12 @@ public class WeightWidgetSQLiteRepository extends SQLiteRepositoryBase<WeightRec
                 TableWeight_Key_Id + "," +
                 TableWeight_Key_Value + "," +
                 TableWeight_Key_Unit + "," +
-                TableWeight_Key_TimeOfMeasurementDate + "," +
-                TableWeight_Key_TimeOfMeasurementTime +
+                TableWeight_Key_TimeOfMeasurement +
             " FROM " +
                 TableWeight_Name +
             " ORDER BY " +
-                TableWeight_Key_TimeOfMeasurementDate + " DESC," +
-                TableWeight_Key_TimeOfMeasurementTime + " DESC" +
+                TableWeight_Key_TimeOfMeasurement + " DESC," +
+                TableWeight_Key_Id + " DESC" +
             " LIMIT ? OFFSET ?";
 
         final String[] parameter =
@@ -128,18 +361,75 @@ public class WeightWidgetSQLiteRepository extends SQLiteRepositoryBase<WeightRec
     }
 
     @Override
-    protected Cursor QueryRecordsForDayDescending(SQLiteDatabase database, LocalDate day)
+    protected Cursor QueryRecordsDescendingAfter(
+        final SQLiteDatabase database,
+        final long packedTimeOfMeasurement,
+        final byte[] identifier,
+        final int count)
+    {
+        final String query =
+            "SELECT " +
+                TableWeight_Key_Id + "," +
+                TableWeight_Key_Value + "," +
+                TableWeight_Key_Unit + "," +
+                TableWeight_Key_TimeOfMeasurement +
+            " FROM " +
+                TableWeight_Name +
+            " WHERE (" +
+                TableWeight_Key_TimeOfMeasurement + "," +
+                TableWeight_Key_Id +
+            ") < (?, ?)" +
+            " ORDER BY " +
+                TableWeight_Key_TimeOfMeasurement + " DESC," +
+                TableWeight_Key_Id + " DESC" +
+            " LIMIT ?";
+
+        return TypedArgumentsCursorFactory.RawQuery(database, query, packedTimeOfMeasurement, identifier, count);
+    }
+
+    @Override
+    protected Cursor QueryRecordsForDayDescending(SQLiteDatabase database, LocalDate day, String limit)
+    {
+        return database.query(
+            /* FROM */ TableWeight_Name,
+            /* SELECT */ TableWeight_Columns,
+            /* WHERE */ TableWeight_Key_TimeOfMeasurement + " BETWEEN ? AND ?",
+            /* WHERE parameter */ new String[]
+                {
+                    String.valueOf(PackedDateTimeConversion.GetFirstPackedDateTimeOfDay(day)),
+                    String.valueOf(PackedDateTimeConversion.GetLastPackedDateTimeOfDay(day))
+                },
+            /* GROUP BY */ null,
+            /* HAVING */ null,
+            /* ORDER BY */ TableWeight_Key_TimeOfMeasurement + " DESC," +
+                           TableWeight_Key_Id + " DESC",
+            /* LIMIT */ limit);
+    }
+
+    @Override
+    protected Cursor QueryRecordsInRange(
+        final SQLiteDatabase database,
+        final long from,
+        final long to,
+        final boolean descending)
     {
+        final String direction = descending ? " DESC" : " ASC";
+
         return database.query(
             /* FROM */ TableWeight_Name,
             /* SELECT */ TableWeight_Columns,
-            /* WHERE */ TableWeight_Key_TimeOfMeasurementDate + " = ?",
-            /* WHERE parameter */ new String[] { TimeStringConversion.ConvertDateToDateString(day) },
+            /* WHERE */ TableWeight_Key_TimeOfMeasurement + " BETWEEN ? AND ?",
+            /* WHERE parameter */ new String[] { String.valueOf(from), String.valueOf(to) },
             /* GROUP BY */ null,
             /* HAVING */ null,
-            /* ORDER BY */ TableWeight_Key_TimeOfMeasurementDate + " DESC," +
-                           TableWeight_Key_TimeOfMeasurementTime + " DESC");
+            /* ORDER BY */ TableWeight_Key_TimeOfMeasurement + direction + "," +
+                           TableWeight_Key_Id + direction);
+    }
 
+    @Override
+    protected JsonColumnMapping[] GetJsonColumnMappings()
+    {
+        return TableWeight_JsonColumnMappings;
     }
 
     @Override
@@ -161,6 +451,14 @@ public class WeightWidgetSQLiteRepository extends SQLiteRepositoryBase<WeightRec
                 "TimeOfMeasurement is null.");
         }
 
+        if (!PackedDateTimeConversion.CanBePacked(weightRecord.TimeOfMeasurement))
+        {
+            throw new OneOrMorePropertiesAreInvalid(
+                "weightRecord",
+                "TimeOfMeasurement",
+                "TimeOfMeasurement is out of the supported range.");
+        }
+
         if (weightRecord.Unit == null)
         {
             throw new OneOrMorePropertiesAreInvalid(
@@ -179,17 +477,17 @@ public class WeightWidgetSQLiteRepository extends SQLiteRepositoryBase<WeightRec
     }
 
     @Override
-    protected ContentValues PackageValues(WeightRecord weightRecord)
-    {
-        final ContentValues values = new ContentValues();
-        values.put(TableWeight_Key_Id, weightRecord.Identifier.toString());
-        values.put(TableWeight_Key_Value, weightRecord.Value);
-        values.put(TableWeight_Key_Unit, weightRecord.Unit.name());
-        values.put(TableWeight_Key_TimeOfMeasurementDate,
-                   TimeStringConversion.ConvertDateTimeToDateString(weightRecord.TimeOfMeasurement));
-        values.put(TableWeight_Key_TimeOfMeasurementTime,
-                   TimeStringConversion.ConvertDateTimeToTimeString(weightRecord.TimeOfMeasurement));
-
-        return values;
+    protected UUID GetRecordIdentifier(final WeightRecord weightRecord)
+    {
+        return weightRecord.Identifier;
+    }
+
+    @Override
+    protected void BindValues(final SQLiteStatement statement, final WeightRecord weightRecord)
+    {
+        statement.bindBlob(1, UuidBlobConversion.ConvertUuidToBlob(weightRecord.Identifier));
+        statement.bindDouble(2, weightRecord.Value);
+        statement.bindString(3, weightRecord.Unit.name());
+        statement.bindLong(4, PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(weightRecord.TimeOfMeasurement));
     }
 }
\ No newline at end of file
@@ -97,6 +97,9 @@ public class BloodPressureListFragment
     public void onDestroyView()
     {
         super.onDestroyView();
+
+        // the view model notifies this view about record changes, so it must not outlive the view
+        _viewModel.Dispose();
         _viewModel = null;
         _binding = null;
         _adapter = null;
@@ -139,6 +142,52 @@ public class BloodPressureListFragment
         _adapter.notifyDataSetChanged();
     }
 
+    /**
+     * Redraws the items of a range of the list (for example because their records were loaded).
+     *
+     * @param positionStart the position of the first item that has changed.
+     * @param itemCount the count of items that have changed.
+     */
+    @Override
+    public void OnListItemRangeChanged(final int positionStart, final int itemCount)
+    {
+        _adapter.notifyItemRangeChanged(positionStart, itemCount);
+    }
+
+    /**
+     * Inserts an item into the list (because a record was created).
+     *
+     * @param position the position of the inserted item.
+     */
+    @Override
+    public void OnListItemInserted(final int position)
+    {
+        _adapter.notifyItemInserted(position);
+    }
+
+    /**
+     * Removes an item from the list (because a record was deleted).
+     *
+     * @param position the position of the removed item (before it was removed).
+     */
+    @Override
+    public void OnListItemRemoved(final int position)
+    {
+        _adapter.notifyItemRemoved(position);
+    }
+
+    /**
+     * Moves an item of the list (because the time of measurement of a record was changed).
+     *
+     * @param fromPosition the previous position of the item.
+     * @param toPosition the new position of the item.
+     */
+    @Override
+    public void OnListItemMoved(final int fromPosition, final int toPosition)
+    {
+        _adapter.notifyItemMoved(fromPosition, toPosition);
+    }
+
     /**
      * Shows the user a UI that asks for confirmation to delete all records.
      *
@@ -28,6 +28,7 @@ import de.dviererbe.healthtrack.R;
 import de.dviererbe.healthtrack.databinding.FragmentHomeBinding;
 import de.dviererbe.healthtrack.infrastructure.INavigationRouter;
 import de.dviererbe.healthtrack.presentation.FragmentBase;
+import de.dviererbe.healthtrack.presentation.main.home.HomeViewModel.IHomeView;
 import de.dviererbe.healthtrack.presentation.main.bloodpressure.BloodPressureDetailsFragment;
 import de.dviererbe.healthtrack.presentation.main.bloodpressure.BloodPressureMergeFragment;
 import de.dviererbe.healthtrack.presentation.main.stepcount.StepCountDetailsFragment;
@@ -38,7 +39,7 @@ import de.dviererbe.healthtrack.presentation.main.weight.WeightMergeFragment;
 import java.time.LocalDate;
 import java.util.UUID;
 
-public class HomeFragment extends FragmentBase implements INavigationRouter
+public class HomeFragment extends FragmentBase implements IHomeView, INavigationRouter
 {
     private HomeViewModel _viewModel;
     private FragmentHomeBinding _binding;
@@ -52,7 +53,7 @@ public class HomeFragment extends FragmentBase implements INavigationRouter
             ViewGroup container,
             Bundle savedInstanceState)
     {
-        _viewModel = GetViewModelFactory().CreateHomeViewModel(getLifecycle(), this);
+        _viewModel = GetViewModelFactory().CreateHomeViewModel(getLifecycle(), this, this);
         _binding = FragmentHomeBinding.inflate(inflater, container, false);
 
         _binding.WidgetList.setAdapter(new HomeViewModelListAdapter(getContext(), _viewModel));
@@ -71,6 +72,20 @@ public class HomeFragment extends FragmentBase implements INavigationRouter
         _viewModel = null;
     }
 
+    /**
+     * Notifies the {@link IHomeView} that a data migration was completed, so the records of today that were
+     * shown as placeholders can be read now (by creating a new {@link HomeViewModel}).
+     */
+    @Override
+    public void OnDataMigrationCompleted()
+    {
+        if (_binding == null) return;
+
+        _viewModel.Dispose();
+        _viewModel = GetViewModelFactory().CreateHomeViewModel(getLifecycle(), this, this);
+        _binding.WidgetList.setAdapter(new HomeViewModelListAdapter(getContext(), _viewModel));
+    }
+
     /**
      * Tries to navigate to the user settings UI (User Interface).
      *
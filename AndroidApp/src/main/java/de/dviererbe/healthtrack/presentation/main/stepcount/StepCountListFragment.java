@@ -229,6 +229,42 @@ public class StepCountListFragment extends FragmentBase
             _adapter.notifyDataSetChanged();
         }
 
+        /**
+         * Called when a range of items has changed (for example because the records of the items were loaded).
+         */
+        @Override
+        public void ListItemRangeChanged(final int positionStart, final int itemCount)
+        {
+            _adapter.notifyItemRangeChanged(positionStart, itemCount);
+        }
+
+        /**
+         * Called when an item was inserted (because a record was created).
+         */
+        @Override
+        public void ListItemInserted(final int position)
+        {
+            _adapter.notifyItemInserted(position);
+        }
+
+        /**
+         * Called when an item was removed (because a record was deleted).
+         */
+        @Override
+        public void ListItemRemoved(final int position)
+        {
+            _adapter.notifyItemRemoved(position);
+        }
+
+        /**
+         * Called when an item was moved (because the time of measurement of a record was changed).
+         */
+        @Override
+        public void ListItemMoved(final int fromPosition, final int toPosition)
+        {
+            _adapter.notifyItemMoved(fromPosition, toPosition);
+        }
+
         /**
          * Called when the step count records have been deleted successfully.
          */
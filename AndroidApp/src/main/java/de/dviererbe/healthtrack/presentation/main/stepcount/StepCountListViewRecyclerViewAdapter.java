@@ -64,7 +64,12 @@ public class StepCountListViewRecyclerViewAdapter
     {
         final StepCountListItemViewModel record = _viewModel.GetRecord(position);
 
-        holder.Bind(record, _showDetailsCommandFactory.apply(record.Identifier));
+        // placeholders of records that are still loading have no details to show
+        final Runnable showDetailsCommand = record.Identifier == null
+            ? () -> {}
+            : _showDetailsCommandFactory.apply(record.Identifier);
+
+        holder.Bind(record, showDetailsCommand);
     }
 
     /**
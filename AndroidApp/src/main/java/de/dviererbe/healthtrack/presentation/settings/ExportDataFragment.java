@@ -66,7 +66,10 @@ public class ExportDataFragment extends DialogFragment
     {
         boolean[] values = bundle.getBooleanArray("ExportUserDataDialogResult");
 
-        return new ExportUserDataAsJsonOperation.Options(values[0],values[1],values[2],values[3],values[4]);
+        // the widgets are only rendered in parallel when there is more than one core to render them
+        final boolean exportWidgetsInParallel = Runtime.getRuntime().availableProcessors() > 1;
+
+        return new ExportUserDataAsJsonOperation.Options(values[0],values[1],values[2],values[3],values[4], exportWidgetsInParallel);
     }
 
     /**
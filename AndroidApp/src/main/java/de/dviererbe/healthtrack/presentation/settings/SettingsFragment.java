@@ -23,8 +23,9 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
-import android.util.JsonWriter;
+import android.provider.DocumentsContract;
 import android.util.Log;
+import android.widget.ProgressBar;
 import android.widget.Toast;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
@@ -33,20 +34,23 @@ import androidx.preference.PreferenceFragmentCompat;
 import androidx.preference.PreferenceScreen;
 import de.dviererbe.healthtrack.ApplicationContextDependencyResolver;
 import de.dviererbe.healthtrack.HealthTrackApp;
+import de.dviererbe.healthtrack.IDisposable;
 import de.dviererbe.healthtrack.R;
 import de.dviererbe.healthtrack.application.ExportUserDataAsJsonOperation;
+import de.dviererbe.healthtrack.application.Widget;
+import de.dviererbe.healthtrack.infrastructure.IUserDataJsonTextReaderProvider;
 import de.dviererbe.healthtrack.infrastructure.IUserDataJsonTextWriterProvider;
+import de.dviererbe.healthtrack.infrastructure.json.IJsonTextReader;
 import de.dviererbe.healthtrack.infrastructure.json.IJsonTextWriter;
-import de.dviererbe.healthtrack.infrastructure.json.JsonError;
+import de.dviererbe.healthtrack.infrastructure.json.JsonTextReader;
+import de.dviererbe.healthtrack.infrastructure.json.Utf8JsonTextWriter;
 import de.dviererbe.healthtrack.persistence.SharedPreferenceRepository;
 import de.dviererbe.healthtrack.presentation.settings.SettingsViewModel.ISettingsViewModelEventHandler;
 
-import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
 
 public class SettingsFragment
     extends PreferenceFragmentCompat
@@ -54,11 +58,18 @@ public class SettingsFragment
     private static final String TAG = "SettingsFragment";
     private static final int RequestCode_CreateFile = 1;
     private static final int RequestCode_ExportDataDialog = 2;
+    private static final int RequestCode_OpenFile = 3;
+    private static final int ExportProgressBarMaximum = 1000;
 
     private SettingsViewModel _viewModel;
+    private IDisposable _viewModelEventHandlerRegistration;
     private SharedPreferenceRepository _sharedPreferenceRepository;
 
     private UserDataJsonTextWriterProvider _userDataJsonTextWriterProvider;
+    private UserDataJsonTextReaderProvider _userDataJsonTextReaderProvider;
+
+    private AlertDialog _exportProgressDialog;
+    private ProgressBar _exportProgressBar;
 
     /**
      * Called during {@link #onCreate(Bundle)} to supply the preferences for this fragment. Subclasses are expected
@@ -84,7 +95,11 @@ public class SettingsFragment
 
             _sharedPreferenceRepository = GetSharedPreferenceRepository();
             _userDataJsonTextWriterProvider = new UserDataJsonTextWriterProvider();
-            _viewModel = dependencyResolver.GetViewModelFactory().CreatSettingsViewModel(_userDataJsonTextWriterProvider);
+            _userDataJsonTextReaderProvider = new UserDataJsonTextReaderProvider();
+            _viewModel = dependencyResolver.GetViewModelFactory().CreatSettingsViewModel(
+                _userDataJsonTextWriterProvider,
+                _userDataJsonTextReaderProvider);
+            _viewModelEventHandlerRegistration = _viewModel.RegisterEventHandler(new SettingsViewModelEventHandler());
         }
     }
 
@@ -121,9 +136,13 @@ public class SettingsFragment
     public void onDestroy()
     {
         super.onDestroy();
+        DismissExportProgressDialog();
+        _viewModelEventHandlerRegistration.Dispose();
+        _viewModelEventHandlerRegistration = null;
         _viewModel.Dispose();
         _viewModel = null;
         _userDataJsonTextWriterProvider = null;
+        _userDataJsonTextReaderProvider = null;
         _sharedPreferenceRepository = null;
     }
 
@@ -139,6 +158,12 @@ public class SettingsFragment
             return true;
         }
 
+        if (preference.getKey().equals("widgets_user_data_import"))
+        {
+            _viewModel.ImportUserData();
+            return true;
+        }
+
         if (preference.getKey().equals("widgets_user_data_delete"))
         {
             DeleteUserData();
@@ -172,7 +197,66 @@ public class SettingsFragment
         dialogBuilder.show();
     }
 
+    /**
+     * Shows (or updates) a dialog with the progress of the running export and a button to cancel it.
+     */
+    private void ShowExportProgress(
+        final Widget widget,
+        final long recordsWritten,
+        final long totalRecords)
+    {
+        if (_exportProgressDialog == null)
+        {
+            final int padding = (int)(24 * getResources().getDisplayMetrics().density);
+
+            _exportProgressBar = new ProgressBar(getContext(), null, android.R.attr.progressBarStyleHorizontal);
+            _exportProgressBar.setMax(ExportProgressBarMaximum);
+            _exportProgressBar.setPadding(padding, 0, padding, 0);
 
+            final AlertDialog.Builder dialogBuilder = new AlertDialog.Builder(getActivity());
+            dialogBuilder.setTitle(R.string.settings_user_data_export_progress_dialog_title);
+            dialogBuilder.setMessage("");
+            dialogBuilder.setView(_exportProgressBar);
+            dialogBuilder.setCancelable(false);
+
+            dialogBuilder.setNegativeButton(
+                R.string.settings_user_data_export_progress_dialog_button_cancel,
+                (DialogInterface dialog, int which) -> _viewModel.CancelExportUserData());
+
+            _exportProgressDialog = dialogBuilder.show();
+        }
+
+        _exportProgressDialog.setMessage(getString(
+            R.string.settings_user_data_export_progress_dialog_message,
+            getString(GetWidgetNameResourceId(widget)),
+            recordsWritten,
+            totalRecords));
+
+        _exportProgressBar.setProgress(totalRecords <= 0L
+            ? ExportProgressBarMaximum
+            : (int)(recordsWritten * ExportProgressBarMaximum / totalRecords));
+    }
+
+    private void DismissExportProgressDialog()
+    {
+        if (_exportProgressDialog == null) return;
+
+        _exportProgressDialog.dismiss();
+        _exportProgressDialog = null;
+        _exportProgressBar = null;
+    }
+
+    private static int GetWidgetNameResourceId(final Widget widget)
+    {
+        switch (widget)
+        {
+            case bloodPressure: return R.string.menu_bloodpressure;
+            case bloodSugar: return R.string.menu_bloodsugar;
+            case food: return R.string.menu_food;
+            case steps: return R.string.menu_stepcounter;
+            default: return R.string.menu_weight;
+        }
+    }
 
     /**
      * Receive the result from a previous call to
@@ -199,6 +283,10 @@ public class SettingsFragment
         {
             _userDataJsonTextWriterProvider.StorageLocationSelected(resultCode, data);
         }
+        else if (requestCode == RequestCode_OpenFile)
+        {
+            _userDataJsonTextReaderProvider.DocumentSelected(resultCode, data);
+        }
         else if (requestCode == RequestCode_ExportDataDialog)
         {
             if (resultCode != Activity.RESULT_OK) return;
@@ -218,6 +306,7 @@ public class SettingsFragment
         @Override
         public void ExportingUserDataSucceeded()
         {
+            DismissExportProgressDialog();
             ShowToast(R.string.settings_user_data_export_dialog_notifications_save_success);
         }
 
@@ -227,9 +316,52 @@ public class SettingsFragment
         @Override
         public void ExportingUserDataFailed()
         {
+            DismissExportProgressDialog();
+            _userDataJsonTextWriterProvider.DeleteIncompleteDocument();
             ShowToast(R.string.settings_user_data_export_dialog_notifications_save_failure);
         }
 
+        /**
+         * Called when the running export of the user data was canceled.
+         */
+        @Override
+        public void ExportingUserDataCanceled()
+        {
+            DismissExportProgressDialog();
+            _userDataJsonTextWriterProvider.DeleteIncompleteDocument();
+            ShowToast(R.string.settings_user_data_export_dialog_notifications_save_canceled);
+        }
+
+        /**
+         * Called periodically while the user data is exported.
+         */
+        @Override
+        public void ExportingUserDataProgressed(
+            final Widget widget,
+            final long recordsWritten,
+            final long totalRecords)
+        {
+            ShowExportProgress(widget, recordsWritten, totalRecords);
+        }
+
+        /**
+         * Called when the request to import the user data succeeded.
+         */
+        @Override
+        public void ImportingUserDataSucceeded()
+        {
+            ShowToast(R.string.settings_user_data_import_notification_success);
+        }
+
+        /**
+         * Called when the request to import the user data failed.
+         */
+        @Override
+        public void ImportingUserDataFailed()
+        {
+            ShowToast(R.string.settings_user_data_import_notification_failure);
+        }
+
         /**
          * Called when the request to delete the user data succeeded.
          */
@@ -257,6 +389,7 @@ public class SettingsFragment
     private class UserDataJsonTextWriterProvider implements IUserDataJsonTextWriterProvider
     {
         private ProvideUserDataJsonTextWriterRequestCallback _callback = null;
+        private Uri _providedDocument = null;
 
         /**
          * Provides an {@link IJsonTextWriter} where the user data can be exported to.
@@ -267,6 +400,7 @@ public class SettingsFragment
         public void ProvideUserDataJsonTextWriter(final ProvideUserDataJsonTextWriterRequestCallback callback)
         {
             _callback = callback;
+            _providedDocument = null;
             ShowSelectStorageLocationDialog("application/json", "healthtrack-data.json");
         }
 
@@ -297,104 +431,102 @@ public class SettingsFragment
 
             try
             {
-                if (resultCode != Activity.RESULT_OK) callback.UserDataJsonTextWriterCouldNotBeProvided(new Exception("User Aborted"));
+                if (resultCode != Activity.RESULT_OK)
+                {
+                    callback.UserDataJsonTextWriterCouldNotBeProvided(new Exception("User Aborted"));
+                    return;
+                }
 
                 final Uri storagePath = data.getData();
                 final OutputStream storageFile = getContext().getContentResolver().openOutputStream(storagePath);
 
-                callback.UserDataJsonTextWriterProvided(new JsonTextWriterAdapter(new OutputStreamWriter(storageFile)));
+                _providedDocument = storagePath;
+                callback.UserDataJsonTextWriterProvided(new Utf8JsonTextWriter(storageFile));
             }
             catch (Exception exception)
             {
                 Log.d(TAG, "Failed to get storage path from CREATE_DOCUMENT_ACTION intent.", exception);
-                _callback.UserDataJsonTextWriterCouldNotBeProvided(exception);
+                callback.UserDataJsonTextWriterCouldNotBeProvided(exception);
             }
         }
 
-        // TODO: placeholder for custom implementation, because Android JsonWriter can not be used in unit tests.
-        // custom implementation is not yet done
-        private class JsonTextWriterAdapter implements IJsonTextWriter
+        /**
+         * Deletes the document of the last provided {@link IJsonTextWriter}, because the export
+         * failed or was canceled and the document contains only a part of the user data.
+         */
+        public void DeleteIncompleteDocument()
         {
-            private final JsonWriter _jsonWriter;
-            public JsonTextWriterAdapter(Writer writer)
-            {
-                _jsonWriter = new JsonWriter(writer);
-            }
+            if (_providedDocument == null) return;
 
-            @Override
-            public IJsonTextWriter WriteStartArray() throws JsonError, IOException
-            {
-                _jsonWriter.beginArray();
-                return this;
-            }
+            final Uri document = _providedDocument;
+            _providedDocument = null;
 
-            @Override
-            public IJsonTextWriter WriteStartObject() throws JsonError, IOException
+            try
             {
-                _jsonWriter.beginObject();
-                return this;
+                DocumentsContract.deleteDocument(getContext().getContentResolver(), document);
             }
-
-            @Override
-            public IJsonTextWriter WriteEndArray() throws JsonError, IOException
+            catch (Exception exception)
             {
-                _jsonWriter.endArray();
-                return this;
+                Log.d(TAG, "Failed to delete incomplete export document.", exception);
             }
+        }
+    }
 
-            @Override
-            public IJsonTextWriter WriteEndObject() throws JsonError, IOException
-            {
-                _jsonWriter.endObject();
-                return this;
-            }
+    private class UserDataJsonTextReaderProvider implements IUserDataJsonTextReaderProvider
+    {
+        private ProvideUserDataJsonTextReaderRequestCallback _callback = null;
 
-            @Override
-            public IJsonTextWriter WritePropertyName(String propertyName) throws JsonError, IOException
-            {
-                _jsonWriter.name(propertyName);
-                return this;
-            }
+        /**
+         * Provides an {@link IJsonTextReader} where the user data can be imported from.
+         *
+         * @param callback
+         */
+        @Override
+        public void ProvideUserDataJsonTextReader(final ProvideUserDataJsonTextReaderRequestCallback callback)
+        {
+            _callback = callback;
+            ShowSelectDocumentDialog("application/json");
+        }
 
-            @Override
-            public IJsonTextWriter WriteNull() throws JsonError, IOException
-            {
-                _jsonWriter.nullValue();
-                return this;
-            }
+        /**
+         * Shows the user a UI dialog for selecting the document that contains the user data.
+         *
+         * @param mediaType MIME type (IANA media; defined by IETF RFC 6838) of the document that should be opened.
+         */
+        private void ShowSelectDocumentDialog(final String mediaType)
+        {
+            Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.setType(mediaType);
 
-            @Override
-            public IJsonTextWriter WriteValue(int value) throws JsonError, IOException
-            {
-                _jsonWriter.value(value);
-                return this;
-            }
+            startActivityForResult(intent, RequestCode_OpenFile);
+        }
 
-            @Override
-            public IJsonTextWriter WriteValue(double value) throws JsonError, IOException
-            {
-                _jsonWriter.value(value);
-                return this;
-            }
+        public void DocumentSelected(final int resultCode, final Intent data)
+        {
+            if (_callback == null) return;
 
-            @Override
-            public IJsonTextWriter WriteValue(String value) throws JsonError, IOException
-            {
-                _jsonWriter.value(value);
-                return this;
-            }
+            final ProvideUserDataJsonTextReaderRequestCallback callback = _callback;
+            _callback = null;
 
-            @Override
-            public IJsonTextWriter WriteValue(LocalDateTime value) throws JsonError, IOException
+            try
             {
-                _jsonWriter.value(value.format(DateTimeFormatter.ISO_DATE_TIME));
-                return this;
-            }
+                if (resultCode != Activity.RESULT_OK)
+                {
+                    callback.UserDataJsonTextReaderCouldNotBeProvided(new Exception("User Aborted"));
+                    return;
+                }
 
-            @Override
-            public void close() throws IOException
+                final Uri documentPath = data.getData();
+                final InputStream document = getContext().getContentResolver().openInputStream(documentPath);
+
+                callback.UserDataJsonTextReaderProvided(
+                    new JsonTextReader(new InputStreamReader(document, StandardCharsets.UTF_8)));
+            }
+            catch (Exception exception)
             {
-                _jsonWriter.close();
+                Log.d(TAG, "Failed to open document from OPEN_DOCUMENT_ACTION intent.", exception);
+                callback.UserDataJsonTextReaderCouldNotBeProvided(exception);
             }
         }
     }
@@ -0,0 +1,172 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.*;
+
+public class PackedDateTimeConversionTests
+{
+    @Test
+    public void ConvertDateTimeToPackedDateTime_Should_ReturnDecimalDigitsOfDateTime()
+    {
+        // Arrange:
+        final LocalDateTime dateTime = LocalDateTime.of(2022, 7, 1, 13, 37, 5, 123_000_000);
+
+        // Act:
+        final long packedDateTime = PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(dateTime);
+
+        // Assert:
+        assertEquals(20220701133705L, packedDateTime);
+    }
+
+    @Test
+    public void ConvertPackedDateTimeToDateTime_Should_ReturnOriginalDateTime_When_DateTimeHasNoFraction()
+    {
+        // Arrange:
+        final LocalDateTime[] dateTimes =
+            {
+                LocalDateTime.of(PackedDateTimeConversion.MinimumYear, 1, 1, 0, 0, 0),
+                LocalDateTime.of(2020, 2, 29, 23, 59, 59),
+                LocalDateTime.of(2022, 12, 31, 9, 5, 1),
+                LocalDateTime.of(PackedDateTimeConversion.MaximumYear, 12, 31, 23, 59, 59),
+            };
+
+        for (LocalDateTime dateTime : dateTimes)
+        {
+            // Act:
+            final long packedDateTime = PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(dateTime);
+
+            // Assert:
+            assertEquals(dateTime, PackedDateTimeConversion.ConvertPackedDateTimeToDateTime(packedDateTime));
+        }
+    }
+
+    @Test
+    public void ConvertDateTimeToPackedDateTime_Should_KeepChronologicalOrder()
+    {
+        // Arrange:
+        final LocalDateTime earlier = LocalDateTime.of(2021, 12, 31, 23, 59, 59);
+        final LocalDateTime later = LocalDateTime.of(2022, 1, 1, 0, 0, 0);
+
+        // Act:
+        final long packedEarlier = PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(earlier);
+        final long packedLater = PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(later);
+
+        // Assert:
+        assertTrue(packedEarlier < packedLater);
+    }
+
+    @Test
+    public void ConvertPackedDayToDate_Should_ReturnOriginalDate()
+    {
+        // Arrange:
+        final LocalDate date = LocalDate.of(2022, 7, 1);
+
+        // Act:
+        final long packedDay = PackedDateTimeConversion.ConvertDateToPackedDay(date);
+
+        // Assert:
+        assertEquals(20220701L, packedDay);
+        assertEquals(date, PackedDateTimeConversion.ConvertPackedDayToDate(packedDay));
+    }
+
+    @Test
+    public void ConvertDateTimeToPackedDay_Should_ReturnPackedDateTimeDividedByDateTimesPerDay()
+    {
+        // Arrange:
+        final LocalDateTime dateTime = LocalDateTime.of(2022, 7, 1, 13, 37, 5);
+
+        // Act:
+        final long packedDay = PackedDateTimeConversion.ConvertDateTimeToPackedDay(dateTime);
+
+        // Assert:
+        assertEquals(
+            PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(dateTime) / PackedDateTimeConversion.DateTimesPerDay,
+            packedDay);
+    }
+
+    @Test
+    public void GetFirstAndLastPackedDateTimeOfDay_Should_EncloseAllDateTimesOfDay()
+    {
+        // Arrange:
+        final LocalDate day = LocalDate.of(2022, 7, 1);
+
+        // Act:
+        final long first = PackedDateTimeConversion.GetFirstPackedDateTimeOfDay(day);
+        final long last = PackedDateTimeConversion.GetLastPackedDateTimeOfDay(day);
+
+        // Assert:
+        assertEquals(PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(day.atStartOfDay()), first);
+        assertEquals(PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(day.atTime(23, 59, 59)), last);
+    }
+
+    @Test
+    public void CanBePacked_Should_ReturnFalse_When_YearIsOutsideOfPackableRange()
+    {
+        // Arrange:
+        final LocalDateTime tooEarly = LocalDateTime.of(PackedDateTimeConversion.MinimumYear - 1, 12, 31, 23, 59, 59);
+        final LocalDateTime tooLate = LocalDateTime.of(PackedDateTimeConversion.MaximumYear + 1, 1, 1, 0, 0, 0);
+        final LocalDateTime inRange = LocalDateTime.of(PackedDateTimeConversion.MinimumYear, 1, 1, 0, 0, 0);
+
+        // Act & Assert:
+        assertFalse(PackedDateTimeConversion.CanBePacked(tooEarly));
+        assertFalse(PackedDateTimeConversion.CanBePacked(tooLate));
+        assertTrue(PackedDateTimeConversion.CanBePacked(inRange));
+    }
+
+    @Test
+    public void ConvertDateTimeToPackedBound_Should_ClampDateTimesOutsideOfPackableRange()
+    {
+        // Arrange:
+        final LocalDateTime tooEarly = LocalDateTime.of(-5, 1, 1, 0, 0, 0);
+        final LocalDateTime tooLate = LocalDateTime.of(12345, 1, 1, 0, 0, 0);
+        final LocalDateTime inRange = LocalDateTime.of(2022, 7, 1, 13, 37, 5);
+
+        // Act:
+        final long lowerBound = PackedDateTimeConversion.ConvertDateTimeToPackedBound(tooEarly);
+        final long upperBound = PackedDateTimeConversion.ConvertDateTimeToPackedBound(tooLate);
+        final long bound = PackedDateTimeConversion.ConvertDateTimeToPackedBound(inRange);
+
+        // Assert:
+        assertEquals(0L, lowerBound);
+        assertEquals(Long.MAX_VALUE, upperBound);
+        assertEquals(20220701133705L, bound);
+    }
+
+    @Test
+    public void FormatPackedDateTime_Should_WriteIsoLocalDateTime()
+    {
+        // Arrange:
+        final LocalDateTime dateTime = LocalDateTime.of(2022, 7, 1, 9, 5, 1);
+        final long packedDateTime = PackedDateTimeConversion.ConvertDateTimeToPackedDateTime(dateTime);
+        final char[] buffer = new char[PackedDateTimeConversion.FormattedLength];
+
+        // Act:
+        final int length = PackedDateTimeConversion.FormatPackedDateTime(packedDateTime, buffer);
+
+        // Assert:
+        assertEquals(PackedDateTimeConversion.FormattedLength, length);
+        assertEquals(dateTime.toString(), new String(buffer));
+    }
+}
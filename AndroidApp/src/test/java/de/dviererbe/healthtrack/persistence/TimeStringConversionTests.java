@@ -0,0 +1,181 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.Assert.*;
+
+public class TimeStringConversionTests
+{
+    @Test
+    public void ConvertDateToDateString_Should_MatchIsoLocalDate()
+    {
+        // Arrange:
+        final LocalDate[] dates =
+            {
+                LocalDate.of(0, 1, 1),
+                LocalDate.of(7, 3, 9),
+                LocalDate.of(2020, 2, 29),
+                LocalDate.of(2022, 12, 31),
+                LocalDate.of(9999, 12, 31),
+                LocalDate.of(-1, 6, 15),
+                LocalDate.of(10000, 1, 1),
+                LocalDate.of(-123456, 1, 1),
+            };
+
+        for (LocalDate date : dates)
+        {
+            // Act:
+            final String dateString = TimeStringConversion.ConvertDateToDateString(date);
+
+            // Assert:
+            assertEquals(DateTimeFormatter.ISO_LOCAL_DATE.format(date), dateString);
+        }
+    }
+
+    @Test
+    public void ConvertDateTimeToTimeString_Should_MatchIsoLocalTime()
+    {
+        // Arrange:
+        final LocalDateTime day = LocalDateTime.of(2022, 7, 1, 0, 0);
+        final LocalDateTime[] dateTimes =
+            {
+                day,
+                day.withHour(13).withMinute(37),
+                day.withHour(23).withMinute(59).withSecond(59),
+                day.withHour(9).withMinute(5).withSecond(1).withNano(100_000_000),
+                day.withHour(9).withMinute(5).withSecond(1).withNano(120_000_000),
+                day.withHour(9).withMinute(5).withSecond(1).withNano(123_000_000),
+                day.withHour(9).withMinute(5).withSecond(1).withNano(123_400_000),
+                day.withHour(9).withMinute(5).withSecond(1).withNano(123_450_000),
+                day.withHour(9).withMinute(5).withSecond(1).withNano(123_456_000),
+                day.withHour(9).withMinute(5).withSecond(1).withNano(123_456_700),
+                day.withHour(9).withMinute(5).withSecond(1).withNano(123_456_780),
+                day.withHour(9).withMinute(5).withSecond(1).withNano(123_456_789),
+                day.withHour(9).withMinute(5).withSecond(1).withNano(1),
+            };
+
+        for (LocalDateTime dateTime : dateTimes)
+        {
+            // Act:
+            final String timeString = TimeStringConversion.ConvertDateTimeToTimeString(dateTime);
+
+            // Assert:
+            assertEquals(DateTimeFormatter.ISO_LOCAL_TIME.format(dateTime), timeString);
+        }
+    }
+
+    @Test
+    public void ConvertDateStringAndTimeStringToDateTime_Should_ReturnOriginalDateTime()
+    {
+        // Arrange:
+        final LocalDateTime[] dateTimes =
+            {
+                LocalDateTime.of(0, 1, 1, 0, 0),
+                LocalDateTime.of(2020, 2, 29, 23, 59, 59),
+                LocalDateTime.of(2022, 7, 1, 13, 37, 5, 100_000_000),
+                LocalDateTime.of(2022, 7, 1, 13, 37, 5, 123_456_789),
+                LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_999),
+                LocalDateTime.of(-1, 6, 15, 12, 0),
+                LocalDateTime.of(10000, 1, 1, 0, 0),
+            };
+
+        for (LocalDateTime dateTime : dateTimes)
+        {
+            // Act:
+            final LocalDateTime parsedDateTime = TimeStringConversion.ConvertDateStringAndTimeStringToDateTime(
+                TimeStringConversion.ConvertDateTimeToDateString(dateTime),
+                TimeStringConversion.ConvertDateTimeToTimeString(dateTime));
+
+            // Assert:
+            assertEquals(dateTime, parsedDateTime);
+        }
+    }
+
+    @Test
+    public void ConvertDateStringAndTimeStringToDateTime_Should_ParseTimeWithoutSeconds()
+    {
+        // Act:
+        final LocalDateTime dateTime = TimeStringConversion.ConvertDateStringAndTimeStringToDateTime("2022-07-01", "13:37");
+
+        // Assert:
+        assertEquals(LocalDateTime.of(2022, 7, 1, 13, 37), dateTime);
+    }
+
+    @Test
+    public void ConvertDateStringAndTimeStringToDateTime_Should_ParseOneToNineFractionDigits()
+    {
+        // Arrange:
+        final String fraction = "123456789";
+
+        for (int fractionDigits = 1; fractionDigits <= fraction.length(); ++fractionDigits)
+        {
+            final String timeString = "13:37:05." + fraction.substring(0, fractionDigits);
+
+            // Act:
+            final LocalDateTime dateTime =
+                TimeStringConversion.ConvertDateStringAndTimeStringToDateTime("2022-07-01", timeString);
+
+            // Assert:
+            assertEquals(LocalDateTime.parse("2022-07-01T" + timeString, DateTimeFormatter.ISO_LOCAL_DATE_TIME), dateTime);
+        }
+    }
+
+    @Test
+    public void ConvertDateStringAndTimeStringToDateTime_Should_ParseYearsOutsideOfFourDigits()
+    {
+        // Act:
+        final LocalDateTime negativeYear =
+            TimeStringConversion.ConvertDateStringAndTimeStringToDateTime("-0001-06-15", "12:00:00");
+        final LocalDateTime fiveDigitYear =
+            TimeStringConversion.ConvertDateStringAndTimeStringToDateTime("+10000-01-01", "00:00:00");
+
+        // Assert:
+        assertEquals(LocalDateTime.of(-1, 6, 15, 12, 0), negativeYear);
+        assertEquals(LocalDateTime.of(10000, 1, 1, 0, 0), fiveDigitYear);
+    }
+
+    @Test
+    public void ConvertDateStringAndTimeStringToDateTime_Should_ThrowDateTimeParseException_When_DayDoesNotExist()
+    {
+        assertThrows(
+            DateTimeParseException.class,
+            () -> TimeStringConversion.ConvertDateStringAndTimeStringToDateTime("2022-02-30", "13:37:05"));
+    }
+
+    @Test
+    public void ConvertDateStringAndTimeStringToDateTime_Should_ThrowDateTimeParseException_When_TimeIsInvalid()
+    {
+        assertThrows(
+            DateTimeParseException.class,
+            () -> TimeStringConversion.ConvertDateStringAndTimeStringToDateTime("2022-07-01", "24:00:00"));
+        assertThrows(
+            DateTimeParseException.class,
+            () -> TimeStringConversion.ConvertDateStringAndTimeStringToDateTime("2022-07-01", "13:37:05.1234567890"));
+        assertThrows(
+            DateTimeParseException.class,
+            () -> TimeStringConversion.ConvertDateStringAndTimeStringToDateTime("2022-07-01", "13-37-05"));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class UuidBlobConversionTests
+{
+    @Test
+    public void ConvertUuidToBlob_Should_WriteMostSignificantBitsFirstInBigEndianOrder()
+    {
+        // Arrange:
+        final UUID uuid = UUID.fromString("00112233-4455-6677-8899-aabbccddeeff");
+
+        // Act:
+        final byte[] blob = UuidBlobConversion.ConvertUuidToBlob(uuid);
+
+        // Assert:
+        final byte[] expectedBlob =
+            {
+                (byte)0x00, (byte)0x11, (byte)0x22, (byte)0x33, (byte)0x44, (byte)0x55, (byte)0x66, (byte)0x77,
+                (byte)0x88, (byte)0x99, (byte)0xaa, (byte)0xbb, (byte)0xcc, (byte)0xdd, (byte)0xee, (byte)0xff,
+            };
+
+        assertArrayEquals(expectedBlob, blob);
+    }
+
+    @Test
+    public void ConvertBlobToUuid_Should_ReturnOriginalUuid()
+    {
+        // Arrange:
+        final UUID[] uuids =
+            {
+                new UUID(0L, 0L),
+                new UUID(-1L, -1L),
+                new UUID(Long.MIN_VALUE, Long.MAX_VALUE),
+                UUID.randomUUID(),
+            };
+
+        for (UUID uuid : uuids)
+        {
+            // Act:
+            final byte[] blob = UuidBlobConversion.ConvertUuidToBlob(uuid);
+
+            // Assert:
+            assertEquals(uuid, UuidBlobConversion.ConvertBlobToUuid(blob));
+        }
+    }
+
+    @Test
+    public void ConvertUuidToBlob_Should_KeepOrderOfUuidStrings_When_BlobsAreComparedBytewise()
+    {
+        // Arrange:
+        final Random random = new Random(42);
+
+        for (int index = 0; index < 1000; ++index)
+        {
+            final UUID first = new UUID(random.nextLong(), random.nextLong());
+            final UUID second = new UUID(random.nextLong(), random.nextLong());
+
+            // Act:
+            final int blobOrder = CompareUnsigned(
+                UuidBlobConversion.ConvertUuidToBlob(first),
+                UuidBlobConversion.ConvertUuidToBlob(second));
+
+            // Assert:
+            assertEquals(Integer.signum(first.toString().compareTo(second.toString())), Integer.signum(blobOrder));
+        }
+    }
+
+    @Test
+    public void FormatBlob_Should_WriteCanonicalUuidString()
+    {
+        // Arrange:
+        final UUID uuid = UUID.randomUUID();
+        final char[] buffer = new char[UuidBlobConversion.FormattedLength];
+
+        // Act:
+        final int length = UuidBlobConversion.FormatBlob(UuidBlobConversion.ConvertUuidToBlob(uuid), buffer);
+
+        // Assert:
+        assertEquals(UuidBlobConversion.FormattedLength, length);
+        assertEquals(uuid.toString(), new String(buffer));
+    }
+
+    @Test
+    public void ConvertBlobToUuid_Should_ThrowIllegalArgumentException_When_BlobIsNull()
+    {
+        assertThrows(IllegalArgumentException.class, () -> UuidBlobConversion.ConvertBlobToUuid(null));
+    }
+
+    @Test
+    public void ConvertBlobToUuid_Should_ThrowIllegalArgumentException_When_BlobDoesNotHave16Bytes()
+    {
+        assertThrows(IllegalArgumentException.class, () -> UuidBlobConversion.ConvertBlobToUuid(new byte[15]));
+        assertThrows(IllegalArgumentException.class, () -> UuidBlobConversion.ConvertBlobToUuid(new byte[17]));
+    }
+
+    /**
+     * Compares two byte arrays of the same length byte by byte as unsigned values (like SQLite compares BLOBs).
+     */
+    private static int CompareUnsigned(final byte[] first, final byte[] second)
+    {
+        for (int index = 0; index < first.length; ++index)
+        {
+            final int difference = (first[index] & 0xFF) - (second[index] & 0xFF);
+
+            if (difference != 0) return difference;
+        }
+
+        return 0;
+    }
+}
@@ -21,30 +21,53 @@ package de.dviererbe.healthtrack.application;
 import de.dviererbe.healthtrack.infrastructure.IDateTimeProvider;
 import de.dviererbe.healthtrack.infrastructure.ILogger;
 import de.dviererbe.healthtrack.infrastructure.IUserDataJsonTextWriterProvider;
+import de.dviererbe.healthtrack.infrastructure.json.IJsonTextFragment;
+import de.dviererbe.healthtrack.infrastructure.json.IJsonTextFragmentFactory;
 import de.dviererbe.healthtrack.infrastructure.json.IJsonTextWriter;
 import de.dviererbe.healthtrack.infrastructure.json.IRepositoryJsonTextSerializer;
+import de.dviererbe.healthtrack.infrastructure.json.ISerializationProgressMonitor;
 import de.dviererbe.healthtrack.infrastructure.json.JsonError;
+import de.dviererbe.healthtrack.infrastructure.json.JsonPropertyName;
 import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 
 /**
  * Encapsulates the logic to export collected user data as JSON.
+ *
+ * The export runs on a background {@link Executor}; progress and completion are reported
+ * through the callback {@link Executor} (usually the main thread). A running export can be
+ * canceled with {@link #Cancel()}.
+ *
+ * When {@link Options#ExportWidgetsInParallel} is set, every widget is rendered into its own
+ * {@link IJsonTextFragment} on the worker {@link Executor}; the fragments are copied into the
+ * document in the order of {@link Options#WidgetsToExport} as soon as they are complete.
  */
 public class ExportUserDataAsJsonOperation
 {
     private static final String TAG = "ExportUserDataAsJsonOperation";
+    private static final JsonPropertyName CreatedPropertyName = new JsonPropertyName("created");
 
     private final Options _options;
     private final IUserDataJsonTextWriterProvider _userDataJsonTextWriterProvider;
     private final Map<Widget, IRepositoryJsonTextSerializer> _widgetRepositoriesJsonTextSerializer;
+    private final Executor _backgroundExecutor;
+    private final Executor _callbackExecutor;
+    private final Executor _workerExecutor;
+    private final IJsonTextFragmentFactory _jsonTextFragmentFactory;
     private final IDateTimeProvider _dateTimeProvider;
     private final ILogger _logger;
 
+    private volatile boolean _cancellationRequested = false;
+
     /**
      * Initializes a new {@link ExportUserDataAsJsonOperation}
      * instance with references to all necessary parameters and dependencies.
@@ -60,6 +83,18 @@ public class ExportUserDataAsJsonOperation
      * @param widgetRepositoriesJsonTextSerializer
      *      reference to the serializers that export the
      *      repository data as json text.
+     * @param backgroundExecutor
+     *      the {@link Executor} that runs the export.
+     * @param callbackExecutor
+     *      the {@link Executor} that invokes the progress and
+     *      finished callbacks (usually the main thread).
+     * @param workerExecutor
+     *      the {@link Executor} that renders the widgets when they are
+     *      exported in parallel; must not run the tasks on the thread of
+     *      the {@code backgroundExecutor}.
+     * @param jsonTextFragmentFactory
+     *      reference to a mechanism that creates the fragments the widgets
+     *      are rendered into when they are exported in parallel.
      * @param dateTimeProvider
      *      reference to a mechanism that provides the
      *      current date and time.
@@ -70,12 +105,20 @@ public class ExportUserDataAsJsonOperation
         final Options options,
         final IUserDataJsonTextWriterProvider userDataJsonTextWriterProvider,
         final Map<Widget, IRepositoryJsonTextSerializer> widgetRepositoriesJsonTextSerializer,
+        final Executor backgroundExecutor,
+        final Executor callbackExecutor,
+        final Executor workerExecutor,
+        final IJsonTextFragmentFactory jsonTextFragmentFactory,
         final IDateTimeProvider dateTimeProvider,
         final ILogger logger)
     {
         _options = options;
         _userDataJsonTextWriterProvider = userDataJsonTextWriterProvider;
         _widgetRepositoriesJsonTextSerializer = widgetRepositoriesJsonTextSerializer;
+        _backgroundExecutor = backgroundExecutor;
+        _callbackExecutor = callbackExecutor;
+        _workerExecutor = workerExecutor;
+        _jsonTextFragmentFactory = jsonTextFragmentFactory;
         _dateTimeProvider = dateTimeProvider;
         _logger = logger;
     }
@@ -84,6 +127,21 @@ public class ExportUserDataAsJsonOperation
      * Executes the operation to export the user data as specified.
      */
     public void Execute(final ExportUserDataAsJsonOperationFinishedCallback callback)
+    {
+        Execute(callback, null);
+    }
+
+    /**
+     * Executes the operation to export the user data as specified.
+     *
+     * @param finishedCallback
+     *      called (by the callback {@link Executor}) when the export finished, failed or was canceled.
+     * @param progressCallback
+     *      called (by the callback {@link Executor}) when a batch of records was exported; may be {@code null}.
+     */
+    public void Execute(
+        final ExportUserDataAsJsonOperationFinishedCallback finishedCallback,
+        final ExportUserDataAsJsonOperationProgressCallback progressCallback)
     {
         _userDataJsonTextWriterProvider.ProvideUserDataJsonTextWriter(new IUserDataJsonTextWriterProvider.ProvideUserDataJsonTextWriterRequestCallback()
         {
@@ -92,42 +150,72 @@ public class ExportUserDataAsJsonOperation
             {
                 try
                 {
-                    ExportUserData(jsonTextWriter);
-                    callback.ExportUserDataAsJsonOperationFinished(null);
+                    _backgroundExecutor.execute(() -> ExportUserData(jsonTextWriter, finishedCallback, progressCallback));
                 }
                 catch (Exception exception)
                 {
-                    callback.ExportUserDataAsJsonOperationFinished(exception);
-                }
-                finally
-                {
-                    try
-                    {
-                        jsonTextWriter.close();
-                    }
-                    catch (Exception exception)
-                    {
-                        _logger.LogError(TAG, "Failed to close jsonTextWriter.", exception);
-                    }
+                    CloseJsonTextWriter(jsonTextWriter);
+                    NotifyFinished(finishedCallback, exception);
                 }
             }
 
             @Override
             public void UserDataJsonTextWriterCouldNotBeProvided(final Exception exception)
             {
-                callback.ExportUserDataAsJsonOperationFinished(exception);
+                NotifyFinished(finishedCallback, exception);
             }
         });
     }
 
-    private void ExportUserData(final IJsonTextWriter jsonTextWriter)
+    /**
+     * Requests the cancellation of the export. The export stops after the current batch of records
+     * and the finished callback is called with a {@link CancellationException}.
+     */
+    public void Cancel()
+    {
+        _cancellationRequested = true;
+    }
+
+    private void ExportUserData(
+        final IJsonTextWriter jsonTextWriter,
+        final ExportUserDataAsJsonOperationFinishedCallback finishedCallback,
+        final ExportUserDataAsJsonOperationProgressCallback progressCallback)
+    {
+        Exception error = null;
+
+        try
+        {
+            if (_options.ExportWidgetsInParallel)
+            {
+                ExportUserDataInParallel(jsonTextWriter, progressCallback);
+            }
+            else
+            {
+                ExportUserData(jsonTextWriter, progressCallback);
+            }
+        }
+        catch (Exception exception)
+        {
+            error = exception;
+        }
+
+        // The writer is closed before the completion is reported, so the exported
+        // file is complete when the export is reported as successful.
+        final Exception closeError = CloseJsonTextWriter(jsonTextWriter);
+
+        NotifyFinished(finishedCallback, error != null ? error : closeError);
+    }
+
+    private void ExportUserData(
+        final IJsonTextWriter jsonTextWriter,
+        final ExportUserDataAsJsonOperationProgressCallback progressCallback)
         throws
             RepositoryException,
             JsonError,
             IOException
     {
         jsonTextWriter.WriteStartObject();
-        jsonTextWriter.WritePropertyName("created").WriteValue(_dateTimeProvider.Now());
+        jsonTextWriter.WritePropertyName(CreatedPropertyName).WriteValue(_dateTimeProvider.Now());
 
         for (Widget widgetToExport : _options.WidgetsToExport)
         {
@@ -140,13 +228,295 @@ public class ExportUserDataAsJsonOperation
                continue;
            }
 
+           ThrowIfCancellationRequested();
+
+           final ProgressMonitor progressMonitor = new ProgressMonitor(widgetToExport, progressCallback);
+
            jsonTextWriter.WritePropertyName(widgetToExport.name());
-           repositoryJsonTextSerializer.SerializeAsJson(jsonTextWriter);
+           repositoryJsonTextSerializer.SerializeAsJson(jsonTextWriter, progressMonitor);
+
+           progressMonitor.ReportProgress();
         }
 
         jsonTextWriter.WriteEndObject();
     }
 
+    private void ExportUserDataInParallel(
+        final IJsonTextWriter jsonTextWriter,
+        final ExportUserDataAsJsonOperationProgressCallback progressCallback)
+        throws
+            RepositoryException,
+            JsonError,
+            IOException
+    {
+        final List<WidgetExportTask> widgetExportTasks = new ArrayList<>();
+
+        try
+        {
+            for (Widget widgetToExport : _options.WidgetsToExport)
+            {
+                final IRepositoryJsonTextSerializer repositoryJsonTextSerializer =
+                        _widgetRepositoriesJsonTextSerializer.get(widgetToExport);
+
+                if (repositoryJsonTextSerializer == null)
+                {
+                    _logger.LogError(TAG, "Widget-Repository JsonTextSerializer for Widget '" + widgetToExport  +"' is missing!");
+                    continue;
+                }
+
+                final WidgetExportTask widgetExportTask = new WidgetExportTask(
+                    widgetToExport,
+                    repositoryJsonTextSerializer,
+                    _jsonTextFragmentFactory.CreateFragment(),
+                    new ProgressMonitor(widgetToExport, progressCallback));
+
+                widgetExportTasks.add(widgetExportTask);
+                widgetExportTask.Schedule(_workerExecutor);
+            }
+
+            jsonTextWriter.WriteStartObject();
+            jsonTextWriter.WritePropertyName(CreatedPropertyName).WriteValue(_dateTimeProvider.Now());
+
+            for (WidgetExportTask widgetExportTask : widgetExportTasks)
+            {
+                widgetExportTask.AwaitCompletion();
+
+                jsonTextWriter.WritePropertyName(widgetExportTask.ExportedWidget.name());
+
+                try (final Reader fragmentReader = widgetExportTask.Fragment.OpenReader())
+                {
+                    jsonTextWriter.WriteRawValue(fragmentReader);
+                }
+            }
+
+            jsonTextWriter.WriteEndObject();
+        }
+        finally
+        {
+            // Stops the widgets that are still rendered when the export failed
+            // and releases the fragments of all widgets.
+            for (WidgetExportTask widgetExportTask : widgetExportTasks)
+            {
+                widgetExportTask.Monitor.Abort();
+            }
+
+            for (WidgetExportTask widgetExportTask : widgetExportTasks)
+            {
+                widgetExportTask.Release();
+            }
+        }
+    }
+
+    private Exception CloseJsonTextWriter(final IJsonTextWriter jsonTextWriter)
+    {
+        try
+        {
+            jsonTextWriter.close();
+            return null;
+        }
+        catch (Exception exception)
+        {
+            _logger.LogError(TAG, "Failed to close jsonTextWriter.", exception);
+            return exception;
+        }
+    }
+
+    private void NotifyFinished(
+        final ExportUserDataAsJsonOperationFinishedCallback callback,
+        final Exception exception)
+    {
+        _callbackExecutor.execute(() -> callback.ExportUserDataAsJsonOperationFinished(exception));
+    }
+
+    private void ThrowIfCancellationRequested() throws CancellationException
+    {
+        if (_cancellationRequested) throw new CancellationException("The export of the user data was canceled.");
+    }
+
+    /**
+     * Renders the records of a widget into a {@link IJsonTextFragment} on a worker thread.
+     */
+    private final class WidgetExportTask implements Runnable
+    {
+        public final Widget ExportedWidget;
+        public final IJsonTextFragment Fragment;
+        public final ProgressMonitor Monitor;
+
+        private final IRepositoryJsonTextSerializer _serializer;
+        private final CountDownLatch _completed = new CountDownLatch(1);
+        private volatile Exception _error = null;
+
+        public WidgetExportTask(
+            final Widget widget,
+            final IRepositoryJsonTextSerializer serializer,
+            final IJsonTextFragment fragment,
+            final ProgressMonitor monitor)
+        {
+            ExportedWidget = widget;
+            Fragment = fragment;
+            Monitor = monitor;
+            _serializer = serializer;
+        }
+
+        public void Schedule(final Executor executor)
+        {
+            try
+            {
+                executor.execute(this);
+            }
+            catch (RuntimeException exception)
+            {
+                _completed.countDown();
+                throw exception;
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                Monitor.ThrowIfAborted();
+
+                final IJsonTextWriter fragmentWriter = Fragment.GetWriter();
+                _serializer.SerializeAsJson(fragmentWriter, Monitor);
+                fragmentWriter.close();
+
+                Monitor.ReportProgress();
+            }
+            catch (Exception exception)
+            {
+                _error = exception;
+            }
+            finally
+            {
+                _completed.countDown();
+            }
+        }
+
+        /**
+         * Waits until the widget is rendered completely and rethrows the error that occurred while it was rendered.
+         */
+        public void AwaitCompletion()
+            throws
+                RepositoryException,
+                JsonError,
+                IOException
+        {
+            try
+            {
+                _completed.await();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("The export of the user data was interrupted.");
+            }
+
+            final Exception error = _error;
+
+            if (error == null) return;
+            if (error instanceof RepositoryException) throw (RepositoryException)error;
+            if (error instanceof JsonError) throw (JsonError)error;
+            if (error instanceof IOException) throw (IOException)error;
+            if (error instanceof RuntimeException) throw (RuntimeException)error;
+
+            throw new IllegalStateException(error);
+        }
+
+        /**
+         * Waits until the worker stopped using the fragment and closes it.
+         */
+        public void Release()
+        {
+            try
+            {
+                _completed.await();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            try
+            {
+                Fragment.close();
+            }
+            catch (Exception exception)
+            {
+                _logger.LogError(TAG, "Failed to close the fragment of widget '" + ExportedWidget + "'.", exception);
+            }
+        }
+    }
+
+    /**
+     * Counts the written records of a widget and reports the progress in batches of {@link #RecordsPerBatch}
+     * records. The cancellation is only checked between the batches.
+     */
+    private final class ProgressMonitor implements ISerializationProgressMonitor
+    {
+        private static final int RecordsPerBatch = 128;
+
+        private final Widget _widget;
+        private final ExportUserDataAsJsonOperationProgressCallback _progressCallback;
+        private long _recordCount = 0;
+        private long _recordsWritten = 0;
+        private volatile boolean _aborted = false;
+
+        public ProgressMonitor(
+            final Widget widget,
+            final ExportUserDataAsJsonOperationProgressCallback progressCallback)
+        {
+            _widget = widget;
+            _progressCallback = progressCallback;
+        }
+
+        @Override
+        public void SerializationStarted(final long recordCount)
+        {
+            _recordCount = recordCount;
+            _recordsWritten = 0;
+
+            ThrowIfAborted();
+            ReportProgress();
+        }
+
+        @Override
+        public void RecordWritten() throws CancellationException
+        {
+            if (++_recordsWritten % RecordsPerBatch != 0) return;
+
+            ThrowIfAborted();
+            ReportProgress();
+        }
+
+        /**
+         * Stops the serialization of the widget at the next batch, because the export failed.
+         */
+        public void Abort()
+        {
+            _aborted = true;
+        }
+
+        public void ThrowIfAborted() throws CancellationException
+        {
+            if (_aborted) throw new CancellationException("The export of the widget was aborted.");
+
+            ThrowIfCancellationRequested();
+        }
+
+        public void ReportProgress()
+        {
+            if (_progressCallback == null) return;
+
+            final long recordsWritten = _recordsWritten;
+            final long recordCount = Math.max(_recordCount, recordsWritten);
+
+            _callbackExecutor.execute(() ->
+                _progressCallback.ExportUserDataAsJsonOperationProgressed(_widget, recordsWritten, recordCount));
+        }
+    }
+
     /**
      * Immutable data structure that hols the configured options
      * how the {@link ExportUserDataAsJsonOperation} should behave
@@ -159,6 +529,11 @@ public class ExportUserDataAsJsonOperation
          */
         public List<Widget> WidgetsToExport;
 
+        /**
+         * Gets whether the widgets should be rendered in parallel.
+         */
+        public boolean ExportWidgetsInParallel;
+
         /**
          * Initializes a new {@link Options} instance with a specific configuration.
          *
@@ -184,6 +559,45 @@ public class ExportUserDataAsJsonOperation
             final boolean exportFoodData,
             final boolean exportStepCountData,
             final boolean exportWeightData)
+        {
+            this(
+                exportBloodPressureData,
+                exportBloodSugarData,
+                exportFoodData,
+                exportStepCountData,
+                exportWeightData,
+                false);
+        }
+
+        /**
+         * Initializes a new {@link Options} instance with a specific configuration.
+         *
+         * @param exportBloodPressureData
+         *      {@code true} when blood pressure related user data
+         *      should be exported; otherwise {@code false}.
+         * @param exportBloodSugarData
+         *      {@code true} when blood sugar related user data should
+         *      be exported; otherwise {@code false}.
+         * @param exportFoodData
+         *      {@code true} when food related user data should be
+         *      exported; otherwise {@code false}.
+         * @param exportStepCountData
+         *      {@code true} when step count related user data
+         *      should be exported; otherwise {@code false}.
+         * @param exportWeightData
+         *      {@code true} when weight related user data should
+         *      be exported; otherwise {@code false}.
+         * @param exportWidgetsInParallel
+         *      {@code true} when the widgets should be rendered in
+         *      parallel; otherwise {@code false}.
+         */
+        public Options(
+            final boolean exportBloodPressureData,
+            final boolean exportBloodSugarData,
+            final boolean exportFoodData,
+            final boolean exportStepCountData,
+            final boolean exportWeightData,
+            final boolean exportWidgetsInParallel)
         {
             final ArrayList<Widget> widgetsToExport = new ArrayList<>();
 
@@ -194,11 +608,26 @@ public class ExportUserDataAsJsonOperation
             if (exportWeightData) widgetsToExport.add(Widget.weight);
 
             WidgetsToExport = Collections.unmodifiableList(widgetsToExport);
+            ExportWidgetsInParallel = exportWidgetsInParallel;
         }
     }
 
     public interface ExportUserDataAsJsonOperationFinishedCallback
     {
+        /**
+         * @param exception {@code null} when the export succeeded; a {@link CancellationException} when the export
+         *                  was canceled; otherwise the cause of the failure.
+         */
         void ExportUserDataAsJsonOperationFinished(Exception exception);
     }
+
+    public interface ExportUserDataAsJsonOperationProgressCallback
+    {
+        /**
+         * @param widget         the widget whose records are exported.
+         * @param recordsWritten the count of records of the widget that were exported so far.
+         * @param totalRecords   the total count of records of the widget.
+         */
+        void ExportUserDataAsJsonOperationProgressed(Widget widget, long recordsWritten, long totalRecords);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.application;
+
+import de.dviererbe.healthtrack.infrastructure.ILogger;
+import de.dviererbe.healthtrack.infrastructure.IUserDataJsonTextReaderProvider;
+import de.dviererbe.healthtrack.infrastructure.json.IJsonTextReader;
+import de.dviererbe.healthtrack.infrastructure.json.IRepositoryJsonTextDeserializer;
+import de.dviererbe.healthtrack.infrastructure.json.JsonError;
+import de.dviererbe.healthtrack.infrastructure.json.JsonToken;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Encapsulates the logic to import user data that was exported by an {@link ExportUserDataAsJsonOperation}.
+ *
+ * The document is read token by token on a background {@link Executor}; the records are stored in batches
+ * by the {@link IRepositoryJsonTextDeserializer} of their widget, so the memory usage does not depend on
+ * the size of the document. Records that already exist (with the same identifier) are updated.
+ * The completion is reported through the callback {@link Executor} (usually the main thread).
+ */
+public class ImportUserDataFromJsonOperation
+{
+    private static final String TAG = "ImportUserDataFromJsonOperation";
+
+    private final IUserDataJsonTextReaderProvider _userDataJsonTextReaderProvider;
+    private final Map<Widget, IRepositoryJsonTextDeserializer> _widgetRepositoriesJsonTextDeserializer;
+    private final Executor _backgroundExecutor;
+    private final Executor _callbackExecutor;
+    private final ILogger _logger;
+
+    /**
+     * Initializes a new {@link ImportUserDataFromJsonOperation}
+     * instance with references to all necessary parameters and dependencies.
+     *
+     * @param userDataJsonTextReaderProvider
+     *      a mechanism that provides an {@link IJsonTextReader}
+     *      where the user data should be imported from.
+     * @param widgetRepositoriesJsonTextDeserializer
+     *      reference to the deserializers that import the
+     *      repository data from json text.
+     * @param backgroundExecutor
+     *      the {@link Executor} that runs the import.
+     * @param callbackExecutor
+     *      the {@link Executor} that invokes the finished
+     *      callback (usually the main thread).
+     * @param logger
+     *      reference to a logger.
+     */
+    public ImportUserDataFromJsonOperation(
+        final IUserDataJsonTextReaderProvider userDataJsonTextReaderProvider,
+        final Map<Widget, IRepositoryJsonTextDeserializer> widgetRepositoriesJsonTextDeserializer,
+        final Executor backgroundExecutor,
+        final Executor callbackExecutor,
+        final ILogger logger)
+    {
+        _userDataJsonTextReaderProvider = userDataJsonTextReaderProvider;
+        _widgetRepositoriesJsonTextDeserializer = widgetRepositoriesJsonTextDeserializer;
+        _backgroundExecutor = backgroundExecutor;
+        _callbackExecutor = callbackExecutor;
+        _logger = logger;
+    }
+
+    /**
+     * Executes the operation to import the user data.
+     *
+     * @param finishedCallback
+     *      called (by the callback {@link Executor}) when the import finished or failed.
+     */
+    public void Execute(final ImportUserDataFromJsonOperationFinishedCallback finishedCallback)
+    {
+        _userDataJsonTextReaderProvider.ProvideUserDataJsonTextReader(new IUserDataJsonTextReaderProvider.ProvideUserDataJsonTextReaderRequestCallback()
+        {
+            @Override
+            public void UserDataJsonTextReaderProvided(final IJsonTextReader jsonTextReader)
+            {
+                try
+                {
+                    _backgroundExecutor.execute(() -> ImportUserData(jsonTextReader, finishedCallback));
+                }
+                catch (Exception exception)
+                {
+                    CloseJsonTextReader(jsonTextReader);
+                    NotifyFinished(finishedCallback, exception);
+                }
+            }
+
+            @Override
+            public void UserDataJsonTextReaderCouldNotBeProvided(final Exception exception)
+            {
+                NotifyFinished(finishedCallback, exception);
+            }
+        });
+    }
+
+    private void ImportUserData(
+        final IJsonTextReader jsonTextReader,
+        final ImportUserDataFromJsonOperationFinishedCallback finishedCallback)
+    {
+        Exception error = null;
+
+        try
+        {
+            ImportUserData(jsonTextReader);
+        }
+        catch (Exception exception)
+        {
+            error = exception;
+        }
+
+        CloseJsonTextReader(jsonTextReader);
+        NotifyFinished(finishedCallback, error);
+    }
+
+    private void ImportUserData(final IJsonTextReader jsonTextReader)
+        throws
+            RepositoryException,
+            JsonError,
+            IOException
+    {
+        if (jsonTextReader.Read() != JsonToken.StartObject)
+        {
+            throw new JsonError("The user data has to be a Json object.");
+        }
+
+        while (jsonTextReader.Read() == JsonToken.PropertyName)
+        {
+            final Widget widget = TryParseWidget(jsonTextReader.GetString());
+            final IRepositoryJsonTextDeserializer repositoryJsonTextDeserializer =
+                widget == null ? null : _widgetRepositoriesJsonTextDeserializer.get(widget);
+
+            jsonTextReader.Read();
+
+            if (repositoryJsonTextDeserializer == null)
+            {
+                // e.g. the time the export was created or a widget that can not be imported
+                jsonTextReader.Skip();
+                continue;
+            }
+
+            repositoryJsonTextDeserializer.DeserializeFromJson(jsonTextReader);
+        }
+
+        if (jsonTextReader.GetToken() != JsonToken.EndObject)
+        {
+            throw new JsonError("Expected " + JsonToken.EndObject + " but the current token is " + jsonTextReader.GetToken() + ".");
+        }
+
+        if (jsonTextReader.Read() != JsonToken.EndOfDocument)
+        {
+            throw new JsonError("The user data contains more than a single Json object.");
+        }
+    }
+
+    private Widget TryParseWidget(final String name)
+    {
+        for (Widget widget : Widget.values())
+        {
+            if (widget.name().equals(name)) return widget;
+        }
+
+        return null;
+    }
+
+    private void CloseJsonTextReader(final IJsonTextReader jsonTextReader)
+    {
+        try
+        {
+            jsonTextReader.close();
+        }
+        catch (Exception exception)
+        {
+            _logger.LogError(TAG, "Failed to close jsonTextReader.", exception);
+        }
+    }
+
+    private void NotifyFinished(
+        final ImportUserDataFromJsonOperationFinishedCallback callback,
+        final Exception exception)
+    {
+        _callbackExecutor.execute(() -> callback.ImportUserDataFromJsonOperationFinished(exception));
+    }
+
+    public interface ImportUserDataFromJsonOperationFinishedCallback
+    {
+        /**
+         * @param exception {@code null} when the import succeeded; otherwise the cause of the failure.
+         */
+        void ImportUserDataFromJsonOperationFinished(Exception exception);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure;
+
+import de.dviererbe.healthtrack.infrastructure.json.IJsonTextReader;
+
+/**
+ * A mechanism that can provide an {@link IJsonTextReader}
+ * where previously exported user data can be imported from.
+ */
+public interface IUserDataJsonTextReaderProvider
+{
+    /**
+     * Provides an {@link IJsonTextReader} where the user data can be imported from.
+     */
+    void ProvideUserDataJsonTextReader(final ProvideUserDataJsonTextReaderRequestCallback callback);
+
+    interface ProvideUserDataJsonTextReaderRequestCallback
+    {
+        /**
+         * Called when an {@link IJsonTextReader} could be provided where the user data can be read from as json text
+         *
+         * @param jsonTextReader The {@link IJsonTextReader} where the user data can be read from as json text
+         */
+        void UserDataJsonTextReaderProvided(final IJsonTextReader jsonTextReader);
+
+        /**
+         * Called when an {@link IJsonTextReader} could not be provided.
+         *
+         * @param exception An exception that describes the occurred error.
+         */
+        void UserDataJsonTextReaderCouldNotBeProvided(final Exception exception);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A temporary storage for a Json value that is rendered separately (for example on another thread) and is
+ * copied into the final document later with {@link IJsonTextWriter#WriteRawValue(Reader)}.
+ * Closing the fragment releases the storage.
+ */
+public interface IJsonTextFragment extends AutoCloseable, Closeable
+{
+    /**
+     * Gets the {@link IJsonTextWriter} that writes into the fragment. It has to be closed
+     * before the fragment is read.
+     */
+    IJsonTextWriter GetWriter();
+
+    /**
+     * Opens a {@link Reader} that reads the Json Text that was written into the fragment.
+     */
+    Reader OpenReader() throws IOException;
+}
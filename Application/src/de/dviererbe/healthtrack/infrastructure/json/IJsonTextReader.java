@@ -0,0 +1,94 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Provides forward-only, pull-style access to Json Text (as defined by
+ * <a href="https://www.rfc-editor.org/rfc/rfc8259.html">RFC8259</a>). The Json Text is read token by token;
+ * no tree of the document is built, so arbitrarily large documents can be read with constant memory.
+ */
+public interface IJsonTextReader extends AutoCloseable, Closeable
+{
+    /**
+     * Reads the next token.
+     *
+     * @return the kind of the token that was read; {@link JsonToken#EndOfDocument} when the root value was read completely.
+     * @throws JsonError when the Json Text is malformed.
+     * @throws IOException when an I/O error occurs.
+     */
+    JsonToken Read() throws JsonError, IOException;
+
+    /**
+     * Gets the kind of the current token.
+     */
+    JsonToken GetToken();
+
+    /**
+     * Skips the current value. When the current token starts an array or object, all tokens up to (and
+     * including) the matching end token are skipped; otherwise nothing is skipped.
+     */
+    void Skip() throws JsonError, IOException;
+
+    /**
+     * Determines whether the current property name or string value equals the name of the specified
+     * {@link JsonPropertyName} without creating a {@link java.lang.String}.
+     */
+    boolean ValueEquals(final JsonPropertyName propertyName);
+
+    /**
+     * Gets the current property name or string value.
+     *
+     * @return the unescaped value or {@code null} if the current token is {@link JsonToken#Null}.
+     * @throws JsonError when the current token is not a property name, a string or {@code null}.
+     */
+    String GetString() throws JsonError;
+
+    /**
+     * Gets the current number value as {@code int}.
+     *
+     * @throws JsonError when the current token is not a number or the number is not an integer in the range of {@code int}.
+     */
+    int GetInt() throws JsonError;
+
+    /**
+     * Gets the current number value as {@code double}.
+     *
+     * @throws JsonError when the current token is not a number.
+     */
+    double GetDouble() throws JsonError;
+
+    /**
+     * Gets the current literal name {@code true} or {@code false} as {@code boolean}.
+     *
+     * @throws JsonError when the current token is neither {@code true} nor {@code false}.
+     */
+    boolean GetBoolean() throws JsonError;
+
+    /**
+     * Gets the current string value as {@link LocalDateTime} (ISO-8601; for example {@code "2022-07-01T13:37:00"}).
+     *
+     * @return the parsed date-time or {@code null} if the current token is {@link JsonToken#Null}.
+     * @throws JsonError when the current token is neither a string nor {@code null} or the string is not a valid date-time.
+     */
+    LocalDateTime GetLocalDateTime() throws JsonError;
+}
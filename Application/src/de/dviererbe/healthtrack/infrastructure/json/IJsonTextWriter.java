@@ -20,6 +20,7 @@ package de.dviererbe.healthtrack.infrastructure.json;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.Reader;
 import java.time.LocalDateTime;
 
 public interface IJsonTextWriter extends AutoCloseable, Closeable
@@ -34,6 +35,8 @@ public interface IJsonTextWriter extends AutoCloseable, Closeable
 
     IJsonTextWriter WritePropertyName(final String propertyName) throws JsonError, IOException;
 
+    IJsonTextWriter WritePropertyName(final JsonPropertyName propertyName) throws JsonError, IOException;
+
     IJsonTextWriter WriteNull() throws JsonError, IOException;
 
     IJsonTextWriter WriteValue(final int value) throws JsonError, IOException;
@@ -42,5 +45,16 @@ public interface IJsonTextWriter extends AutoCloseable, Closeable
 
     IJsonTextWriter WriteValue(final String value) throws JsonError, IOException;
 
+    IJsonTextWriter WriteValue(final char[] value, final int offset, final int count) throws JsonError, IOException;
+
     IJsonTextWriter WriteValue(final LocalDateTime value) throws JsonError, IOException;
+
+    /**
+     * Writes a complete, already serialized Json value (for example a fragment that was rendered by another
+     * {@link IJsonTextWriter}) as it is. The Json Text is not validated; the caller has to ensure that the
+     * {@code jsonText} contains exactly one valid Json value.
+     *
+     * @param jsonText The {@link Reader} to copy the Json Text from. It is read to its end, but not closed.
+     */
+    IJsonTextWriter WriteRawValue(final Reader jsonText) throws JsonError, IOException;
 }
@@ -0,0 +1,35 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+
+import java.io.IOException;
+
+public interface IRepositoryJsonTextDeserializer
+{
+    /**
+     * Reads the repository data that was written by the corresponding {@link IRepositoryJsonTextSerializer}
+     * and stores it in the repository.
+     *
+     * @param jsonReader The {@link IJsonTextReader} whose current token is the start of the repository data.
+     *                   When the method returns, the current token is the end of the repository data.
+     */
+    void DeserializeFromJson(IJsonTextReader jsonReader) throws RepositoryException, JsonError, IOException;
+}
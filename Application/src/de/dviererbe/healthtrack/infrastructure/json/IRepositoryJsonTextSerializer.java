@@ -26,4 +26,11 @@ import java.io.IOException;
 public interface IRepositoryJsonTextSerializer
 {
     void SerializeAsJson(IJsonTextWriter jsonWriter) throws RepositoryException, JsonError, IOException;
+
+    /**
+     * Serializes the repository data as Json and informs the {@code progressMonitor} about every written record.
+     *
+     * @throws java.util.concurrent.CancellationException when the {@code progressMonitor} canceled the serialization.
+     */
+    void SerializeAsJson(IJsonTextWriter jsonWriter, ISerializationProgressMonitor progressMonitor) throws RepositoryException, JsonError, IOException;
 }
@@ -0,0 +1,42 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Mechanism that is informed about the progress of a serialization and that can cancel it cooperatively.
+ */
+public interface ISerializationProgressMonitor
+{
+    /**
+     * Called once before the first record is written.
+     *
+     * @param recordCount The total count of records that will be written (approximately, if
+     *                    records are added or removed while the serialization is running).
+     */
+    void SerializationStarted(long recordCount);
+
+    /**
+     * Called after a record was written.
+     *
+     * @throws CancellationException when the serialization should be canceled.
+     */
+    void RecordWritten() throws CancellationException;
+}
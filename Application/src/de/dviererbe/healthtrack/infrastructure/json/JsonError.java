@@ -18,6 +18,27 @@
 
 package de.dviererbe.healthtrack.infrastructure.json;
 
+/**
+ * The {@link Exception} that is thrown when an {@link IJsonTextWriter} is used in a way that would
+ * produce an invalid Json Text.
+ */
 public class JsonError extends Exception
 {
+    /**
+     * Constructs a new exception with {@code null} as its detail message.
+     */
+    public JsonError()
+    {
+        super();
+    }
+
+    /**
+     * Constructs a new exception with the specified detail message.
+     *
+     * @param message the detail message. The detail message is saved for later retrieval by the {@code Throwable.getMessage()} method.
+     */
+    public JsonError(String message)
+    {
+        super(message);
+    }
 }
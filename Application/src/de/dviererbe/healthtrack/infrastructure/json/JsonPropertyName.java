@@ -0,0 +1,162 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents the name of a property of a Json object that is escaped and encoded only once, so that
+ * writing the same property name repeatedly (for example once per serialized record) is a plain array copy.
+ * Instances are immutable and are intended to be held in static constants.
+ */
+public final class JsonPropertyName
+{
+    /**
+     * The (unescaped) name of the property.
+     */
+    public final String Name;
+
+    // The quoted and escaped name followed by the name separator (for example "name":)
+    private final char[] _encodedCharacters;
+    private final byte[] _encodedUtf8Bytes;
+
+    /**
+     * Initializes a new {@link JsonPropertyName} instance.
+     *
+     * @param name The (unescaped) name of the property.
+     */
+    public JsonPropertyName(final String name)
+    {
+        if (name == null) throw new IllegalArgumentException("name is null");
+
+        Name = name;
+
+        final String encodedName = Encode(name);
+        _encodedCharacters = encodedName.toCharArray();
+        _encodedUtf8Bytes = encodedName.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the number of characters of the encoded property name (including the quotation marks and the name separator).
+     *
+     * @return The number of characters of the encoded property name.
+     */
+    public int GetEncodedLength()
+    {
+        return _encodedCharacters.length;
+    }
+
+    /**
+     * Copies the encoded property name (including the quotation marks and the name separator) into a character array.
+     *
+     * @param destination The character array to copy the encoded property name to.
+     * @param position The position in the character array where the first character is written.
+     * @return The position after the last written character.
+     */
+    public int CopyEncodedCharactersTo(final char[] destination, final int position)
+    {
+        System.arraycopy(_encodedCharacters, 0, destination, position, _encodedCharacters.length);
+        return position + _encodedCharacters.length;
+    }
+
+    /**
+     * Gets the number of bytes of the UTF-8 encoded property name (including the quotation marks and the name separator).
+     *
+     * @return The number of bytes of the UTF-8 encoded property name.
+     */
+    public int GetEncodedUtf8Length()
+    {
+        return _encodedUtf8Bytes.length;
+    }
+
+    /**
+     * Copies the UTF-8 encoded property name (including the quotation marks and the name separator) into a byte array.
+     *
+     * @param destination The byte array to copy the UTF-8 encoded property name to.
+     * @param position The position in the byte array where the first byte is written.
+     * @return The position after the last written byte.
+     */
+    public int CopyEncodedUtf8BytesTo(final byte[] destination, final int position)
+    {
+        System.arraycopy(_encodedUtf8Bytes, 0, destination, position, _encodedUtf8Bytes.length);
+        return position + _encodedUtf8Bytes.length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Name;
+    }
+
+    /**
+     * Quotes and escapes a property name (see <a href="https://www.rfc-editor.org/rfc/rfc8259.html#section-7">RFC8259 Section 7</a>)
+     * and appends the name separator.
+     */
+    private static String Encode(final String name)
+    {
+        final StringBuilder builder = new StringBuilder(name.length() + 3);
+        builder.append('"');
+
+        for (int index = 0; index < name.length(); ++index)
+        {
+            final char character = name.charAt(index);
+
+            switch (character)
+            {
+                case '"': builder.append("\\\""); break;
+                case '\\': builder.append("\\\\"); break;
+                case '\b': builder.append("\\b"); break;
+                case '\f': builder.append("\\f"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                case '\t': builder.append("\\t"); break;
+                default:
+                    if (character < 0x20 || IsLoneSurrogate(name, index))
+                    {
+                        builder.append(String.format("\\u%04x", (int)character));
+                    }
+                    else
+                    {
+                        builder.append(character);
+                    }
+                    break;
+            }
+        }
+
+        builder.append('"').append(':');
+        return builder.toString();
+    }
+
+    private static boolean IsLoneSurrogate(final String name, final int index)
+    {
+        final char character = name.charAt(index);
+
+        if (Character.isHighSurrogate(character))
+        {
+            return index + 1 == name.length() || !Character.isLowSurrogate(name.charAt(index + 1));
+        }
+
+        if (Character.isLowSurrogate(character))
+        {
+            return index == 0 || !Character.isHighSurrogate(name.charAt(index - 1));
+        }
+
+        return false;
+    }
+}
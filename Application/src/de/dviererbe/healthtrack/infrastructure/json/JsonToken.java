@@ -0,0 +1,85 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+/**
+ * The kinds of tokens an {@link IJsonTextReader} reads.
+ */
+public enum JsonToken
+{
+    /**
+     * No token was read yet.
+     */
+    None,
+
+    /**
+     * The begin-object structural character (<code>&#123;</code>).
+     */
+    StartObject,
+
+    /**
+     * The end-object structural character (<code>&#125;</code>).
+     */
+    EndObject,
+
+    /**
+     * The begin-array structural character ({@code [}).
+     */
+    StartArray,
+
+    /**
+     * The end-array structural character ({@code ]}).
+     */
+    EndArray,
+
+    /**
+     * The name of an object member (including the name separator).
+     */
+    PropertyName,
+
+    /**
+     * A string value.
+     */
+    String,
+
+    /**
+     * A number value.
+     */
+    Number,
+
+    /**
+     * The literal name {@code true}.
+     */
+    True,
+
+    /**
+     * The literal name {@code false}.
+     */
+    False,
+
+    /**
+     * The literal name {@code null}.
+     */
+    Null,
+
+    /**
+     * The end of the Json Text was reached after the root value.
+     */
+    EndOfDocument
+}
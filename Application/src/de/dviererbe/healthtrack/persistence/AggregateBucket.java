@@ -0,0 +1,86 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the immutable statistics of the records of one bucket (see {@link AggregationPeriod})
+ * that were aggregated by {@link IAggregatable}.
+ */
+public class AggregateBucket
+{
+    /**
+     * The first day of the bucket.
+     */
+    public final LocalDate Start;
+
+    /**
+     * The count of records in the bucket (always positive; empty buckets are omitted).
+     */
+    public final long Count;
+
+    /**
+     * The sum of the values of the records in the bucket.
+     */
+    public final double Sum;
+
+    /**
+     * The smallest value of the records in the bucket.
+     */
+    public final double Minimum;
+
+    /**
+     * The largest value of the records in the bucket.
+     */
+    public final double Maximum;
+
+    /**
+     * Creates a new immutable {@link AggregateBucket} instance.
+     *
+     * @param start The first day of the bucket.
+     * @param count The count of records in the bucket.
+     * @param sum The sum of the values of the records in the bucket.
+     * @param minimum The smallest value of the records in the bucket.
+     * @param maximum The largest value of the records in the bucket.
+     */
+    public AggregateBucket(
+            final LocalDate start,
+            final long count,
+            final double sum,
+            final double minimum,
+            final double maximum)
+    {
+        Start = start;
+        Count = count;
+        Sum = sum;
+        Minimum = minimum;
+        Maximum = maximum;
+    }
+
+    /**
+     * Gets the average of the values of the records in the bucket.
+     *
+     * @return {@link #Sum} divided by {@link #Count}.
+     */
+    public double GetAverage()
+    {
+        return Sum / Count;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+/**
+ * Represents the immutable outcome of storing a batch of records with {@link IBulkMergable}.
+ */
+public class BulkMergeResult
+{
+    /**
+     * The count of records that did not exist before and were created.
+     */
+    public final int CreatedRecords;
+
+    /**
+     * The count of records that already existed and were updated.
+     */
+    public final int UpdatedRecords;
+
+    /**
+     * Creates a new immutable {@link BulkMergeResult} instance.
+     *
+     * @param createdRecords The count of records that were created.
+     * @param updatedRecords The count of records that were updated.
+     */
+    public BulkMergeResult(
+            final int createdRecords,
+            final int updatedRecords)
+    {
+        CreatedRecords = createdRecords;
+        UpdatedRecords = updatedRecords;
+    }
+}
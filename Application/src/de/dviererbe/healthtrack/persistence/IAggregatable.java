@@ -0,0 +1,101 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import de.dviererbe.healthtrack.persistence.exceptions.AggregationPeriodIsNull;
+import de.dviererbe.healthtrack.persistence.exceptions.MeasureIsNull;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryDisposed;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+import de.dviererbe.healthtrack.persistence.exceptions.TimeRangeBoundIsNull;
+import de.dviererbe.healthtrack.persistence.exceptions.TimeRangeStartIsAfterEnd;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mechanism for computing statistics (count, sum, minimum, maximum and average) of the records
+ * grouped by day, week, month or year, without reading the records themselves.
+ * The statistics of whole days are additionally kept up to date with every change of the records,
+ * so they are read from a handful of precomputed summaries (see {@link #GetSummaries}).
+ *
+ * @param <TMeasure> The enumeration of the values of a record that can be aggregated.
+ */
+public interface IAggregatable<TMeasure extends Enum<TMeasure>>
+{
+    /**
+     * Gets the statistics of a value of the records with a time of measurement between {@code from}
+     * and {@code to} (both inclusive) for every bucket of the specified period that contains records.
+     *
+     * @param measure The value of the records that should be aggregated.
+     * @param period The length of the buckets.
+     * @param from The earliest time of measurement of the records.
+     * @param to The latest time of measurement of the records.
+     * @return The statistics of the non-empty buckets in ascending order sorted by their start.
+     * @throws MeasureIsNull when {@code measure} is {@code null}.
+     * @throws AggregationPeriodIsNull when {@code period} is {@code null}.
+     * @throws TimeRangeBoundIsNull when {@code from} or {@code to} is {@code null}.
+     * @throws TimeRangeStartIsAfterEnd when {@code from} is after {@code to}.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    List<AggregateBucket> GetAggregates(
+        final TMeasure measure,
+        final AggregationPeriod period,
+        final LocalDateTime from,
+        final LocalDateTime to)
+        throws
+            MeasureIsNull,
+            AggregationPeriodIsNull,
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException;
+
+    /**
+     * Gets the statistics of a value of the records for every bucket of the specified period that contains records
+     * and overlaps the days from {@code from} to {@code to} (both inclusive). The statistics always cover the whole
+     * bucket (for example the whole month of {@code from}) and are read from precomputed summaries, so the cost
+     * depends on the count of buckets only and not on the count of records.
+     *
+     * @param measure The value of the records whose statistics should be read.
+     * @param period The length of the buckets.
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @return The statistics of the non-empty buckets in ascending order sorted by their start.
+     * @throws MeasureIsNull when {@code measure} is {@code null}.
+     * @throws AggregationPeriodIsNull when {@code period} is {@code null}.
+     * @throws TimeRangeBoundIsNull when {@code from} or {@code to} is {@code null}.
+     * @throws TimeRangeStartIsAfterEnd when {@code from} is after {@code to}.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    List<AggregateBucket> GetSummaries(
+        final TMeasure measure,
+        final AggregationPeriod period,
+        final LocalDate from,
+        final LocalDate to)
+        throws
+            MeasureIsNull,
+            AggregationPeriodIsNull,
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException;
+}
@@ -20,10 +20,14 @@ package de.dviererbe.healthtrack.persistence;
 
 import de.dviererbe.healthtrack.persistence.exceptions.CountIsNotPositive;
 import de.dviererbe.healthtrack.persistence.exceptions.OffsetIsNegative;
+import de.dviererbe.healthtrack.persistence.exceptions.RecordIdentifierIsNull;
 import de.dviererbe.healthtrack.persistence.exceptions.RepositoryDisposed;
 import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+import de.dviererbe.healthtrack.persistence.exceptions.TimeOfMeasurementIsNull;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Mechanism for querying records in bulk.
@@ -34,6 +38,8 @@ public interface IBulkQueryable<TRecord>
 {
     /**
      * Gets the count of all stored records.
+     * Lists request the count on every layout pass, so implementations should keep it instead of counting
+     * the stored records on every call.
      *
      * @return scalar count of all stored records.
      * @throws RepositoryDisposed when the repository was already disposed.
@@ -47,6 +53,7 @@ public interface IBulkQueryable<TRecord>
     /**
      * Gets a sequence of records with the maximum length of {@code count}
      * in descending order sorted by the time of measurement beginning at the {@code offset}.
+     * Records with the same time of measurement are sorted by their identifier in descending order.
      *
      * @param offset zero based n-th element in descending order where to begin reading records
      * @param count maximum number of record to be read from the repository
@@ -62,4 +69,32 @@ public interface IBulkQueryable<TRecord>
             CountIsNotPositive,
             RepositoryDisposed,
             RepositoryException;
+
+    /**
+     * Gets a sequence of records with the maximum length of {@code count} in descending order sorted by
+     * the time of measurement (and the identifier) that directly follow the record with the specified
+     * {@code timeOfMeasurement} and {@code identifier} in that order.
+     *
+     * <p>In contrast to {@link #GetRecordsDescending(long, int)} the position is specified by the last
+     * record of the previous sequence (keyset pagination). The repository can seek directly to the
+     * position instead of skipping all preceding records, and records that are inserted or deleted
+     * between two calls do not shift the position.</p>
+     *
+     * @param timeOfMeasurement time of measurement of the last record of the previous sequence
+     * @param identifier identifier of the last record of the previous sequence
+     * @param count maximum number of record to be read from the repository
+     * @return read sequence of records
+     * @throws TimeOfMeasurementIsNull when {@code timeOfMeasurement} is {@code null}.
+     * @throws RecordIdentifierIsNull when {@code identifier} is {@code null}.
+     * @throws CountIsNotPositive when {@code count} is not positive.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    List<TRecord> GetRecordsDescendingAfter(LocalDateTime timeOfMeasurement, UUID identifier, int count)
+        throws
+            TimeOfMeasurementIsNull,
+            RecordIdentifierIsNull,
+            CountIsNotPositive,
+            RepositoryDisposed,
+            RepositoryException;
 }
@@ -0,0 +1,67 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import de.dviererbe.healthtrack.IDisposable;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryDisposed;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+
+/**
+ * Mechanism for observing the data migration that moves the existing records into a new layout after an upgrade.
+ * The data migration runs in the background; until it is completed, the records that were not migrated yet are
+ * not visible (they are neither read nor counted), so a user interface should show placeholders instead of
+ * assuming that there are no records.
+ */
+public interface IDataMigrationObservable
+{
+    /**
+     * Determines whether a data migration is pending. Does not wait for the data migration.
+     *
+     * @return {@code true} if some of the existing records may not be visible yet; otherwise {@code false}.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    boolean IsDataMigrationPending()
+        throws
+            RepositoryDisposed,
+            RepositoryException;
+
+    /**
+     * Registers a listener that is notified when the pending data migration is completed.
+     * The listener should be registered before {@link #IsDataMigrationPending()} is called, so that a data migration
+     * that is completed in between is not missed.
+     *
+     * @param listener The listener that should be notified.
+     * @return a {@link IDisposable} that unregisters the listener when it is disposed.
+     */
+    IDisposable RegisterDataMigrationCompletedListener(IDataMigrationCompletedListener listener);
+
+    /**
+     * Callback mechanism for when the data migration was completed.
+     */
+    interface IDataMigrationCompletedListener
+    {
+        /**
+         * Called once after the data migration was completed (or discarded because all records were deleted).
+         * Called on the thread that completed the data migration; it should only hand the notification over to the
+         * thread that applies it.
+         */
+        void OnDataMigrationCompleted();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import de.dviererbe.healthtrack.persistence.exceptions.DayIsNull;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryDisposed;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+
+import java.time.LocalDate;
+
+/**
+ * Mechanism for querying the latest record of a specific day without reading the other records of the day.
+ *
+ * @param <TRecord> The type of the record that can be queried.
+ */
+public interface ILatestRecordQueryable<TRecord>
+{
+    /**
+     * Gets the record of a specified day with the latest time of measurement.
+     * Of records with the same time of measurement the one with the greatest identifier is returned
+     * (the first record of {@link IPerDayBulkQueryable#GetRecordsForDayDescending(LocalDate)}).
+     *
+     * @param day The specific day to get the latest record for.
+     * @return the latest record of the specified day or {@code null} if there is no record for the day.
+     * @throws DayIsNull when {@code day} is {@code null}.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    TRecord GetLatestRecordOfDay(final LocalDate day)
+        throws
+            DayIsNull,
+            RepositoryDisposed,
+            RepositoryException;
+}
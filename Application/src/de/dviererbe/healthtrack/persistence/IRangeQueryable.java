@@ -0,0 +1,76 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryDisposed;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+import de.dviererbe.healthtrack.persistence.exceptions.TimeRangeBoundIsNull;
+import de.dviererbe.healthtrack.persistence.exceptions.TimeRangeStartIsAfterEnd;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mechanism for querying the records of a time range.
+ *
+ * The bounds of the range are inclusive and compared with a precision of seconds.
+ * Records with the same time of measurement are sorted by their identifier (in the same direction).
+ *
+ * @param <TRecord> The type of the record that can be queried.
+ */
+public interface IRangeQueryable<TRecord>
+{
+    /**
+     * Gets all records with a time of measurement between {@code from} and {@code to}
+     * in ascending order sorted by the time of measurement.
+     *
+     * @param from The earliest time of measurement of the records.
+     * @param to The latest time of measurement of the records.
+     * @return All records of the time range in ascending order sorted by the time of measurement.
+     * @throws TimeRangeBoundIsNull when {@code from} or {@code to} is {@code null}.
+     * @throws TimeRangeStartIsAfterEnd when {@code from} is after {@code to}.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    List<TRecord> GetRecordsInRangeAscending(final LocalDateTime from, final LocalDateTime to)
+        throws
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException;
+
+    /**
+     * Gets all records with a time of measurement between {@code from} and {@code to}
+     * in descending order sorted by the time of measurement.
+     *
+     * @param from The earliest time of measurement of the records.
+     * @param to The latest time of measurement of the records.
+     * @return All records of the time range in descending order sorted by the time of measurement.
+     * @throws TimeRangeBoundIsNull when {@code from} or {@code to} is {@code null}.
+     * @throws TimeRangeStartIsAfterEnd when {@code from} is after {@code to}.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    List<TRecord> GetRecordsInRangeDescending(final LocalDateTime from, final LocalDateTime to)
+        throws
+            TimeRangeBoundIsNull,
+            TimeRangeStartIsAfterEnd,
+            RepositoryDisposed,
+            RepositoryException;
+}
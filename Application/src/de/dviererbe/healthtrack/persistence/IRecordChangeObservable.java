@@ -0,0 +1,54 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import de.dviererbe.healthtrack.IDisposable;
+
+/**
+ * Mechanism for observing the changes of the stored records.
+ *
+ * @param <TRecord> The type of the record whose changes can be observed.
+ */
+public interface IRecordChangeObservable<TRecord>
+{
+    /**
+     * Registers a listener that is notified about every change of the stored records.
+     *
+     * @param listener The listener that should be notified.
+     * @return a {@link IDisposable} that unregisters the listener when it is disposed.
+     */
+    IDisposable RegisterRecordChangeListener(IRecordChangeListener<TRecord> listener);
+
+    /**
+     * Callback mechanism for when the stored records have changed.
+     *
+     * @param <TRecord> The type of the changed record.
+     */
+    interface IRecordChangeListener<TRecord>
+    {
+        /**
+         * Called after a change of the stored records was committed. Called on the thread that changed the records.
+         * The changes are published one at a time in the order in which they were committed, so the next write
+         * waits for the listener; it should only hand the change over to the thread that applies it.
+         *
+         * @param change The change of the records.
+         */
+        void OnRecordChanged(RecordChange<TRecord> change);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryDisposed;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+
+/**
+ * A closeable, forward-only cursor over a sequence of records.
+ *
+ * <p>The records are read from the underlying storage while the cursor is advanced, so only a
+ * small part of the sequence has to be held in memory at any time. A cursor has to be closed
+ * when it is no longer used.</p>
+ *
+ * @param <TRecord> The type of the records the cursor iterates over.
+ */
+public interface IRecordCursor<TRecord> extends AutoCloseable
+{
+    /**
+     * Advances the cursor to the next record.
+     *
+     * @return {@code true} if the cursor was advanced to the next record;
+     *         {@code false} if the end of the sequence was reached.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when the cursor was already closed or an unexpected I/O error occurs.
+     */
+    boolean MoveNext()
+        throws
+            RepositoryDisposed,
+            RepositoryException;
+
+    /**
+     * Gets the record at the current position of the cursor.
+     *
+     * @return the current record or {@code null} if {@link #MoveNext()} was not called yet
+     *         or the end of the sequence was reached.
+     */
+    TRecord GetCurrent();
+
+    /**
+     * Closes the cursor and releases all resources that are held by it.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,55 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryDisposed;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+
+/**
+ * Mechanism for streaming records through a {@link IRecordCursor} instead of materializing them in bulk.
+ *
+ * @param <TRecord> The type of the record that can be streamed.
+ */
+public interface IRecordCursorQueryable<TRecord>
+{
+    /**
+     * Gets the count of all stored records.
+     *
+     * @return scalar count of all stored records.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    long GetRecordCount()
+        throws
+            RepositoryDisposed,
+            RepositoryException;
+
+    /**
+     * Opens a cursor over all stored records in descending order sorted by the time of measurement.
+     * Records with the same time of measurement are sorted by their identifier in descending order.
+     *
+     * @return a forward-only cursor over all records that has to be closed by the caller.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    IRecordCursor<TRecord> OpenRecordsDescending()
+        throws
+            RepositoryDisposed,
+            RepositoryException;
+}
@@ -0,0 +1,52 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import de.dviererbe.healthtrack.infrastructure.json.IJsonTextWriter;
+import de.dviererbe.healthtrack.infrastructure.json.ISerializationProgressMonitor;
+import de.dviererbe.healthtrack.infrastructure.json.JsonError;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryDisposed;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+
+import java.io.IOException;
+
+/**
+ * Mechanism for writing all stored records directly as Json Text, without materializing them as domain objects.
+ */
+public interface IRecordJsonTextWritable
+{
+    /**
+     * Writes all stored records as a Json array of objects in descending order sorted by the time of measurement.
+     * The Json Text is the same as the one that is written when each record is read and serialized separately.
+     *
+     * @param jsonTextWriter The {@link IJsonTextWriter} to write the records to.
+     * @param progressMonitor The {@link ISerializationProgressMonitor} that is informed about every written record.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs while reading the records.
+     * @throws JsonError when the Json array can not be written at the current position of the {@code jsonTextWriter}.
+     * @throws IOException when an I/O error occurs while writing the Json Text.
+     * @throws java.util.concurrent.CancellationException when the {@code progressMonitor} canceled the serialization.
+     */
+    void WriteRecordsAsJson(final IJsonTextWriter jsonTextWriter, final ISerializationProgressMonitor progressMonitor)
+        throws
+            RepositoryDisposed,
+            RepositoryException,
+            JsonError,
+            IOException;
+}
@@ -0,0 +1,163 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.persistence;
+
+import java.util.UUID;
+
+/**
+ * Represents an immutable change of the stored records that is published by an {@link IRecordChangeObservable}.
+ *
+ * Positions are zero based and refer to the records in descending order
+ * (see {@link IBulkQueryable#GetRecordsDescending(long, int)}).
+ *
+ * @param <TRecord> The type of the changed record.
+ */
+public class RecordChange<TRecord>
+{
+    /**
+     * The kinds of changes.
+     */
+    public enum ChangeType
+    {
+        /**
+         * A record was created at {@link #Position}.
+         */
+        Inserted,
+
+        /**
+         * A record was updated and moved from {@link #PreviousPosition} to {@link #Position}
+         * (both are the same if the order did not change).
+         */
+        Updated,
+
+        /**
+         * The record at {@link #Position} was deleted.
+         */
+        Deleted,
+
+        /**
+         * An unknown count of records was changed (for example all records were deleted or imported);
+         * everything that was read before has to be read again.
+         */
+        Reset
+    }
+
+    /**
+     * The kind of the change.
+     */
+    public final ChangeType Type;
+
+    /**
+     * The identifier of the changed record or {@code null} for {@link ChangeType#Reset}.
+     */
+    public final UUID Identifier;
+
+    /**
+     * The created or updated record or {@code null} for {@link ChangeType#Deleted} and {@link ChangeType#Reset}.
+     */
+    public final TRecord Record;
+
+    /**
+     * The position of the record after the change or (for {@link ChangeType#Deleted}) before the change;
+     * {@code -1} for {@link ChangeType#Reset}.
+     */
+    public final long Position;
+
+    /**
+     * The position of the record before the change; {@code -1} for {@link ChangeType#Inserted} and
+     * {@link ChangeType#Reset}.
+     */
+    public final long PreviousPosition;
+
+    private RecordChange(
+            final ChangeType type,
+            final UUID identifier,
+            final TRecord record,
+            final long previousPosition,
+            final long position)
+    {
+        Type = type;
+        Identifier = identifier;
+        Record = record;
+        PreviousPosition = previousPosition;
+        Position = position;
+    }
+
+    /**
+     * Creates a {@link RecordChange} for a record that was created.
+     *
+     * @param identifier The identifier of the created record.
+     * @param record The created record.
+     * @param position The position of the created record.
+     * @param <TRecord> The type of the created record.
+     * @return {@link ChangeType#Inserted} change.
+     */
+    public static <TRecord> RecordChange<TRecord> CreateInserted(
+            final UUID identifier,
+            final TRecord record,
+            final long position)
+    {
+        return new RecordChange<>(ChangeType.Inserted, identifier, record, -1L, position);
+    }
+
+    /**
+     * Creates a {@link RecordChange} for a record that was updated.
+     *
+     * @param identifier The identifier of the updated record.
+     * @param record The updated record.
+     * @param previousPosition The position of the record before the update.
+     * @param position The position of the record after the update.
+     * @param <TRecord> The type of the updated record.
+     * @return {@link ChangeType#Updated} change.
+     */
+    public static <TRecord> RecordChange<TRecord> CreateUpdated(
+            final UUID identifier,
+            final TRecord record,
+            final long previousPosition,
+            final long position)
+    {
+        return new RecordChange<>(ChangeType.Updated, identifier, record, previousPosition, position);
+    }
+
+    /**
+     * Creates a {@link RecordChange} for a record that was deleted.
+     *
+     * @param identifier The identifier of the deleted record.
+     * @param position The position of the record before it was deleted.
+     * @param <TRecord> The type of the deleted record.
+     * @return {@link ChangeType#Deleted} change.
+     */
+    public static <TRecord> RecordChange<TRecord> CreateDeleted(
+            final UUID identifier,
+            final long position)
+    {
+        return new RecordChange<>(ChangeType.Deleted, identifier, null, position, position);
+    }
+
+    /**
+     * Creates a {@link RecordChange} for an unknown count of changed records.
+     *
+     * @param <TRecord> The type of the changed records.
+     * @return {@link ChangeType#Reset} change.
+     */
+    public static <TRecord> RecordChange<TRecord> CreateReset()
+    {
+        return new RecordChange<>(ChangeType.Reset, null, null, -1L, -1L);
+    }
+}
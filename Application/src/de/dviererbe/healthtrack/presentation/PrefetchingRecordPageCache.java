@@ -0,0 +1,335 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.presentation;
+
+import de.dviererbe.healthtrack.IDisposable;
+import de.dviererbe.healthtrack.persistence.IBulkQueryable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A {@link RecordPageCache} that never blocks the caller: pages that are not cached are read on a background
+ * {@link Executor}, and the caller is notified through the callback {@link Executor} (usually the main thread)
+ * when their records are available.
+ *
+ * Besides the requested page, the following pages in the current scroll direction (derived from the last two
+ * requested positions) are read in advance, so that the records are usually cached before they are requested.
+ * The cache (apart from the reading itself) must only be used from the thread of the callback {@link Executor}.
+ *
+ * @param <TRecord> The type of the cached records.
+ */
+public class PrefetchingRecordPageCache<TRecord> extends RecordPageCache<TRecord> implements IDisposable
+{
+    /**
+     * The default count of pages that are read in advance in the scroll direction.
+     */
+    public static final int DefaultPrefetchPageCount = 2;
+
+    private final Executor _backgroundExecutor;
+    private final Executor _callbackExecutor;
+    private final int _prefetchPageCount;
+    private final Set<Long> _loadingPages = new HashSet<>();
+
+    private IPageLoadListener _listener;
+    private long _lastPageIndex = Long.MAX_VALUE;
+    private long _lastRequestedOffset = -1;
+    private int _direction = 1;
+
+    // incremented when the cache is invalidated; pages that were read before are discarded
+    private int _generation = 0;
+
+    /**
+     * Initializes a new instance of the {@link PrefetchingRecordPageCache} class with the default configuration.
+     *
+     * @param recordReader The repository the records are read from.
+     * @param backgroundExecutor The {@link Executor} that reads the pages.
+     * @param callbackExecutor The {@link Executor} that caches the read pages and notifies the listener.
+     * @param listener The listener that is notified when a page was read.
+     */
+    public PrefetchingRecordPageCache(
+            final IBulkQueryable<TRecord> recordReader,
+            final Executor backgroundExecutor,
+            final Executor callbackExecutor,
+            final IPageLoadListener listener)
+    {
+        this(
+            recordReader,
+            DefaultPageSize,
+            DefaultMaximumPageCount,
+            DefaultPrefetchPageCount,
+            backgroundExecutor,
+            callbackExecutor,
+            listener);
+    }
+
+    /**
+     * Initializes a new instance of the {@link PrefetchingRecordPageCache} class.
+     *
+     * @param recordReader The repository the records are read from.
+     * @param pageSize The count of records that are read at once.
+     * @param maximumPageCount The maximum count of pages that are kept; has to be larger than {@code prefetchPageCount}.
+     * @param prefetchPageCount The count of pages that are read in advance in the scroll direction.
+     * @param backgroundExecutor The {@link Executor} that reads the pages.
+     * @param callbackExecutor The {@link Executor} that caches the read pages and notifies the listener.
+     * @param listener The listener that is notified when a page was read.
+     */
+    public PrefetchingRecordPageCache(
+            final IBulkQueryable<TRecord> recordReader,
+            final int pageSize,
+            final int maximumPageCount,
+            final int prefetchPageCount,
+            final Executor backgroundExecutor,
+            final Executor callbackExecutor,
+            final IPageLoadListener listener)
+    {
+        super(recordReader, pageSize, maximumPageCount);
+
+        if (prefetchPageCount < 0) throw new IllegalArgumentException("prefetchPageCount is negative");
+        if (prefetchPageCount >= maximumPageCount) throw new IllegalArgumentException("prefetchPageCount is not smaller than maximumPageCount");
+        if (backgroundExecutor == null) throw new IllegalArgumentException("backgroundExecutor is null");
+        if (callbackExecutor == null) throw new IllegalArgumentException("callbackExecutor is null");
+        if (listener == null) throw new IllegalArgumentException("listener is null");
+
+        _prefetchPageCount = prefetchPageCount;
+        _backgroundExecutor = backgroundExecutor;
+        _callbackExecutor = callbackExecutor;
+        _listener = listener;
+    }
+
+    /**
+     * Gets the record at the specified position of the list in descending order if it is cached. Otherwise the page
+     * that contains the record is read in the background and the listener is notified when it is available.
+     * In both cases the following pages in the scroll direction are read in advance.
+     *
+     * @param offset zero based position of the record in descending order
+     * @return the record at {@code offset} or {@code null} if it is not cached (yet) or there are not more
+     *         than {@code offset} records.
+     */
+    public TRecord TryGetRecord(final long offset)
+    {
+        if (offset < 0) return null;
+
+        if (_lastRequestedOffset >= 0 && offset != _lastRequestedOffset)
+        {
+            _direction = offset > _lastRequestedOffset ? 1 : -1;
+        }
+
+        _lastRequestedOffset = offset;
+
+        final long pageIndex = GetPageIndex(offset);
+        final List<TRecord> page = GetCachedPage(pageIndex);
+
+        if (page == null) LoadPage(pageIndex);
+
+        for (int distance = 1; distance <= _prefetchPageCount; ++distance)
+        {
+            LoadPage(pageIndex + (long)_direction * distance);
+        }
+
+        return page != null ? GetRecordOfPage(page, offset) : null;
+    }
+
+    /**
+     * Reads a page in the background, unless it is cached, already being read or behind the last record.
+     */
+    private void LoadPage(final long pageIndex)
+    {
+        if (pageIndex < 0 || pageIndex > _lastPageIndex) return;
+        if (IsPageCached(pageIndex) || !_loadingPages.add(pageIndex)) return;
+
+        final int generation = _generation;
+
+        try
+        {
+            _backgroundExecutor.execute(() -> ReadPageInBackground(generation, pageIndex));
+        }
+        catch (RejectedExecutionException exception)
+        {
+            // the executor was shut down, because the application is terminating
+            _loadingPages.remove(pageIndex);
+        }
+    }
+
+    private void ReadPageInBackground(final int generation, final long pageIndex)
+    {
+        Runnable callback;
+
+        try
+        {
+            final List<TRecord> page = ReadPage(pageIndex);
+            callback = () -> OnPageRead(generation, pageIndex, page);
+        }
+        catch (Exception exception)
+        {
+            callback = () -> OnPageReadFailed(generation, pageIndex, exception);
+        }
+
+        try
+        {
+            _callbackExecutor.execute(callback);
+        }
+        catch (RejectedExecutionException exception)
+        {
+            // the executor was shut down, because the application is terminating; nobody is left to use the page
+        }
+    }
+
+    private void OnPageRead(final int generation, final long pageIndex, final List<TRecord> page)
+    {
+        if (generation != _generation) return;
+
+        _loadingPages.remove(pageIndex);
+        PutPage(pageIndex, page);
+
+        // a page that is not full is the last one; the pages behind it are empty
+        if (page.size() < GetPageSize())
+        {
+            _lastPageIndex = Math.min(_lastPageIndex, pageIndex);
+        }
+
+        if (!page.isEmpty())
+        {
+            _listener.OnPageLoaded(pageIndex * GetPageSize(), page.size());
+        }
+    }
+
+    private void OnPageReadFailed(final int generation, final long pageIndex, final Exception exception)
+    {
+        if (generation != _generation) return;
+
+        // the page is read again when it is requested the next time
+        _loadingPages.remove(pageIndex);
+        _listener.OnPageLoadFailed(pageIndex * GetPageSize(), exception);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The pages that are currently read are read again, because they may not contain the change.
+     */
+    @Override
+    public void InsertRecord(final long offset, final TRecord record)
+    {
+        super.InsertRecord(offset, record);
+        RestartLoadingPages();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The pages that are currently read are read again, because they may not contain the change.
+     */
+    @Override
+    public void RemoveRecord(final long offset)
+    {
+        super.RemoveRecord(offset);
+        RestartLoadingPages();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The pages that are currently read are read again, because they may not contain the change.
+     */
+    @Override
+    public void ReplaceRecord(final long offset, final TRecord record)
+    {
+        super.ReplaceRecord(offset, record);
+        RestartLoadingPages();
+    }
+
+    /**
+     * Discards the pages that are currently read and reads them again; the listener is notified only once
+     * for every page.
+     */
+    private void RestartLoadingPages()
+    {
+        final List<Long> loadingPages = new ArrayList<>(_loadingPages);
+
+        ++_generation;
+        _loadingPages.clear();
+        // the count of records changed, so the last page is not known anymore
+        _lastPageIndex = Long.MAX_VALUE;
+
+        for (long pageIndex : loadingPages)
+        {
+            LoadPage(pageIndex);
+        }
+    }
+
+    /**
+     * Removes all cached pages and discards the pages that are currently read.
+     */
+    @Override
+    public void Invalidate()
+    {
+        super.Invalidate();
+
+        ++_generation;
+        _loadingPages.clear();
+        _lastPageIndex = Long.MAX_VALUE;
+    }
+
+    /**
+     * Performs application-defined tasks associated with freeing, releasing, or resetting resources.
+     */
+    @Override
+    public void Dispose()
+    {
+        Invalidate();
+        _listener = NullListener;
+    }
+
+    private static final IPageLoadListener NullListener = new IPageLoadListener()
+    {
+        @Override
+        public void OnPageLoaded(final long offset, final int count)
+        {
+        }
+
+        @Override
+        public void OnPageLoadFailed(final long offset, final Exception exception)
+        {
+        }
+    };
+
+    /**
+     * Callback mechanism for when a page was read in the background. Called on the callback {@link Executor}.
+     */
+    public interface IPageLoadListener
+    {
+        /**
+         * Called when the records of a page are cached.
+         *
+         * @param offset zero based position of the first record of the page in descending order
+         * @param count the count of records of the page
+         */
+        void OnPageLoaded(long offset, int count);
+
+        /**
+         * Called when the records of a page could not be read.
+         *
+         * @param offset zero based position of the first record of the page in descending order
+         * @param exception the error that occurred
+         */
+        void OnPageLoadFailed(long offset, Exception exception);
+    }
+}
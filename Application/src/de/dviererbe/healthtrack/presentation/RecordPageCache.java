@@ -0,0 +1,380 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.presentation;
+
+import de.dviererbe.healthtrack.persistence.IBulkQueryable;
+import de.dviererbe.healthtrack.persistence.RecordChange;
+import de.dviererbe.healthtrack.persistence.exceptions.OffsetIsNegative;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryDisposed;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Caches the records of a list in descending order (see {@link IBulkQueryable#GetRecordsDescending(long, int)})
+ * in pages of a fixed size, so that the rows of the list are not read one by one.
+ *
+ * A page is read as a whole when one of its records is requested the first time. Only a bounded count of pages
+ * is kept; when another page is read, the least recently used page is evicted. The cache does not notice
+ * changes of the records by itself: single changes can be applied to the cached pages (see
+ * {@link #InsertRecord(long, Object)}, {@link #RemoveRecord(long)} and {@link #ReplaceRecord(long, Object)});
+ * otherwise it has to be invalidated (see {@link #Invalidate()}).
+ *
+ * @param <TRecord> The type of the cached records.
+ */
+public class RecordPageCache<TRecord>
+{
+    /**
+     * The default count of records that are read at once.
+     */
+    public static final int DefaultPageSize = 50;
+
+    /**
+     * The default maximum count of pages that are kept.
+     */
+    public static final int DefaultMaximumPageCount = 8;
+
+    private final IBulkQueryable<TRecord> _recordReader;
+    private final int _pageSize;
+    private final Map<Long, List<TRecord>> _pages;
+
+    /**
+     * Initializes a new instance of the {@link RecordPageCache} class with the default configuration.
+     *
+     * @param recordReader The repository the records are read from.
+     */
+    public RecordPageCache(final IBulkQueryable<TRecord> recordReader)
+    {
+        this(recordReader, DefaultPageSize, DefaultMaximumPageCount);
+    }
+
+    /**
+     * Initializes a new instance of the {@link RecordPageCache} class.
+     *
+     * @param recordReader The repository the records are read from.
+     * @param pageSize The count of records that are read at once.
+     * @param maximumPageCount The maximum count of pages that are kept.
+     */
+    public RecordPageCache(
+            final IBulkQueryable<TRecord> recordReader,
+            final int pageSize,
+            final int maximumPageCount)
+    {
+        if (recordReader == null) throw new IllegalArgumentException("recordReader is null");
+        if (pageSize <= 0) throw new IllegalArgumentException("pageSize is not positive");
+        if (maximumPageCount <= 0) throw new IllegalArgumentException("maximumPageCount is not positive");
+
+        _recordReader = recordReader;
+        _pageSize = pageSize;
+
+        // access order: the first entry is the least recently used page
+        _pages = new LinkedHashMap<Long, List<TRecord>>(maximumPageCount + 1, 1.0f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, List<TRecord>> eldest)
+            {
+                return size() > maximumPageCount;
+            }
+        };
+    }
+
+    /**
+     * Gets the record at the specified position of the list in descending order.
+     *
+     * @param offset zero based position of the record in descending order
+     * @return the record at {@code offset} or {@code null} if there are not more than {@code offset} records.
+     * @throws OffsetIsNegative when {@code offset} is negative.
+     * @throws RepositoryDisposed when the repository was already disposed.
+     * @throws RepositoryException when an unexpected I/O error occurs.
+     */
+    public TRecord GetRecord(final long offset)
+        throws
+            OffsetIsNegative,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        if (offset < 0) throw new OffsetIsNegative();
+
+        final long pageIndex = GetPageIndex(offset);
+
+        List<TRecord> page = GetCachedPage(pageIndex);
+
+        if (page == null)
+        {
+            page = ReadPage(pageIndex);
+            PutPage(pageIndex, page);
+        }
+
+        return GetRecordOfPage(page, offset);
+    }
+
+    /**
+     * Gets the count of records that are read at once.
+     *
+     * @return the count of records of a page.
+     */
+    protected final int GetPageSize()
+    {
+        return _pageSize;
+    }
+
+    /**
+     * Gets the index of the page that contains the record at the specified position.
+     */
+    protected final long GetPageIndex(final long offset)
+    {
+        return offset / _pageSize;
+    }
+
+    /**
+     * Gets the record at the specified position from the page that contains it.
+     *
+     * @return the record or {@code null} if the page has no record at the position.
+     */
+    protected final TRecord GetRecordOfPage(final List<TRecord> page, final long offset)
+    {
+        final int indexInPage = (int)(offset % _pageSize);
+
+        return indexInPage < page.size() ? page.get(indexInPage) : null;
+    }
+
+    /**
+     * Determines whether a page is cached without marking it as recently used.
+     */
+    protected final boolean IsPageCached(final long pageIndex)
+    {
+        return _pages.containsKey(pageIndex);
+    }
+
+    /**
+     * Gets a cached page and marks it as recently used.
+     *
+     * @return the records of the page or {@code null} if the page is not cached.
+     */
+    protected final List<TRecord> GetCachedPage(final long pageIndex)
+    {
+        return _pages.get(pageIndex);
+    }
+
+    /**
+     * Caches a page; the least recently used page is evicted if the maximum count of pages is exceeded.
+     */
+    protected final void PutPage(final long pageIndex, final List<TRecord> page)
+    {
+        _pages.put(pageIndex, page);
+    }
+
+    /**
+     * Reads the records of a page from the repository. Only reads the immutable configuration of the cache,
+     * so it may be called on any thread.
+     */
+    protected final List<TRecord> ReadPage(final long pageIndex)
+        throws
+            OffsetIsNegative,
+            RepositoryDisposed,
+            RepositoryException
+    {
+        return _recordReader.GetRecordsDescending(pageIndex * _pageSize, _pageSize);
+    }
+
+    /**
+     * Applies a change of the stored records (see {@link de.dviererbe.healthtrack.persistence.IRecordChangeObservable})
+     * to the cached pages.
+     *
+     * @param change the change of the stored records
+     */
+    public void ApplyChange(final RecordChange<TRecord> change)
+    {
+        if (change.Type == RecordChange.ChangeType.Reset || change.Position < 0)
+        {
+            Invalidate();
+            return;
+        }
+
+        switch (change.Type)
+        {
+            case Inserted:
+                InsertRecord(change.Position, change.Record);
+                break;
+            case Updated:
+                if (change.PreviousPosition == change.Position)
+                {
+                    ReplaceRecord(change.Position, change.Record);
+                }
+                else
+                {
+                    RemoveRecord(change.PreviousPosition);
+                    InsertRecord(change.Position, change.Record);
+                }
+                break;
+            case Deleted:
+                RemoveRecord(change.Position);
+                break;
+        }
+    }
+
+    /**
+     * Inserts a record that was created into the cached pages; the cached records behind it move one position back.
+     * A cached page whose first record would have to move in from a page that is not cached is evicted.
+     *
+     * @param offset zero based position of the created record in descending order
+     * @param record the created record
+     */
+    public void InsertRecord(final long offset, final TRecord record)
+    {
+        final long firstPageIndex = GetPageIndex(offset);
+
+        long previousPageIndex = -1L;
+        TRecord carry = null;
+
+        for (Map.Entry<Long, List<TRecord>> entry : GetCachedPagesFrom(firstPageIndex).values())
+        {
+            final long pageIndex = entry.getKey();
+
+            if (pageIndex == firstPageIndex)
+            {
+                carry = record;
+            }
+            else if (pageIndex != previousPageIndex + 1 || carry == null)
+            {
+                // the record that moves to the start of this page is not known
+                _pages.remove(pageIndex);
+                continue;
+            }
+
+            final List<TRecord> page = new ArrayList<>(entry.getValue());
+            final int indexInPage = pageIndex == firstPageIndex ? (int)(offset % _pageSize) : 0;
+
+            page.add(Math.min(indexInPage, page.size()), carry);
+            carry = page.size() > _pageSize ? page.remove(_pageSize) : null;
+
+            entry.setValue(page);
+            previousPageIndex = pageIndex;
+        }
+    }
+
+    /**
+     * Removes a record that was deleted from the cached pages; the cached records behind it move one position
+     * forward. A cached page whose last record would have to move in from a page that is not cached is evicted.
+     *
+     * @param offset zero based position of the deleted record in descending order
+     */
+    public void RemoveRecord(final long offset)
+    {
+        final long firstPageIndex = GetPageIndex(offset);
+        final TreeMap<Long, Map.Entry<Long, List<TRecord>>> pages = GetCachedPagesFrom(firstPageIndex);
+
+        for (Map.Entry<Long, List<TRecord>> entry : pages.values())
+        {
+            final long pageIndex = entry.getKey();
+            final List<TRecord> page = new ArrayList<>(entry.getValue());
+            final int indexInPage = pageIndex == firstPageIndex ? (int)(offset % _pageSize) : 0;
+
+            if (indexInPage >= page.size())
+            {
+                _pages.remove(pageIndex);
+                continue;
+            }
+
+            page.remove(indexInPage);
+
+            if (page.size() == _pageSize - 1)
+            {
+                final Map.Entry<Long, List<TRecord>> nextEntry = pages.get(pageIndex + 1);
+
+                if (nextEntry == null)
+                {
+                    // the record that moves to the end of this page is not known
+                    _pages.remove(pageIndex);
+                    continue;
+                }
+
+                // the next page is changed after this one, so its first record is still the original one;
+                // if the next page is empty, this page is the last one
+                if (!nextEntry.getValue().isEmpty())
+                {
+                    page.add(nextEntry.getValue().get(0));
+                }
+            }
+
+            entry.setValue(page);
+        }
+    }
+
+    /**
+     * Replaces a cached record with its updated version.
+     *
+     * @param offset zero based position of the updated record in descending order
+     * @param record the updated record
+     */
+    public void ReplaceRecord(final long offset, final TRecord record)
+    {
+        final long pageIndex = GetPageIndex(offset);
+
+        if (!IsPageCached(pageIndex)) return;
+
+        // the page is not marked as recently used, because the change was not requested by the user
+        for (Map.Entry<Long, List<TRecord>> entry : _pages.entrySet())
+        {
+            if (entry.getKey() != pageIndex) continue;
+
+            final List<TRecord> page = new ArrayList<>(entry.getValue());
+            final int indexInPage = (int)(offset % _pageSize);
+
+            if (indexInPage < page.size())
+            {
+                page.set(indexInPage, record);
+                entry.setValue(page);
+            }
+
+            return;
+        }
+    }
+
+    /**
+     * Gets the entries of the cached pages that start at or behind a page in ascending order of their indices.
+     * The pages stay in their order of use when their entries are changed.
+     */
+    private TreeMap<Long, Map.Entry<Long, List<TRecord>>> GetCachedPagesFrom(final long firstPageIndex)
+    {
+        final TreeMap<Long, Map.Entry<Long, List<TRecord>>> pages = new TreeMap<>();
+
+        for (Map.Entry<Long, List<TRecord>> entry : _pages.entrySet())
+        {
+            if (entry.getKey() >= firstPageIndex)
+            {
+                pages.put(entry.getKey(), entry);
+            }
+        }
+
+        return pages;
+    }
+
+    /**
+     * Removes all cached pages; the records are read again when they are requested the next time.
+     */
+    public void Invalidate()
+    {
+        _pages.clear();
+    }
+}
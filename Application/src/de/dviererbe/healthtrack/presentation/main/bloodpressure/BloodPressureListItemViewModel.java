@@ -42,6 +42,28 @@ public class BloodPressureListItemViewModel implements IDisposable
 
     private final UUID _recordIdentifier;
     private final INavigationRouter _navigationRouter;
+    private final boolean _placeholder;
+
+    /**
+     * Creates a {@link BloodPressureListItemViewModel} for a record that is still loading;
+     * it shows no values and has no context action.
+     *
+     * @return placeholder {@link BloodPressureListItemViewModel} instance.
+     */
+    public static BloodPressureListItemViewModel CreatePlaceholder()
+    {
+        return new BloodPressureListItemViewModel();
+    }
+
+    private BloodPressureListItemViewModel()
+    {
+        _recordIdentifier = null;
+        _navigationRouter = null;
+        _placeholder = true;
+
+        Systolic = Diastolic = Pulse = Unit = DateTime = "";
+        Converted = false;
+    }
 
     public BloodPressureListItemViewModel(
             final INavigationRouter navigationRouter,
@@ -50,6 +72,7 @@ public class BloodPressureListItemViewModel implements IDisposable
     {
         _recordIdentifier = null;
         _navigationRouter = navigationRouter;
+        _placeholder = false;
 
         Systolic = Diastolic = Pulse = "?";
         Unit = ConversionHelper.TryConvertToString(preferredUnit, ErrorValue, numericValueConverter);
@@ -65,6 +88,7 @@ public class BloodPressureListItemViewModel implements IDisposable
         final BloodPressureUnit preferredUnit)
     {
         _navigationRouter = navigationRouter;
+        _placeholder = false;
 
         if (bloodPressureRecord == null)
         {
@@ -106,6 +130,8 @@ public class BloodPressureListItemViewModel implements IDisposable
 
     public void RunContextAction()
     {
+        if (_placeholder) return;
+
         if (_recordIdentifier != null)
         {
             _navigationRouter.TryNavigateToBloodPressureRecordDetails(_recordIdentifier);
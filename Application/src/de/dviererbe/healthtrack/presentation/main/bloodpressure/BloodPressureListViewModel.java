@@ -27,41 +27,61 @@ import de.dviererbe.healthtrack.infrastructure.INavigationRouter;
 import de.dviererbe.healthtrack.infrastructure.INumericValueConverter;
 import de.dviererbe.healthtrack.persistence.IBulkDeletable;
 import de.dviererbe.healthtrack.persistence.IBulkQueryable;
+import de.dviererbe.healthtrack.persistence.IRecordChangeObservable;
+import de.dviererbe.healthtrack.persistence.RecordChange;
 import de.dviererbe.healthtrack.persistence.repositories.IPreferredUnitRepository;
+import de.dviererbe.healthtrack.presentation.PrefetchingRecordPageCache;
 
-import java.util.List;
+import java.util.concurrent.Executor;
 
 public class BloodPressureListViewModel implements IDisposable
 {
     private final static String TAG = "BloodPressureListViewModel";
+    private final static int UnknownRecordCount = -1;
     private final IBloodPressureListView _view;
     private final INavigationRouter _navigationRouter;
     private final IBulkQueryable<BloodPressureRecord> _bloodPressureRecordReader;
+    private final PrefetchingRecordPageCache<BloodPressureRecord> _bloodPressureRecordCache;
     private final IBulkDeletable _bloodPressureRecordDeleter;
     private final IDateTimeConverter _dateTimeConverter;
     private final INumericValueConverter _numericValueConverter;
 
     private final BloodPressureUnit _preferredBloodPressureUnit;
     private final ILogger _logger;
+    private final IDisposable _bloodPressureRecordChangeSubscription;
+
+    // the count of items that the view was notified about; see OnRecordChanged
+    private int _recordCount = UnknownRecordCount;
+    private boolean _disposed = false;
 
     public BloodPressureListViewModel(
             final IBloodPressureListView view,
             final INavigationRouter navigationRouter,
             final IBulkQueryable<BloodPressureRecord> bloodPressureRecordReader,
             final IBulkDeletable bloodPressureRecordDeleter,
+            final IRecordChangeObservable<BloodPressureRecord> bloodPressureRecordChangeObservable,
             final IDateTimeConverter dateTimeConverter,
             final INumericValueConverter numericValueConverter,
             final IPreferredUnitRepository preferredUnitRepository,
+            final Executor backgroundExecutor,
+            final Executor callbackExecutor,
             final ILogger logger)
     {
         _view = view;
         _navigationRouter = navigationRouter;
         _bloodPressureRecordReader = bloodPressureRecordReader;
+        _bloodPressureRecordCache = new PrefetchingRecordPageCache<>(
+                bloodPressureRecordReader,
+                backgroundExecutor,
+                callbackExecutor,
+                new BloodPressureRecordPageLoadListener());
         _bloodPressureRecordDeleter = bloodPressureRecordDeleter;
         _dateTimeConverter = dateTimeConverter;
         _numericValueConverter = numericValueConverter;
         _preferredBloodPressureUnit = GetPreferredBloodPressureUnit(preferredUnitRepository);
         _logger = logger;
+        _bloodPressureRecordChangeSubscription = bloodPressureRecordChangeObservable.RegisterRecordChangeListener(
+                change -> callbackExecutor.execute(() -> OnRecordChanged(change)));
     }
 
     private static BloodPressureUnit GetPreferredBloodPressureUnit(final IPreferredUnitRepository preferredUnitRepository)
@@ -81,14 +101,18 @@ public class BloodPressureListViewModel implements IDisposable
 
     public int GetRecordCount()
     {
+        if (_recordCount != UnknownRecordCount) return _recordCount;
+
         try
         {
             final long recordCount = _bloodPressureRecordReader.GetRecordCount();
 
             if (recordCount > Integer.MAX_VALUE)
-                return Integer.MAX_VALUE;
+                _recordCount = Integer.MAX_VALUE;
             else
-                return (int)recordCount;
+                _recordCount = (int)recordCount;
+
+            return _recordCount;
         }
         catch (Exception exception)
         {
@@ -99,7 +123,10 @@ public class BloodPressureListViewModel implements IDisposable
 
     public BloodPressureListItemViewModel GetRecord(int offset)
     {
-        final BloodPressureRecord bloodPressureRecord = TryGetRecord(offset);
+        final BloodPressureRecord bloodPressureRecord = _bloodPressureRecordCache.TryGetRecord(offset);
+
+        // the page of the record is still loading; the view is notified when it is available
+        if (bloodPressureRecord == null) return BloodPressureListItemViewModel.CreatePlaceholder();
 
         return new BloodPressureListItemViewModel(
                 _navigationRouter,
@@ -109,21 +136,6 @@ public class BloodPressureListViewModel implements IDisposable
                 _preferredBloodPressureUnit);
     }
 
-    private BloodPressureRecord TryGetRecord(int offset)
-    {
-        try
-        {
-            // TODO: implement caching solution
-            final List<BloodPressureRecord> records = _bloodPressureRecordReader.GetRecordsDescending(offset, 1);
-            return records.get(0);
-        }
-        catch (Exception exception)
-        {
-            _logger.LogDebug(TAG, "Failed to load record.", exception);
-            return null;
-        }
-    }
-
     public void CreateRecord()
     {
         _navigationRouter.TryNavigateToCreateBloodPressureRecord();
@@ -146,19 +158,78 @@ public class BloodPressureListViewModel implements IDisposable
                     return;
                 }
 
-                _view.OnListItemsChanged();
+                // the list is reloaded when the change of the records is published (see OnRecordChanged)
                 _view.NotifyUserThatRecordsHaveBeenDeleted();
             }
         });
     }
 
+    /**
+     * Applies a change of the blood pressure records to the cached records and notifies the view about the affected
+     * items only. The repository publishes the changes in the order they were committed and the callback executor
+     * runs them in that order, so the count of items stays consistent with the notifications.
+     */
+    private void OnRecordChanged(final RecordChange<BloodPressureRecord> change)
+    {
+        if (_disposed) return;
+
+        _bloodPressureRecordCache.ApplyChange(change);
+
+        final int position = (int)change.Position;
+
+        if (change.Type == RecordChange.ChangeType.Reset || position < 0)
+        {
+            _recordCount = UnknownRecordCount;
+            _view.OnListItemsChanged();
+            return;
+        }
+
+        switch (change.Type)
+        {
+            case Inserted:
+                if (_recordCount != UnknownRecordCount) ++_recordCount;
+                _view.OnListItemInserted(position);
+                break;
+            case Updated:
+                if (change.PreviousPosition != change.Position)
+                {
+                    _view.OnListItemMoved((int)change.PreviousPosition, position);
+                }
+                _view.OnListItemRangeChanged(position, 1);
+                break;
+            case Deleted:
+                if (_recordCount != UnknownRecordCount) --_recordCount;
+                _view.OnListItemRemoved(position);
+                break;
+        }
+    }
+
     /**
      * Performs application-defined tasks associated with freeing, releasing, or resetting resources.
      */
     @Override
     public void Dispose()
     {
-        // Nothing to do here.
+        if (_disposed) return;
+
+        _disposed = true;
+        _bloodPressureRecordChangeSubscription.Dispose();
+        _bloodPressureRecordCache.Dispose();
+    }
+
+    private class BloodPressureRecordPageLoadListener implements PrefetchingRecordPageCache.IPageLoadListener
+    {
+        @Override
+        public void OnPageLoaded(final long offset, final int count)
+        {
+            _view.OnListItemRangeChanged((int)offset, count);
+        }
+
+        @Override
+        public void OnPageLoadFailed(final long offset, final Exception exception)
+        {
+            _logger.LogDebug(TAG, "Failed to load records.", exception);
+        }
     }
 
     /**
@@ -171,6 +242,38 @@ public class BloodPressureListViewModel implements IDisposable
          */
         void OnListItemsChanged();
 
+        /**
+         * Notifies the {@link IBloodPressureListView} that a range of items has changed (for example because the
+         * records of the items were loaded).
+         *
+         * @param positionStart the position of the first item that has changed.
+         * @param itemCount the count of items that have changed.
+         */
+        void OnListItemRangeChanged(int positionStart, int itemCount);
+
+        /**
+         * Notifies the {@link IBloodPressureListView} that an item was inserted (because a record was created).
+         *
+         * @param position the position of the inserted item.
+         */
+        void OnListItemInserted(int position);
+
+        /**
+         * Notifies the {@link IBloodPressureListView} that an item was removed (because a record was deleted).
+         *
+         * @param position the position of the removed item (before it was removed).
+         */
+        void OnListItemRemoved(int position);
+
+        /**
+         * Notifies the {@link IBloodPressureListView} that an item was moved (because the time of measurement of a record
+         * was changed).
+         *
+         * @param fromPosition the previous position of the item.
+         * @param toPosition the new position of the item.
+         */
+        void OnListItemMoved(int fromPosition, int toPosition);
+
         /**
          * Shows the user a UI that asks for confirmation to delete all records.
          *
@@ -21,15 +21,18 @@ package de.dviererbe.healthtrack.presentation.main.home;
 import de.dviererbe.healthtrack.IDisposable;
 import de.dviererbe.healthtrack.domain.*;
 import de.dviererbe.healthtrack.infrastructure.*;
+import de.dviererbe.healthtrack.persistence.IDataMigrationObservable;
 import de.dviererbe.healthtrack.persistence.IDefaultStepCountGoalGetter;
-import de.dviererbe.healthtrack.persistence.IPerDayBulkQueryable;
+import de.dviererbe.healthtrack.persistence.ILatestRecordQueryable;
 import de.dviererbe.healthtrack.persistence.repositories.*;
 import de.dviererbe.healthtrack.presentation.main.bloodpressure.BloodPressureListItemViewModel;
 import de.dviererbe.healthtrack.presentation.main.stepcount.StepCountListItemViewModel;
 import de.dviererbe.healthtrack.presentation.main.weight.WeightListItemViewModel;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class HomeViewModel implements IDisposable
 {
@@ -40,19 +43,34 @@ public class HomeViewModel implements IDisposable
 
     public final Runnable StepCountContextCommand;
 
+    private final IHomeView _view;
+    private final Executor _callbackExecutor;
+    private final ILogger _logger;
+    private final List<IDisposable> _dataMigrationSubscriptions = new ArrayList<>();
+    private boolean _disposed = false;
+
     public HomeViewModel(
+            final IHomeView view,
             final INavigationRouter navigationRouter,
             final IDateTimeProvider dateTimeProvider,
-            final IPerDayBulkQueryable<BloodPressureRecord> bloodPressureRecordReader,
-            final IPerDayBulkQueryable<WeightRecord> weightRecordReader,
-            final IPerDayBulkQueryable<StepCountRecord> stepCountRecordReader,
+            final ILatestRecordQueryable<BloodPressureRecord> bloodPressureRecordReader,
+            final ILatestRecordQueryable<WeightRecord> weightRecordReader,
+            final ILatestRecordQueryable<StepCountRecord> stepCountRecordReader,
+            final IDataMigrationObservable bloodPressureDataMigrationObservable,
+            final IDataMigrationObservable weightDataMigrationObservable,
+            final IDataMigrationObservable stepCountDataMigrationObservable,
             final IDefaultStepCountGoalGetter defaultStepCountGoalGetter,
             final IPreferredUnitRepository preferredUnitRepository,
             final IDateTimeConverter dateTimeConverter,
             final INumericValueConverter numericValueConverter,
             final IWidgetConfigurationRepository widgetConfigurationRepository,
+            final Executor callbackExecutor,
             final ILogger logger)
     {
+        _view = view;
+        _callbackExecutor = callbackExecutor;
+        _logger = logger;
+
         final LocalDate today = dateTimeProvider.Today();
 
         if (widgetConfigurationRepository.IsBloodPressureWidgetEnabled())
@@ -64,7 +82,12 @@ public class HomeViewModel implements IDisposable
             final BloodPressureRecord latestBloodPressureRecordOfToday
                 = TryGetLatestRecordOfToday(today, bloodPressureRecordReader, logger);
 
-            if (latestBloodPressureRecordOfToday == null)
+            if (latestBloodPressureRecordOfToday == null && IsDataMigrationPending(bloodPressureDataMigrationObservable))
+            {
+                // the record of today may not be migrated yet; the view is notified when it is visible
+                LatestBloodPressureOfToday = BloodPressureListItemViewModel.CreatePlaceholder();
+            }
+            else if (latestBloodPressureRecordOfToday == null)
             {
                 LatestBloodPressureOfToday =
                     new BloodPressureListItemViewModel(
@@ -93,7 +116,12 @@ public class HomeViewModel implements IDisposable
             final StepCountRecord stepCountRecordOfToday
                 = TryGetLatestRecordOfToday(today, stepCountRecordReader, logger);
 
-            if (stepCountRecordOfToday == null)
+            if (stepCountRecordOfToday == null && IsDataMigrationPending(stepCountDataMigrationObservable))
+            {
+                StepCountOfToday = StepCountListItemViewModel.CreatePlaceholder();
+                StepCountContextCommand = () -> {};
+            }
+            else if (stepCountRecordOfToday == null)
             {
                 final int defaultStepCountGoal = TryGetDefaultStepCountGoal(defaultStepCountGoalGetter, logger);
 
@@ -130,7 +158,11 @@ public class HomeViewModel implements IDisposable
             final WeightRecord latestWeightRecordOfToday
                 = TryGetLatestRecordOfToday(today, weightRecordReader, logger);
 
-            if (latestWeightRecordOfToday == null)
+            if (latestWeightRecordOfToday == null && IsDataMigrationPending(weightDataMigrationObservable))
+            {
+                LatestWeightOfToday = WeightListItemViewModel.CreatePlaceholder();
+            }
+            else if (latestWeightRecordOfToday == null)
             {
                 LatestWeightOfToday =
                     new WeightListItemViewModel(
@@ -157,17 +189,12 @@ public class HomeViewModel implements IDisposable
 
     private static <TRecord> TRecord TryGetLatestRecordOfToday(
             final LocalDate today,
-            final IPerDayBulkQueryable<TRecord> repository,
+            final ILatestRecordQueryable<TRecord> repository,
             final ILogger logger)
     {
         try
         {
-            final List<TRecord> recordsOfToday =
-                    repository.GetRecordsForDayDescending(today);
-
-            return  recordsOfToday.size() >= 1
-                    ? recordsOfToday.get(0)
-                    : null;
+            return repository.GetLatestRecordOfDay(today);
         }
         catch (Exception exception)
         {
@@ -176,6 +203,40 @@ public class HomeViewModel implements IDisposable
         }
     }
 
+    /**
+     * Determines whether the records of a widget are still migrated and, if so, notifies the view when the
+     * data migration is completed.
+     */
+    private boolean IsDataMigrationPending(final IDataMigrationObservable dataMigrationObservable)
+    {
+        // registered first, so that a data migration that is completed in between is not missed
+        final IDisposable subscription = dataMigrationObservable.RegisterDataMigrationCompletedListener(
+            () -> _callbackExecutor.execute(this::OnDataMigrationCompleted));
+
+        try
+        {
+            if (dataMigrationObservable.IsDataMigrationPending())
+            {
+                _dataMigrationSubscriptions.add(subscription);
+                return true;
+            }
+        }
+        catch (Exception exception)
+        {
+            _logger.LogError(TAG, "Failed to read whether a data migration is pending.", exception);
+        }
+
+        subscription.Dispose();
+        return false;
+    }
+
+    private void OnDataMigrationCompleted()
+    {
+        if (_disposed) return;
+
+        _view.OnDataMigrationCompleted();
+    }
+
     private static int TryGetDefaultStepCountGoal(
             final IDefaultStepCountGoalGetter defaultStepCountGoalGetter,
             final ILogger logger)
@@ -197,6 +258,25 @@ public class HomeViewModel implements IDisposable
     @Override
     public void Dispose()
     {
-        // Nothing to do here.
+        if (_disposed) return;
+
+        _disposed = true;
+
+        for (IDisposable subscription : _dataMigrationSubscriptions)
+        {
+            subscription.Dispose();
+        }
+    }
+
+    /**
+     * Interface for the home user interface.
+     */
+    public interface IHomeView
+    {
+        /**
+         * Notifies the {@link IHomeView} that a data migration was completed, so the records of today that were
+         * shown as placeholders can be read now (by creating a new {@link HomeViewModel}).
+         */
+        void OnDataMigrationCompleted();
     }
 }
\ No newline at end of file
@@ -39,6 +39,24 @@ public class StepCountListItemViewModel implements IDisposable
     public final String GoalReachedPercentageText;
     public final String Date;
 
+    /**
+     * Creates a {@link StepCountListItemViewModel} for a record that is still loading;
+     * it shows no values and has no {@link #Identifier}.
+     *
+     * @return placeholder {@link StepCountListItemViewModel} instance.
+     */
+    public static StepCountListItemViewModel CreatePlaceholder()
+    {
+        return new StepCountListItemViewModel();
+    }
+
+    private StepCountListItemViewModel()
+    {
+        Identifier = null;
+        StepCount = Goal = GoalReachedPercentageText = Date = "";
+        GoalReachedPercentage = 0;
+    }
+
     public StepCountListItemViewModel(
             final INumericValueConverter numericValueConverter,
             final int defaultStepCountGoal)
@@ -18,50 +18,74 @@
 
 package de.dviererbe.healthtrack.presentation.main.stepcount;
 
+import de.dviererbe.healthtrack.IDisposable;
 import de.dviererbe.healthtrack.domain.StepCountRecord;
 import de.dviererbe.healthtrack.infrastructure.IDateTimeConverter;
 import de.dviererbe.healthtrack.infrastructure.ILogger;
 import de.dviererbe.healthtrack.infrastructure.INumericValueConverter;
 import de.dviererbe.healthtrack.persistence.IBulkDeletable;
 import de.dviererbe.healthtrack.persistence.IBulkQueryable;
+import de.dviererbe.healthtrack.persistence.IRecordChangeObservable;
+import de.dviererbe.healthtrack.persistence.RecordChange;
+import de.dviererbe.healthtrack.presentation.PrefetchingRecordPageCache;
 import de.dviererbe.healthtrack.presentation.ViewModel;
 
-import java.util.List;
+import java.util.concurrent.Executor;
 
 public class StepCountListViewModel extends ViewModel<StepCountListViewModel.IStepCountListViewModelEventHandler>
 {
     private final static String TAG = "StepCountListViewModel";
+    private final static int UnknownRecordCount = -1;
 
     private final IBulkQueryable<StepCountRecord> _stepCountReader;
+    private final PrefetchingRecordPageCache<StepCountRecord> _stepCountCache;
     private final IBulkDeletable _stepCountDeleter;
     private final IDateTimeConverter _dateTimeConverter;
     private final INumericValueConverter _numericValueConverter;
     private final ILogger _logger;
+    private final IDisposable _stepCountChangeSubscription;
+
+    // the count of items that the event handlers were notified about; see OnRecordChanged
+    private int _recordCount = UnknownRecordCount;
 
     public StepCountListViewModel(
             final IBulkQueryable<StepCountRecord> stepCountReader,
             final IBulkDeletable stepCountDeleter,
+            final IRecordChangeObservable<StepCountRecord> stepCountChangeObservable,
             final IDateTimeConverter dateTimeConverter,
             final INumericValueConverter numericValueConverter,
+            final Executor backgroundExecutor,
+            final Executor callbackExecutor,
             final ILogger logger)
     {
         _stepCountReader = stepCountReader;
+        _stepCountCache = new PrefetchingRecordPageCache<>(
+            stepCountReader,
+            backgroundExecutor,
+            callbackExecutor,
+            new StepCountPageLoadListener());
         _stepCountDeleter = stepCountDeleter;
         _dateTimeConverter = dateTimeConverter;
         _numericValueConverter = numericValueConverter;
         _logger = logger;
+        _stepCountChangeSubscription = stepCountChangeObservable.RegisterRecordChangeListener(
+            change -> callbackExecutor.execute(() -> OnRecordChanged(change)));
     }
 
     public int GetRecordCount()
     {
+        if (_recordCount != UnknownRecordCount) return _recordCount;
+
         try
         {
             final long recordCount = _stepCountReader.GetRecordCount();
 
             if (recordCount > Integer.MAX_VALUE)
-                return Integer.MAX_VALUE;
+                _recordCount = Integer.MAX_VALUE;
             else
-                return (int)recordCount;
+                _recordCount = (int)recordCount;
+
+            return _recordCount;
         }
         catch (Exception exception)
         {
@@ -72,7 +96,10 @@ public class StepCountListViewModel extends ViewModel<StepCountListViewModel.ISt
 
     public StepCountListItemViewModel GetRecord(int offset)
     {
-        final StepCountRecord stepCountRecord = TryGetRecord(offset);
+        final StepCountRecord stepCountRecord = _stepCountCache.TryGetRecord(offset);
+
+        // the page of the record is still loading; the event handlers are notified when it is available
+        if (stepCountRecord == null) return StepCountListItemViewModel.CreatePlaceholder();
 
         return new StepCountListItemViewModel(
             _dateTimeConverter,
@@ -80,36 +107,86 @@ public class StepCountListViewModel extends ViewModel<StepCountListViewModel.ISt
             stepCountRecord);
     }
 
-    private StepCountRecord TryGetRecord(int offset)
+    public void DeleteAll()
     {
         try
         {
-            // TODO: implement caching solution
-            final List<StepCountRecord> records = _stepCountReader.GetRecordsDescending(offset, 1);
-            return records.get(0);
+            _stepCountDeleter.DeleteAllRecords();
         }
         catch (Exception exception)
         {
-            _logger.LogDebug(TAG, "Failed to load record.", exception);
-            return null;
+            _logger.LogDebug(TAG, "Failed to delete records.", exception);
+            NotifyEventHandlers(IStepCountListViewModelEventHandler::RecordsCouldNotBeDeleted);
+            return;
         }
+
+        // the list is reloaded when the change of the records is published (see OnRecordChanged)
+        NotifyEventHandlers(IStepCountListViewModelEventHandler::RecordsHaveBeenDeleted);
     }
 
-    public void DeleteAll()
+    /**
+     * Applies a change of the step count records to the cached records and notifies the event handlers
+     * about the affected items only. The repository publishes the changes in the order they were committed and
+     * the callback executor runs them in that order, so the count of items stays consistent with the notifications.
+     */
+    private void OnRecordChanged(final RecordChange<StepCountRecord> change)
     {
-        try
+        _stepCountCache.ApplyChange(change);
+
+        final int position = (int)change.Position;
+        final int previousPosition = (int)change.PreviousPosition;
+
+        if (change.Type == RecordChange.ChangeType.Reset || position < 0)
         {
-            _stepCountDeleter.DeleteAllRecords();
+            _recordCount = UnknownRecordCount;
+            NotifyEventHandlers(IStepCountListViewModelEventHandler::ListItemsChanged);
+            return;
         }
-        catch (Exception exception)
+
+        switch (change.Type)
         {
-            _logger.LogDebug(TAG, "Failed to delete records.", exception);
-            NotifyEventHandlers(IStepCountListViewModelEventHandler::RecordsCouldNotBeDeleted);
-            return;
+            case Inserted:
+                if (_recordCount != UnknownRecordCount) ++_recordCount;
+                NotifyEventHandlers(eventHandler -> eventHandler.ListItemInserted(position));
+                break;
+            case Updated:
+                if (previousPosition != position)
+                {
+                    NotifyEventHandlers(eventHandler -> eventHandler.ListItemMoved(previousPosition, position));
+                }
+                NotifyEventHandlers(eventHandler -> eventHandler.ListItemRangeChanged(position, 1));
+                break;
+            case Deleted:
+                if (_recordCount != UnknownRecordCount) --_recordCount;
+                NotifyEventHandlers(eventHandler -> eventHandler.ListItemRemoved(position));
+                break;
         }
+    }
 
-        NotifyEventHandlers(IStepCountListViewModelEventHandler::RecordsHaveBeenDeleted);
-        NotifyEventHandlers(IStepCountListViewModelEventHandler::ListItemsChanged);
+    /**
+     * Performs application-defined tasks associated with freeing, releasing, or resetting resources.
+     */
+    @Override
+    public void Dispose()
+    {
+        _stepCountChangeSubscription.Dispose();
+        _stepCountCache.Dispose();
+        super.Dispose();
+    }
+
+    private class StepCountPageLoadListener implements PrefetchingRecordPageCache.IPageLoadListener
+    {
+        @Override
+        public void OnPageLoaded(final long offset, final int count)
+        {
+            NotifyEventHandlers(eventHandler -> eventHandler.ListItemRangeChanged((int)offset, count));
+        }
+
+        @Override
+        public void OnPageLoadFailed(final long offset, final Exception exception)
+        {
+            _logger.LogDebug(TAG, "Failed to load records.", exception);
+        }
     }
 
     /**
@@ -122,6 +199,36 @@ public class StepCountListViewModel extends ViewModel<StepCountListViewModel.ISt
          */
         void ListItemsChanged();
 
+        /**
+         * Called when a range of items has changed (for example because the records of the items were loaded).
+         *
+         * @param positionStart the position of the first item that has changed.
+         * @param itemCount the count of items that have changed.
+         */
+        void ListItemRangeChanged(int positionStart, int itemCount);
+
+        /**
+         * Called when an item was inserted (because a record was created).
+         *
+         * @param position the position of the inserted item.
+         */
+        void ListItemInserted(int position);
+
+        /**
+         * Called when an item was removed (because a record was deleted).
+         *
+         * @param position the position of the removed item (before it was removed).
+         */
+        void ListItemRemoved(int position);
+
+        /**
+         * Called when an item was moved (because the time of measurement of a record was changed).
+         *
+         * @param fromPosition the previous position of the item.
+         * @param toPosition the new position of the item.
+         */
+        void ListItemMoved(int fromPosition, int toPosition);
+
         /**
          * Called when the step count records have been deleted successfully.
          */
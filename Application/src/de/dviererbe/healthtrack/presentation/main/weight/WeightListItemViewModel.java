@@ -40,6 +40,28 @@ public class WeightListItemViewModel implements IDisposable
     public final String DateTime;
     public final Boolean Converted;
     private final INavigationRouter _navigationRouter;
+    private final boolean _placeholder;
+
+    /**
+     * Creates a {@link WeightListItemViewModel} for a record that is still loading;
+     * it shows no values and has no context action.
+     *
+     * @return placeholder {@link WeightListItemViewModel} instance.
+     */
+    public static WeightListItemViewModel CreatePlaceholder()
+    {
+        return new WeightListItemViewModel();
+    }
+
+    private WeightListItemViewModel()
+    {
+        _recordIdentifier = null;
+        _navigationRouter = null;
+        _placeholder = true;
+
+        Weight = Unit = DateTime = "";
+        Converted = false;
+    }
 
     public WeightListItemViewModel(
             final INavigationRouter navigationRouter,
@@ -48,6 +70,7 @@ public class WeightListItemViewModel implements IDisposable
     {
         _recordIdentifier = null;
         _navigationRouter = navigationRouter;
+        _placeholder = false;
 
         Weight = "?";
         Unit = ConversionHelper.TryConvertToString(preferredUnit, ErrorValue, numericValueConverter);
@@ -63,6 +86,7 @@ public class WeightListItemViewModel implements IDisposable
             final WeightUnit preferredUnit)
     {
         _navigationRouter = navigationRouter;
+        _placeholder = false;
 
         if (weightRecord == null)
         {
@@ -93,6 +117,8 @@ public class WeightListItemViewModel implements IDisposable
 
     public void RunContextAction()
     {
+        if (_placeholder) return;
+
         if (_recordIdentifier != null)
         {
             _navigationRouter.TryNavigateToWeightRecordDetails(_recordIdentifier);
@@ -20,9 +20,12 @@ package de.dviererbe.healthtrack.presentation.settings;
 
 import de.dviererbe.healthtrack.application.DeleteAllUserDataOperation;
 import de.dviererbe.healthtrack.application.ExportUserDataAsJsonOperation;
+import de.dviererbe.healthtrack.application.ImportUserDataFromJsonOperation;
+import de.dviererbe.healthtrack.application.Widget;
 import de.dviererbe.healthtrack.infrastructure.ILogger;
 import de.dviererbe.healthtrack.presentation.ViewModel;
 
+import java.util.concurrent.CancellationException;
 import java.util.function.Function;
 
 public class SettingsViewModel extends ViewModel<SettingsViewModel.ISettingsViewModelEventHandler>
@@ -30,15 +33,21 @@ public class SettingsViewModel extends ViewModel<SettingsViewModel.ISettingsView
     private static final String TAG = "SettingsViewModel";
 
     private final Function<ExportUserDataAsJsonOperation.Options, ExportUserDataAsJsonOperation> _exportUserDataAsJsonOperationFactory;
+    private final Function<Void, ImportUserDataFromJsonOperation> _importUserDataFromJsonOperationFactory;
     private final Function<Void, DeleteAllUserDataOperation> _deleteAllUserDataOperationFactory;
     private final ILogger _logger;
 
+    private ExportUserDataAsJsonOperation _runningExportOperation = null;
+    private ImportUserDataFromJsonOperation _runningImportOperation = null;
+
     public SettingsViewModel(
             final Function<ExportUserDataAsJsonOperation.Options, ExportUserDataAsJsonOperation> exportUserDataAsJsonOperationFactory,
+            final Function<Void, ImportUserDataFromJsonOperation> importUserDataFromJsonOperationFactory,
             final Function<Void, DeleteAllUserDataOperation> deleteAllUserDataOperationLazyFactory,
             final ILogger logger)
     {
         _exportUserDataAsJsonOperationFactory = exportUserDataAsJsonOperationFactory;
+        _importUserDataFromJsonOperationFactory = importUserDataFromJsonOperationFactory;
         _deleteAllUserDataOperationFactory = deleteAllUserDataOperationLazyFactory;
         _logger = logger;
     }
@@ -49,18 +58,73 @@ public class SettingsViewModel extends ViewModel<SettingsViewModel.ISettingsView
     public void ExportUserData(
         final ExportUserDataAsJsonOperation.Options exportOptions)
     {
-        if (exportOptions == null) return;
+        if (exportOptions == null || _runningExportOperation != null) return;
 
         final ExportUserDataAsJsonOperation exportOperation =
             _exportUserDataAsJsonOperationFactory.apply(exportOptions);
 
-        exportOperation.Execute((exception ->
-        {
-            if (exception == null)
-                NotifyEventHandlers(ISettingsViewModelEventHandler::ExportingUserDataSucceeded);
-            else
-                NotifyEventHandlers(ISettingsViewModelEventHandler::ExportingUserDataFailed);
-        }));
+        _runningExportOperation = exportOperation;
+
+        exportOperation.Execute(
+            (exception) ->
+            {
+                if (_runningExportOperation == exportOperation) _runningExportOperation = null;
+
+                if (exception == null)
+                {
+                    NotifyEventHandlers(ISettingsViewModelEventHandler::ExportingUserDataSucceeded);
+                }
+                else if (exception instanceof CancellationException)
+                {
+                    NotifyEventHandlers(ISettingsViewModelEventHandler::ExportingUserDataCanceled);
+                }
+                else
+                {
+                    _logger.LogDebug(TAG, "Failed to export user data", exception);
+                    NotifyEventHandlers(ISettingsViewModelEventHandler::ExportingUserDataFailed);
+                }
+            },
+            (widget, recordsWritten, totalRecords) ->
+                NotifyEventHandlers(eventHandler -> eventHandler.ExportingUserDataProgressed(widget, recordsWritten, totalRecords)));
+    }
+
+    /**
+     * The user requests to cancel the running export of the user data.
+     */
+    public void CancelExportUserData()
+    {
+        if (_runningExportOperation == null) return;
+
+        _runningExportOperation.Cancel();
+    }
+
+    /**
+     * The user requests to import previously exported user data.
+     */
+    public void ImportUserData()
+    {
+        if (_runningImportOperation != null) return;
+
+        final ImportUserDataFromJsonOperation importOperation =
+            _importUserDataFromJsonOperationFactory.apply(null);
+
+        _runningImportOperation = importOperation;
+
+        importOperation.Execute(
+            (exception) ->
+            {
+                if (_runningImportOperation == importOperation) _runningImportOperation = null;
+
+                if (exception == null)
+                {
+                    NotifyEventHandlers(ISettingsViewModelEventHandler::ImportingUserDataSucceeded);
+                }
+                else
+                {
+                    _logger.LogDebug(TAG, "Failed to import user data", exception);
+                    NotifyEventHandlers(ISettingsViewModelEventHandler::ImportingUserDataFailed);
+                }
+            });
     }
 
     /**
@@ -82,6 +146,16 @@ public class SettingsViewModel extends ViewModel<SettingsViewModel.ISettingsView
         }
     }
 
+    /**
+     * Performs application-defined tasks associated with freeing, releasing, or resetting resources.
+     */
+    @Override
+    public void Dispose()
+    {
+        CancelExportUserData();
+        super.Dispose();
+    }
+
     /**
      * Represents an actor that can react to events of the {@link SettingsViewModel}.
      */
@@ -97,6 +171,30 @@ public class SettingsViewModel extends ViewModel<SettingsViewModel.ISettingsView
          */
         void ExportingUserDataFailed();
 
+        /**
+         * Called when the running export of the user data was canceled.
+         */
+        void ExportingUserDataCanceled();
+
+        /**
+         * Called periodically while the user data is exported.
+         *
+         * @param widget the widget whose records are exported.
+         * @param recordsWritten the count of records of the widget that were exported so far.
+         * @param totalRecords the total count of records of the widget.
+         */
+        void ExportingUserDataProgressed(Widget widget, long recordsWritten, long totalRecords);
+
+        /**
+         * Called when the request to import the user data succeeded.
+         */
+        void ImportingUserDataSucceeded();
+
+        /**
+         * Called when the request to import the user data failed.
+         */
+        void ImportingUserDataFailed();
+
         /**
          * Called when the request to delete the user data succeeded.
          */
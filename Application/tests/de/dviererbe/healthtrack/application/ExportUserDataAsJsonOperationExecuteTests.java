@@ -0,0 +1,632 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.application;
+
+import de.dviererbe.healthtrack.infrastructure.EmptyLogger;
+import de.dviererbe.healthtrack.infrastructure.IDateTimeProvider;
+import de.dviererbe.healthtrack.infrastructure.json.IJsonTextFragment;
+import de.dviererbe.healthtrack.infrastructure.json.IJsonTextFragmentFactory;
+import de.dviererbe.healthtrack.infrastructure.json.IJsonTextWriter;
+import de.dviererbe.healthtrack.infrastructure.json.IRepositoryJsonTextSerializer;
+import de.dviererbe.healthtrack.infrastructure.json.ISerializationProgressMonitor;
+import de.dviererbe.healthtrack.infrastructure.json.JsonError;
+import de.dviererbe.healthtrack.infrastructure.json.JsonPropertyName;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ExportUserDataAsJsonOperationExecuteTests
+{
+    private static final Executor SynchronousExecutor = Runnable::run;
+
+    @Test
+    public void Execute_Should_ReportCancellation_When_CanceledBeforeExecute()
+    {
+        // Arrange:
+        final RecordingJsonTextWriter writer = new RecordingJsonTextWriter();
+        final RecordSerializer serializer = new RecordSerializer(10);
+        final RecordingFinishedCallback finishedCallback = new RecordingFinishedCallback(writer);
+        final ExportUserDataAsJsonOperation operation = CreateOperation(
+            new ExportUserDataAsJsonOperation.Options(false, false, false, false, true),
+            writer,
+            Widget.weight,
+            serializer);
+
+        // Act:
+        operation.Cancel();
+        operation.Execute(finishedCallback);
+
+        // Assert:
+        assertEquals(1, finishedCallback.CallCount);
+        assertTrue(finishedCallback.Exception instanceof CancellationException);
+        assertEquals(0, serializer.RecordsWritten);
+        assertTrue(writer.Closed);
+    }
+
+    @Test
+    public void Execute_Should_ReportCancellation_When_CanceledDuringExport()
+    {
+        // Arrange:
+        final RecordingJsonTextWriter writer = new RecordingJsonTextWriter();
+        final RecordSerializer serializer = new RecordSerializer(1000);
+        final RecordingFinishedCallback finishedCallback = new RecordingFinishedCallback(writer);
+        final ExportUserDataAsJsonOperation operation = CreateOperation(
+            new ExportUserDataAsJsonOperation.Options(false, false, false, false, true),
+            writer,
+            Widget.weight,
+            serializer);
+
+        serializer.CancelAfterRecord(200, operation);
+
+        // Act:
+        operation.Execute(finishedCallback);
+
+        // Assert:
+        assertEquals(1, finishedCallback.CallCount);
+        assertTrue(finishedCallback.Exception instanceof CancellationException);
+        // the cancellation is checked at the end of the batch
+        assertEquals(256, serializer.RecordsWritten);
+        assertTrue(writer.Closed);
+    }
+
+    @Test
+    public void Execute_Should_ReportProgressPerWidgetEvery128Records_When_ProgressCallbackIsProvided()
+    {
+        // Arrange:
+        final RecordingJsonTextWriter writer = new RecordingJsonTextWriter();
+        final List<String> progress = new ArrayList<>();
+        final Map<Widget, IRepositoryJsonTextSerializer> serializers = new EnumMap<>(Widget.class);
+        serializers.put(Widget.steps, new RecordSerializer(300));
+        serializers.put(Widget.weight, new RecordSerializer(128));
+        final ExportUserDataAsJsonOperation operation = CreateOperation(
+            new ExportUserDataAsJsonOperation.Options(false, false, false, true, true),
+            writer,
+            serializers);
+
+        // Act:
+        operation.Execute(
+            exception -> {},
+            (widget, recordsWritten, totalRecords) -> progress.add(widget + " " + recordsWritten + "/" + totalRecords));
+
+        // Assert:
+        assertEquals(
+            Arrays.asList(
+                "steps 0/300", "steps 128/300", "steps 256/300", "steps 300/300",
+                "weight 0/128", "weight 128/128", "weight 128/128"),
+            progress);
+    }
+
+    @Test
+    public void Execute_Should_CloseWriterBeforeFinishedCallback_When_ExportSucceeded()
+    {
+        // Arrange:
+        final RecordingJsonTextWriter writer = new RecordingJsonTextWriter();
+        final RecordingFinishedCallback finishedCallback = new RecordingFinishedCallback(writer);
+        final ExportUserDataAsJsonOperation operation = CreateOperation(
+            new ExportUserDataAsJsonOperation.Options(false, false, false, false, true),
+            writer,
+            Widget.weight,
+            new RecordSerializer(3));
+
+        // Act:
+        operation.Execute(finishedCallback);
+
+        // Assert:
+        assertEquals(1, finishedCallback.CallCount);
+        assertNull(finishedCallback.Exception);
+        assertTrue(finishedCallback.WriterClosedWhenFinished);
+        assertEquals(
+            Arrays.asList("{", "created", "2022-01-01T12:00", "weight", "[", "0", "1", "2", "]", "}"),
+            writer.Tokens);
+    }
+
+    @Test
+    public void Execute_Should_CloseWriterBeforeFinishedCallback_When_ExportFailed()
+    {
+        // Arrange:
+        final RecordingJsonTextWriter writer = new RecordingJsonTextWriter();
+        final RecordingFinishedCallback finishedCallback = new RecordingFinishedCallback(writer);
+        final RecordSerializer serializer = new RecordSerializer(10);
+        final ExportUserDataAsJsonOperation operation = CreateOperation(
+            new ExportUserDataAsJsonOperation.Options(false, false, false, false, true),
+            writer,
+            Widget.weight,
+            serializer);
+
+        final IOException error = new IOException("disk full");
+        serializer.FailAfterRecord(5, error);
+
+        // Act:
+        operation.Execute(finishedCallback);
+
+        // Assert:
+        assertEquals(1, finishedCallback.CallCount);
+        assertSame(error, finishedCallback.Exception);
+        assertTrue(finishedCallback.WriterClosedWhenFinished);
+    }
+
+    @Test
+    public void Execute_Should_WriteWidgetsInOrder_When_WorkersFinishOutOfOrder() throws Exception
+    {
+        // Arrange:
+        final RecordingJsonTextWriter writer = new RecordingJsonTextWriter();
+        final RecordingFinishedCallback finishedCallback = new RecordingFinishedCallback(writer);
+        final ThreadExecutor backgroundExecutor = new ThreadExecutor();
+        final QueuedExecutor workerExecutor = new QueuedExecutor();
+        final InMemoryJsonTextFragmentFactory fragmentFactory = new InMemoryJsonTextFragmentFactory();
+        final Map<Widget, IRepositoryJsonTextSerializer> serializers = new EnumMap<>(Widget.class);
+        serializers.put(Widget.bloodPressure, new RecordSerializer(1));
+        serializers.put(Widget.steps, new RecordSerializer(2));
+        serializers.put(Widget.weight, new RecordSerializer(3));
+        final ExportUserDataAsJsonOperation operation = CreateOperation(
+            new ExportUserDataAsJsonOperation.Options(true, false, false, true, true, true),
+            writer,
+            serializers,
+            backgroundExecutor,
+            workerExecutor,
+            fragmentFactory);
+
+        // Act:
+        operation.Execute(finishedCallback);
+
+        final Runnable bloodPressureWorker = workerExecutor.Take();
+        final Runnable stepsWorker = workerExecutor.Take();
+        final Runnable weightWorker = workerExecutor.Take();
+
+        weightWorker.run();
+        stepsWorker.run();
+        bloodPressureWorker.run();
+
+        backgroundExecutor.Join();
+
+        // Assert:
+        assertEquals(1, finishedCallback.CallCount);
+        assertNull(finishedCallback.Exception);
+        assertTrue(finishedCallback.WriterClosedWhenFinished);
+        assertEquals(
+            Arrays.asList(
+                "{", "created", "2022-01-01T12:00",
+                "bloodPressure", "[ 0 ]",
+                "steps", "[ 0 1 ]",
+                "weight", "[ 0 1 2 ]",
+                "}"),
+            writer.Tokens);
+        assertEquals(3, fragmentFactory.Fragments.size());
+
+        for (InMemoryJsonTextFragment fragment : fragmentFactory.Fragments)
+        {
+            assertEquals(1, fragment.CloseCount);
+        }
+    }
+
+    @Test
+    public void Execute_Should_AbortOtherWidgetsAndReportError_When_WorkerFailed() throws Exception
+    {
+        // Arrange:
+        final RecordingJsonTextWriter writer = new RecordingJsonTextWriter();
+        final RecordingFinishedCallback finishedCallback = new RecordingFinishedCallback(writer);
+        final ThreadExecutor backgroundExecutor = new ThreadExecutor();
+        final QueuedExecutor workerExecutor = new QueuedExecutor();
+        final InMemoryJsonTextFragmentFactory fragmentFactory = new InMemoryJsonTextFragmentFactory();
+        final RecordSerializer bloodPressureSerializer = new RecordSerializer(10);
+        final RecordSerializer stepsSerializer = new RecordSerializer(10);
+        final Map<Widget, IRepositoryJsonTextSerializer> serializers = new EnumMap<>(Widget.class);
+        serializers.put(Widget.bloodPressure, bloodPressureSerializer);
+        serializers.put(Widget.steps, stepsSerializer);
+        final ExportUserDataAsJsonOperation operation = CreateOperation(
+            new ExportUserDataAsJsonOperation.Options(true, false, false, true, false, true),
+            writer,
+            serializers,
+            backgroundExecutor,
+            workerExecutor,
+            fragmentFactory);
+
+        final IOException error = new IOException("disk full");
+        bloodPressureSerializer.FailAfterRecord(0, error);
+
+        // Act:
+        operation.Execute(finishedCallback);
+
+        final Runnable bloodPressureWorker = workerExecutor.Take();
+        final Runnable stepsWorker = workerExecutor.Take();
+
+        bloodPressureWorker.run();
+
+        // the fragments are released after the other widgets were aborted
+        assertTrue(fragmentFactory.Fragments.get(0).Closed.await(10, TimeUnit.SECONDS));
+        stepsWorker.run();
+
+        backgroundExecutor.Join();
+
+        // Assert:
+        assertEquals(1, finishedCallback.CallCount);
+        assertSame(error, finishedCallback.Exception);
+        assertTrue(finishedCallback.WriterClosedWhenFinished);
+        assertEquals(0, stepsSerializer.RecordsWritten);
+        assertEquals(2, fragmentFactory.Fragments.size());
+
+        for (InMemoryJsonTextFragment fragment : fragmentFactory.Fragments)
+        {
+            assertEquals(1, fragment.CloseCount);
+        }
+    }
+
+    private static ExportUserDataAsJsonOperation CreateOperation(
+        final ExportUserDataAsJsonOperation.Options options,
+        final IJsonTextWriter writer,
+        final Widget widget,
+        final IRepositoryJsonTextSerializer serializer)
+    {
+        final Map<Widget, IRepositoryJsonTextSerializer> serializers = new EnumMap<>(Widget.class);
+        serializers.put(widget, serializer);
+
+        return CreateOperation(options, writer, serializers);
+    }
+
+    private static ExportUserDataAsJsonOperation CreateOperation(
+        final ExportUserDataAsJsonOperation.Options options,
+        final IJsonTextWriter writer,
+        final Map<Widget, IRepositoryJsonTextSerializer> serializers)
+    {
+        return new ExportUserDataAsJsonOperation(
+            options,
+            callback -> callback.UserDataJsonTextWriterProvided(writer),
+            serializers,
+            SynchronousExecutor,
+            SynchronousExecutor,
+            SynchronousExecutor,
+            null,
+            new FixedDateTimeProvider(),
+            new EmptyLogger());
+    }
+
+    private static ExportUserDataAsJsonOperation CreateOperation(
+        final ExportUserDataAsJsonOperation.Options options,
+        final IJsonTextWriter writer,
+        final Map<Widget, IRepositoryJsonTextSerializer> serializers,
+        final Executor backgroundExecutor,
+        final Executor workerExecutor,
+        final IJsonTextFragmentFactory fragmentFactory)
+    {
+        return new ExportUserDataAsJsonOperation(
+            options,
+            callback -> callback.UserDataJsonTextWriterProvided(writer),
+            serializers,
+            backgroundExecutor,
+            SynchronousExecutor,
+            workerExecutor,
+            fragmentFactory,
+            new FixedDateTimeProvider(),
+            new EmptyLogger());
+    }
+
+    /**
+     * Runs every task on a new thread.
+     */
+    private static class ThreadExecutor implements Executor
+    {
+        private final List<Thread> _threads = new ArrayList<>();
+
+        @Override
+        public void execute(final Runnable task)
+        {
+            final Thread thread = new Thread(task);
+            _threads.add(thread);
+            thread.start();
+        }
+
+        public void Join() throws InterruptedException
+        {
+            for (Thread thread : _threads)
+            {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+                assertFalse(thread.isAlive());
+            }
+        }
+    }
+
+    /**
+     * Queues the tasks, so that the test decides when (and in which order) they run.
+     */
+    private static class QueuedExecutor implements Executor
+    {
+        private final BlockingQueue<Runnable> _tasks = new LinkedBlockingQueue<>();
+
+        @Override
+        public void execute(final Runnable task)
+        {
+            _tasks.add(task);
+        }
+
+        public Runnable Take() throws InterruptedException
+        {
+            final Runnable task = _tasks.poll(10, TimeUnit.SECONDS);
+            assertNotNull(task);
+            return task;
+        }
+    }
+
+    private static class InMemoryJsonTextFragmentFactory implements IJsonTextFragmentFactory
+    {
+        public final List<InMemoryJsonTextFragment> Fragments = new ArrayList<>();
+
+        @Override
+        public synchronized IJsonTextFragment CreateFragment()
+        {
+            final InMemoryJsonTextFragment fragment = new InMemoryJsonTextFragment();
+            Fragments.add(fragment);
+            return fragment;
+        }
+    }
+
+    /**
+     * Keeps the written tokens in memory and reads them back separated by spaces.
+     */
+    private static class InMemoryJsonTextFragment implements IJsonTextFragment
+    {
+        private final RecordingJsonTextWriter _writer = new RecordingJsonTextWriter();
+
+        public final CountDownLatch Closed = new CountDownLatch(1);
+        public volatile int CloseCount = 0;
+
+        @Override
+        public IJsonTextWriter GetWriter()
+        {
+            return _writer;
+        }
+
+        @Override
+        public Reader OpenReader()
+        {
+            return new StringReader(String.join(" ", _writer.Tokens));
+        }
+
+        @Override
+        public void close()
+        {
+            ++CloseCount;
+            Closed.countDown();
+        }
+    }
+
+    private static class FixedDateTimeProvider implements IDateTimeProvider
+    {
+        @Override
+        public LocalDateTime Now()
+        {
+            return LocalDateTime.of(2022, 1, 1, 12, 0);
+        }
+
+        @Override
+        public LocalDate Today()
+        {
+            return LocalDate.of(2022, 1, 1);
+        }
+    }
+
+    private static class RecordingFinishedCallback
+        implements ExportUserDataAsJsonOperation.ExportUserDataAsJsonOperationFinishedCallback
+    {
+        private final RecordingJsonTextWriter _writer;
+
+        public int CallCount = 0;
+        public Exception Exception = null;
+        public boolean WriterClosedWhenFinished = false;
+
+        public RecordingFinishedCallback(final RecordingJsonTextWriter writer)
+        {
+            _writer = writer;
+        }
+
+        @Override
+        public void ExportUserDataAsJsonOperationFinished(final Exception exception)
+        {
+            ++CallCount;
+            Exception = exception;
+            WriterClosedWhenFinished = _writer.Closed;
+        }
+    }
+
+    /**
+     * Writes the records {@code 0} to {@code recordCount - 1} as an array and reports every record to the monitor.
+     */
+    private static class RecordSerializer implements IRepositoryJsonTextSerializer
+    {
+        private final int _recordCount;
+        private int _cancelAfterRecord = -1;
+        private ExportUserDataAsJsonOperation _operation = null;
+        private int _failAfterRecord = -1;
+        private IOException _error = null;
+
+        public int RecordsWritten = 0;
+
+        public RecordSerializer(final int recordCount)
+        {
+            _recordCount = recordCount;
+        }
+
+        public void CancelAfterRecord(final int record, final ExportUserDataAsJsonOperation operation)
+        {
+            _cancelAfterRecord = record;
+            _operation = operation;
+        }
+
+        public void FailAfterRecord(final int record, final IOException error)
+        {
+            _failAfterRecord = record;
+            _error = error;
+        }
+
+        @Override
+        public void SerializeAsJson(final IJsonTextWriter jsonWriter) throws IOException
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void SerializeAsJson(
+            final IJsonTextWriter jsonWriter,
+            final ISerializationProgressMonitor progressMonitor)
+            throws
+                JsonError,
+                IOException
+        {
+            progressMonitor.SerializationStarted(_recordCount);
+            jsonWriter.WriteStartArray();
+
+            for (int record = 0; record < _recordCount; ++record)
+            {
+                jsonWriter.WriteValue(record);
+                ++RecordsWritten;
+
+                if (record == _cancelAfterRecord) _operation.Cancel();
+                if (record == _failAfterRecord) throw _error;
+
+                progressMonitor.RecordWritten();
+            }
+
+            jsonWriter.WriteEndArray();
+        }
+    }
+
+    /**
+     * Records the written tokens as strings.
+     */
+    private static class RecordingJsonTextWriter implements IJsonTextWriter
+    {
+        public final List<String> Tokens = new ArrayList<>();
+        public boolean Closed = false;
+
+        private IJsonTextWriter Add(final String token)
+        {
+            Tokens.add(token);
+            return this;
+        }
+
+        @Override
+        public IJsonTextWriter WriteStartArray()
+        {
+            return Add("[");
+        }
+
+        @Override
+        public IJsonTextWriter WriteStartObject()
+        {
+            return Add("{");
+        }
+
+        @Override
+        public IJsonTextWriter WriteEndArray()
+        {
+            return Add("]");
+        }
+
+        @Override
+        public IJsonTextWriter WriteEndObject()
+        {
+            return Add("}");
+        }
+
+        @Override
+        public IJsonTextWriter WritePropertyName(final String propertyName)
+        {
+            return Add(propertyName);
+        }
+
+        @Override
+        public IJsonTextWriter WritePropertyName(final JsonPropertyName propertyName)
+        {
+            return Add(propertyName.Name);
+        }
+
+        @Override
+        public IJsonTextWriter WriteNull()
+        {
+            return Add("null");
+        }
+
+        @Override
+        public IJsonTextWriter WriteValue(final int value)
+        {
+            return Add(String.valueOf(value));
+        }
+
+        @Override
+        public IJsonTextWriter WriteValue(final double value)
+        {
+            return Add(String.valueOf(value));
+        }
+
+        @Override
+        public IJsonTextWriter WriteValue(final String value)
+        {
+            return Add(value);
+        }
+
+        @Override
+        public IJsonTextWriter WriteValue(final char[] value, final int offset, final int count)
+        {
+            return Add(new String(value, offset, count));
+        }
+
+        @Override
+        public IJsonTextWriter WriteValue(final LocalDateTime value)
+        {
+            return Add(value.toString());
+        }
+
+        @Override
+        public IJsonTextWriter WriteRawValue(final Reader jsonText) throws IOException
+        {
+            final StringBuilder text = new StringBuilder();
+            final char[] buffer = new char[256];
+            int count;
+
+            while ((count = jsonText.read(buffer)) != -1)
+            {
+                text.append(buffer, 0, count);
+            }
+
+            return Add(text.toString());
+        }
+
+        @Override
+        public void close()
+        {
+            Closed = true;
+        }
+    }
+}
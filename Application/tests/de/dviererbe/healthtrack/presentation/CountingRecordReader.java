@@ -0,0 +1,71 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.presentation;
+
+import de.dviererbe.healthtrack.persistence.IBulkQueryable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Provides the records {@code 0} to {@code recordCount - 1} and counts the reads.
+ */
+class CountingRecordReader implements IBulkQueryable<Integer>
+{
+    private final int _recordCount;
+
+    public int ReadCount = 0;
+
+    public CountingRecordReader(final int recordCount)
+    {
+        _recordCount = recordCount;
+    }
+
+    @Override
+    public long GetRecordCount()
+    {
+        return _recordCount;
+    }
+
+    @Override
+    public List<Integer> GetRecordsDescending(final long offset, final int count)
+    {
+        ++ReadCount;
+
+        final List<Integer> records = new ArrayList<>();
+
+        for (long record = offset; record < Math.min(offset + count, _recordCount); ++record)
+        {
+            records.add((int)record);
+        }
+
+        return records;
+    }
+
+    @Override
+    public List<Integer> GetRecordsDescendingAfter(
+        final LocalDateTime timeOfMeasurement,
+        final UUID identifier,
+        final int count)
+    {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.presentation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class PrefetchingRecordPageCacheTests
+{
+    @Test
+    public void TryGetRecord_Should_ReturnRecord_When_PageWasLoaded()
+    {
+        // Arrange:
+        final QueuedExecutor executor = new QueuedExecutor();
+        final RecordingPageLoadListener listener = new RecordingPageLoadListener();
+        final PrefetchingRecordPageCache<Integer> cache = new PrefetchingRecordPageCache<>(
+            new CountingRecordReader(1000), 10, 4, 0, executor, executor, listener);
+
+        // Act:
+        final Integer recordBeforeLoad = cache.TryGetRecord(5);
+        executor.RunAll();
+        final Integer recordAfterLoad = cache.TryGetRecord(5);
+
+        // Assert:
+        assertNull(recordBeforeLoad);
+        assertEquals(Integer.valueOf(5), recordAfterLoad);
+        assertEquals(1, listener.LoadedOffsets.size());
+        assertEquals(Long.valueOf(0), listener.LoadedOffsets.get(0));
+    }
+
+    @Test
+    public void TryGetRecord_Should_PrefetchFollowingPages_When_ScrollingDown()
+    {
+        // Arrange:
+        final QueuedExecutor executor = new QueuedExecutor();
+        final CountingRecordReader recordReader = new CountingRecordReader(1000);
+        final PrefetchingRecordPageCache<Integer> cache = new PrefetchingRecordPageCache<>(
+            recordReader, 10, 4, 2, executor, executor, new RecordingPageLoadListener());
+
+        cache.TryGetRecord(0);
+        executor.RunAll();
+
+        // Act:
+        cache.TryGetRecord(1);
+        executor.RunAll();
+
+        // Assert:
+        assertEquals(Integer.valueOf(10), cache.TryGetRecord(10));
+        assertEquals(Integer.valueOf(20), cache.TryGetRecord(20));
+        assertEquals(3, recordReader.ReadCount);
+    }
+
+    @Test
+    public void TryGetRecord_Should_PrefetchPrecedingPages_When_ScrollingUp()
+    {
+        // Arrange:
+        final QueuedExecutor executor = new QueuedExecutor();
+        final CountingRecordReader recordReader = new CountingRecordReader(1000);
+        final PrefetchingRecordPageCache<Integer> cache = new PrefetchingRecordPageCache<>(
+            recordReader, 10, 4, 2, executor, executor, new RecordingPageLoadListener());
+
+        cache.TryGetRecord(51);
+        executor.RunAll();
+
+        // Act:
+        cache.TryGetRecord(50);
+        executor.RunAll();
+
+        // Assert:
+        assertEquals(Integer.valueOf(40), cache.TryGetRecord(40));
+        assertEquals(Integer.valueOf(30), cache.TryGetRecord(30));
+        assertEquals(5, recordReader.ReadCount);
+    }
+
+    @Test
+    public void TryGetRecord_Should_NotReadPagesBehindLastRecord_When_LastPageWasLoaded()
+    {
+        // Arrange:
+        final QueuedExecutor executor = new QueuedExecutor();
+        final CountingRecordReader recordReader = new CountingRecordReader(15);
+        final PrefetchingRecordPageCache<Integer> cache = new PrefetchingRecordPageCache<>(
+            recordReader, 10, 4, 1, executor, executor, new RecordingPageLoadListener());
+
+        cache.TryGetRecord(10);
+        executor.RunAll();
+
+        // Act:
+        cache.TryGetRecord(11);
+        executor.RunAll();
+
+        // Assert:
+        assertEquals(2, recordReader.ReadCount);
+    }
+
+    @Test
+    public void TryGetRecord_Should_DiscardPage_When_CacheWasInvalidatedWhileLoading()
+    {
+        // Arrange:
+        final QueuedExecutor executor = new QueuedExecutor();
+        final RecordingPageLoadListener listener = new RecordingPageLoadListener();
+        final PrefetchingRecordPageCache<Integer> cache = new PrefetchingRecordPageCache<>(
+            new CountingRecordReader(1000), 10, 4, 0, executor, executor, listener);
+
+        cache.TryGetRecord(0);
+
+        // Act:
+        cache.Invalidate();
+        executor.RunAll();
+
+        // Assert:
+        assertNull(cache.TryGetRecord(0));
+        assertTrue(listener.LoadedOffsets.isEmpty());
+    }
+
+    @Test
+    public void TryGetRecord_Should_ReturnNull_When_BackgroundExecutorWasShutDown()
+    {
+        // Arrange:
+        final Executor rejectingExecutor = task ->
+        {
+            throw new RejectedExecutionException();
+        };
+        final CountingRecordReader recordReader = new CountingRecordReader(1000);
+        final PrefetchingRecordPageCache<Integer> cache = new PrefetchingRecordPageCache<>(
+            recordReader, 10, 4, 2, rejectingExecutor, rejectingExecutor, new RecordingPageLoadListener());
+
+        // Act:
+        final Integer record = cache.TryGetRecord(5);
+
+        // Assert:
+        assertNull(record);
+        assertEquals(0, recordReader.ReadCount);
+    }
+
+    /**
+     * Runs the queued tasks when requested, so that the tests control when pages are read and cached.
+     */
+    private static class QueuedExecutor implements Executor
+    {
+        private final List<Runnable> _tasks = new ArrayList<>();
+
+        @Override
+        public void execute(final Runnable task)
+        {
+            _tasks.add(task);
+        }
+
+        public void RunAll()
+        {
+            while (!_tasks.isEmpty())
+            {
+                _tasks.remove(0).run();
+            }
+        }
+    }
+
+    private static class RecordingPageLoadListener implements PrefetchingRecordPageCache.IPageLoadListener
+    {
+        public final List<Long> LoadedOffsets = new ArrayList<>();
+
+        @Override
+        public void OnPageLoaded(final long offset, final int count)
+        {
+            LoadedOffsets.add(offset);
+        }
+
+        @Override
+        public void OnPageLoadFailed(final long offset, final Exception exception)
+        {
+            fail("Loading the page at offset " + offset + " failed: " + exception);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.presentation;
+
+import de.dviererbe.healthtrack.persistence.RecordChange;
+import de.dviererbe.healthtrack.persistence.exceptions.OffsetIsNegative;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class RecordPageCacheTests
+{
+    @Test
+    public void GetRecord_Should_ReadOnePagePerPageSize_When_AllRecordsAreRead() throws Exception
+    {
+        // Arrange:
+        final CountingRecordReader recordReader = new CountingRecordReader(1000);
+        final RecordPageCache<Integer> cache = new RecordPageCache<>(recordReader, 50, 4);
+
+        // Act:
+        for (int offset = 0; offset < 1000; ++offset)
+        {
+            assertEquals(Integer.valueOf(offset), cache.GetRecord(offset));
+        }
+
+        // Assert:
+        assertEquals(20, recordReader.ReadCount);
+    }
+
+    @Test
+    public void GetRecord_Should_ReturnNull_When_OffsetIsBehindLastRecord() throws Exception
+    {
+        // Arrange:
+        final RecordPageCache<Integer> cache = new RecordPageCache<>(new CountingRecordReader(10), 50, 4);
+
+        // Act:
+        final Integer record = cache.GetRecord(10);
+
+        // Assert:
+        assertNull(record);
+    }
+
+    @Test
+    public void GetRecord_Should_ReadPageAgain_When_PageWasLeastRecentlyUsed() throws Exception
+    {
+        // Arrange:
+        final CountingRecordReader recordReader = new CountingRecordReader(1000);
+        final RecordPageCache<Integer> cache = new RecordPageCache<>(recordReader, 10, 2);
+
+        cache.GetRecord(0);
+        cache.GetRecord(10);
+        cache.GetRecord(1);
+        cache.GetRecord(20);
+
+        // Act:
+        cache.GetRecord(2);
+        cache.GetRecord(11);
+
+        // Assert:
+        assertEquals(4, recordReader.ReadCount);
+    }
+
+    @Test
+    public void GetRecord_Should_ReadPageAgain_When_CacheWasInvalidated() throws Exception
+    {
+        // Arrange:
+        final CountingRecordReader recordReader = new CountingRecordReader(1000);
+        final RecordPageCache<Integer> cache = new RecordPageCache<>(recordReader, 10, 2);
+
+        cache.GetRecord(0);
+
+        // Act:
+        cache.Invalidate();
+        cache.GetRecord(0);
+
+        // Assert:
+        assertEquals(2, recordReader.ReadCount);
+    }
+
+    @Test
+    public void InsertRecord_Should_MoveFollowingRecordsIntoNextPage_When_PagesAreCached() throws Exception
+    {
+        // Arrange:
+        final CountingRecordReader recordReader = new CountingRecordReader(20);
+        final RecordPageCache<Integer> cache = new RecordPageCache<>(recordReader, 10, 2);
+
+        cache.GetRecord(0);
+        cache.GetRecord(10);
+
+        // Act:
+        cache.InsertRecord(5, -1);
+
+        // Assert:
+        assertEquals(Integer.valueOf(4), cache.GetRecord(4));
+        assertEquals(Integer.valueOf(-1), cache.GetRecord(5));
+        assertEquals(Integer.valueOf(9), cache.GetRecord(10));
+        assertEquals(Integer.valueOf(18), cache.GetRecord(19));
+        assertEquals(2, recordReader.ReadCount);
+    }
+
+    @Test
+    public void RemoveRecord_Should_MoveFollowingRecordsIntoPreviousPage_When_PagesAreCached() throws Exception
+    {
+        // Arrange:
+        final CountingRecordReader recordReader = new CountingRecordReader(15);
+        final RecordPageCache<Integer> cache = new RecordPageCache<>(recordReader, 10, 2);
+
+        cache.GetRecord(0);
+        cache.GetRecord(10);
+
+        // Act:
+        cache.RemoveRecord(5);
+
+        // Assert:
+        assertEquals(Integer.valueOf(6), cache.GetRecord(5));
+        assertEquals(Integer.valueOf(10), cache.GetRecord(9));
+        assertEquals(Integer.valueOf(14), cache.GetRecord(13));
+        assertNull(cache.GetRecord(14));
+        assertEquals(2, recordReader.ReadCount);
+    }
+
+    @Test
+    public void RemoveRecord_Should_EvictPage_When_NextPageIsNotCached() throws Exception
+    {
+        // Arrange:
+        final CountingRecordReader recordReader = new CountingRecordReader(20);
+        final RecordPageCache<Integer> cache = new RecordPageCache<>(recordReader, 10, 2);
+
+        cache.GetRecord(0);
+
+        // Act:
+        cache.RemoveRecord(5);
+        cache.GetRecord(0);
+
+        // Assert:
+        assertEquals(2, recordReader.ReadCount);
+    }
+
+    @Test
+    public void ApplyChange_Should_MoveRecord_When_RecordWasUpdatedToAnotherPosition() throws Exception
+    {
+        // Arrange:
+        final CountingRecordReader recordReader = new CountingRecordReader(9);
+        final RecordPageCache<Integer> cache = new RecordPageCache<>(recordReader, 10, 2);
+
+        cache.GetRecord(0);
+
+        // Act:
+        cache.ApplyChange(RecordChange.CreateUpdated(UUID.randomUUID(), 42, 7, 2));
+
+        // Assert:
+        assertEquals(Integer.valueOf(1), cache.GetRecord(1));
+        assertEquals(Integer.valueOf(42), cache.GetRecord(2));
+        assertEquals(Integer.valueOf(2), cache.GetRecord(3));
+        assertEquals(Integer.valueOf(8), cache.GetRecord(8));
+        assertEquals(1, recordReader.ReadCount);
+    }
+
+    @Test
+    public void GetRecord_Should_ThrowOffsetIsNegative_When_OffsetIsNegative()
+    {
+        final RecordPageCache<Integer> cache = new RecordPageCache<>(new CountingRecordReader(10));
+
+        assertThrows(OffsetIsNegative.class, () -> cache.GetRecord(-1));
+    }
+}
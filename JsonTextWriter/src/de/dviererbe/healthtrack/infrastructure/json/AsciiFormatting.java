@@ -0,0 +1,146 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.time.LocalDateTime;
+
+/**
+ * Formats integers and date-times as ASCII characters directly into a byte array without allocating any objects.
+ */
+final class AsciiFormatting
+{
+    /**
+     * The maximum number of characters that are written by {@link #FormatInteger(int, byte[], int)}
+     * (for example {@code -2147483648}).
+     */
+    static final int MaxIntegerLength = 11;
+
+    /**
+     * The maximum number of characters that are written by {@link #FormatLocalDateTime(LocalDateTime, byte[], int)}
+     * (for example {@code -999999999-12-31T23:59:59.999999999}).
+     */
+    static final int MaxLocalDateTimeLength = 35;
+
+    private AsciiFormatting()
+    {
+    }
+
+    /**
+     * Writes the decimal representation of an integer into a byte array.
+     *
+     * @param value The value to format.
+     * @param buffer The byte array to write the ASCII characters to.
+     * @param position The position in the byte array where the first character is written.
+     *                 At least {@link #MaxIntegerLength} bytes have to be available.
+     * @return The position after the last written character.
+     */
+    static int FormatInteger(final int value, final byte[] buffer, int position)
+    {
+        // A non-positive accumulator is used, because the absolute value
+        // of Integer.MIN_VALUE can not be represented as an int.
+        int remainder = value;
+        if (value < 0)
+        {
+            buffer[position++] = '-';
+        }
+        else
+        {
+            remainder = -value;
+        }
+
+        int digitCount = 1;
+        for (int rest = remainder; rest <= -10; rest /= 10)
+        {
+            ++digitCount;
+        }
+
+        final int end = position + digitCount;
+        for (int index = end - 1; index >= position; --index)
+        {
+            buffer[index] = (byte)('0' - remainder % 10);
+            remainder /= 10;
+        }
+
+        return end;
+    }
+
+    /**
+     * Writes a date-time in the ISO-8601 extended local date-time format into a byte array. The output is
+     * identical to the output of {@link java.time.format.DateTimeFormatter#ISO_LOCAL_DATE_TIME}
+     * (for example {@code 2022-07-01T13:37:00} or {@code 2022-07-01T13:37:00.25}).
+     *
+     * @param value The value to format.
+     * @param buffer The byte array to write the ASCII characters to.
+     * @param position The position in the byte array where the first character is written.
+     *                 At least {@link #MaxLocalDateTimeLength} bytes have to be available.
+     * @return The position after the last written character.
+     */
+    static int FormatLocalDateTime(final LocalDateTime value, final byte[] buffer, int position)
+    {
+        final int year = value.getYear();
+
+        if (year >= 0 && year <= 9999)
+        {
+            position = FormatFourDigits(year, buffer, position);
+        }
+        else if (year < 0 && year > -10000)
+        {
+            buffer[position++] = '-';
+            position = FormatFourDigits(-year, buffer, position);
+        }
+        else
+        {
+            // Years with more than four digits are always prefixed with their sign.
+            if (year > 0) buffer[position++] = '+';
+            position = FormatInteger(year, buffer, position);
+        }
+
+        buffer[position++] = '-';
+        position = FormatTwoDigits(value.getMonthValue(), buffer, position);
+        buffer[position++] = '-';
+        position = FormatTwoDigits(value.getDayOfMonth(), buffer, position);
+        buffer[position++] = 'T';
+        position = FormatTwoDigits(value.getHour(), buffer, position);
+        buffer[position++] = ':';
+        position = FormatTwoDigits(value.getMinute(), buffer, position);
+        buffer[position++] = ':';
+        position = FormatTwoDigits(value.getSecond(), buffer, position);
+
+        final int nano = value.getNano();
+
+        if (nano != 0)
+        {
+            buffer[position++] = '.';
+
+            // Write all nine digits and remove the trailing zeros afterwards.
+            int remainder = nano;
+            for (int index = position + 8; index >= position; --index)
+            {
+                buffer[index] = (byte)('0' + remainder % 10);
+                remainder /= 10;
+            }
+
+            position += 9;
+            while (buffer[position - 1] == '0')
+            {
+                --position;
+            }
+        }
+
+        return position;
+    }
+
+    private static int FormatFourDigits(final int value, final byte[] buffer, final int position)
+    {
+        buffer[position] = (byte)('0' + value / 1000);
+        buffer[position + 1] = (byte)('0' + value / 100 % 10);
+        buffer[position + 2] = (byte)('0' + value / 10 % 10);
+        buffer[position + 3] = (byte)('0' + value % 10);
+        return position + 4;
+    }
+
+    private static int FormatTwoDigits(final int value, final byte[] buffer, final int position)
+    {
+        buffer[position] = (byte)('0' + value / 10);
+        buffer[position + 1] = (byte)('0' + value % 10);
+        return position + 2;
+    }
+}
@@ -0,0 +1,97 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import de.dviererbe.healthtrack.domain.BloodPressureRecord;
+import de.dviererbe.healthtrack.domain.BloodPressureUnit;
+import de.dviererbe.healthtrack.domain.MedicationState;
+import de.dviererbe.healthtrack.persistence.IBulkMergable;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static de.dviererbe.healthtrack.infrastructure.json.BloodPressureWidgetRepositoryJsonTextSerializer.*;
+
+public class BloodPressureWidgetRepositoryJsonTextDeserializer
+    extends RepositoryJsonTextDeserializerBase<BloodPressureRecord>
+{
+    public BloodPressureWidgetRepositoryJsonTextDeserializer(final IBulkMergable<BloodPressureRecord> recordRepository)
+    {
+        super(recordRepository);
+    }
+
+    @Override
+    protected BloodPressureRecord ReadRecord(final IJsonTextReader jsonTextReader)
+        throws
+            JsonError,
+            IOException
+    {
+        ExpectToken(jsonTextReader, JsonToken.StartObject);
+
+        UUID identifier = null;
+        Integer systolic = null;
+        Integer diastolic = null;
+        BloodPressureUnit unit = null;
+        Integer pulse = null;
+        MedicationState medication = null;
+        LocalDateTime timeOfMeasurement = null;
+        String note = null;
+
+        while (jsonTextReader.Read() == JsonToken.PropertyName)
+        {
+            if (jsonTextReader.ValueEquals(IdentifierPropertyName))
+            {
+                identifier = ReadIdentifier(jsonTextReader);
+            }
+            else if (jsonTextReader.ValueEquals(SystolicPropertyName))
+            {
+                jsonTextReader.Read();
+                systolic = jsonTextReader.GetInt();
+            }
+            else if (jsonTextReader.ValueEquals(DiastolicPropertyName))
+            {
+                jsonTextReader.Read();
+                diastolic = jsonTextReader.GetInt();
+            }
+            else if (jsonTextReader.ValueEquals(UnitPropertyName))
+            {
+                unit = ReadEnum(jsonTextReader, BloodPressureUnit.class);
+            }
+            else if (jsonTextReader.ValueEquals(PulsePropertyName))
+            {
+                jsonTextReader.Read();
+                pulse = jsonTextReader.GetInt();
+            }
+            else if (jsonTextReader.ValueEquals(MedicationPropertyName))
+            {
+                medication = ReadEnum(jsonTextReader, MedicationState.class);
+            }
+            else if (jsonTextReader.ValueEquals(TimeOfMeasurementPropertyName))
+            {
+                jsonTextReader.Read();
+                timeOfMeasurement = jsonTextReader.GetLocalDateTime();
+            }
+            else if (jsonTextReader.ValueEquals(NotePropertyName))
+            {
+                jsonTextReader.Read();
+                note = jsonTextReader.GetString();
+            }
+            else
+            {
+                jsonTextReader.Read();
+                jsonTextReader.Skip();
+            }
+        }
+
+        ExpectToken(jsonTextReader, JsonToken.EndObject);
+
+        return new BloodPressureRecord(
+            RequireProperty(identifier, IdentifierPropertyName),
+            RequireProperty(systolic, SystolicPropertyName),
+            RequireProperty(diastolic, DiastolicPropertyName),
+            unit,
+            RequireProperty(pulse, PulsePropertyName),
+            medication,
+            timeOfMeasurement,
+            note);
+    }
+}
@@ -1,7 +1,8 @@
 package de.dviererbe.healthtrack.infrastructure.json;
 
 import de.dviererbe.healthtrack.domain.BloodPressureRecord;
-import de.dviererbe.healthtrack.persistence.IBulkQueryable;
+import de.dviererbe.healthtrack.persistence.IRecordCursorQueryable;
+import de.dviererbe.healthtrack.persistence.IRecordJsonTextWritable;
 import de.dviererbe.healthtrack.persistence.IRepositoryImplementationDetailsProvider;
 
 import java.io.IOException;
@@ -9,13 +10,30 @@ import java.io.IOException;
 public class BloodPressureWidgetRepositoryJsonTextSerializer
     extends RepositoryJsonTextSerializerBase<BloodPressureRecord>
 {
+    public static final JsonPropertyName IdentifierPropertyName = new JsonPropertyName("identifier");
+    public static final JsonPropertyName SystolicPropertyName = new JsonPropertyName("systolic");
+    public static final JsonPropertyName DiastolicPropertyName = new JsonPropertyName("diastolic");
+    public static final JsonPropertyName UnitPropertyName = new JsonPropertyName("unit");
+    public static final JsonPropertyName PulsePropertyName = new JsonPropertyName("pulse");
+    public static final JsonPropertyName MedicationPropertyName = new JsonPropertyName("medication");
+    public static final JsonPropertyName TimeOfMeasurementPropertyName = new JsonPropertyName("timeOfMeasurement");
+    public static final JsonPropertyName NotePropertyName = new JsonPropertyName("note");
+
     public BloodPressureWidgetRepositoryJsonTextSerializer(
             IRepositoryImplementationDetailsProvider repositoryImplementationDetailsProvider,
-            IBulkQueryable<BloodPressureRecord> recordRepository)
+            IRecordCursorQueryable<BloodPressureRecord> recordRepository)
     {
         super(repositoryImplementationDetailsProvider, recordRepository);
     }
 
+    public BloodPressureWidgetRepositoryJsonTextSerializer(
+            IRepositoryImplementationDetailsProvider repositoryImplementationDetailsProvider,
+            IRecordCursorQueryable<BloodPressureRecord> recordRepository,
+            IRecordJsonTextWritable recordJsonTextWritable)
+    {
+        super(repositoryImplementationDetailsProvider, recordRepository, recordJsonTextWritable);
+    }
+
     @Override
     protected void WriteRecord(
         final IJsonTextWriter jsonTextWriter,
@@ -24,14 +42,14 @@ public class BloodPressureWidgetRepositoryJsonTextSerializer
     {
         jsonTextWriter
         .WriteStartObject()
-        .WritePropertyName("identifier").WriteValue(bloodPressureRecord.Identifier.toString())
-        .WritePropertyName("systolic").WriteValue(bloodPressureRecord.Systolic)
-        .WritePropertyName("diastolic").WriteValue(bloodPressureRecord.Diastolic)
-        .WritePropertyName("unit").WriteValue(bloodPressureRecord.Unit.name())
-        .WritePropertyName("pulse").WriteValue(bloodPressureRecord.Pulse)
-        .WritePropertyName("medication").WriteValue(bloodPressureRecord.Medication.name())
-        .WritePropertyName("timeOfMeasurement").WriteValue(bloodPressureRecord.TimeOfMeasurement)
-        .WritePropertyName("note").WriteValue(bloodPressureRecord.Note)
+        .WritePropertyName(IdentifierPropertyName).WriteValue(bloodPressureRecord.Identifier.toString())
+        .WritePropertyName(SystolicPropertyName).WriteValue(bloodPressureRecord.Systolic)
+        .WritePropertyName(DiastolicPropertyName).WriteValue(bloodPressureRecord.Diastolic)
+        .WritePropertyName(UnitPropertyName).WriteValue(bloodPressureRecord.Unit.name())
+        .WritePropertyName(PulsePropertyName).WriteValue(bloodPressureRecord.Pulse)
+        .WritePropertyName(MedicationPropertyName).WriteValue(bloodPressureRecord.Medication.name())
+        .WritePropertyName(TimeOfMeasurementPropertyName).WriteValue(bloodPressureRecord.TimeOfMeasurement)
+        .WritePropertyName(NotePropertyName).WriteValue(bloodPressureRecord.Note)
         .WriteEndObject();
     }
 }
@@ -0,0 +1,54 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A small, thread-safe pool of byte arrays that are used as output buffers, so that consecutive
+ * (or a few concurrent) writers do not have to allocate a new buffer each time.
+ */
+final class ByteArrayPool
+{
+    private static final int SlotCount = 4;
+
+    private static final AtomicReferenceArray<byte[]> Slots = new AtomicReferenceArray<>(SlotCount);
+
+    private ByteArrayPool()
+    {
+    }
+
+    /**
+     * Rents a byte array with a length of at least {@code minimumLength} bytes from the pool.
+     *
+     * @param minimumLength The minimum length of the byte array.
+     * @return A pooled byte array or a new byte array, if no suitable array is pooled.
+     */
+    static byte[] Rent(final int minimumLength)
+    {
+        for (int slot = 0; slot < SlotCount; ++slot)
+        {
+            final byte[] array = Slots.get(slot);
+
+            if (array != null && array.length >= minimumLength && Slots.compareAndSet(slot, array, null))
+            {
+                return array;
+            }
+        }
+
+        return new byte[minimumLength];
+    }
+
+    /**
+     * Returns a byte array that was previously rented from the pool. The array must no longer be used by the caller.
+     *
+     * @param array The byte array to return.
+     */
+    static void Return(final byte[] array)
+    {
+        if (array == null) return;
+
+        for (int slot = 0; slot < SlotCount; ++slot)
+        {
+            if (Slots.compareAndSet(slot, null, array)) return;
+        }
+    }
+}
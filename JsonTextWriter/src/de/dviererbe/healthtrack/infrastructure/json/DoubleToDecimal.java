@@ -0,0 +1,475 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.math.BigInteger;
+
+/**
+ * Formats finite {@code double} values as the shortest decimal that rounds to the value
+ * (using the Schubfach algorithm described by Raffaello Giulietti in "The Schubfach way to render doubles",
+ * which is also used by {@link Double#toString(double)} since Java 19).
+ *
+ * The decimal is written as ASCII characters into a byte array without allocating any objects. The format matches
+ * the specification of {@link Double#toString(double)} (of Java 19 and later): values in the range
+ * [10<sup>-3</sup>, 10<sup>7</sup>) are written in plain notation (for example {@code 72.5}), all other values in
+ * computerized scientific notation (for example {@code 1.0E-5}). Both notations are valid Json numbers.
+ */
+final class DoubleToDecimal
+{
+    /**
+     * The maximum number of characters that are written by {@link #Format(double, byte[], int)}
+     * (for example {@code -2.2250738585072014E-308}).
+     */
+    static final int MaxLength = 24;
+
+    // Precision of a double (including the hidden bit) and minimum binary exponent.
+    private static final int P = 53;
+    private static final int QMin = -1074;
+    private static final long CMin = 1L << (P - 1);
+    private static final int BqMask = 0x7FF;
+    private static final long TMask = (1L << (P - 1)) - 1;
+    private static final long CTiny = 3;
+    // Number of significant decimal digits that are extracted.
+    private static final int H = 17;
+
+    private static final long Mask63 = (1L << 63) - 1;
+    private static final int Mask28 = (1 << 28) - 1;
+
+    private static final long[] PowersOfTen =
+    {
+        1L,
+        10L,
+        100L,
+        1_000L,
+        10_000L,
+        100_000L,
+        1_000_000L,
+        10_000_000L,
+        100_000_000L,
+        1_000_000_000L,
+        10_000_000_000L,
+        100_000_000_000L,
+        1_000_000_000_000L,
+        10_000_000_000_000L,
+        100_000_000_000_000L,
+        1_000_000_000_000_000L,
+        10_000_000_000_000_000L,
+        100_000_000_000_000_000L,
+    };
+
+    private byte[] _buffer;
+    private int _index;
+
+    /**
+     * Writes the shortest decimal representation of a finite {@code double} value into a byte array.
+     *
+     * @param value The finite value to format.
+     * @param buffer The byte array to write the ASCII characters to.
+     * @param position The position in the byte array where the first character is written.
+     *                 At least {@link #MaxLength} bytes have to be available.
+     * @return The position after the last written character.
+     */
+    int Format(final double value, final byte[] buffer, final int position)
+    {
+        _buffer = buffer;
+        _index = position;
+
+        final long bits = Double.doubleToRawLongBits(value);
+        final long t = bits & TMask;
+        final int bq = (int)(bits >>> (P - 1)) & BqMask;
+
+        if (bits < 0) Append('-');
+
+        if (bq != 0)
+        {
+            // normal value (mq = -q)
+            final int mq = -QMin + 1 - bq;
+            final long c = CMin | t;
+
+            // fast path for integer values
+            if (0 < mq && mq < P)
+            {
+                final long f = c >> mq;
+
+                if (f << mq == c)
+                {
+                    WriteDecimal(f, 0);
+                    return Finish();
+                }
+            }
+
+            ToDecimal(-mq, c, 0);
+        }
+        else if (t != 0)
+        {
+            // subnormal value
+            if (t < CTiny)
+            {
+                ToDecimal(QMin, 10 * t, -1);
+            }
+            else
+            {
+                ToDecimal(QMin, t, 0);
+            }
+        }
+        else
+        {
+            Append('0');
+            Append('.');
+            Append('0');
+        }
+
+        return Finish();
+    }
+
+    private int Finish()
+    {
+        final int position = _index;
+        _buffer = null;
+        return position;
+    }
+
+    /**
+     * Computes the shortest decimal in the rounding interval of c 2^q and writes it.
+     */
+    private void ToDecimal(final int q, final long c, final int dk)
+    {
+        final int out = (int)c & 0x1;
+        final long cb = c << 2;
+        final long cbr = cb + 2;
+        final long cbl;
+        final int k;
+
+        if (c != CMin || q == QMin)
+        {
+            cbl = cb - 2;
+            k = FloorLog10Pow2(q);
+        }
+        else
+        {
+            cbl = cb - 1;
+            k = FloorLog10ThreeQuartersPow2(q);
+        }
+
+        final int h = q + FloorLog2Pow10(-k) + 2;
+
+        final long g1 = PowersOfTenTable.G1(k);
+        final long g0 = PowersOfTenTable.G0(k);
+
+        final long vb = RoundToOdd(g1, g0, cb << h);
+        final long vbl = RoundToOdd(g1, g0, cbl << h);
+        final long vbr = RoundToOdd(g1, g0, cbr << h);
+
+        final long s = vb >> 2;
+
+        if (s >= 100)
+        {
+            // s' = floor(s / 10) = floor(s 115_292_150_460_684_698 / 2^64)
+            final long sp10 = 10 * MultiplyHigh(s, 115_292_150_460_684_698L << 4);
+            final long tp10 = sp10 + 10;
+            final boolean upin = vbl + out <= sp10 << 2;
+            final boolean wpin = (tp10 << 2) + out <= vbr;
+
+            if (upin != wpin)
+            {
+                WriteDecimal(upin ? sp10 : tp10, k);
+                return;
+            }
+        }
+
+        final long t = s + 1;
+        final boolean uin = vbl + out <= s << 2;
+        final boolean win = (t << 2) + out <= vbr;
+
+        if (uin != win)
+        {
+            WriteDecimal(uin ? s : t, k + dk);
+            return;
+        }
+
+        final long cmp = vb - ((s + t) << 1);
+        WriteDecimal(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk);
+    }
+
+    /**
+     * Computes round-to-odd(g cp 2^-127), where g = g1 2^63 + g0.
+     */
+    private static long RoundToOdd(final long g1, final long g0, final long cp)
+    {
+        final long x1 = MultiplyHigh(g0, cp);
+        final long y0 = g1 * cp;
+        final long y1 = MultiplyHigh(g1, cp);
+        final long z = (y0 >>> 1) + x1;
+        final long vbp = y1 + (z >>> 63);
+        return vbp | (((z & Mask63) + Mask63) >>> 63);
+    }
+
+    /**
+     * Writes the decimal f 10^e.
+     */
+    private void WriteDecimal(long f, int e)
+    {
+        // Determine len such that 10^(len-1) <= f < 10^len
+        int len = FloorLog10Pow2(Long.SIZE - Long.numberOfLeadingZeros(f));
+        if (f >= PowersOfTen[len])
+        {
+            len += 1;
+        }
+
+        // Transform f and e to ensure 10^(H-1) <= f < 10^H and f 10^(e-H) = 0.f 10^e
+        f *= PowersOfTen[H - len];
+        e += len;
+
+        // Split the H = 17 digits of f into the most significant digit (h),
+        // the next 8 digits (m) and the last 8 digits (l).
+        final long hm = MultiplyHigh(f, 193_428_131_138_340_668L) >>> 20;
+        final int l = (int)(f - 100_000_000L * hm);
+        final int h = (int)((hm * 1_441_151_881L) >>> 57);
+        final int m = (int)(hm - 100_000_000 * h);
+
+        if (0 < e && e <= 7)
+        {
+            WritePlainWithoutLeadingZeros(h, m, l, e);
+        }
+        else if (-3 < e && e <= 0)
+        {
+            WritePlainWithLeadingZeros(h, m, l, e);
+        }
+        else
+        {
+            WriteScientific(h, m, l, e);
+        }
+    }
+
+    private void WritePlainWithoutLeadingZeros(final int h, final int m, final int l, final int e)
+    {
+        AppendDigit(h);
+
+        int y = FirstFractionalBits(m);
+        int t;
+        int i = 1;
+
+        for (; i < e; ++i)
+        {
+            t = 10 * y;
+            AppendDigit(t >>> 28);
+            y = t & Mask28;
+        }
+
+        Append('.');
+
+        for (; i <= 8; ++i)
+        {
+            t = 10 * y;
+            AppendDigit(t >>> 28);
+            y = t & Mask28;
+        }
+
+        WriteLowDigits(l);
+    }
+
+    private void WritePlainWithLeadingZeros(final int h, final int m, final int l, int e)
+    {
+        AppendDigit(0);
+        Append('.');
+
+        for (; e < 0; ++e)
+        {
+            AppendDigit(0);
+        }
+
+        AppendDigit(h);
+        Append8Digits(m);
+        WriteLowDigits(l);
+    }
+
+    private void WriteScientific(final int h, final int m, final int l, final int e)
+    {
+        AppendDigit(h);
+        Append('.');
+        Append8Digits(m);
+        WriteLowDigits(l);
+        WriteExponent(e - 1);
+    }
+
+    private void WriteLowDigits(final int l)
+    {
+        if (l != 0)
+        {
+            Append8Digits(l);
+        }
+
+        RemoveTrailingZeros();
+    }
+
+    private void Append8Digits(final int m)
+    {
+        int y = FirstFractionalBits(m);
+
+        for (int i = 0; i < 8; ++i)
+        {
+            final int t = 10 * y;
+            AppendDigit(t >>> 28);
+            y = t & Mask28;
+        }
+    }
+
+    private void RemoveTrailingZeros()
+    {
+        while (_buffer[_index - 1] == '0')
+        {
+            --_index;
+        }
+
+        // ... but do not remove the one directly to the right of '.'
+        if (_buffer[_index - 1] == '.')
+        {
+            ++_index;
+        }
+    }
+
+    /**
+     * Computes floor((a + 1) 2^28 / 10^8) - 1 for the left-to-right extraction of the 8 digits of a.
+     */
+    private static int FirstFractionalBits(final int a)
+    {
+        return (int)(MultiplyHigh((long)(a + 1) << 28, 193_428_131_138_340_668L) >>> 20) - 1;
+    }
+
+    private void WriteExponent(int e)
+    {
+        Append('E');
+
+        if (e < 0)
+        {
+            Append('-');
+            e = -e;
+        }
+
+        if (e < 10)
+        {
+            AppendDigit(e);
+            return;
+        }
+
+        int d;
+
+        if (e >= 100)
+        {
+            // floor(e / 100) = floor(1_311 e / 2^17)
+            d = (e * 1_311) >>> 17;
+            AppendDigit(d);
+            e -= 100 * d;
+        }
+
+        // floor(e / 10) = floor(103 e / 2^10)
+        d = (e * 103) >>> 10;
+        AppendDigit(d);
+        AppendDigit(e - 10 * d);
+    }
+
+    private void Append(final char character)
+    {
+        _buffer[_index++] = (byte)character;
+    }
+
+    private void AppendDigit(final int digit)
+    {
+        _buffer[_index++] = (byte)('0' + digit);
+    }
+
+    /**
+     * Computes floor(log10(2^e)) for |e| <= 5_456_721.
+     */
+    private static int FloorLog10Pow2(final int e)
+    {
+        return (int)((e * 661_971_961_083L) >> 41);
+    }
+
+    /**
+     * Computes floor(log10(3/4 2^e)) for |e| <= 5_456_721.
+     */
+    private static int FloorLog10ThreeQuartersPow2(final int e)
+    {
+        return (int)((e * 661_971_961_083L - 274_743_187_321L) >> 41);
+    }
+
+    /**
+     * Computes floor(log2(10^e)) for |e| <= 1_838_394.
+     */
+    private static int FloorLog2Pow10(final int e)
+    {
+        return (int)((e * 913_124_641_741L) >> 38);
+    }
+
+    /**
+     * Returns the most significant 64 bits of the 128-bit product of two 64-bit factors
+     * ({@code Math.multiplyHigh} is not available on all supported platforms).
+     */
+    private static long MultiplyHigh(final long x, final long y)
+    {
+        final long x1 = x >> 32;
+        final long x2 = x & 0xFFFFFFFFL;
+        final long y1 = y >> 32;
+        final long y2 = y & 0xFFFFFFFFL;
+
+        final long z2 = x2 * y2;
+        final long t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & 0xFFFFFFFFL;
+        final long z0 = t >> 32;
+        z1 += x2 * y1;
+
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    /**
+     * 126-bit approximations of the powers of ten that are needed by the algorithm. For each k let
+     * 10^-k = beta 2^r with 2^125 <= beta < 2^126 and g = floor(beta) + 1. The table contains
+     * g1 = floor(g 2^-63) and g0 = g mod 2^63. It is computed once, when it is used for the first time.
+     */
+    private static final class PowersOfTenTable
+    {
+        private static final int KMin = -324;
+        private static final int KMax = 292;
+
+        private static final long[] G = ComputeTable();
+
+        static long G1(final int k)
+        {
+            return G[(k - KMin) << 1];
+        }
+
+        static long G0(final int k)
+        {
+            return G[((k - KMin) << 1) | 1];
+        }
+
+        private static long[] ComputeTable()
+        {
+            final long[] table = new long[(KMax - KMin + 1) << 1];
+            final BigInteger mask63 = BigInteger.valueOf(Mask63);
+
+            for (int k = KMin; k <= KMax; ++k)
+            {
+                final BigInteger beta;
+
+                if (k <= 0)
+                {
+                    final BigInteger power = BigInteger.TEN.pow(-k);
+                    final int shift = power.bitLength() - 126;
+                    beta = shift >= 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+                }
+                else
+                {
+                    final BigInteger power = BigInteger.TEN.pow(k);
+                    beta = BigInteger.ONE.shiftLeft(125 + power.bitLength()).divide(power);
+                }
+
+                final BigInteger g = beta.add(BigInteger.ONE);
+                final int index = (k - KMin) << 1;
+                table[index] = g.shiftRight(63).longValue();
+                table[index | 1] = g.and(mask63).longValue();
+            }
+
+            return table;
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Provides a simple API for reading Json Text formatted (as defined by
+ * <a href="https://www.rfc-editor.org/rfc/rfc8259.html">RFC8259</a>) data token by token from a {@link Reader}.
+ *
+ * The Json Text is read into an internal character buffer that is reused for the lifetime of the
+ * {@link JsonTextReader}. Property names, strings and numbers are unescaped into a second reusable
+ * buffer, so reading a token does not allocate unless its value is requested as {@link String}.
+ */
+public class JsonTextReader implements IJsonTextReader
+{
+    /**
+     * The default size (in characters) of the internal buffer.
+     */
+    public static final int DefaultBufferSize = 8192;
+
+    private static final int MinimumBufferSize = 64;
+
+    // States of the reader:
+    /** Nothing has been read yet; a single value is expected. */
+    private static final int StateDocumentStart = 0;
+    /** The root value has been read completely; only whitespace is expected. */
+    private static final int StateDocumentEnd = 1;
+    /** An array was started; a value or the end of the array is expected. */
+    private static final int StateArrayStart = 2;
+    /** A value was read inside an array; a value separator or the end of the array is expected. */
+    private static final int StateArrayValue = 3;
+    /** An object was started; a property name or the end of the object is expected. */
+    private static final int StateObjectStart = 4;
+    /** A property name (and the name separator) was read; the value of the property is expected. */
+    private static final int StateObjectPropertyName = 5;
+    /** A property value was read; a value separator or the end of the object is expected. */
+    private static final int StateObjectPropertyValue = 6;
+
+    private static final boolean ContainerArray = false;
+    private static final boolean ContainerObject = true;
+
+    private final Reader _reader;
+    private final char[] _buffer;
+    private int _bufferPosition = 0;
+    private int _bufferLength = 0;
+
+    private char[] _value = new char[64];
+    private int _valueLength = 0;
+    private boolean _valueIsInteger = false;
+
+    private JsonToken _token = JsonToken.None;
+    private int _state = StateDocumentStart;
+    private boolean[] _containerStack = new boolean[16];
+    private int _depth = 0;
+
+    /**
+     * Initializes a new instance of the {@link JsonTextReader} class that reads from a specified {@link Reader}.
+     *
+     * @param reader The {@link Reader} to read the Json Text from.
+     */
+    public JsonTextReader(final Reader reader)
+    {
+        this(reader, DefaultBufferSize);
+    }
+
+    /**
+     * Initializes a new instance of the {@link JsonTextReader} class that reads from a specified {@link Reader}
+     * using a specified size of the internal buffer.
+     *
+     * @param reader The {@link Reader} to read the Json Text from.
+     * @param bufferSize The size (in characters) of the internal buffer.
+     */
+    public JsonTextReader(final Reader reader, final int bufferSize)
+    {
+        if (reader == null) throw new IllegalArgumentException("reader is null");
+
+        _reader = reader;
+        _buffer = new char[Math.max(bufferSize, MinimumBufferSize)];
+    }
+
+    @Override
+    public JsonToken Read() throws JsonError, IOException
+    {
+        switch (_state)
+        {
+            case StateDocumentStart:
+            case StateObjectPropertyName:
+                return ReadValue(ReadNonWhitespace());
+            case StateDocumentEnd:
+                if (ReadNonWhitespace() != -1) throw new JsonError("A Json Text can only contain a single root value.");
+                return _token = JsonToken.EndOfDocument;
+            case StateArrayStart:
+            {
+                final int character = ReadNonWhitespace();
+                return character == ']' ? EndContainer(ContainerArray) : ReadValue(character);
+            }
+            case StateArrayValue:
+            {
+                final int character = ReadNonWhitespace();
+
+                if (character == ']') return EndContainer(ContainerArray);
+                if (character != ',') throw UnexpectedCharacter(character, "',' or ']'");
+
+                return ReadValue(ReadNonWhitespace());
+            }
+            case StateObjectStart:
+            {
+                final int character = ReadNonWhitespace();
+                return character == '}' ? EndContainer(ContainerObject) : ReadPropertyName(character);
+            }
+            default:
+            {
+                final int character = ReadNonWhitespace();
+
+                if (character == '}') return EndContainer(ContainerObject);
+                if (character != ',') throw UnexpectedCharacter(character, "',' or '}'");
+
+                return ReadPropertyName(ReadNonWhitespace());
+            }
+        }
+    }
+
+    @Override
+    public JsonToken GetToken()
+    {
+        return _token;
+    }
+
+    @Override
+    public void Skip() throws JsonError, IOException
+    {
+        if (_token != JsonToken.StartObject && _token != JsonToken.StartArray) return;
+
+        final int depth = _depth - 1;
+
+        do
+        {
+            if (Read() == JsonToken.EndOfDocument) throw new JsonError("Unexpected end of the Json Text.");
+        }
+        while (_depth != depth);
+    }
+
+    @Override
+    public boolean ValueEquals(final JsonPropertyName propertyName)
+    {
+        if (_token != JsonToken.PropertyName && _token != JsonToken.String) return false;
+
+        final String name = propertyName.Name;
+
+        if (name.length() != _valueLength) return false;
+
+        for (int index = 0; index < _valueLength; ++index)
+        {
+            if (name.charAt(index) != _value[index]) return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public String GetString() throws JsonError
+    {
+        if (_token == JsonToken.Null) return null;
+
+        if (_token != JsonToken.PropertyName && _token != JsonToken.String)
+        {
+            throw new JsonError("The current token (" + _token + ") is not a string.");
+        }
+
+        return new String(_value, 0, _valueLength);
+    }
+
+    @Override
+    public int GetInt() throws JsonError
+    {
+        if (_token != JsonToken.Number || !_valueIsInteger)
+        {
+            throw new JsonError("The current token (" + _token + ") is not an integer.");
+        }
+
+        final boolean negative = _value[0] == '-';
+        long value = 0;
+
+        for (int index = negative ? 1 : 0; index < _valueLength; ++index)
+        {
+            value = value * 10 + (_value[index] - '0');
+
+            if (value > (long)Integer.MAX_VALUE + 1) throw new JsonError("The number is out of the range of an int.");
+        }
+
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new JsonError("The number is out of the range of an int.");
+
+        return (int)value;
+    }
+
+    @Override
+    public double GetDouble() throws JsonError
+    {
+        if (_token != JsonToken.Number)
+        {
+            throw new JsonError("The current token (" + _token + ") is not a number.");
+        }
+
+        return Double.parseDouble(new String(_value, 0, _valueLength));
+    }
+
+    @Override
+    public boolean GetBoolean() throws JsonError
+    {
+        if (_token == JsonToken.True) return true;
+        if (_token == JsonToken.False) return false;
+
+        throw new JsonError("The current token (" + _token + ") is not a boolean.");
+    }
+
+    @Override
+    public LocalDateTime GetLocalDateTime() throws JsonError
+    {
+        if (_token == JsonToken.Null) return null;
+
+        if (_token != JsonToken.String)
+        {
+            throw new JsonError("The current token (" + _token + ") is not a string.");
+        }
+
+        try
+        {
+            return LocalDateTime.parse(CharBuffer.wrap(_value, 0, _valueLength));
+        }
+        catch (DateTimeParseException exception)
+        {
+            throw new JsonError("The string is not a valid date-time: " + exception.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        _reader.close();
+    }
+
+    private JsonToken ReadValue(final int character) throws JsonError, IOException
+    {
+        switch (character)
+        {
+            case '{':
+                PushContainer(ContainerObject);
+                _state = StateObjectStart;
+                return _token = JsonToken.StartObject;
+            case '[':
+                PushContainer(ContainerArray);
+                _state = StateArrayStart;
+                return _token = JsonToken.StartArray;
+            case '"':
+                ReadStringValue();
+                return CompleteValue(JsonToken.String);
+            case 't':
+                ReadLiteral("rue");
+                return CompleteValue(JsonToken.True);
+            case 'f':
+                ReadLiteral("alse");
+                return CompleteValue(JsonToken.False);
+            case 'n':
+                ReadLiteral("ull");
+                return CompleteValue(JsonToken.Null);
+            default:
+                if (character == '-' || (character >= '0' && character <= '9'))
+                {
+                    ReadNumber(character);
+                    return CompleteValue(JsonToken.Number);
+                }
+
+                throw UnexpectedCharacter(character, "a value");
+        }
+    }
+
+    private JsonToken ReadPropertyName(final int character) throws JsonError, IOException
+    {
+        if (character != '"') throw UnexpectedCharacter(character, "a property name");
+
+        ReadStringValue();
+
+        final int separator = ReadNonWhitespace();
+        if (separator != ':') throw UnexpectedCharacter(separator, "':'");
+
+        _state = StateObjectPropertyName;
+        return _token = JsonToken.PropertyName;
+    }
+
+    private JsonToken EndContainer(final boolean container)
+    {
+        // the state guarantees that the innermost container is of the expected kind
+        --_depth;
+        return CompleteValue(container == ContainerArray ? JsonToken.EndArray : JsonToken.EndObject);
+    }
+
+    /**
+     * Updates the state after a value was read completely.
+     */
+    private JsonToken CompleteValue(final JsonToken token)
+    {
+        if (_depth == 0)
+        {
+            _state = StateDocumentEnd;
+        }
+        else if (_containerStack[_depth - 1] == ContainerArray)
+        {
+            _state = StateArrayValue;
+        }
+        else
+        {
+            _state = StateObjectPropertyValue;
+        }
+
+        return _token = token;
+    }
+
+    private void PushContainer(final boolean container)
+    {
+        if (_depth == _containerStack.length)
+        {
+            final boolean[] containerStack = new boolean[_containerStack.length * 2];
+            System.arraycopy(_containerStack, 0, containerStack, 0, _depth);
+            _containerStack = containerStack;
+        }
+
+        _containerStack[_depth++] = container;
+    }
+
+    /**
+     * Reads the characters of a string (after the opening quotation mark) and unescapes them into the value buffer.
+     */
+    private void ReadStringValue() throws JsonError, IOException
+    {
+        _valueLength = 0;
+
+        while (true)
+        {
+            if (_bufferPosition == _bufferLength && !FillBuffer()) throw new JsonError("Unterminated string.");
+
+            // copies the characters that need no unescaping as a run
+            final int runStart = _bufferPosition;
+            int position = runStart;
+
+            while (position < _bufferLength)
+            {
+                final char character = _buffer[position];
+
+                if (character == '"' || character == '\\' || character < 0x20) break;
+
+                ++position;
+            }
+
+            AppendToValue(_buffer, runStart, position - runStart);
+            _bufferPosition = position;
+
+            if (position == _bufferLength) continue;
+
+            final char character = _buffer[_bufferPosition++];
+
+            if (character == '"') return;
+            if (character != '\\') throw new JsonError("Unescaped control character in string.");
+
+            AppendToValue(ReadEscapeSequence());
+        }
+    }
+
+    private char ReadEscapeSequence() throws JsonError, IOException
+    {
+        final int character = ReadCharacter();
+
+        switch (character)
+        {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                int codeUnit = 0;
+
+                for (int index = 0; index < 4; ++index)
+                {
+                    final int digit = Character.digit(ReadCharacter(), 16);
+                    if (digit < 0) throw new JsonError("Invalid unicode escape sequence.");
+
+                    codeUnit = (codeUnit << 4) | digit;
+                }
+
+                return (char)codeUnit;
+            default:
+                throw new JsonError("Invalid escape sequence.");
+        }
+    }
+
+    /**
+     * Reads a number (as defined by <a href="https://www.rfc-editor.org/rfc/rfc8259.html#section-6">RFC8259 Section 6</a>)
+     * into the value buffer.
+     */
+    private void ReadNumber(final int firstCharacter) throws JsonError, IOException
+    {
+        _valueLength = 0;
+        _valueIsInteger = true;
+
+        int character = firstCharacter;
+
+        if (character == '-')
+        {
+            AppendToValue('-');
+            character = ReadCharacter();
+        }
+
+        if (character == '0')
+        {
+            AppendToValue('0');
+            character = PeekCharacter();
+
+            if (character >= '0' && character <= '9') throw new JsonError("Invalid number: leading zeros are not permitted.");
+        }
+        else
+        {
+            if (character < '1' || character > '9') throw new JsonError("Invalid number.");
+
+            AppendToValue((char)character);
+            ReadDigits();
+            character = PeekCharacter();
+        }
+
+        if (character == '.')
+        {
+            _valueIsInteger = false;
+            AppendToValue((char)ReadCharacter());
+            if (ReadDigits() == -2) throw new JsonError("Invalid number: digits expected after '.'.");
+            character = PeekCharacter();
+        }
+
+        if (character == 'e' || character == 'E')
+        {
+            _valueIsInteger = false;
+            AppendToValue((char)ReadCharacter());
+
+            character = PeekCharacter();
+            if (character == '+' || character == '-') AppendToValue((char)ReadCharacter());
+
+            if (ReadDigits() == -2) throw new JsonError("Invalid number: digits expected in exponent.");
+        }
+    }
+
+    /**
+     * Appends the following digits to the value buffer.
+     *
+     * @return the character that follows the digits (without consuming it), {@code -1} at the end of the input
+     *         or {@code -2} if not a single digit was read.
+     */
+    private int ReadDigits() throws IOException
+    {
+        final int length = _valueLength;
+        int character;
+
+        while ((character = PeekCharacter()) >= '0' && character <= '9')
+        {
+            AppendToValue((char)character);
+            ++_bufferPosition;
+        }
+
+        return _valueLength == length ? -2 : character;
+    }
+
+    private void ReadLiteral(final String remainingCharacters) throws JsonError, IOException
+    {
+        for (int index = 0; index < remainingCharacters.length(); ++index)
+        {
+            if (ReadCharacter() != remainingCharacters.charAt(index)) throw new JsonError("Invalid literal name.");
+        }
+    }
+
+    private int ReadNonWhitespace() throws IOException
+    {
+        while (true)
+        {
+            if (_bufferPosition == _bufferLength && !FillBuffer()) return -1;
+
+            final char character = _buffer[_bufferPosition++];
+
+            if (character != ' ' && character != '\t' && character != '\n' && character != '\r') return character;
+        }
+    }
+
+    private int ReadCharacter() throws IOException
+    {
+        if (_bufferPosition == _bufferLength && !FillBuffer()) return -1;
+
+        return _buffer[_bufferPosition++];
+    }
+
+    private int PeekCharacter() throws IOException
+    {
+        if (_bufferPosition == _bufferLength && !FillBuffer()) return -1;
+
+        return _buffer[_bufferPosition];
+    }
+
+    private boolean FillBuffer() throws IOException
+    {
+        final int count = _reader.read(_buffer, 0, _buffer.length);
+
+        _bufferPosition = 0;
+        _bufferLength = Math.max(count, 0);
+
+        return count > 0;
+    }
+
+    private void AppendToValue(final char character)
+    {
+        if (_valueLength == _value.length) GrowValue(1);
+
+        _value[_valueLength++] = character;
+    }
+
+    private void AppendToValue(final char[] characters, final int offset, final int count)
+    {
+        if (_value.length - _valueLength < count) GrowValue(count);
+
+        System.arraycopy(characters, offset, _value, _valueLength, count);
+        _valueLength += count;
+    }
+
+    private void GrowValue(final int minimumGrowth)
+    {
+        final char[] value = new char[Math.max(_value.length * 2, _valueLength + minimumGrowth)];
+        System.arraycopy(_value, 0, value, 0, _valueLength);
+        _value = value;
+    }
+
+    private static JsonError UnexpectedCharacter(final int character, final String expected)
+    {
+        if (character == -1) return new JsonError("Unexpected end of the Json Text; expected " + expected + ".");
+
+        return new JsonError("Unexpected character '" + (char)character + "'; expected " + expected + ".");
+    }
+}
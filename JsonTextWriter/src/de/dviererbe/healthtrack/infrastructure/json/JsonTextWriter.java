@@ -1,6 +1,7 @@
 package de.dviererbe.healthtrack.infrastructure.json;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.Writer;
 import java.time.LocalDateTime;
 
@@ -8,17 +9,36 @@ import java.time.LocalDateTime;
  * Provides a simple API for writing Json Text formatted (as defined by
  * <a href="https://www.rfc-editor.org/rfc/rfc8259.html">RFC8259</a>)
  * data to a {@link Writer}.
+ *
+ * The Json Text is written into an internal character buffer that is reused for the lifetime
+ * of the {@link JsonTextWriter} and is only passed to the underlying {@link Writer} when it is full,
+ * the {@link JsonTextWriter} is flushed or closed.
+ *
+ * @see Utf8JsonTextWriter for writing UTF-8 encoded Json Text directly to an {@link java.io.OutputStream}.
  */
-public class JsonTextWriter implements IJsonTextWriter
+public class JsonTextWriter extends JsonTextWriterBase
 {
-    private static final char LeftSquareBracket = '\u005B';
-    private static final char LeftCurlyBracket = '\u007B';
-    private static final char RightSquareBracket = '\u005D';
-    private static final char RightCurlyBracket = '\u007D';
-    private static final char Colon = '\u003A';
-    private static final char Comma = '\u002C';
+    private static final char[] Null = {'n', 'u', 'l', 'l'};
+
+    /**
+     * The default size (in characters) of the internal buffer.
+     */
+    public static final int DefaultBufferSize = 8192;
+
+    /**
+     * The minimum size (in characters) of the internal buffer. Tokens with a fixed maximum
+     * length (like numbers or escape sequences) are always written into the buffer as a whole.
+     */
+    private static final int MinimumBufferSize = 64;
 
     private final Writer _writer;
+    private final char[] _buffer;
+    private int _bufferPosition = 0;
+
+    // Numbers and timestamps are formatted as ASCII characters into a small
+    // byte buffer first and then widened into the character buffer.
+    private final byte[] _formattingBuffer = new byte[AsciiFormatting.MaxLocalDateTimeLength + 2];
+    private final DoubleToDecimal _doubleToDecimal = new DoubleToDecimal();
 
     /**
      * Initializes a new instance of the {@link JsonTextWriter} class using a specified {@link Writer}
@@ -30,72 +50,228 @@ public class JsonTextWriter implements IJsonTextWriter
      */
     public JsonTextWriter(final Writer writer)
     {
+        this(writer, DefaultBufferSize);
+    }
+
+    /**
+     * Initializes a new instance of the {@link JsonTextWriter} class using a specified {@link Writer}
+     * and a specified size of the internal buffer.
+     *
+     * @param writer The {@link Writer} instance to write the json text to. Note: If the {@link Writer}
+     *               instance encodes the text in binary format the UTF-8 [<a href="https://www.rfc-editor.org/rfc/rfc3629.html">RFC3629</a>]
+     *               encoding must be used to comply with <a href="https://www.rfc-editor.org/rfc/rfc8259.html#section-8.1">RFC8259 Section 8.1</a>.
+     * @param bufferSize The size (in characters) of the internal buffer.
+     */
+    public JsonTextWriter(final Writer writer, final int bufferSize)
+    {
+        if (writer == null) throw new IllegalArgumentException("writer is null");
+
         _writer = writer;
+        _buffer = new char[Math.max(bufferSize, MinimumBufferSize)];
     }
 
     @Override
-    public IJsonTextWriter WriteStartArray() throws JsonError, IOException
+    protected void WriteStructuralCharacter(final char character) throws IOException
     {
-        return this;
+        if (_bufferPosition == _buffer.length) FlushBuffer();
+
+        _buffer[_bufferPosition++] = character;
     }
 
     @Override
-    public IJsonTextWriter WriteStartObject() throws JsonError, IOException
+    protected void WriteNullToken() throws IOException
     {
-        return this;
+        EnsureCapacity(Null.length);
+        System.arraycopy(Null, 0, _buffer, _bufferPosition, Null.length);
+        _bufferPosition += Null.length;
     }
 
     @Override
-    public IJsonTextWriter WriteEndArray() throws JsonError, IOException
+    protected void WriteStringToken(final String value) throws IOException
     {
-        return this;
+        WriteStructuralCharacter(QuotationMark);
+
+        final int length = value.length();
+        int runStart = 0;
+
+        for (int index = 0; index < length; ++index)
+        {
+            final char character = value.charAt(index);
+
+            if (!MustBeEscaped(character)) continue;
+
+            WriteStringRun(value, runStart, index);
+            WriteEscapeSequence(character);
+            runStart = index + 1;
+        }
+
+        WriteStringRun(value, runStart, length);
+        WriteStructuralCharacter(QuotationMark);
     }
 
     @Override
-    public IJsonTextWriter WriteEndObject() throws JsonError, IOException
+    protected void WriteStringToken(final char[] value, final int offset, final int count) throws IOException
     {
-        return this;
+        WriteStructuralCharacter(QuotationMark);
+
+        final int end = offset + count;
+        int runStart = offset;
+
+        for (int index = offset; index < end; ++index)
+        {
+            final char character = value[index];
+
+            if (!MustBeEscaped(character)) continue;
+
+            WriteStringRun(value, runStart, index);
+            WriteEscapeSequence(character);
+            runStart = index + 1;
+        }
+
+        WriteStringRun(value, runStart, end);
+        WriteStructuralCharacter(QuotationMark);
+    }
+
+    @Override
+    protected void WriteEncodedPropertyName(final JsonPropertyName propertyName) throws IOException
+    {
+        final int length = propertyName.GetEncodedLength();
+
+        if (length > _buffer.length)
+        {
+            WriteStringToken(propertyName.Name);
+            WriteStructuralCharacter(Colon);
+            return;
+        }
+
+        EnsureCapacity(length);
+        _bufferPosition = propertyName.CopyEncodedCharactersTo(_buffer, _bufferPosition);
     }
 
     @Override
-    public IJsonTextWriter WritePropertyName(String propertyName) throws JsonError, IOException
+    protected void WriteIntegerToken(final int value) throws IOException
     {
-        return this;
+        WriteAsciiToken(AsciiFormatting.FormatInteger(value, _formattingBuffer, 0));
     }
 
     @Override
-    public IJsonTextWriter WriteNull() throws JsonError, IOException
+    protected void WriteDoubleToken(final double value) throws IOException
     {
-        return this;
+        WriteAsciiToken(_doubleToDecimal.Format(value, _formattingBuffer, 0));
     }
 
     @Override
-    public IJsonTextWriter WriteValue(int value) throws JsonError, IOException
+    protected void WriteLocalDateTimeToken(final LocalDateTime value) throws IOException
     {
-        return this;
+        _formattingBuffer[0] = QuotationMark;
+        final int length = AsciiFormatting.FormatLocalDateTime(value, _formattingBuffer, 1);
+        _formattingBuffer[length] = QuotationMark;
+        WriteAsciiToken(length + 1);
     }
 
     @Override
-    public IJsonTextWriter WriteValue(double value) throws JsonError, IOException
+    protected void WriteRawToken(final Reader jsonText) throws IOException
     {
-        return this;
+        // the characters are read directly into the buffer
+        while (true)
+        {
+            if (_bufferPosition == _buffer.length) FlushBuffer();
+
+            final int count = jsonText.read(_buffer, _bufferPosition, _buffer.length - _bufferPosition);
+
+            if (count < 0) return;
+
+            _bufferPosition += count;
+        }
     }
 
     @Override
-    public IJsonTextWriter WriteValue(String value) throws JsonError, IOException
+    protected void FlushBuffer() throws IOException
     {
-        return this;
+        if (_bufferPosition == 0) return;
+
+        _writer.write(_buffer, 0, _bufferPosition);
+        _bufferPosition = 0;
     }
 
     @Override
-    public IJsonTextWriter WriteValue(LocalDateTime value) throws JsonError, IOException
+    protected void FlushOutput() throws IOException
     {
-        return this;
+        _writer.flush();
     }
 
     @Override
-    public void close() throws IOException
+    protected void CloseOutput() throws IOException
     {
         _writer.close();
     }
-}
\ No newline at end of file
+
+    /**
+     * Copies a range of characters that need no escaping into the buffer.
+     */
+    private void WriteStringRun(final String value, int start, final int end) throws IOException
+    {
+        while (start < end)
+        {
+            if (_bufferPosition == _buffer.length) FlushBuffer();
+
+            final int count = Math.min(end - start, _buffer.length - _bufferPosition);
+            value.getChars(start, start + count, _buffer, _bufferPosition);
+            _bufferPosition += count;
+            start += count;
+        }
+    }
+
+    /**
+     * Copies a range of characters that need no escaping into the buffer.
+     */
+    private void WriteStringRun(final char[] value, int start, final int end) throws IOException
+    {
+        while (start < end)
+        {
+            if (_bufferPosition == _buffer.length) FlushBuffer();
+
+            final int count = Math.min(end - start, _buffer.length - _bufferPosition);
+            System.arraycopy(value, start, _buffer, _bufferPosition, count);
+            _bufferPosition += count;
+            start += count;
+        }
+    }
+
+    private void WriteEscapeSequence(final char character) throws IOException
+    {
+        EnsureCapacity(6);
+
+        final char escapeCharacter = GetEscapeCharacter(character);
+        _buffer[_bufferPosition++] = ReverseSolidus;
+        _buffer[_bufferPosition++] = escapeCharacter;
+
+        if (escapeCharacter != 'u') return;
+
+        _buffer[_bufferPosition++] = HexDigits[(character >> 12) & 0xF];
+        _buffer[_bufferPosition++] = HexDigits[(character >> 8) & 0xF];
+        _buffer[_bufferPosition++] = HexDigits[(character >> 4) & 0xF];
+        _buffer[_bufferPosition++] = HexDigits[character & 0xF];
+    }
+
+    /**
+     * Copies the ASCII characters from the start of the formatting buffer into the character buffer.
+     */
+    private void WriteAsciiToken(final int length) throws IOException
+    {
+        EnsureCapacity(length);
+
+        for (int index = 0; index < length; ++index)
+        {
+            _buffer[_bufferPosition++] = (char)_formattingBuffer[index];
+        }
+    }
+
+    /**
+     * Ensures that the specified number of characters can be written into the buffer.
+     */
+    private void EnsureCapacity(final int characterCount) throws IOException
+    {
+        if (_buffer.length - _bufferPosition < characterCount) FlushBuffer();
+    }
+}
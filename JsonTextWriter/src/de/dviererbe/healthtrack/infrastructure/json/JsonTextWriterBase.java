@@ -0,0 +1,397 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+
+/**
+ * The base class of the {@link IJsonTextWriter} implementations that write Json Text formatted (as defined by
+ * <a href="https://www.rfc-editor.org/rfc/rfc8259.html">RFC8259</a>) data.
+ *
+ * The nesting of arrays and objects is tracked by a small state machine; value separators (commas) and
+ * name separators (colons) are inserted automatically. Derived classes only have to encode the tokens.
+ */
+public abstract class JsonTextWriterBase implements IJsonTextWriter, Flushable
+{
+    protected static final char LeftSquareBracket = '[';
+    protected static final char LeftCurlyBracket = '{';
+    protected static final char RightSquareBracket = ']';
+    protected static final char RightCurlyBracket = '}';
+    protected static final char Colon = ':';
+    protected static final char Comma = ',';
+    protected static final char QuotationMark = '"';
+    protected static final char ReverseSolidus = '\\';
+
+    protected static final char[] HexDigits = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    // States of the writer:
+    /** Nothing has been written yet; a single value is expected. */
+    private static final int StateDocumentStart = 0;
+    /** The root value has been written completely; nothing else may be written. */
+    private static final int StateDocumentEnd = 1;
+    /** An array was started; a value or the end of the array is expected. */
+    private static final int StateArrayStart = 2;
+    /** A value was written inside an array; a value separator and a value or the end of the array is expected. */
+    private static final int StateArrayValue = 3;
+    /** An object was started; a property name or the end of the object is expected. */
+    private static final int StateObjectStart = 4;
+    /** A property name was written; the value of the property is expected. */
+    private static final int StateObjectPropertyName = 5;
+    /** A property value was written; a value separator and a property name or the end of the object is expected. */
+    private static final int StateObjectPropertyValue = 6;
+
+    private static final boolean ContainerArray = false;
+    private static final boolean ContainerObject = true;
+
+    private int _state = StateDocumentStart;
+    private boolean[] _containerStack = new boolean[16];
+    private int _depth = 0;
+
+    @Override
+    public IJsonTextWriter WriteStartArray() throws JsonError, IOException
+    {
+        WriteValuePrefix();
+        PushContainer(ContainerArray);
+        WriteStructuralCharacter(LeftSquareBracket);
+        _state = StateArrayStart;
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WriteStartObject() throws JsonError, IOException
+    {
+        WriteValuePrefix();
+        PushContainer(ContainerObject);
+        WriteStructuralCharacter(LeftCurlyBracket);
+        _state = StateObjectStart;
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WriteEndArray() throws JsonError, IOException
+    {
+        if (_state != StateArrayStart && _state != StateArrayValue)
+        {
+            throw new JsonError("There is no array to end at the current position.");
+        }
+
+        WriteStructuralCharacter(RightSquareBracket);
+        PopContainer();
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WriteEndObject() throws JsonError, IOException
+    {
+        if (_state != StateObjectStart && _state != StateObjectPropertyValue)
+        {
+            throw new JsonError("There is no object to end at the current position.");
+        }
+
+        WriteStructuralCharacter(RightCurlyBracket);
+        PopContainer();
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WritePropertyName(final String propertyName) throws JsonError, IOException
+    {
+        if (propertyName == null) throw new JsonError("The property name is null.");
+
+        WritePropertyNamePrefix();
+        WriteStringToken(propertyName);
+        WriteStructuralCharacter(Colon);
+        _state = StateObjectPropertyName;
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WritePropertyName(final JsonPropertyName propertyName) throws JsonError, IOException
+    {
+        if (propertyName == null) throw new JsonError("The property name is null.");
+
+        WritePropertyNamePrefix();
+        WriteEncodedPropertyName(propertyName);
+        _state = StateObjectPropertyName;
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WriteNull() throws JsonError, IOException
+    {
+        WriteValuePrefix();
+        WriteNullToken();
+        CompleteValue();
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WriteValue(final int value) throws JsonError, IOException
+    {
+        WriteValuePrefix();
+        WriteIntegerToken(value);
+        CompleteValue();
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WriteValue(final double value) throws JsonError, IOException
+    {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+        {
+            throw new JsonError("Numeric values that cannot be represented as sequences of digits (such as Infinity and NaN) are not permitted.");
+        }
+
+        WriteValuePrefix();
+        WriteDoubleToken(value);
+        CompleteValue();
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WriteValue(final String value) throws JsonError, IOException
+    {
+        if (value == null) return WriteNull();
+
+        WriteValuePrefix();
+        WriteStringToken(value);
+        CompleteValue();
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WriteValue(final char[] value, final int offset, final int count) throws JsonError, IOException
+    {
+        if (value == null) return WriteNull();
+
+        if (offset < 0 || count < 0 || offset > value.length - count)
+        {
+            throw new IndexOutOfBoundsException("The range [" + offset + ", " + offset + " + " + count + ") is out of bounds for length " + value.length + ".");
+        }
+
+        WriteValuePrefix();
+        WriteStringToken(value, offset, count);
+        CompleteValue();
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WriteValue(final LocalDateTime value) throws JsonError, IOException
+    {
+        if (value == null) return WriteNull();
+
+        WriteValuePrefix();
+        WriteLocalDateTimeToken(value);
+        CompleteValue();
+        return this;
+    }
+
+    @Override
+    public IJsonTextWriter WriteRawValue(final Reader jsonText) throws JsonError, IOException
+    {
+        if (jsonText == null) throw new JsonError("The raw Json Text is null.");
+
+        WriteValuePrefix();
+        WriteRawToken(jsonText);
+        CompleteValue();
+        return this;
+    }
+
+    /**
+     * Passes all buffered data to the underlying output and flushes it.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        FlushBuffer();
+        FlushOutput();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            FlushBuffer();
+        }
+        finally
+        {
+            CloseOutput();
+        }
+    }
+
+    /**
+     * Determines whether a character has to be escaped inside of a Json string
+     * (see <a href="https://www.rfc-editor.org/rfc/rfc8259.html#section-7">RFC8259 Section 7</a>).
+     *
+     * @param character The character to check.
+     * @return {@code true} if the character has to be escaped; otherwise {@code false}.
+     */
+    protected static boolean MustBeEscaped(final char character)
+    {
+        return character < 0x20 || character == QuotationMark || character == ReverseSolidus;
+    }
+
+    /**
+     * Gets the character that follows the reverse solidus in the two-character escape sequence
+     * of the specified character.
+     *
+     * @param character The character that has to be escaped.
+     * @return The second character of the escape sequence or {@code 'u'} if the character has
+     *         to be escaped as a six-character sequence ({@code \\uXXXX}).
+     */
+    protected static char GetEscapeCharacter(final char character)
+    {
+        switch (character)
+        {
+            case QuotationMark: return QuotationMark;
+            case ReverseSolidus: return ReverseSolidus;
+            case '\b': return 'b';
+            case '\f': return 'f';
+            case '\n': return 'n';
+            case '\r': return 'r';
+            case '\t': return 't';
+            default: return 'u';
+        }
+    }
+
+    /**
+     * Writes a structural character (one of {@code [ ] { } : ,}).
+     */
+    protected abstract void WriteStructuralCharacter(final char character) throws IOException;
+
+    /**
+     * Writes the literal name {@code null}.
+     */
+    protected abstract void WriteNullToken() throws IOException;
+
+    /**
+     * Writes a string as a quoted and escaped Json string
+     * (see <a href="https://www.rfc-editor.org/rfc/rfc8259.html#section-7">RFC8259 Section 7</a>).
+     */
+    protected abstract void WriteStringToken(final String value) throws IOException;
+
+    /**
+     * Writes a range of characters as a quoted and escaped Json string
+     * (see <a href="https://www.rfc-editor.org/rfc/rfc8259.html#section-7">RFC8259 Section 7</a>).
+     */
+    protected abstract void WriteStringToken(final char[] value, final int offset, final int count) throws IOException;
+
+    /**
+     * Writes a pre-encoded property name (including the quotation marks and the name separator).
+     */
+    protected abstract void WriteEncodedPropertyName(final JsonPropertyName propertyName) throws IOException;
+
+    /**
+     * Writes an integer as a Json number.
+     */
+    protected abstract void WriteIntegerToken(final int value) throws IOException;
+
+    /**
+     * Writes a finite floating point number as a Json number.
+     */
+    protected abstract void WriteDoubleToken(final double value) throws IOException;
+
+    /**
+     * Writes a date-time as a quoted ISO-8601 string (for example {@code "2022-07-01T13:37:00"}).
+     */
+    protected abstract void WriteLocalDateTimeToken(final LocalDateTime value) throws IOException;
+
+    /**
+     * Copies already serialized Json Text as it is.
+     */
+    protected abstract void WriteRawToken(final Reader jsonText) throws IOException;
+
+    /**
+     * Passes the content of the internal buffer to the underlying output.
+     */
+    protected abstract void FlushBuffer() throws IOException;
+
+    /**
+     * Flushes the underlying output.
+     */
+    protected abstract void FlushOutput() throws IOException;
+
+    /**
+     * Closes the underlying output and releases all resources of the writer.
+     */
+    protected abstract void CloseOutput() throws IOException;
+
+    /**
+     * Validates that a value can be written at the current position and writes the
+     * value separator if one is needed.
+     */
+    private void WriteValuePrefix() throws JsonError, IOException
+    {
+        switch (_state)
+        {
+            case StateDocumentStart:
+            case StateArrayStart:
+            case StateObjectPropertyName:
+                return;
+            case StateArrayValue:
+                WriteStructuralCharacter(Comma);
+                return;
+            case StateDocumentEnd:
+                throw new JsonError("A Json Text can only contain a single root value.");
+            default:
+                throw new JsonError("A property name has to be written before a value can be written inside of an object.");
+        }
+    }
+
+    /**
+     * Validates that a property name can be written at the current position and writes the
+     * value separator if one is needed.
+     */
+    private void WritePropertyNamePrefix() throws JsonError, IOException
+    {
+        if (_state == StateObjectPropertyValue)
+        {
+            WriteStructuralCharacter(Comma);
+        }
+        else if (_state != StateObjectStart)
+        {
+            throw new JsonError("A property name can only be written inside of an object.");
+        }
+    }
+
+    /**
+     * Updates the state after a value was written completely.
+     */
+    private void CompleteValue()
+    {
+        if (_depth == 0)
+        {
+            _state = StateDocumentEnd;
+        }
+        else if (_containerStack[_depth - 1] == ContainerArray)
+        {
+            _state = StateArrayValue;
+        }
+        else
+        {
+            _state = StateObjectPropertyValue;
+        }
+    }
+
+    private void PushContainer(final boolean container)
+    {
+        if (_depth == _containerStack.length)
+        {
+            final boolean[] containerStack = new boolean[_containerStack.length * 2];
+            System.arraycopy(_containerStack, 0, containerStack, 0, _depth);
+            _containerStack = containerStack;
+        }
+
+        _containerStack[_depth++] = container;
+    }
+
+    private void PopContainer()
+    {
+        --_depth;
+        CompleteValue();
+    }
+}
@@ -0,0 +1,172 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import de.dviererbe.healthtrack.persistence.IBulkMergable;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the repository data that was written by a {@link RepositoryJsonTextSerializerBase} and stores the records
+ * in batches of {@link #_batchSize} records; every batch is stored in a single transaction of the repository.
+ */
+public abstract class RepositoryJsonTextDeserializerBase<TRecord> implements IRepositoryJsonTextDeserializer
+{
+    /**
+     * The default count of records that are stored in a single transaction.
+     */
+    public static final int DefaultBatchSize = 2000;
+
+    protected final IBulkMergable<TRecord> _recordRepository;
+    private final int _batchSize;
+
+    public RepositoryJsonTextDeserializerBase(final IBulkMergable<TRecord> recordRepository)
+    {
+        this(recordRepository, DefaultBatchSize);
+    }
+
+    public RepositoryJsonTextDeserializerBase(final IBulkMergable<TRecord> recordRepository, final int batchSize)
+    {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize is not positive");
+
+        _recordRepository = recordRepository;
+        _batchSize = batchSize;
+    }
+
+    @Override
+    public void DeserializeFromJson(final IJsonTextReader jsonTextReader)
+        throws
+            RepositoryException,
+            JsonError,
+            IOException
+    {
+        ExpectToken(jsonTextReader, JsonToken.StartObject);
+
+        while (jsonTextReader.Read() == JsonToken.PropertyName)
+        {
+            if (jsonTextReader.ValueEquals(RepositoryJsonTextSerializerBase.RecordsPropertyName))
+            {
+                jsonTextReader.Read();
+                ReadRecords(jsonTextReader);
+            }
+            else if (!ReadProperty(jsonTextReader))
+            {
+                // The implementation details (and unknown properties) are not imported.
+                jsonTextReader.Read();
+                jsonTextReader.Skip();
+            }
+        }
+
+        ExpectToken(jsonTextReader, JsonToken.EndObject);
+    }
+
+    /**
+     * Reads a property of the repository data other than the records.
+     *
+     * @param jsonTextReader The {@link IJsonTextReader} whose current token is the property name.
+     * @return {@code true} if the property was read (including its value); {@code false} if the property is unknown
+     *         and should be skipped.
+     */
+    protected boolean ReadProperty(final IJsonTextReader jsonTextReader)
+        throws
+            RepositoryException,
+            JsonError,
+            IOException
+    {
+        return false;
+    }
+
+    protected void ReadRecords(final IJsonTextReader jsonTextReader)
+        throws
+            RepositoryException,
+            JsonError,
+            IOException
+    {
+        ExpectToken(jsonTextReader, JsonToken.StartArray);
+
+        // Only a single batch of records is held in memory at any time.
+        final List<TRecord> batch = new ArrayList<>(_batchSize);
+
+        while (jsonTextReader.Read() != JsonToken.EndArray)
+        {
+            batch.add(ReadRecord(jsonTextReader));
+
+            if (batch.size() == _batchSize)
+            {
+                _recordRepository.CreateOrUpdateRecords(batch);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty())
+        {
+            _recordRepository.CreateOrUpdateRecords(batch);
+        }
+    }
+
+    /**
+     * Reads a record.
+     *
+     * @param jsonTextReader The {@link IJsonTextReader} whose current token is the start of the record.
+     *                       When the method returns, the current token has to be the end of the record.
+     */
+    protected abstract TRecord ReadRecord(final IJsonTextReader jsonTextReader)
+        throws
+            JsonError,
+            IOException;
+
+    protected static void ExpectToken(final IJsonTextReader jsonTextReader, final JsonToken token) throws JsonError
+    {
+        if (jsonTextReader.GetToken() != token)
+        {
+            throw new JsonError("Expected " + token + " but the current token is " + jsonTextReader.GetToken() + ".");
+        }
+    }
+
+    protected static UUID ReadIdentifier(final IJsonTextReader jsonTextReader)
+        throws
+            JsonError,
+            IOException
+    {
+        jsonTextReader.Read();
+        final String identifier = jsonTextReader.GetString();
+
+        try
+        {
+            return identifier == null ? null : UUID.fromString(identifier);
+        }
+        catch (IllegalArgumentException exception)
+        {
+            throw new JsonError("The identifier is not a valid UUID: " + identifier);
+        }
+    }
+
+    protected static <TEnum extends Enum<TEnum>> TEnum ReadEnum(
+        final IJsonTextReader jsonTextReader,
+        final Class<TEnum> enumClass)
+        throws
+            JsonError,
+            IOException
+    {
+        jsonTextReader.Read();
+        final String name = jsonTextReader.GetString();
+
+        try
+        {
+            return name == null ? null : Enum.valueOf(enumClass, name);
+        }
+        catch (IllegalArgumentException exception)
+        {
+            throw new JsonError("Unknown " + enumClass.getSimpleName() + ": " + name);
+        }
+    }
+
+    protected static <TValue> TValue RequireProperty(final TValue value, final JsonPropertyName propertyName) throws JsonError
+    {
+        if (value == null) throw new JsonError("The record has no " + propertyName.Name + ".");
+
+        return value;
+    }
+}
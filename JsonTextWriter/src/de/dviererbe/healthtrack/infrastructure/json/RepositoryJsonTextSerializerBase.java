@@ -1,27 +1,56 @@
 package de.dviererbe.healthtrack.infrastructure.json;
 
-import de.dviererbe.healthtrack.persistence.IBulkQueryable;
+import de.dviererbe.healthtrack.persistence.IRecordCursor;
+import de.dviererbe.healthtrack.persistence.IRecordCursorQueryable;
+import de.dviererbe.healthtrack.persistence.IRecordJsonTextWritable;
 import de.dviererbe.healthtrack.persistence.IRepositoryImplementationDetailsProvider;
 import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Map;
 
 public abstract class RepositoryJsonTextSerializerBase<TRecord> implements IRepositoryJsonTextSerializer
 {
-    protected static final String ImplementationsPropertyName = "implementations";
-    protected static final String RecordsPropertyName = "records";
+    protected static final JsonPropertyName ImplementationsPropertyName = new JsonPropertyName("implementations");
+    protected static final JsonPropertyName RecordsPropertyName = new JsonPropertyName("records");
+
+    private static final ISerializationProgressMonitor NullProgressMonitor = new ISerializationProgressMonitor()
+    {
+        @Override
+        public void SerializationStarted(final long recordCount)
+        {
+        }
+
+        @Override
+        public void RecordWritten()
+        {
+        }
+    };
 
     protected final IRepositoryImplementationDetailsProvider _repositoryImplementationDetailsProvider;
-    protected final IBulkQueryable<TRecord> _recordRepository;
+    protected final IRecordCursorQueryable<TRecord> _recordRepository;
+    protected final IRecordJsonTextWritable _recordJsonTextWritable;
+
+    public RepositoryJsonTextSerializerBase(
+        final IRepositoryImplementationDetailsProvider repositoryImplementationDetailsProvider,
+        final IRecordCursorQueryable<TRecord> recordRepository)
+    {
+        this(repositoryImplementationDetailsProvider, recordRepository, null);
+    }
 
+    /**
+     * @param recordJsonTextWritable Optional mechanism that writes the records directly from the storage into the
+     *                               Json Text. If it is not {@code null} the records are not read as domain objects
+     *                               from the {@code recordRepository}.
+     */
     public RepositoryJsonTextSerializerBase(
         final IRepositoryImplementationDetailsProvider repositoryImplementationDetailsProvider,
-        final IBulkQueryable<TRecord> recordRepository)
+        final IRecordCursorQueryable<TRecord> recordRepository,
+        final IRecordJsonTextWritable recordJsonTextWritable)
     {
         _repositoryImplementationDetailsProvider = repositoryImplementationDetailsProvider;
         _recordRepository = recordRepository;
+        _recordJsonTextWritable = recordJsonTextWritable;
     }
 
     @Override
@@ -30,6 +59,18 @@ public abstract class RepositoryJsonTextSerializerBase<TRecord> implements IRepo
             RepositoryException,
             JsonError,
             IOException
+    {
+        SerializeAsJson(jsonTextWriter, NullProgressMonitor);
+    }
+
+    @Override
+    public void SerializeAsJson(
+        final IJsonTextWriter jsonTextWriter,
+        final ISerializationProgressMonitor progressMonitor)
+        throws
+            RepositoryException,
+            JsonError,
+            IOException
     {
         jsonTextWriter.WriteStartObject();
 
@@ -37,7 +78,7 @@ public abstract class RepositoryJsonTextSerializerBase<TRecord> implements IRepo
         WriteRepositoryImplementationDetails(jsonTextWriter);
 
         jsonTextWriter.WritePropertyName(RecordsPropertyName);
-        WriteRecords(jsonTextWriter);
+        WriteRecords(jsonTextWriter, progressMonitor);
 
         jsonTextWriter.WriteEndObject();
     }
@@ -62,30 +103,33 @@ public abstract class RepositoryJsonTextSerializerBase<TRecord> implements IRepo
         jsonTextWriter.WriteEndObject();
     }
 
-    protected void WriteRecords(final IJsonTextWriter jsonTextWriter)
+    protected void WriteRecords(
+        final IJsonTextWriter jsonTextWriter,
+        final ISerializationProgressMonitor progressMonitor)
         throws
             RepositoryException,
             JsonError,
             IOException
     {
-        final long count = _recordRepository.GetRecordCount();
-        long offset = 0;
+        progressMonitor.SerializationStarted(_recordRepository.GetRecordCount());
 
-        final int maxBufferSize = 128;
-        List<TRecord> buffer;
+        if (_recordJsonTextWritable != null)
+        {
+            _recordJsonTextWritable.WriteRecordsAsJson(jsonTextWriter, progressMonitor);
+            return;
+        }
 
         jsonTextWriter.WriteStartArray();
 
-        while (offset < count)
+        // The records are streamed from the repository one at a time,
+        // so the export never holds more than a single record in memory.
+        try (final IRecordCursor<TRecord> cursor = _recordRepository.OpenRecordsDescending())
         {
-            buffer = _recordRepository.GetRecordsDescending(offset, maxBufferSize);
-
-            for (TRecord record : buffer)
+            while (cursor.MoveNext())
             {
-                WriteRecord(jsonTextWriter, record);
+                WriteRecord(jsonTextWriter, cursor.GetCurrent());
+                progressMonitor.RecordWritten();
             }
-
-            offset += buffer.size();
         }
 
         jsonTextWriter.WriteEndArray();
@@ -0,0 +1,171 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.io.CharArrayReader;
+import java.io.CharArrayWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link IJsonTextFragment} that keeps the Json Text in memory as long as it is smaller than a
+ * specified threshold and spills it into a temporary UTF-8 encoded file when it grows larger.
+ * The temporary file is deleted when the fragment is closed.
+ */
+public class SpillableJsonTextFragment implements IJsonTextFragment
+{
+    /**
+     * The default count of characters that are kept in memory before the fragment is spilled into a file.
+     */
+    public static final int DefaultMemoryThreshold = 1024 * 1024;
+
+    private final File _spillDirectory;
+    private final int _memoryThreshold;
+    private final JsonTextWriter _writer;
+
+    private MemoryBuffer _memory = new MemoryBuffer();
+    private File _spillFile = null;
+    private Writer _spillFileWriter = null;
+
+    /**
+     * Initializes a new instance of the {@link SpillableJsonTextFragment} class.
+     *
+     * @param spillDirectory The directory to create the temporary file in.
+     * @param memoryThreshold The count of characters that are kept in memory before the fragment is spilled into a file.
+     */
+    public SpillableJsonTextFragment(final File spillDirectory, final int memoryThreshold)
+    {
+        if (spillDirectory == null) throw new IllegalArgumentException("spillDirectory is null");
+
+        _spillDirectory = spillDirectory;
+        _memoryThreshold = memoryThreshold;
+        _writer = new JsonTextWriter(new SpillingWriter());
+    }
+
+    @Override
+    public IJsonTextWriter GetWriter()
+    {
+        return _writer;
+    }
+
+    @Override
+    public Reader OpenReader() throws IOException
+    {
+        if (_spillFile != null)
+        {
+            return new InputStreamReader(new FileInputStream(_spillFile), StandardCharsets.UTF_8);
+        }
+
+        if (_memory == null) throw new IOException("The fragment is closed.");
+
+        return _memory.OpenReader();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            _writer.close();
+        }
+        finally
+        {
+            _memory = null;
+
+            if (_spillFile != null && !_spillFile.delete())
+            {
+                _spillFile.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Moves the content of the memory buffer into a temporary file; all further content is written into the file.
+     */
+    private void Spill() throws IOException
+    {
+        _spillFile = File.createTempFile("fragment", ".json", _spillDirectory);
+        _spillFileWriter = new OutputStreamWriter(new FileOutputStream(_spillFile), StandardCharsets.UTF_8);
+        _memory.writeTo(_spillFileWriter);
+        _memory = null;
+    }
+
+    private final class SpillingWriter extends Writer
+    {
+        @Override
+        public void write(final char[] characters, final int offset, final int count) throws IOException
+        {
+            if (_spillFileWriter == null)
+            {
+                if (_memory == null) throw new IOException("The fragment is closed.");
+
+                if (_memory.size() + count <= _memoryThreshold)
+                {
+                    _memory.write(characters, offset, count);
+                    return;
+                }
+
+                Spill();
+            }
+
+            _spillFileWriter.write(characters, offset, count);
+        }
+
+        @Override
+        public void flush() throws IOException
+        {
+            if (_spillFileWriter != null) _spillFileWriter.flush();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (_spillFileWriter != null) _spillFileWriter.close();
+        }
+    }
+
+    /**
+     * A {@link CharArrayWriter} whose content can be read without copying it.
+     */
+    private static final class MemoryBuffer extends CharArrayWriter
+    {
+        Reader OpenReader()
+        {
+            return new CharArrayReader(buf, 0, count);
+        }
+    }
+
+    /**
+     * Creates {@link SpillableJsonTextFragment} instances that spill into the same directory.
+     */
+    public static class Factory implements IJsonTextFragmentFactory
+    {
+        private final File _spillDirectory;
+        private final int _memoryThreshold;
+
+        /**
+         * Initializes a new instance of the {@link Factory} class.
+         *
+         * @param spillDirectory The directory to create the temporary files in.
+         * @param memoryThreshold The count of characters that are kept in memory before a fragment is spilled into a file.
+         */
+        public Factory(final File spillDirectory, final int memoryThreshold)
+        {
+            if (spillDirectory == null) throw new IllegalArgumentException("spillDirectory is null");
+
+            _spillDirectory = spillDirectory;
+            _memoryThreshold = memoryThreshold;
+        }
+
+        @Override
+        public IJsonTextFragment CreateFragment()
+        {
+            return new SpillableJsonTextFragment(_spillDirectory, _memoryThreshold);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import de.dviererbe.healthtrack.domain.StepCountRecord;
+import de.dviererbe.healthtrack.persistence.IBulkMergable;
+import de.dviererbe.healthtrack.persistence.IDefaultStepCountGoalSetter;
+import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static de.dviererbe.healthtrack.infrastructure.json.StepWidgetRepositoryJsonTextSerializer.*;
+
+public class StepWidgetRepositoryJsonTextDeserializer extends RepositoryJsonTextDeserializerBase<StepCountRecord>
+{
+    protected final IDefaultStepCountGoalSetter _defaultStepCountGoalSetter;
+
+    public StepWidgetRepositoryJsonTextDeserializer(
+        final IBulkMergable<StepCountRecord> recordRepository,
+        final IDefaultStepCountGoalSetter defaultStepCountGoalSetter)
+    {
+        super(recordRepository);
+        _defaultStepCountGoalSetter = defaultStepCountGoalSetter;
+    }
+
+    @Override
+    protected boolean ReadProperty(final IJsonTextReader jsonTextReader)
+        throws
+            RepositoryException,
+            JsonError,
+            IOException
+    {
+        if (!jsonTextReader.ValueEquals(DefaultStepCountGoalPropertyName)) return false;
+
+        jsonTextReader.Read();
+        _defaultStepCountGoalSetter.SetDefaultStepCountGoal(jsonTextReader.GetInt());
+        return true;
+    }
+
+    @Override
+    protected StepCountRecord ReadRecord(final IJsonTextReader jsonTextReader)
+        throws
+            JsonError,
+            IOException
+    {
+        ExpectToken(jsonTextReader, JsonToken.StartObject);
+
+        UUID identifier = null;
+        Integer stepCount = null;
+        Integer goal = null;
+        LocalDateTime timeOfMeasurement = null;
+
+        while (jsonTextReader.Read() == JsonToken.PropertyName)
+        {
+            if (jsonTextReader.ValueEquals(IdentifierPropertyName))
+            {
+                identifier = ReadIdentifier(jsonTextReader);
+            }
+            else if (jsonTextReader.ValueEquals(StepCountPropertyName))
+            {
+                jsonTextReader.Read();
+                stepCount = jsonTextReader.GetInt();
+            }
+            else if (jsonTextReader.ValueEquals(GoalPropertyName))
+            {
+                jsonTextReader.Read();
+                goal = jsonTextReader.GetInt();
+            }
+            else if (jsonTextReader.ValueEquals(TimeOfMeasurementPropertyName))
+            {
+                jsonTextReader.Read();
+                timeOfMeasurement = jsonTextReader.GetLocalDateTime();
+            }
+            else
+            {
+                jsonTextReader.Read();
+                jsonTextReader.Skip();
+            }
+        }
+
+        ExpectToken(jsonTextReader, JsonToken.EndObject);
+
+        return new StepCountRecord(
+            RequireProperty(identifier, IdentifierPropertyName),
+            RequireProperty(stepCount, StepCountPropertyName),
+            RequireProperty(goal, GoalPropertyName),
+            timeOfMeasurement);
+    }
+}
@@ -1,7 +1,8 @@
 package de.dviererbe.healthtrack.infrastructure.json;
 
 import de.dviererbe.healthtrack.domain.StepCountRecord;
-import de.dviererbe.healthtrack.persistence.IBulkQueryable;
+import de.dviererbe.healthtrack.persistence.IRecordCursorQueryable;
+import de.dviererbe.healthtrack.persistence.IRecordJsonTextWritable;
 import de.dviererbe.healthtrack.persistence.IDefaultStepCountGoalGetter;
 import de.dviererbe.healthtrack.persistence.IRepositoryImplementationDetailsProvider;
 import de.dviererbe.healthtrack.persistence.exceptions.RepositoryException;
@@ -10,19 +11,40 @@ import java.io.IOException;
 
 public class StepWidgetRepositoryJsonTextSerializer extends RepositoryJsonTextSerializerBase<StepCountRecord>
 {
+    public static final JsonPropertyName IdentifierPropertyName = new JsonPropertyName("identifier");
+    public static final JsonPropertyName StepCountPropertyName = new JsonPropertyName("stepCount");
+    public static final JsonPropertyName GoalPropertyName = new JsonPropertyName("goal");
+    public static final JsonPropertyName TimeOfMeasurementPropertyName = new JsonPropertyName("timeOfMeasurement");
+    public static final JsonPropertyName DefaultStepCountGoalPropertyName = new JsonPropertyName("defaultStepCountGoal");
+
     protected final IDefaultStepCountGoalGetter _defaultStepCountGoalGetter;
 
     public StepWidgetRepositoryJsonTextSerializer(
             final IRepositoryImplementationDetailsProvider repositoryImplementationDetailsProvider,
-            final IBulkQueryable<StepCountRecord> recordRepository,
+            final IRecordCursorQueryable<StepCountRecord> recordRepository,
             final IDefaultStepCountGoalGetter defaultStepCountGoalGetter)
     {
-        super(repositoryImplementationDetailsProvider, recordRepository);
+        this(repositoryImplementationDetailsProvider, recordRepository, defaultStepCountGoalGetter, null);
+    }
+
+    public StepWidgetRepositoryJsonTextSerializer(
+            final IRepositoryImplementationDetailsProvider repositoryImplementationDetailsProvider,
+            final IRecordCursorQueryable<StepCountRecord> recordRepository,
+            final IDefaultStepCountGoalGetter defaultStepCountGoalGetter,
+            final IRecordJsonTextWritable recordJsonTextWritable)
+    {
+        super(repositoryImplementationDetailsProvider, recordRepository, recordJsonTextWritable);
         _defaultStepCountGoalGetter = defaultStepCountGoalGetter;
     }
 
     @Override
-    public void SerializeAsJson(IJsonTextWriter jsonTextWriter) throws RepositoryException, JsonError, IOException
+    public void SerializeAsJson(
+        final IJsonTextWriter jsonTextWriter,
+        final ISerializationProgressMonitor progressMonitor)
+        throws
+            RepositoryException,
+            JsonError,
+            IOException
     {
         jsonTextWriter.WriteStartObject();
 
@@ -30,11 +52,11 @@ public class StepWidgetRepositoryJsonTextSerializer extends RepositoryJsonTextSe
         WriteRepositoryImplementationDetails(jsonTextWriter);
 
         jsonTextWriter
-                .WritePropertyName("defaultStepCountGoal")
+                .WritePropertyName(DefaultStepCountGoalPropertyName)
                 .WriteValue(_defaultStepCountGoalGetter.GetDefaultStepCountGoal());
 
         jsonTextWriter.WritePropertyName(RecordsPropertyName);
-        WriteRecords(jsonTextWriter);
+        WriteRecords(jsonTextWriter, progressMonitor);
 
         jsonTextWriter.WriteEndObject();
     }
@@ -49,10 +71,10 @@ public class StepWidgetRepositoryJsonTextSerializer extends RepositoryJsonTextSe
     {
         jsonTextWriter
         .WriteStartObject()
-        .WritePropertyName("identifier").WriteValue(stepCountRecord.Identifier.toString())
-        .WritePropertyName("stepCount").WriteValue(stepCountRecord.StepCount)
-        .WritePropertyName("goal").WriteValue(stepCountRecord.Goal)
-        .WritePropertyName("timeOfMeasurement").WriteValue(stepCountRecord.TimeOfMeasurement)
+        .WritePropertyName(IdentifierPropertyName).WriteValue(stepCountRecord.Identifier.toString())
+        .WritePropertyName(StepCountPropertyName).WriteValue(stepCountRecord.StepCount)
+        .WritePropertyName(GoalPropertyName).WriteValue(stepCountRecord.Goal)
+        .WritePropertyName(TimeOfMeasurementPropertyName).WriteValue(stepCountRecord.TimeOfMeasurement)
         .WriteEndObject();
     }
 }
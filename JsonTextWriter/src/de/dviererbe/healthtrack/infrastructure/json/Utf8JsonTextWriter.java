@@ -0,0 +1,434 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+
+/**
+ * Provides a simple API for writing UTF-8 [<a href="https://www.rfc-editor.org/rfc/rfc3629.html">RFC3629</a>]
+ * encoded Json Text (as defined by <a href="https://www.rfc-editor.org/rfc/rfc8259.html">RFC8259</a>)
+ * to an {@link OutputStream} or a {@link WritableByteChannel}.
+ *
+ * The Json Text is encoded directly into a pooled byte buffer without an intermediate character
+ * buffer or charset encoder. Structural characters and strings that only consist of ASCII characters are
+ * copied byte by byte; numbers and timestamps are formatted directly into the buffer.
+ */
+public class Utf8JsonTextWriter extends JsonTextWriterBase
+{
+    private static final byte[] Null = {'n', 'u', 'l', 'l'};
+
+    /**
+     * The default size (in bytes) of the internal buffer.
+     */
+    public static final int DefaultBufferSize = 16384;
+
+    /**
+     * The minimum size (in bytes) of the internal buffer. Tokens with a fixed maximum
+     * length (like numbers, escape sequences or encoded code points) are always written
+     * into the buffer as a whole.
+     */
+    private static final int MinimumBufferSize = 64;
+
+    /**
+     * The size (in characters) of the buffer that raw Json Text is read into before it is encoded.
+     */
+    private static final int RawTextBufferSize = 2048;
+
+    private final OutputStream _outputStream;
+    private final WritableByteChannel _channel;
+    private final ByteBuffer _channelBuffer;
+    private final DoubleToDecimal _doubleToDecimal = new DoubleToDecimal();
+    private byte[] _buffer;
+    private int _bufferPosition = 0;
+    private char[] _rawTextBuffer = null;
+
+    /**
+     * Initializes a new instance of the {@link Utf8JsonTextWriter} class that writes to a specified {@link OutputStream}.
+     *
+     * @param outputStream The {@link OutputStream} to write the UTF-8 encoded Json Text to.
+     */
+    public Utf8JsonTextWriter(final OutputStream outputStream)
+    {
+        this(outputStream, DefaultBufferSize);
+    }
+
+    /**
+     * Initializes a new instance of the {@link Utf8JsonTextWriter} class that writes to a specified {@link OutputStream}
+     * using a specified size of the internal buffer.
+     *
+     * @param outputStream The {@link OutputStream} to write the UTF-8 encoded Json Text to.
+     * @param bufferSize The size (in bytes) of the internal buffer.
+     */
+    public Utf8JsonTextWriter(final OutputStream outputStream, final int bufferSize)
+    {
+        if (outputStream == null) throw new IllegalArgumentException("outputStream is null");
+
+        _outputStream = outputStream;
+        _channel = null;
+        _buffer = ByteArrayPool.Rent(Math.max(bufferSize, MinimumBufferSize));
+        _channelBuffer = null;
+    }
+
+    /**
+     * Initializes a new instance of the {@link Utf8JsonTextWriter} class that writes to a specified {@link WritableByteChannel}.
+     *
+     * @param channel The {@link WritableByteChannel} to write the UTF-8 encoded Json Text to.
+     */
+    public Utf8JsonTextWriter(final WritableByteChannel channel)
+    {
+        this(channel, DefaultBufferSize);
+    }
+
+    /**
+     * Initializes a new instance of the {@link Utf8JsonTextWriter} class that writes to a specified {@link WritableByteChannel}
+     * using a specified size of the internal buffer.
+     *
+     * @param channel The {@link WritableByteChannel} to write the UTF-8 encoded Json Text to.
+     * @param bufferSize The size (in bytes) of the internal buffer.
+     */
+    public Utf8JsonTextWriter(final WritableByteChannel channel, final int bufferSize)
+    {
+        if (channel == null) throw new IllegalArgumentException("channel is null");
+
+        _outputStream = null;
+        _channel = channel;
+        _buffer = ByteArrayPool.Rent(Math.max(bufferSize, MinimumBufferSize));
+        _channelBuffer = ByteBuffer.wrap(_buffer);
+    }
+
+    @Override
+    protected void WriteStructuralCharacter(final char character) throws IOException
+    {
+        if (_bufferPosition == _buffer.length) FlushBuffer();
+
+        _buffer[_bufferPosition++] = (byte)character;
+    }
+
+    @Override
+    protected void WriteNullToken() throws IOException
+    {
+        EnsureCapacity(Null.length);
+        System.arraycopy(Null, 0, _buffer, _bufferPosition, Null.length);
+        _bufferPosition += Null.length;
+    }
+
+    @Override
+    protected void WriteStringToken(final String value) throws IOException
+    {
+        WriteStructuralCharacter(QuotationMark);
+
+        final byte[] buffer = _buffer;
+        final int length = value.length();
+        int index = 0;
+
+        while (index < length)
+        {
+            // ASCII fast path: copy characters that need neither escaping nor multi-byte
+            // encoding as long as they fit into the buffer.
+            int position = _bufferPosition;
+            final int limit = Math.min(length, index + buffer.length - position);
+
+            while (index < limit)
+            {
+                final char character = value.charAt(index);
+
+                if (character >= 0x80 || MustBeEscaped(character)) break;
+
+                buffer[position++] = (byte)character;
+                ++index;
+            }
+
+            _bufferPosition = position;
+
+            if (index == length) break;
+
+            if (index == limit)
+            {
+                FlushBuffer();
+                continue;
+            }
+
+            final int nextCharacter = index + 1 < length ? value.charAt(index + 1) : -1;
+            index += WriteSpecialCharacter(value.charAt(index), nextCharacter);
+        }
+
+        WriteStructuralCharacter(QuotationMark);
+    }
+
+    @Override
+    protected void WriteStringToken(final char[] value, final int offset, final int count) throws IOException
+    {
+        WriteStructuralCharacter(QuotationMark);
+
+        final byte[] buffer = _buffer;
+        final int end = offset + count;
+        int index = offset;
+
+        while (index < end)
+        {
+            // ASCII fast path (see WriteStringToken(String))
+            int position = _bufferPosition;
+            final int limit = Math.min(end, index + buffer.length - position);
+
+            while (index < limit)
+            {
+                final char character = value[index];
+
+                if (character >= 0x80 || MustBeEscaped(character)) break;
+
+                buffer[position++] = (byte)character;
+                ++index;
+            }
+
+            _bufferPosition = position;
+
+            if (index == end) break;
+
+            if (index == limit)
+            {
+                FlushBuffer();
+                continue;
+            }
+
+            final int nextCharacter = index + 1 < end ? value[index + 1] : -1;
+            index += WriteSpecialCharacter(value[index], nextCharacter);
+        }
+
+        WriteStructuralCharacter(QuotationMark);
+    }
+
+    @Override
+    protected void WriteEncodedPropertyName(final JsonPropertyName propertyName) throws IOException
+    {
+        final int length = propertyName.GetEncodedUtf8Length();
+
+        if (length > _buffer.length)
+        {
+            WriteStringToken(propertyName.Name);
+            WriteStructuralCharacter(Colon);
+            return;
+        }
+
+        EnsureCapacity(length);
+        _bufferPosition = propertyName.CopyEncodedUtf8BytesTo(_buffer, _bufferPosition);
+    }
+
+    @Override
+    protected void WriteIntegerToken(final int value) throws IOException
+    {
+        EnsureCapacity(AsciiFormatting.MaxIntegerLength);
+        _bufferPosition = AsciiFormatting.FormatInteger(value, _buffer, _bufferPosition);
+    }
+
+    @Override
+    protected void WriteDoubleToken(final double value) throws IOException
+    {
+        EnsureCapacity(DoubleToDecimal.MaxLength);
+        _bufferPosition = _doubleToDecimal.Format(value, _buffer, _bufferPosition);
+    }
+
+    @Override
+    protected void WriteLocalDateTimeToken(final LocalDateTime value) throws IOException
+    {
+        EnsureCapacity(AsciiFormatting.MaxLocalDateTimeLength + 2);
+        _buffer[_bufferPosition++] = QuotationMark;
+        _bufferPosition = AsciiFormatting.FormatLocalDateTime(value, _buffer, _bufferPosition);
+        _buffer[_bufferPosition++] = QuotationMark;
+    }
+
+    @Override
+    protected void WriteRawToken(final Reader jsonText) throws IOException
+    {
+        if (_rawTextBuffer == null) _rawTextBuffer = new char[RawTextBufferSize];
+
+        final char[] characters = _rawTextBuffer;
+        int carry = 0;
+        int count;
+
+        while ((count = jsonText.read(characters, carry, characters.length - carry)) >= 0)
+        {
+            final int end = carry + count;
+
+            if (end == 0) continue;
+
+            // A high surrogate at the end is kept back until its low surrogate was read.
+            final int limit = Character.isHighSurrogate(characters[end - 1]) ? end - 1 : end;
+
+            WriteRawCharacters(characters, limit);
+
+            carry = end - limit;
+            if (carry != 0) characters[0] = characters[limit];
+        }
+
+        WriteRawCharacters(characters, carry);
+    }
+
+    @Override
+    protected void FlushBuffer() throws IOException
+    {
+        if (_bufferPosition == 0) return;
+
+        if (_channel == null)
+        {
+            _outputStream.write(_buffer, 0, _bufferPosition);
+        }
+        else
+        {
+            _channelBuffer.clear();
+            _channelBuffer.limit(_bufferPosition);
+
+            while (_channelBuffer.hasRemaining())
+            {
+                _channel.write(_channelBuffer);
+            }
+        }
+
+        _bufferPosition = 0;
+    }
+
+    @Override
+    protected void FlushOutput() throws IOException
+    {
+        if (_outputStream != null) _outputStream.flush();
+    }
+
+    @Override
+    protected void CloseOutput() throws IOException
+    {
+        try
+        {
+            if (_channel == null)
+            {
+                _outputStream.close();
+            }
+            else
+            {
+                _channel.close();
+            }
+        }
+        finally
+        {
+            if (_buffer != null)
+            {
+                ByteArrayPool.Return(_buffer);
+                _buffer = null;
+            }
+        }
+    }
+
+    /**
+     * Encodes the first {@code end} characters of already serialized Json Text without escaping them.
+     */
+    private void WriteRawCharacters(final char[] value, final int end) throws IOException
+    {
+        final byte[] buffer = _buffer;
+        int index = 0;
+
+        while (index < end)
+        {
+            int position = _bufferPosition;
+            final int limit = Math.min(end, index + buffer.length - position);
+
+            while (index < limit)
+            {
+                final char character = value[index];
+
+                if (character >= 0x80) break;
+
+                buffer[position++] = (byte)character;
+                ++index;
+            }
+
+            _bufferPosition = position;
+
+            if (index == end) break;
+
+            if (index == limit)
+            {
+                FlushBuffer();
+                continue;
+            }
+
+            final int nextCharacter = index + 1 < end ? value[index + 1] : -1;
+            index += WriteSpecialCharacter(value[index], nextCharacter);
+        }
+    }
+
+    /**
+     * Writes a character that either has to be escaped or has to be encoded as a multi-byte sequence.
+     *
+     * @param character The character that has to be written.
+     * @param nextCharacter The character that follows {@code character} or {@code -1} if there is none.
+     * @return The number of characters that were written (2 if a surrogate pair was written; otherwise 1).
+     */
+    private int WriteSpecialCharacter(final char character, final int nextCharacter) throws IOException
+    {
+        EnsureCapacity(6);
+
+        if (character < 0x80)
+        {
+            WriteEscapeSequence(character);
+            return 1;
+        }
+
+        final byte[] buffer = _buffer;
+
+        if (character < 0x800)
+        {
+            buffer[_bufferPosition++] = (byte)(0xC0 | (character >> 6));
+            buffer[_bufferPosition++] = (byte)(0x80 | (character & 0x3F));
+            return 1;
+        }
+
+        if (!Character.isSurrogate(character))
+        {
+            buffer[_bufferPosition++] = (byte)(0xE0 | (character >> 12));
+            buffer[_bufferPosition++] = (byte)(0x80 | ((character >> 6) & 0x3F));
+            buffer[_bufferPosition++] = (byte)(0x80 | (character & 0x3F));
+            return 1;
+        }
+
+        if (Character.isHighSurrogate(character) && nextCharacter >= 0 && Character.isLowSurrogate((char)nextCharacter))
+        {
+            final int codePoint = Character.toCodePoint(character, (char)nextCharacter);
+            buffer[_bufferPosition++] = (byte)(0xF0 | (codePoint >> 18));
+            buffer[_bufferPosition++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[_bufferPosition++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[_bufferPosition++] = (byte)(0x80 | (codePoint & 0x3F));
+            return 2;
+        }
+
+        // A lone surrogate can not be encoded in UTF-8, but it can be represented
+        // by an escape sequence (see RFC8259 Section 8.2).
+        WriteEscapeSequence(character);
+        return 1;
+    }
+
+    /**
+     * Writes an escape sequence into the buffer. The caller has to ensure, that the buffer has enough capacity.
+     */
+    private void WriteEscapeSequence(final char character)
+    {
+        final char escapeCharacter = GetEscapeCharacter(character);
+        _buffer[_bufferPosition++] = ReverseSolidus;
+        _buffer[_bufferPosition++] = (byte)escapeCharacter;
+
+        if (escapeCharacter != 'u') return;
+
+        _buffer[_bufferPosition++] = (byte)HexDigits[(character >> 12) & 0xF];
+        _buffer[_bufferPosition++] = (byte)HexDigits[(character >> 8) & 0xF];
+        _buffer[_bufferPosition++] = (byte)HexDigits[(character >> 4) & 0xF];
+        _buffer[_bufferPosition++] = (byte)HexDigits[character & 0xF];
+    }
+
+    /**
+     * Ensures that the specified number of bytes can be written into the buffer.
+     */
+    private void EnsureCapacity(final int byteCount) throws IOException
+    {
+        if (_buffer.length - _bufferPosition < byteCount) FlushBuffer();
+    }
+}
@@ -0,0 +1,68 @@
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import de.dviererbe.healthtrack.domain.WeightRecord;
+import de.dviererbe.healthtrack.domain.WeightUnit;
+import de.dviererbe.healthtrack.persistence.IBulkMergable;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static de.dviererbe.healthtrack.infrastructure.json.WeightWidgetRepositoryJsonTextSerializer.*;
+
+public class WeightWidgetRepositoryJsonTextDeserializer extends RepositoryJsonTextDeserializerBase<WeightRecord>
+{
+    public WeightWidgetRepositoryJsonTextDeserializer(final IBulkMergable<WeightRecord> recordRepository)
+    {
+        super(recordRepository);
+    }
+
+    @Override
+    protected WeightRecord ReadRecord(final IJsonTextReader jsonTextReader)
+        throws
+            JsonError,
+            IOException
+    {
+        ExpectToken(jsonTextReader, JsonToken.StartObject);
+
+        UUID identifier = null;
+        Double value = null;
+        WeightUnit unit = null;
+        LocalDateTime timeOfMeasurement = null;
+
+        while (jsonTextReader.Read() == JsonToken.PropertyName)
+        {
+            if (jsonTextReader.ValueEquals(IdentifierPropertyName))
+            {
+                identifier = ReadIdentifier(jsonTextReader);
+            }
+            else if (jsonTextReader.ValueEquals(ValuePropertyName))
+            {
+                jsonTextReader.Read();
+                value = jsonTextReader.GetDouble();
+            }
+            else if (jsonTextReader.ValueEquals(UnitPropertyName))
+            {
+                unit = ReadEnum(jsonTextReader, WeightUnit.class);
+            }
+            else if (jsonTextReader.ValueEquals(TimeOfMeasurementPropertyName))
+            {
+                jsonTextReader.Read();
+                timeOfMeasurement = jsonTextReader.GetLocalDateTime();
+            }
+            else
+            {
+                jsonTextReader.Read();
+                jsonTextReader.Skip();
+            }
+        }
+
+        ExpectToken(jsonTextReader, JsonToken.EndObject);
+
+        return new WeightRecord(
+            RequireProperty(identifier, IdentifierPropertyName),
+            RequireProperty(value, ValuePropertyName),
+            unit,
+            timeOfMeasurement);
+    }
+}
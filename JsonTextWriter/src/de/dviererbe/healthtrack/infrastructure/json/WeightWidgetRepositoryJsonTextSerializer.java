@@ -19,7 +19,8 @@
 package de.dviererbe.healthtrack.infrastructure.json;
 
 import de.dviererbe.healthtrack.domain.WeightRecord;
-import de.dviererbe.healthtrack.persistence.IBulkQueryable;
+import de.dviererbe.healthtrack.persistence.IRecordCursorQueryable;
+import de.dviererbe.healthtrack.persistence.IRecordJsonTextWritable;
 import de.dviererbe.healthtrack.persistence.IRepositoryImplementationDetailsProvider;
 
 import java.io.IOException;
@@ -27,13 +28,26 @@ import java.io.IOException;
 public class WeightWidgetRepositoryJsonTextSerializer
     extends RepositoryJsonTextSerializerBase<WeightRecord>
 {
+    public static final JsonPropertyName IdentifierPropertyName = new JsonPropertyName("identifier");
+    public static final JsonPropertyName ValuePropertyName = new JsonPropertyName("value");
+    public static final JsonPropertyName UnitPropertyName = new JsonPropertyName("unit");
+    public static final JsonPropertyName TimeOfMeasurementPropertyName = new JsonPropertyName("timeOfMeasurement");
+
     public WeightWidgetRepositoryJsonTextSerializer(
             IRepositoryImplementationDetailsProvider repositoryImplementationDetailsProvider,
-            IBulkQueryable<WeightRecord> recordRepository)
+            IRecordCursorQueryable<WeightRecord> recordRepository)
     {
         super(repositoryImplementationDetailsProvider, recordRepository);
     }
 
+    public WeightWidgetRepositoryJsonTextSerializer(
+            IRepositoryImplementationDetailsProvider repositoryImplementationDetailsProvider,
+            IRecordCursorQueryable<WeightRecord> recordRepository,
+            IRecordJsonTextWritable recordJsonTextWritable)
+    {
+        super(repositoryImplementationDetailsProvider, recordRepository, recordJsonTextWritable);
+    }
+
     @Override
     protected void WriteRecord(IJsonTextWriter jsonTextWriter, WeightRecord weightRecord)
         throws
@@ -42,10 +56,10 @@ public class WeightWidgetRepositoryJsonTextSerializer
     {
         jsonTextWriter
         .WriteStartObject()
-        .WritePropertyName("identifier").WriteValue(weightRecord.Identifier.toString())
-        .WritePropertyName("value").WriteValue(weightRecord.Value)
-        .WritePropertyName("unit").WriteValue(weightRecord.Unit.name())
-        .WritePropertyName("timeOfMeasurement").WriteValue(weightRecord.TimeOfMeasurement)
+        .WritePropertyName(IdentifierPropertyName).WriteValue(weightRecord.Identifier.toString())
+        .WritePropertyName(ValuePropertyName).WriteValue(weightRecord.Value)
+        .WritePropertyName(UnitPropertyName).WriteValue(weightRecord.Unit.name())
+        .WritePropertyName(TimeOfMeasurementPropertyName).WriteValue(weightRecord.TimeOfMeasurement)
         .WriteEndObject();
     }
 }
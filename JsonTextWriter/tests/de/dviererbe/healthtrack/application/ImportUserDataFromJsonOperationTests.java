@@ -0,0 +1,288 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.application;
+
+import de.dviererbe.healthtrack.domain.BloodPressureRecord;
+import de.dviererbe.healthtrack.domain.BloodPressureUnit;
+import de.dviererbe.healthtrack.domain.MedicationState;
+import de.dviererbe.healthtrack.domain.StepCountRecord;
+import de.dviererbe.healthtrack.domain.WeightRecord;
+import de.dviererbe.healthtrack.domain.WeightUnit;
+import de.dviererbe.healthtrack.infrastructure.IDateTimeProvider;
+import de.dviererbe.healthtrack.infrastructure.ILogger;
+import de.dviererbe.healthtrack.infrastructure.json.BloodPressureWidgetRepositoryJsonTextDeserializer;
+import de.dviererbe.healthtrack.infrastructure.json.BloodPressureWidgetRepositoryJsonTextSerializer;
+import de.dviererbe.healthtrack.infrastructure.json.IRepositoryJsonTextDeserializer;
+import de.dviererbe.healthtrack.infrastructure.json.IRepositoryJsonTextSerializer;
+import de.dviererbe.healthtrack.infrastructure.json.InMemoryRecordRepository;
+import de.dviererbe.healthtrack.infrastructure.json.JsonTextReader;
+import de.dviererbe.healthtrack.infrastructure.json.JsonTextWriter;
+import de.dviererbe.healthtrack.infrastructure.json.StepWidgetRepositoryJsonTextDeserializer;
+import de.dviererbe.healthtrack.infrastructure.json.StepWidgetRepositoryJsonTextSerializer;
+import de.dviererbe.healthtrack.infrastructure.json.WeightWidgetRepositoryJsonTextDeserializer;
+import de.dviererbe.healthtrack.infrastructure.json.WeightWidgetRepositoryJsonTextSerializer;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class ImportUserDataFromJsonOperationTests
+{
+    private static final Executor SynchronousExecutor = Runnable::run;
+
+    @Test
+    public void Execute_Should_ImportEveryRecord_When_UserDataWasExported()
+    {
+        // Arrange:
+        final LocalDateTime now = LocalDateTime.of(2022, 7, 1, 12, 0);
+        final List<WeightRecord> weightRecords = new ArrayList<>();
+        final List<StepCountRecord> stepCountRecords = new ArrayList<>();
+        final List<BloodPressureRecord> bloodPressureRecords = new ArrayList<>();
+
+        for (int index = 0; index < 5; ++index)
+        {
+            final LocalDateTime timeOfMeasurement = now.minusDays(index);
+
+            weightRecords.add(new WeightRecord(UUID.randomUUID(), 80.5 + index, WeightUnit.Kilogram, timeOfMeasurement));
+            stepCountRecords.add(new StepCountRecord(UUID.randomUUID(), 5000 + index, 8000, timeOfMeasurement));
+            bloodPressureRecords.add(new BloodPressureRecord(
+                UUID.randomUUID(),
+                120 + index,
+                80 + index,
+                BloodPressureUnit.MillimetreOfMercury,
+                60 + index,
+                MedicationState.Taken,
+                timeOfMeasurement,
+                "note " + index));
+        }
+
+        final RecordingLogger logger = new RecordingLogger();
+        final String json = Export(weightRecords, stepCountRecords, bloodPressureRecords, 9000, now, logger);
+
+        final InMemoryRecordRepository<WeightRecord> weightRepository = new InMemoryRecordRepository<>();
+        final InMemoryRecordRepository<StepCountRecord> stepCountRepository = new InMemoryRecordRepository<>();
+        final InMemoryRecordRepository<BloodPressureRecord> bloodPressureRepository = new InMemoryRecordRepository<>();
+        final List<Integer> defaultStepCountGoals = new ArrayList<>();
+
+        final Map<Widget, IRepositoryJsonTextDeserializer> deserializers = new EnumMap<>(Widget.class);
+        deserializers.put(Widget.weight, new WeightWidgetRepositoryJsonTextDeserializer(weightRepository));
+        deserializers.put(Widget.steps, new StepWidgetRepositoryJsonTextDeserializer(stepCountRepository, defaultStepCountGoals::add));
+        deserializers.put(Widget.bloodPressure, new BloodPressureWidgetRepositoryJsonTextDeserializer(bloodPressureRepository));
+
+        final List<Exception> importErrors = new ArrayList<>();
+        final ImportUserDataFromJsonOperation operation = new ImportUserDataFromJsonOperation(
+            callback -> callback.UserDataJsonTextReaderProvided(new JsonTextReader(new StringReader(json))),
+            deserializers,
+            SynchronousExecutor,
+            SynchronousExecutor,
+            logger);
+
+        // Act:
+        operation.Execute(importErrors::add);
+
+        // Assert:
+        assertEquals(Collections.singletonList(null), importErrors);
+        assertTrue(logger.Errors.isEmpty());
+        assertEquals(Collections.singletonList(9000), defaultStepCountGoals);
+
+        assertEquals(weightRecords.size(), weightRepository.Records.size());
+        assertEquals(stepCountRecords.size(), stepCountRepository.Records.size());
+        assertEquals(bloodPressureRecords.size(), bloodPressureRepository.Records.size());
+
+        for (int index = 0; index < weightRecords.size(); ++index)
+        {
+            final WeightRecord expected = weightRecords.get(index);
+            final WeightRecord actual = weightRepository.Records.get(index);
+
+            assertEquals(expected.Identifier, actual.Identifier);
+            assertEquals(expected.Value, actual.Value, 0.0);
+            assertEquals(expected.Unit, actual.Unit);
+            assertEquals(expected.TimeOfMeasurement, actual.TimeOfMeasurement);
+        }
+
+        for (int index = 0; index < stepCountRecords.size(); ++index)
+        {
+            final StepCountRecord expected = stepCountRecords.get(index);
+            final StepCountRecord actual = stepCountRepository.Records.get(index);
+
+            assertEquals(expected.Identifier, actual.Identifier);
+            assertEquals(expected.StepCount, actual.StepCount);
+            assertEquals(expected.Goal, actual.Goal);
+            assertEquals(expected.TimeOfMeasurement, actual.TimeOfMeasurement);
+        }
+
+        for (int index = 0; index < bloodPressureRecords.size(); ++index)
+        {
+            final BloodPressureRecord expected = bloodPressureRecords.get(index);
+            final BloodPressureRecord actual = bloodPressureRepository.Records.get(index);
+
+            assertEquals(expected.Identifier, actual.Identifier);
+            assertEquals(expected.Systolic, actual.Systolic);
+            assertEquals(expected.Diastolic, actual.Diastolic);
+            assertEquals(expected.Unit, actual.Unit);
+            assertEquals(expected.Pulse, actual.Pulse);
+            assertEquals(expected.Medication, actual.Medication);
+            assertEquals(expected.TimeOfMeasurement, actual.TimeOfMeasurement);
+            assertEquals(expected.Note, actual.Note);
+        }
+    }
+
+    @Test
+    public void Execute_Should_ReportError_When_UserDataIsNotAJsonObject()
+    {
+        // Arrange:
+        final List<Exception> importErrors = new ArrayList<>();
+        final ImportUserDataFromJsonOperation operation = new ImportUserDataFromJsonOperation(
+            callback -> callback.UserDataJsonTextReaderProvided(new JsonTextReader(new StringReader("[]"))),
+            new EnumMap<>(Widget.class),
+            SynchronousExecutor,
+            SynchronousExecutor,
+            new RecordingLogger());
+
+        // Act:
+        operation.Execute(importErrors::add);
+
+        // Assert:
+        assertEquals(1, importErrors.size());
+        assertNotNull(importErrors.get(0));
+    }
+
+    private static String Export(
+        final List<WeightRecord> weightRecords,
+        final List<StepCountRecord> stepCountRecords,
+        final List<BloodPressureRecord> bloodPressureRecords,
+        final int defaultStepCountGoal,
+        final LocalDateTime now,
+        final ILogger logger)
+    {
+        final Map<Widget, IRepositoryJsonTextSerializer> serializers = new EnumMap<>(Widget.class);
+        serializers.put(Widget.weight, new WeightWidgetRepositoryJsonTextSerializer(
+            Collections::emptyList,
+            new InMemoryRecordRepository<>(weightRecords)));
+        serializers.put(Widget.steps, new StepWidgetRepositoryJsonTextSerializer(
+            Collections::emptyList,
+            new InMemoryRecordRepository<>(stepCountRecords),
+            () -> defaultStepCountGoal));
+        serializers.put(Widget.bloodPressure, new BloodPressureWidgetRepositoryJsonTextSerializer(
+            Collections::emptyList,
+            new InMemoryRecordRepository<>(bloodPressureRecords)));
+
+        final StringWriter output = new StringWriter();
+        final List<Exception> exportErrors = new ArrayList<>();
+        final ExportUserDataAsJsonOperation operation = new ExportUserDataAsJsonOperation(
+            new ExportUserDataAsJsonOperation.Options(true, false, false, true, true),
+            callback -> callback.UserDataJsonTextWriterProvided(new JsonTextWriter(output)),
+            serializers,
+            SynchronousExecutor,
+            SynchronousExecutor,
+            SynchronousExecutor,
+            null,
+            new IDateTimeProvider()
+            {
+                @Override
+                public LocalDateTime Now()
+                {
+                    return now;
+                }
+
+                @Override
+                public LocalDate Today()
+                {
+                    return now.toLocalDate();
+                }
+            },
+            logger);
+
+        operation.Execute(exportErrors::add);
+
+        assertEquals(Collections.singletonList(null), exportErrors);
+        return output.toString();
+    }
+
+    /**
+     * Collects the logged errors, so that the tests can check that nothing went wrong silently.
+     */
+    private static class RecordingLogger implements ILogger
+    {
+        public final List<String> Errors = new ArrayList<>();
+
+        @Override
+        public void LogError(String tag, String message)
+        {
+            Errors.add(message);
+        }
+
+        @Override
+        public void LogError(String tag, String message, Throwable throwable)
+        {
+            Errors.add(message);
+        }
+
+        @Override
+        public void LogWarning(String tag, String message)
+        {
+        }
+
+        @Override
+        public void LogWarning(String tag, String message, Throwable throwable)
+        {
+        }
+
+        @Override
+        public void LogInformation(String tag, String message)
+        {
+        }
+
+        @Override
+        public void LogInformation(String tag, String message, Throwable throwable)
+        {
+        }
+
+        @Override
+        public void LogDebug(String tag, String message)
+        {
+        }
+
+        @Override
+        public void LogDebug(String tag, String message, Throwable throwable)
+        {
+        }
+
+        @Override
+        public void LogVerbose(String tag, String message)
+        {
+        }
+
+        @Override
+        public void LogVerbose(String tag, String message, Throwable throwable)
+        {
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AsciiFormattingTests
+{
+    private static final int RandomValueCount = 2_000_000;
+
+    @Test
+    public void FormatInteger_Should_MatchIntegerToString_When_ValuesAreRandom()
+    {
+        // Arrange:
+        final byte[] buffer = new byte[AsciiFormatting.MaxIntegerLength];
+        final Random random = new Random(11);
+
+        for (int count = 0; count < RandomValueCount; ++count)
+        {
+            // vary the magnitude, so that all digit counts are covered
+            final int value = random.nextInt() >> random.nextInt(32);
+
+            // Act:
+            final int length = AsciiFormatting.FormatInteger(value, buffer, 0);
+
+            // Assert:
+            assertEquals(Integer.toString(value), new String(buffer, 0, length, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void FormatInteger_Should_MatchIntegerToString_When_ValueIsEdgeCase()
+    {
+        // Arrange:
+        final byte[] buffer = new byte[AsciiFormatting.MaxIntegerLength];
+        final int[] values = {0, 9, 10, -1, -10, 5000, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+        for (final int value : values)
+        {
+            // Act:
+            final int length = AsciiFormatting.FormatInteger(value, buffer, 0);
+
+            // Assert:
+            assertEquals(Integer.toString(value), new String(buffer, 0, length, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void FormatLocalDateTime_Should_MatchIsoLocalDateTime_When_ValuesAreRandom()
+    {
+        // Arrange:
+        final byte[] buffer = new byte[AsciiFormatting.MaxLocalDateTimeLength];
+        final Random random = new Random(8601);
+
+        for (int count = 0; count < RandomValueCount; ++count)
+        {
+            final LocalDateTime value = LocalDateTime.of(
+                random.nextInt(10000),
+                1 + random.nextInt(12),
+                1 + random.nextInt(28),
+                random.nextInt(24),
+                random.nextInt(60),
+                random.nextInt(60),
+                RandomNanoOfSecond(random));
+
+            // Act:
+            final int length = AsciiFormatting.FormatLocalDateTime(value, buffer, 0);
+
+            // Assert:
+            assertEquals(
+                value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                new String(buffer, 0, length, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void FormatLocalDateTime_Should_MatchIsoLocalDateTime_When_YearHasMoreThanFourDigitsOrIsNegative()
+    {
+        // Arrange:
+        final byte[] buffer = new byte[AsciiFormatting.MaxLocalDateTimeLength];
+        final LocalDateTime[] values =
+        {
+            LocalDateTime.MIN,
+            LocalDateTime.MAX,
+            LocalDateTime.of(-1, 1, 1, 0, 0),
+            LocalDateTime.of(-9999, 12, 31, 23, 59, 59, 1),
+            LocalDateTime.of(-10000, 1, 1, 0, 0),
+            LocalDateTime.of(10000, 1, 1, 0, 0, 0, 100_000_000),
+        };
+
+        for (final LocalDateTime value : values)
+        {
+            // Act:
+            final int length = AsciiFormatting.FormatLocalDateTime(value, buffer, 0);
+
+            // Assert:
+            assertEquals(
+                value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                new String(buffer, 0, length, StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static int RandomNanoOfSecond(final Random random)
+    {
+        switch (random.nextInt(4))
+        {
+            case 0: return 0;
+            case 1: return random.nextInt(1000) * 1_000_000;
+            case 2: return random.nextInt(1_000_000) * 1_000;
+            default: return random.nextInt(1_000_000_000);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import de.dviererbe.healthtrack.domain.BloodPressureRecord;
+import de.dviererbe.healthtrack.domain.BloodPressureUnit;
+import de.dviererbe.healthtrack.domain.MedicationState;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class BloodPressureWidgetRepositoryJsonTextDeserializerTests
+{
+    @Test
+    public void DeserializeFromJson_Should_StoreEveryRecord_When_RecordsWereSerialized() throws Exception
+    {
+        // Arrange:
+        final List<BloodPressureRecord> records = new ArrayList<>();
+        final MedicationState[] medicationStates = MedicationState.values();
+        final BloodPressureUnit[] units = BloodPressureUnit.values();
+
+        for (int index = 0; index < 10; ++index)
+        {
+            final LocalDateTime timeOfMeasurement = LocalDateTime.of(2022, 7, 1, 12, 0).minusHours(index);
+            final String note = index % 2 == 0 ? null : "note \"" + index + "\"\n";
+
+            records.add(new BloodPressureRecord(
+                UUID.randomUUID(),
+                120 + index,
+                80 + index,
+                units[index % units.length],
+                60 + index,
+                medicationStates[index % medicationStates.length],
+                timeOfMeasurement,
+                note));
+        }
+
+        final String json = Serialize(records);
+        final InMemoryRecordRepository<BloodPressureRecord> repository = new InMemoryRecordRepository<>();
+        final BloodPressureWidgetRepositoryJsonTextDeserializer deserializer =
+            new BloodPressureWidgetRepositoryJsonTextDeserializer(repository);
+
+        // Act:
+        Deserialize(deserializer, json);
+
+        // Assert:
+        assertEquals(records.size(), repository.Records.size());
+
+        for (int index = 0; index < records.size(); ++index)
+        {
+            final BloodPressureRecord expected = records.get(index);
+            final BloodPressureRecord actual = repository.Records.get(index);
+
+            assertEquals(expected.Identifier, actual.Identifier);
+            assertEquals(expected.Systolic, actual.Systolic);
+            assertEquals(expected.Diastolic, actual.Diastolic);
+            assertEquals(expected.Unit, actual.Unit);
+            assertEquals(expected.Pulse, actual.Pulse);
+            assertEquals(expected.Medication, actual.Medication);
+            assertEquals(expected.TimeOfMeasurement, actual.TimeOfMeasurement);
+            assertEquals(expected.Note, actual.Note);
+        }
+    }
+
+    @Test(expected = JsonError.class)
+    public void DeserializeFromJson_Should_Throw_When_RecordHasNoSystolicValue() throws Exception
+    {
+        // Arrange:
+        final String json =
+            "{\"records\": [{\"identifier\": \"" + UUID.randomUUID() + "\", \"diastolic\": 80, \"pulse\": 60}]}";
+        final BloodPressureWidgetRepositoryJsonTextDeserializer deserializer =
+            new BloodPressureWidgetRepositoryJsonTextDeserializer(new InMemoryRecordRepository<>());
+
+        // Act:
+        Deserialize(deserializer, json);
+    }
+
+    @Test(expected = JsonError.class)
+    public void DeserializeFromJson_Should_Throw_When_UnitIsUnknown() throws Exception
+    {
+        // Arrange:
+        final String json =
+            "{\"records\": [{\"identifier\": \"" + UUID.randomUUID() + "\", \"systolic\": 120, \"diastolic\": 80, " +
+            "\"unit\": \"Bar\", \"pulse\": 60}]}";
+        final BloodPressureWidgetRepositoryJsonTextDeserializer deserializer =
+            new BloodPressureWidgetRepositoryJsonTextDeserializer(new InMemoryRecordRepository<>());
+
+        // Act:
+        Deserialize(deserializer, json);
+    }
+
+    private static String Serialize(final List<BloodPressureRecord> records) throws Exception
+    {
+        final BloodPressureWidgetRepositoryJsonTextSerializer serializer =
+            new BloodPressureWidgetRepositoryJsonTextSerializer(
+                Collections::emptyList,
+                new InMemoryRecordRepository<>(records));
+
+        final StringWriter output = new StringWriter();
+
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(output))
+        {
+            serializer.SerializeAsJson(jsonTextWriter);
+        }
+
+        return output.toString();
+    }
+
+    private static void Deserialize(final BloodPressureWidgetRepositoryJsonTextDeserializer deserializer, final String json)
+        throws Exception
+    {
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader(json)))
+        {
+            jsonTextReader.Read();
+            deserializer.DeserializeFromJson(jsonTextReader);
+
+            assertEquals(JsonToken.EndObject, jsonTextReader.GetToken());
+            assertEquals(JsonToken.EndOfDocument, jsonTextReader.Read());
+        }
+    }
+}
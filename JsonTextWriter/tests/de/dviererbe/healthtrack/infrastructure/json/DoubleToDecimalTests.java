@@ -0,0 +1,120 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DoubleToDecimalTests
+{
+    private static final int RandomValueCount = 2_000_000;
+
+    @Test
+    public void Format_Should_WriteExpectedText_When_ValueIsKnown()
+    {
+        // Arrange:
+        final double[] values =
+        {
+            0.0, -0.0, 1.0, -1.0, 72.5, 0.1, 0.3, 100.0, 5000.0, 120.25,
+            9999999.0, 1.0E7, 0.001, 1.0E-4, 123456789.0, 1.0E22, 1.0E23,
+            Double.MIN_VALUE, 2.0E-323, Double.MIN_NORMAL, Double.MAX_VALUE
+        };
+        final String[] expectedValues =
+        {
+            "0.0", "-0.0", "1.0", "-1.0", "72.5", "0.1", "0.3", "100.0", "5000.0", "120.25",
+            "9999999.0", "1.0E7", "0.001", "1.0E-4", "1.23456789E8", "1.0E22", "1.0E23",
+            "4.9E-324", "2.0E-323", "2.2250738585072014E-308", "1.7976931348623157E308"
+        };
+
+        for (int index = 0; index < values.length; ++index)
+        {
+            // Act:
+            final String actualValue = Format(new DoubleToDecimal(), values[index]);
+
+            // Assert:
+            assertEquals(expectedValues[index], actualValue);
+        }
+    }
+
+    @Test
+    public void Format_Should_WriteShortestRoundTripDecimal_When_BitPatternsAreRandom()
+    {
+        // Arrange:
+        final DoubleToDecimal doubleToDecimal = new DoubleToDecimal();
+        final Random random = new Random(8259);
+
+        for (int count = 0; count < RandomValueCount; ++count)
+        {
+            final double value = Double.longBitsToDouble(random.nextLong());
+
+            if (Double.isNaN(value) || Double.isInfinite(value)) continue;
+
+            // Act & Assert:
+            AssertShortestRoundTripDecimal(doubleToDecimal, value);
+        }
+    }
+
+    @Test
+    public void Format_Should_WriteShortestRoundTripDecimal_When_ValuesAreRandomMeasurements()
+    {
+        // Arrange:
+        final DoubleToDecimal doubleToDecimal = new DoubleToDecimal();
+        final Random random = new Random(3629);
+
+        for (int count = 0; count < RandomValueCount; ++count)
+        {
+            // values like body weights with one to three decimal places
+            final double scale = Math.pow(10, 1 + random.nextInt(3));
+            final double value = Math.round(random.nextDouble() * 500 * scale) / scale;
+
+            // Act & Assert:
+            AssertShortestRoundTripDecimal(doubleToDecimal, value);
+        }
+    }
+
+    /**
+     * Asserts that the formatted value is parsed to exactly the same value and that it is not longer than
+     * the output of {@link Double#toString(double)}. (Before Java 19 {@link Double#toString(double)} does
+     * not always produce the shortest decimal, so only the length is compared.)
+     */
+    private static void AssertShortestRoundTripDecimal(final DoubleToDecimal doubleToDecimal, final double value)
+    {
+        final String actualValue = Format(doubleToDecimal, value);
+        final String referenceValue = Double.toString(value);
+
+        assertEquals(referenceValue, Double.doubleToRawLongBits(value), Double.doubleToRawLongBits(Double.parseDouble(actualValue)));
+        assertTrue(actualValue + " is longer than " + referenceValue, actualValue.length() <= referenceValue.length());
+        assertEquals(referenceValue.indexOf('E') >= 0, actualValue.indexOf('E') >= 0);
+    }
+
+    private static String Format(final DoubleToDecimal doubleToDecimal, final double value)
+    {
+        final byte[] buffer = new byte[DoubleToDecimal.MaxLength + 2];
+        buffer[0] = '#';
+
+        final int end = doubleToDecimal.Format(value, buffer, 1);
+
+        assertTrue(end - 1 <= DoubleToDecimal.MaxLength);
+        return new String(buffer, 1, end - 1, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import de.dviererbe.healthtrack.persistence.BulkMergeResult;
+import de.dviererbe.healthtrack.persistence.IBulkMergable;
+import de.dviererbe.healthtrack.persistence.IRecordCursor;
+import de.dviererbe.healthtrack.persistence.IRecordCursorQueryable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps records in a list, so that they can be serialized from and deserialized into it.
+ * The records are returned in the order of the list; the opened and closed cursors are counted.
+ *
+ * @param <TRecord> The type of the stored records.
+ */
+public class InMemoryRecordRepository<TRecord> implements IBulkMergable<TRecord>, IRecordCursorQueryable<TRecord>
+{
+    public final List<TRecord> Records = new ArrayList<>();
+    public int Batches = 0;
+    public int OpenedCursors = 0;
+    public int ClosedCursors = 0;
+
+    public InMemoryRecordRepository()
+    {
+    }
+
+    public InMemoryRecordRepository(final List<TRecord> records)
+    {
+        Records.addAll(records);
+    }
+
+    @Override
+    public BulkMergeResult CreateOrUpdateRecords(final Iterable<TRecord> records)
+    {
+        ++Batches;
+        int createdRecords = 0;
+
+        for (final TRecord record : records)
+        {
+            Records.add(record);
+            ++createdRecords;
+        }
+
+        return new BulkMergeResult(createdRecords, 0);
+    }
+
+    @Override
+    public long GetRecordCount()
+    {
+        return Records.size();
+    }
+
+    @Override
+    public IRecordCursor<TRecord> OpenRecordsDescending()
+    {
+        ++OpenedCursors;
+
+        return new IRecordCursor<TRecord>()
+        {
+            private int _index = -1;
+
+            @Override
+            public boolean MoveNext()
+            {
+                return ++_index < Records.size();
+            }
+
+            @Override
+            public TRecord GetCurrent()
+            {
+                return Records.get(_index);
+            }
+
+            @Override
+            public void close()
+            {
+                ++ClosedCursors;
+            }
+        };
+    }
+}
@@ -0,0 +1,239 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.*;
+
+public class JsonTextReaderTests
+{
+    @Test
+    public void Read_Should_ReturnTokensInDocumentOrder_When_DocumentIsValid() throws Exception
+    {
+        // Arrange:
+        final String json = " {\"a\": [1, -2.5e3, \"x\", true, false, null], \"b\": {}} ";
+        final JsonToken[] expectedTokens =
+            {
+                JsonToken.StartObject,
+                JsonToken.PropertyName,
+                JsonToken.StartArray,
+                JsonToken.Number,
+                JsonToken.Number,
+                JsonToken.String,
+                JsonToken.True,
+                JsonToken.False,
+                JsonToken.Null,
+                JsonToken.EndArray,
+                JsonToken.PropertyName,
+                JsonToken.StartObject,
+                JsonToken.EndObject,
+                JsonToken.EndObject,
+                JsonToken.EndOfDocument,
+            };
+
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader(json)))
+        {
+            for (final JsonToken expectedToken : expectedTokens)
+            {
+                // Act:
+                final JsonToken token = jsonTextReader.Read();
+
+                // Assert:
+                assertEquals(expectedToken, token);
+            }
+        }
+    }
+
+    @Test
+    public void GetString_Should_ReturnUnescapedString_When_StringContainsEscapeSequences() throws Exception
+    {
+        // Arrange:
+        final String json = "\"a\\\"b\\\\c\\/d\\n\\u00e4\\ud83d\\ude00\"";
+
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader(json)))
+        {
+            jsonTextReader.Read();
+
+            // Act:
+            final String value = jsonTextReader.GetString();
+
+            // Assert:
+            assertEquals("a\"b\\c/d\nä😀", value);
+        }
+    }
+
+    @Test
+    public void GetString_Should_ReturnCompleteString_When_StringIsLargerThanBuffer() throws Exception
+    {
+        // Arrange:
+        final StringBuilder expectedValue = new StringBuilder();
+
+        for (int index = 0; index < 1000; ++index)
+        {
+            expectedValue.append(index % 10);
+        }
+
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader("\"" + expectedValue + "\""), 16))
+        {
+            jsonTextReader.Read();
+
+            // Act:
+            final String value = jsonTextReader.GetString();
+
+            // Assert:
+            assertEquals(expectedValue.toString(), value);
+        }
+    }
+
+    @Test
+    public void GetInt_Should_ReturnValue_When_NumberIsAnInteger() throws Exception
+    {
+        // Arrange:
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader("[-2147483648, 2147483647]")))
+        {
+            jsonTextReader.Read();
+
+            // Act & Assert:
+            jsonTextReader.Read();
+            assertEquals(Integer.MIN_VALUE, jsonTextReader.GetInt());
+            jsonTextReader.Read();
+            assertEquals(Integer.MAX_VALUE, jsonTextReader.GetInt());
+        }
+    }
+
+    @Test(expected = JsonError.class)
+    public void GetInt_Should_Throw_When_NumberIsOutOfRange() throws Exception
+    {
+        // Arrange:
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader("2147483648")))
+        {
+            jsonTextReader.Read();
+
+            // Act:
+            jsonTextReader.GetInt();
+        }
+    }
+
+    @Test
+    public void GetDouble_Should_ReturnValue_When_NumberHasFractionAndExponent() throws Exception
+    {
+        // Arrange:
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader("-12.5E-1")))
+        {
+            jsonTextReader.Read();
+
+            // Act:
+            final double value = jsonTextReader.GetDouble();
+
+            // Assert:
+            assertEquals(-1.25, value, 0.0);
+        }
+    }
+
+    @Test
+    public void GetLocalDateTime_Should_ReturnValue_When_StringIsIsoDateTime() throws Exception
+    {
+        // Arrange:
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader("\"2022-07-01T13:37:00\"")))
+        {
+            jsonTextReader.Read();
+
+            // Act:
+            final LocalDateTime value = jsonTextReader.GetLocalDateTime();
+
+            // Assert:
+            assertEquals(LocalDateTime.of(2022, 7, 1, 13, 37), value);
+        }
+    }
+
+    @Test
+    public void ValueEquals_Should_ReturnTrue_When_PropertyNameMatches() throws Exception
+    {
+        // Arrange:
+        final JsonPropertyName propertyName = new JsonPropertyName("records");
+
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader("{\"records\": 1, \"record\": 2}")))
+        {
+            jsonTextReader.Read();
+
+            // Act & Assert:
+            jsonTextReader.Read();
+            assertTrue(jsonTextReader.ValueEquals(propertyName));
+            jsonTextReader.Read();
+            jsonTextReader.Read();
+            assertFalse(jsonTextReader.ValueEquals(propertyName));
+        }
+    }
+
+    @Test
+    public void Skip_Should_SkipNestedContainer_When_CurrentTokenStartsContainer() throws Exception
+    {
+        // Arrange:
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader("[{\"a\": [1, {\"b\": []}]}, 2]")))
+        {
+            jsonTextReader.Read();
+            jsonTextReader.Read();
+
+            // Act:
+            jsonTextReader.Skip();
+
+            // Assert:
+            assertEquals(JsonToken.EndObject, jsonTextReader.GetToken());
+            assertEquals(JsonToken.Number, jsonTextReader.Read());
+            assertEquals(2, jsonTextReader.GetInt());
+        }
+    }
+
+    @Test(expected = JsonError.class)
+    public void Read_Should_Throw_When_ValueSeparatorIsMissing() throws Exception
+    {
+        // Arrange:
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader("[1 2]")))
+        {
+            // Act:
+            while (jsonTextReader.Read() != JsonToken.EndOfDocument) { }
+        }
+    }
+
+    @Test(expected = JsonError.class)
+    public void Read_Should_Throw_When_NumberHasLeadingZero() throws Exception
+    {
+        // Arrange:
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader("01")))
+        {
+            // Act:
+            jsonTextReader.Read();
+        }
+    }
+
+    @Test(expected = JsonError.class)
+    public void Read_Should_Throw_When_DocumentIsTruncated() throws Exception
+    {
+        // Arrange:
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader("{\"a\": [1, 2")))
+        {
+            // Act:
+            while (jsonTextReader.Read() != JsonToken.EndOfDocument) { }
+        }
+    }
+}
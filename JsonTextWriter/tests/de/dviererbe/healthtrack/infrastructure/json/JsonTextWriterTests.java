@@ -0,0 +1,216 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.*;
+
+public class JsonTextWriterTests
+{
+    @Test
+    public void WriteStartObject_Should_InsertSeparators_When_PropertiesAreWritten() throws Exception
+    {
+        // Arrange:
+        final StringWriter output = new StringWriter();
+
+        // Act:
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(output))
+        {
+            jsonTextWriter
+                .WriteStartObject()
+                    .WritePropertyName("created")
+                    .WriteValue(LocalDateTime.of(2022, 7, 1, 13, 37, 0))
+                    .WritePropertyName("records")
+                    .WriteStartArray()
+                        .WriteStartObject()
+                            .WritePropertyName("value")
+                            .WriteValue(72.5)
+                            .WritePropertyName("count")
+                            .WriteValue(Integer.MIN_VALUE)
+                            .WritePropertyName("note")
+                            .WriteNull()
+                        .WriteEndObject()
+                        .WriteStartArray()
+                        .WriteEndArray()
+                        .WriteValue(0)
+                    .WriteEndArray()
+                .WriteEndObject();
+        }
+
+        // Assert:
+        final String expectedValue = "{\"created\":\"2022-07-01T13:37:00\",\"records\":[{\"value\":72.5,\"count\":-2147483648,\"note\":null},[],0]}";
+        assertEquals(expectedValue, output.toString());
+    }
+
+    @Test
+    public void WriteValue_Should_EscapeCharacters_When_StringContainsCharactersThatMustBeEscaped() throws Exception
+    {
+        // Arrange:
+        final StringWriter output = new StringWriter();
+
+        // Act:
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(output))
+        {
+            jsonTextWriter.WriteValue("\"Quote\" \\ / \b\f\n\r\t \u0000\u001f ä€");
+        }
+
+        // Assert:
+        final String expectedValue = "\"\\\"Quote\\\" \\\\ / \\b\\f\\n\\r\\t \\u0000\\u001f ä€\"";
+        assertEquals(expectedValue, output.toString());
+    }
+
+    @Test
+    public void WriteValue_Should_WriteCompleteString_When_StringIsLongerThanBuffer() throws Exception
+    {
+        // Arrange:
+        final StringWriter output = new StringWriter();
+        final StringBuilder valueBuilder = new StringBuilder();
+
+        for (int index = 0; index < 1000; ++index)
+        {
+            valueBuilder.append(index % 10 == 0 ? '\n' : (char)('a' + index % 26));
+        }
+
+        final String value = valueBuilder.toString();
+
+        // Act:
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(output, 64))
+        {
+            jsonTextWriter.WriteStartArray().WriteValue(value).WriteValue(value).WriteEndArray();
+        }
+
+        // Assert:
+        final String escapedValue = "\"" + value.replace("\n", "\\n") + "\"";
+        final String expectedValue = "[" + escapedValue + "," + escapedValue + "]";
+        assertEquals(expectedValue, output.toString());
+    }
+
+    @Test
+    public void WritePropertyName_Should_WriteSameJsonTextAsString_When_PropertyNameIsPreEncoded() throws Exception
+    {
+        // Arrange:
+        final JsonPropertyName propertyName = new JsonPropertyName("na\"me\u00e4\n");
+        final StringWriter expectedOutput = new StringWriter();
+        final StringWriter actualOutput = new StringWriter();
+
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(expectedOutput))
+        {
+            jsonTextWriter.WriteStartObject().WritePropertyName("first").WriteValue(1).WritePropertyName(propertyName.Name).WriteValue(2).WriteEndObject();
+        }
+
+        // Act:
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(actualOutput))
+        {
+            jsonTextWriter.WriteStartObject().WritePropertyName("first").WriteValue(1).WritePropertyName(propertyName).WriteValue(2).WriteEndObject();
+        }
+
+        // Assert:
+        assertEquals("{\"first\":1,\"na\\\"me\u00e4\\n\":2}", actualOutput.toString());
+        assertEquals(expectedOutput.toString(), actualOutput.toString());
+    }
+
+    @Test
+    public void WriteRawValue_Should_CopyJsonTextAndInsertSeparators_When_FragmentIsLongerThanBuffer() throws Exception
+    {
+        // Arrange:
+        final StringBuilder fragmentBuilder = new StringBuilder("[");
+
+        for (int index = 0; index < 100; ++index)
+        {
+            fragmentBuilder.append(index == 0 ? "" : ",").append("{\"n\u00e4me\":\"\\\"").append(index).append("\"}");
+        }
+
+        final String fragment = fragmentBuilder.append("]").toString();
+        final StringWriter output = new StringWriter();
+
+        // Act:
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(output, 64))
+        {
+            jsonTextWriter
+                .WriteStartArray()
+                    .WriteValue(0)
+                    .WriteRawValue(new StringReader(fragment))
+                    .WriteRawValue(new StringReader("null"))
+                .WriteEndArray();
+        }
+
+        // Assert:
+        assertEquals("[0," + fragment + ",null]", output.toString());
+    }
+
+    @Test(expected = JsonError.class)
+    public void WriteValue_Should_ThrowJsonError_When_NoPropertyNameWasWrittenInsideOfObject() throws JsonError, IOException
+    {
+        // Arrange:
+        final JsonTextWriter jsonTextWriter = new JsonTextWriter(new StringWriter());
+        jsonTextWriter.WriteStartObject();
+
+        // Act:
+        jsonTextWriter.WriteValue(42);
+    }
+
+    @Test(expected = JsonError.class)
+    public void WritePropertyName_Should_ThrowJsonError_When_WrittenInsideOfArray() throws JsonError, IOException
+    {
+        // Arrange:
+        final JsonTextWriter jsonTextWriter = new JsonTextWriter(new StringWriter());
+        jsonTextWriter.WriteStartArray();
+
+        // Act:
+        jsonTextWriter.WritePropertyName("name");
+    }
+
+    @Test(expected = JsonError.class)
+    public void WriteEndObject_Should_ThrowJsonError_When_ArrayIsOpen() throws JsonError, IOException
+    {
+        // Arrange:
+        final JsonTextWriter jsonTextWriter = new JsonTextWriter(new StringWriter());
+        jsonTextWriter.WriteStartObject().WritePropertyName("array").WriteStartArray();
+
+        // Act:
+        jsonTextWriter.WriteEndObject();
+    }
+
+    @Test(expected = JsonError.class)
+    public void WriteValue_Should_ThrowJsonError_When_RootValueWasAlreadyWritten() throws JsonError, IOException
+    {
+        // Arrange:
+        final JsonTextWriter jsonTextWriter = new JsonTextWriter(new StringWriter());
+        jsonTextWriter.WriteStartObject().WriteEndObject();
+
+        // Act:
+        jsonTextWriter.WriteValue("second root value");
+    }
+
+    @Test(expected = JsonError.class)
+    public void WriteValue_Should_ThrowJsonError_When_ValueIsNaN() throws JsonError, IOException
+    {
+        // Arrange:
+        final JsonTextWriter jsonTextWriter = new JsonTextWriter(new StringWriter());
+
+        // Act:
+        jsonTextWriter.WriteValue(Double.NaN);
+    }
+}
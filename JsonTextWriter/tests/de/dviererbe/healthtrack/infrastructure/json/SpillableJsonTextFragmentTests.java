@@ -0,0 +1,109 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.Reader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class SpillableJsonTextFragmentTests
+{
+    @Rule
+    public final TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void OpenReader_Should_ReadWrittenJsonText_When_FragmentFitsIntoMemory() throws Exception
+    {
+        // Arrange:
+        final File spillDirectory = _temporaryFolder.newFolder();
+
+        try (final SpillableJsonTextFragment fragment = new SpillableJsonTextFragment(spillDirectory, 1024))
+        {
+            // Act:
+            fragment.GetWriter().WriteStartArray().WriteValue("wärt").WriteValue(1).WriteEndArray().close();
+
+            // Assert:
+            assertEquals("[\"wärt\",1]", ReadToEnd(fragment));
+            assertEquals(0, spillDirectory.list().length);
+        }
+    }
+
+    @Test
+    public void OpenReader_Should_ReadWrittenJsonText_When_FragmentIsSpilledIntoFile() throws Exception
+    {
+        // Arrange:
+        final File spillDirectory = _temporaryFolder.newFolder();
+        final StringWriter expectedOutput = new StringWriter();
+
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(expectedOutput))
+        {
+            WriteRecords(jsonTextWriter);
+        }
+
+        try (final SpillableJsonTextFragment fragment = new SpillableJsonTextFragment(spillDirectory, 1024))
+        {
+            // Act:
+            final IJsonTextWriter fragmentWriter = fragment.GetWriter();
+            WriteRecords(fragmentWriter);
+            fragmentWriter.close();
+
+            // Assert:
+            assertEquals(expectedOutput.toString(), ReadToEnd(fragment));
+            assertEquals(1, spillDirectory.list().length);
+        }
+
+        assertEquals(0, spillDirectory.list().length);
+    }
+
+    private static void WriteRecords(final IJsonTextWriter jsonTextWriter) throws Exception
+    {
+        jsonTextWriter.WriteStartArray();
+
+        for (int index = 0; index < 1000; ++index)
+        {
+            jsonTextWriter.WriteStartObject().WritePropertyName("välue").WriteValue(index).WriteEndObject();
+        }
+
+        jsonTextWriter.WriteEndArray();
+    }
+
+    private static String ReadToEnd(final IJsonTextFragment fragment) throws Exception
+    {
+        final StringBuilder content = new StringBuilder();
+        final char[] buffer = new char[256];
+
+        try (final Reader reader = fragment.OpenReader())
+        {
+            int count;
+
+            while ((count = reader.read(buffer)) >= 0)
+            {
+                content.append(buffer, 0, count);
+            }
+        }
+
+        return content.toString();
+    }
+}
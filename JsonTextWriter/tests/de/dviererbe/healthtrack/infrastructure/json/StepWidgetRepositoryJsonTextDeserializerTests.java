@@ -0,0 +1,147 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import de.dviererbe.healthtrack.domain.StepCountRecord;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class StepWidgetRepositoryJsonTextDeserializerTests
+{
+    @Test
+    public void DeserializeFromJson_Should_StoreRecordsAndDefaultStepCountGoal_When_RepositoryWasSerialized() throws Exception
+    {
+        // Arrange:
+        final List<StepCountRecord> records = new ArrayList<>();
+
+        for (int index = 0; index < 10; ++index)
+        {
+            final LocalDateTime timeOfMeasurement = LocalDateTime.of(2022, 7, 1, 0, 0).minusDays(index);
+            records.add(new StepCountRecord(UUID.randomUUID(), 1000 * index, 8000 + index, timeOfMeasurement));
+        }
+
+        final String json = Serialize(records, 12345);
+        final InMemoryRecordRepository<StepCountRecord> repository = new InMemoryRecordRepository<>();
+        final List<Integer> defaultStepCountGoals = new ArrayList<>();
+        final StepWidgetRepositoryJsonTextDeserializer deserializer =
+            new StepWidgetRepositoryJsonTextDeserializer(repository, defaultStepCountGoals::add);
+
+        // Act:
+        Deserialize(deserializer, json);
+
+        // Assert:
+        assertEquals(Collections.singletonList(12345), defaultStepCountGoals);
+        assertEquals(records.size(), repository.Records.size());
+
+        for (int index = 0; index < records.size(); ++index)
+        {
+            final StepCountRecord expected = records.get(index);
+            final StepCountRecord actual = repository.Records.get(index);
+
+            assertEquals(expected.Identifier, actual.Identifier);
+            assertEquals(expected.StepCount, actual.StepCount);
+            assertEquals(expected.Goal, actual.Goal);
+            assertEquals(expected.TimeOfMeasurement, actual.TimeOfMeasurement);
+        }
+    }
+
+    @Test
+    public void DeserializeFromJson_Should_SetDefaultStepCountGoal_When_PropertyFollowsRecords() throws Exception
+    {
+        // Arrange:
+        final String json =
+            "{\"implementations\": [{\"name\": \"test\"}], \"records\": [], \"defaultStepCountGoal\": 6000, \"unknown\": {\"a\": [1, 2]}}";
+        final List<Integer> defaultStepCountGoals = new ArrayList<>();
+        final InMemoryRecordRepository<StepCountRecord> repository = new InMemoryRecordRepository<>();
+        final StepWidgetRepositoryJsonTextDeserializer deserializer =
+            new StepWidgetRepositoryJsonTextDeserializer(repository, defaultStepCountGoals::add);
+
+        // Act:
+        Deserialize(deserializer, json);
+
+        // Assert:
+        assertEquals(Collections.singletonList(6000), defaultStepCountGoals);
+        assertTrue(repository.Records.isEmpty());
+    }
+
+    @Test(expected = JsonError.class)
+    public void DeserializeFromJson_Should_Throw_When_DefaultStepCountGoalIsNotAnInteger() throws Exception
+    {
+        // Arrange:
+        final String json = "{\"defaultStepCountGoal\": \"many\"}";
+        final StepWidgetRepositoryJsonTextDeserializer deserializer =
+            new StepWidgetRepositoryJsonTextDeserializer(new InMemoryRecordRepository<>(), goal -> {});
+
+        // Act:
+        Deserialize(deserializer, json);
+    }
+
+    @Test(expected = JsonError.class)
+    public void DeserializeFromJson_Should_Throw_When_RecordHasNoStepCount() throws Exception
+    {
+        // Arrange:
+        final String json =
+            "{\"records\": [{\"identifier\": \"" + UUID.randomUUID() + "\", \"goal\": 8000, \"timeOfMeasurement\": \"2022-07-01T00:00:00\"}]}";
+        final StepWidgetRepositoryJsonTextDeserializer deserializer =
+            new StepWidgetRepositoryJsonTextDeserializer(new InMemoryRecordRepository<>(), goal -> {});
+
+        // Act:
+        Deserialize(deserializer, json);
+    }
+
+    private static String Serialize(final List<StepCountRecord> records, final int defaultStepCountGoal) throws Exception
+    {
+        final StepWidgetRepositoryJsonTextSerializer serializer =
+            new StepWidgetRepositoryJsonTextSerializer(
+                Collections::emptyList,
+                new InMemoryRecordRepository<>(records),
+                () -> defaultStepCountGoal);
+
+        final StringWriter output = new StringWriter();
+
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(output))
+        {
+            serializer.SerializeAsJson(jsonTextWriter);
+        }
+
+        return output.toString();
+    }
+
+    private static void Deserialize(final StepWidgetRepositoryJsonTextDeserializer deserializer, final String json)
+        throws Exception
+    {
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader(json)))
+        {
+            jsonTextReader.Read();
+            deserializer.DeserializeFromJson(jsonTextReader);
+
+            assertEquals(JsonToken.EndObject, jsonTextReader.GetToken());
+            assertEquals(JsonToken.EndOfDocument, jsonTextReader.Read());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.*;
+
+public class Utf8JsonTextWriterTests
+{
+    @Test
+    public void WriteStartObject_Should_InsertSeparators_When_PropertiesAreWritten() throws Exception
+    {
+        // Arrange:
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act:
+        try (final Utf8JsonTextWriter jsonTextWriter = new Utf8JsonTextWriter(output))
+        {
+            jsonTextWriter
+                .WriteStartObject()
+                    .WritePropertyName("created")
+                    .WriteValue(LocalDateTime.of(2022, 7, 1, 13, 37, 0))
+                    .WritePropertyName("records")
+                    .WriteStartArray()
+                        .WriteStartObject()
+                            .WritePropertyName("value")
+                            .WriteValue(72.5)
+                            .WritePropertyName("count")
+                            .WriteValue(Integer.MIN_VALUE)
+                            .WritePropertyName("note")
+                            .WriteNull()
+                        .WriteEndObject()
+                        .WriteValue(0)
+                    .WriteEndArray()
+                .WriteEndObject();
+        }
+
+        // Assert:
+        final String expectedValue = "{\"created\":\"2022-07-01T13:37:00\",\"records\":[{\"value\":72.5,\"count\":-2147483648,\"note\":null},0]}";
+        assertEquals(expectedValue, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void WriteValue_Should_EncodeStringAsUtf8_When_StringContainsNonAsciiCharacters() throws Exception
+    {
+        // Arrange:
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final String value = "Gewicht äöü € 😀 \"\\\n";
+
+        // Act:
+        try (final Utf8JsonTextWriter jsonTextWriter = new Utf8JsonTextWriter(output))
+        {
+            jsonTextWriter.WriteValue(value);
+        }
+
+        // Assert:
+        final byte[] expectedValue = "\"Gewicht äöü € 😀 \\\"\\\\\\n\"".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expectedValue, output.toByteArray());
+    }
+
+    @Test
+    public void WriteValue_Should_EscapeLoneSurrogate_When_StringContainsLoneSurrogate() throws Exception
+    {
+        // Arrange:
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act:
+        try (final Utf8JsonTextWriter jsonTextWriter = new Utf8JsonTextWriter(output))
+        {
+            jsonTextWriter.WriteValue("a\ud83db");
+        }
+
+        // Assert:
+        final String expectedValue = "\"a\\ud83db\"";
+        assertEquals(expectedValue, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void WriteValue_Should_WriteCompleteString_When_StringIsLongerThanBuffer() throws Exception
+    {
+        // Arrange:
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final StringBuilder valueBuilder = new StringBuilder();
+
+        for (int index = 0; index < 1000; ++index)
+        {
+            valueBuilder.append(index % 7 == 0 ? '€' : (char)('a' + index % 26));
+        }
+
+        final String value = valueBuilder.toString();
+
+        // Act:
+        try (final Utf8JsonTextWriter jsonTextWriter = new Utf8JsonTextWriter(Channels.newChannel(output), 64))
+        {
+            jsonTextWriter.WriteStartArray().WriteValue(value).WriteValue(value).WriteEndArray();
+        }
+
+        // Assert:
+        final String expectedValue = "[\"" + value + "\",\"" + value + "\"]";
+        assertEquals(expectedValue, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void WritePropertyName_Should_WriteUtf8EncodedName_When_PropertyNameIsPreEncoded() throws Exception
+    {
+        // Arrange:
+        final JsonPropertyName propertyName = new JsonPropertyName("gewicht\u00e4\"");
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act:
+        try (final Utf8JsonTextWriter jsonTextWriter = new Utf8JsonTextWriter(output))
+        {
+            jsonTextWriter.WriteStartObject().WritePropertyName(propertyName).WriteValue(1).WritePropertyName(propertyName).WriteValue(2).WriteEndObject();
+        }
+
+        // Assert:
+        final String expectedValue = "{\"gewicht\u00e4\\\"\":1,\"gewicht\u00e4\\\"\":2}";
+        assertEquals(expectedValue, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void WriteValue_Should_WriteSameJsonTextAsString_When_ValueIsCharacterRange() throws Exception
+    {
+        // Arrange:
+        final String value = "\"a\u00e4\u20ac\ud83d\ude00\n\ud800";
+        final char[] characters = ("xx" + value + "yy").toCharArray();
+        final ByteArrayOutputStream expectedOutput = new ByteArrayOutputStream();
+        final ByteArrayOutputStream actualOutput = new ByteArrayOutputStream();
+
+        try (final Utf8JsonTextWriter jsonTextWriter = new Utf8JsonTextWriter(expectedOutput))
+        {
+            jsonTextWriter.WriteValue(value);
+        }
+
+        // Act:
+        try (final Utf8JsonTextWriter jsonTextWriter = new Utf8JsonTextWriter(actualOutput))
+        {
+            jsonTextWriter.WriteValue(characters, 2, value.length());
+        }
+
+        // Assert:
+        assertArrayEquals(expectedOutput.toByteArray(), actualOutput.toByteArray());
+    }
+
+    @Test
+    public void WriteRawValue_Should_EncodeSurrogatePair_When_PairIsSplitBetweenReads() throws Exception
+    {
+        // Arrange:
+        final StringBuilder fragmentBuilder = new StringBuilder("[\"");
+
+        // places the surrogate pair on the boundary of the internal read buffer (2048 characters)
+        while (fragmentBuilder.length() < 2047) fragmentBuilder.append('a');
+
+        fragmentBuilder.append("\ud83d\ude00\u00e4\\\"\"]");
+        final String fragment = fragmentBuilder.toString();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act:
+        try (final Utf8JsonTextWriter jsonTextWriter = new Utf8JsonTextWriter(output, 64))
+        {
+            jsonTextWriter
+                .WriteStartObject()
+                    .WritePropertyName("fragment")
+                    .WriteRawValue(new StringReader(fragment))
+                    .WritePropertyName("next")
+                    .WriteValue(1)
+                .WriteEndObject();
+        }
+
+        // Assert:
+        final String expectedValue = "{\"fragment\":" + fragment + ",\"next\":1}";
+        assertEquals(expectedValue, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
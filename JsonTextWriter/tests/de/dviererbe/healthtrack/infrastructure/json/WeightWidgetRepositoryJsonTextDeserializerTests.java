@@ -0,0 +1,113 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import de.dviererbe.healthtrack.domain.WeightRecord;
+import de.dviererbe.healthtrack.domain.WeightUnit;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class WeightWidgetRepositoryJsonTextDeserializerTests
+{
+    @Test
+    public void DeserializeFromJson_Should_StoreEveryRecordInBatches_When_RecordsWereSerialized() throws Exception
+    {
+        // Arrange:
+        final List<WeightRecord> records = new ArrayList<>();
+
+        for (int index = 0; index < 4500; ++index)
+        {
+            final LocalDateTime timeOfMeasurement = LocalDateTime.of(2022, 1, 1, 0, 0).minusMinutes(index);
+            records.add(new WeightRecord(UUID.randomUUID(), index + 0.5, WeightUnit.Kilogram, timeOfMeasurement));
+        }
+
+        final String json = Serialize(records);
+        final InMemoryRecordRepository<WeightRecord> repository = new InMemoryRecordRepository<>();
+        final WeightWidgetRepositoryJsonTextDeserializer deserializer =
+            new WeightWidgetRepositoryJsonTextDeserializer(repository);
+
+        // Act:
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader(json)))
+        {
+            jsonTextReader.Read();
+            deserializer.DeserializeFromJson(jsonTextReader);
+
+            assertEquals(JsonToken.EndObject, jsonTextReader.GetToken());
+            assertEquals(JsonToken.EndOfDocument, jsonTextReader.Read());
+        }
+
+        // Assert:
+        assertEquals(3, repository.Batches);
+        assertEquals(records.size(), repository.Records.size());
+
+        for (int index = 0; index < records.size(); ++index)
+        {
+            final WeightRecord expected = records.get(index);
+            final WeightRecord actual = repository.Records.get(index);
+
+            assertEquals(expected.Identifier, actual.Identifier);
+            assertEquals(expected.Value, actual.Value, 0.0);
+            assertEquals(expected.Unit, actual.Unit);
+            assertEquals(expected.TimeOfMeasurement, actual.TimeOfMeasurement);
+        }
+    }
+
+    @Test(expected = JsonError.class)
+    public void DeserializeFromJson_Should_Throw_When_RecordHasNoIdentifier() throws Exception
+    {
+        // Arrange:
+        final String json = "{\"records\": [{\"value\": 1.0, \"unit\": \"Kilogram\"}]}";
+        final WeightWidgetRepositoryJsonTextDeserializer deserializer =
+            new WeightWidgetRepositoryJsonTextDeserializer(new InMemoryRecordRepository<>());
+
+        try (final JsonTextReader jsonTextReader = new JsonTextReader(new StringReader(json)))
+        {
+            jsonTextReader.Read();
+
+            // Act:
+            deserializer.DeserializeFromJson(jsonTextReader);
+        }
+    }
+
+    private static String Serialize(final List<WeightRecord> records) throws Exception
+    {
+        final WeightWidgetRepositoryJsonTextSerializer serializer =
+            new WeightWidgetRepositoryJsonTextSerializer(
+                Collections::emptyList,
+                new InMemoryRecordRepository<>(records));
+
+        final StringWriter output = new StringWriter();
+
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(output))
+        {
+            serializer.SerializeAsJson(jsonTextWriter);
+        }
+
+        return output.toString();
+    }
+}
\ No newline at end of file
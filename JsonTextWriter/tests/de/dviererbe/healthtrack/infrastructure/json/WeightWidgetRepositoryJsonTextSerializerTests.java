@@ -0,0 +1,127 @@
+/*
+    Health Track
+    Copyright (C) 2022  Dominik Viererbe
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as
+    published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package de.dviererbe.healthtrack.infrastructure.json;
+
+import de.dviererbe.healthtrack.domain.WeightRecord;
+import de.dviererbe.healthtrack.domain.WeightUnit;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.*;
+
+public class WeightWidgetRepositoryJsonTextSerializerTests
+{
+    @Test
+    public void SerializeAsJson_Should_WriteEveryRecordInCursorOrder_When_RecordsAreStreamed() throws Exception
+    {
+        // Arrange:
+        final List<WeightRecord> records = new ArrayList<>();
+
+        for (int index = 0; index < 1000; ++index)
+        {
+            final LocalDateTime timeOfMeasurement = LocalDateTime.of(2022, 1, 1, 0, 0).minusMinutes(index);
+            records.add(new WeightRecord(UUID.randomUUID(), index, WeightUnit.Kilogram, timeOfMeasurement));
+        }
+
+        final InMemoryRecordRepository<WeightRecord> repository = new InMemoryRecordRepository<>(records);
+        final WeightWidgetRepositoryJsonTextSerializer serializer =
+            new WeightWidgetRepositoryJsonTextSerializer(Collections::emptyList, repository);
+        final StringWriter output = new StringWriter();
+
+        // Act:
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(output))
+        {
+            serializer.SerializeAsJson(jsonTextWriter);
+        }
+
+        // Assert:
+        final String json = output.toString();
+        int position = 0;
+
+        for (final WeightRecord record : records)
+        {
+            final String identifier = record.Identifier.toString();
+            final int index = json.indexOf(identifier, position);
+
+            assertTrue("record is missing or out of order", index >= 0);
+            assertEquals("record is written more than once", index, json.lastIndexOf(identifier));
+            position = index;
+        }
+
+        assertEquals(1, repository.OpenedCursors);
+        assertEquals(1, repository.ClosedCursors);
+    }
+
+    @Test
+    public void SerializeAsJson_Should_StopAndCloseCursor_When_ProgressMonitorCancels() throws Exception
+    {
+        // Arrange:
+        final List<WeightRecord> records = new ArrayList<>();
+
+        for (int index = 0; index < 10; ++index)
+        {
+            records.add(new WeightRecord(UUID.randomUUID(), index, WeightUnit.Kilogram, LocalDateTime.of(2022, 1, 1, 0, index)));
+        }
+
+        final InMemoryRecordRepository<WeightRecord> repository = new InMemoryRecordRepository<>(records);
+        final WeightWidgetRepositoryJsonTextSerializer serializer =
+            new WeightWidgetRepositoryJsonTextSerializer(Collections::emptyList, repository);
+        final long[] progress = {-1, 0};
+
+        final ISerializationProgressMonitor progressMonitor = new ISerializationProgressMonitor()
+        {
+            @Override
+            public void SerializationStarted(final long recordCount)
+            {
+                progress[0] = recordCount;
+            }
+
+            @Override
+            public void RecordWritten()
+            {
+                if (++progress[1] == 3) throw new CancellationException();
+            }
+        };
+
+        // Act:
+        CancellationException cancellationException = null;
+
+        try (final JsonTextWriter jsonTextWriter = new JsonTextWriter(new StringWriter()))
+        {
+            serializer.SerializeAsJson(jsonTextWriter, progressMonitor);
+        }
+        catch (CancellationException exception)
+        {
+            cancellationException = exception;
+        }
+
+        // Assert:
+        assertNotNull(cancellationException);
+        assertEquals(records.size(), progress[0]);
+        assertEquals(3, progress[1]);
+        assertEquals(1, repository.ClosedCursors);
+    }
+}
\ No newline at end of file